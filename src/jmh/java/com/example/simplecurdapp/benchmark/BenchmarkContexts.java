@@ -0,0 +1,46 @@
+package com.example.simplecurdapp.benchmark;
+
+import com.example.simplecurdapp.SimpleCurdAppApplication;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Boots the application without a web server against an in-memory H2 database
+ * in MySQL mode. Redis is taken from {@code spring.data.redis.host/port} as usual.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    /**
+     * @param redis false to skip the Redis pub/sub subscriptions, so benchmarks that
+     *              never touch the cache run without a Redis server
+     */
+    static ConfigurableApplicationContext start(String databaseName, boolean redis) {
+        return new SpringApplicationBuilder(SimpleCurdAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> {
+                    if (!redis) {
+                        context.addBeanFactoryPostProcessor(beanFactory -> {
+                            for (String name : beanFactory.getBeanNamesForType(RedisMessageListenerContainer.class, true, false)) {
+                                ((BeanDefinitionRegistry) beanFactory).removeBeanDefinition(name);
+                            }
+                        });
+                    }
+                })
+                // Command-line arguments so they override application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.simplecurdapp.benchmark;
+
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixtures shaped like production rows.
+ */
+final class BenchmarkData {
+
+    static final String[] CATEGORIES = {"Electronics", "Books", "Garden", "Toys", "Grocery", "Sports"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Product> products(int count, boolean withIds) {
+        List<Product> products = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Product " + i,
+                    "Description of product " + i + ", long enough to resemble a real catalogue entry.",
+                    BigDecimal.valueOf(1000 + i * 7L, 2), i % 50, CATEGORIES[i % CATEGORIES.length]);
+            product.setIsAvailable(i % 10 != 0);
+            if (withIds) {
+                product.setId((long) i + 1);
+                product.setVersion(0L);
+                product.setCreatedAt(now);
+                product.setUpdatedAt(now);
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<User> users(int count, boolean withIds) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPhone("+1-555-" + String.format("%07d", i));
+            user.setAddress(i + " Main Street, Springfield");
+            user.setIsActive(i % 10 != 0);
+            if (withIds) {
+                user.setId((long) i + 1);
+                user.setVersion(0L);
+            }
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.simplecurdapp.benchmark;
+
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import com.example.simplecurdapp.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService} read paths that go straight to the database, through
+ * the real Spring proxies and Hibernate, against an embedded H2 catalogue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceReadBenchmark {
+
+    @Param({"1000", "10000"})
+    public int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start("products" + catalogueSize, false);
+        context.getBean(ProductRepository.class).saveAll(BenchmarkData.products(catalogueSize, false));
+        productService = context.getBean(ProductService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> getProductsByCategory() {
+        return productService.getProductsByCategory("Books");
+    }
+
+    @Benchmark
+    public List<Product> getInStockProducts() {
+        return productService.getInStockProducts();
+    }
+
+    @Benchmark
+    public List<Product> getProductsByPriceRange() {
+        return productService.getProductsByPriceRange(new BigDecimal("10.00"), new BigDecimal("12.00"));
+    }
+
+    @Benchmark
+    public List<String> getAllCategories() {
+        return productService.getAllCategories();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.simplecurdapp.benchmark;
+
+import com.example.simplecurdapp.cache.codec.CacheMarkerCodec;
+import com.example.simplecurdapp.cache.codec.CacheValueFormat;
+import com.example.simplecurdapp.cache.codec.CodecRedisSerializer;
+import com.example.simplecurdapp.cache.codec.ProductCodec;
+import com.example.simplecurdapp.cache.codec.UserCodec;
+import com.example.simplecurdapp.config.RedisConfig;
+import com.example.simplecurdapp.model.Product;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one cached {@link Product} value through Redis value serializers:
+ * <ul>
+ *   <li>{@code everything}: JSON with {@code DefaultTyping.EVERYTHING}, type ids on every value;</li>
+ *   <li>{@code nonFinal}: JSON with type ids only on non-final types;</li>
+ *   <li>{@code typed}: JSON without type ids, target class fixed per serializer;</li>
+ *   <li>{@code binary}: {@link CodecRedisSerializer} writing binary, LZ4 from 512 bytes;</li>
+ *   <li>{@code binaryUncompressed}: the same with compression off.</li>
+ * </ul>
+ * The stored size of each value is printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"everything", "nonFinal", "typed", "binary", "binaryUncompressed"})
+    public String serializer;
+
+    /** {@code catalogue}: a typical row; {@code longDescription}: a 4 KB description. */
+    @Param({"catalogue", "longDescription"})
+    public String payload;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Product product;
+    private byte[] serialized;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer(RedisConfig.redisObjectMapper());
+        redisSerializer = switch (serializer) {
+            case "everything" -> json;
+            case "nonFinal" -> new GenericJackson2JsonRedisSerializer(nonFinalTypingMapper());
+            case "typed" -> (RedisSerializer<Object>) (RedisSerializer<?>)
+                    new Jackson2JsonRedisSerializer<>(new ObjectMapper().registerModule(new JavaTimeModule()), Product.class);
+            case "binary" -> codecSerializer(json, 512);
+            case "binaryUncompressed" -> codecSerializer(json, Integer.MAX_VALUE);
+            default -> throw new IllegalArgumentException("Unknown serializer " + serializer);
+        };
+        product = BenchmarkData.products(1, true).get(0);
+        if ("longDescription".equals(payload)) {
+            product.setDescription("Detailed specification paragraph for a catalogue product. ".repeat(70));
+        }
+        serialized = redisSerializer.serialize(product);
+    }
+
+    // Printed into the run log next to the timings; the stored size does not vary per iteration
+    @TearDown
+    public void reportSize() {
+        System.out.printf("%n%s/%s stored size: %d bytes%n", serializer, payload, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return redisSerializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return redisSerializer.deserialize(serialized);
+    }
+
+    private static RedisSerializer<Object> codecSerializer(RedisSerializer<Object> json, int compressionThreshold) {
+        return new CodecRedisSerializer(List.of(new ProductCodec(), new UserCodec(), new CacheMarkerCodec()),
+                json, CacheValueFormat.BINARY, compressionThreshold);
+    }
+
+    private static ObjectMapper nonFinalTypingMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder().allowIfSubType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.simplecurdapp.benchmark;
+
+import com.example.simplecurdapp.cache.UserCache;
+import com.example.simplecurdapp.model.User;
+import com.example.simplecurdapp.repository.UserRepository;
+import com.example.simplecurdapp.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService#getUserData} on a cache hit and on a miss. Needs a Redis
+ * server at {@code spring.data.redis.host/port} (default localhost:6379); pass
+ * e.g. {@code -Djmh.args="-jvmArgs -Dspring.data.redis.host=redis UserCacheBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCacheBenchmark {
+
+    private static final int USERS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserCache userCache;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.start("users", true);
+        ids = context.getBean(UserRepository.class).saveAll(BenchmarkData.users(USERS, false))
+                .stream().map(User::getId).toList();
+        userService = context.getBean(UserService.class);
+        userCache = context.getBean(UserCache.class);
+        ids.forEach(userService::getUserData);
+    }
+
+    @TearDown
+    public void tearDown() {
+        userCache.evictAll(ids);
+        context.close();
+    }
+
+    @Benchmark
+    public User hit() {
+        return userService.getUserData(randomId());
+    }
+
+    /**
+     * Includes the DEL that forces the miss: one extra Redis round trip.
+     */
+    @Benchmark
+    public User miss() {
+        Long id = randomId();
+        userCache.evict(id);
+        return userService.getUserData(id);
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
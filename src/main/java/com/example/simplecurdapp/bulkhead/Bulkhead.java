@@ -0,0 +1,86 @@
+package com.example.simplecurdapp.bulkhead;
+
+import com.example.simplecurdapp.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fair semaphore capping concurrent calls into one backend. Callers over the
+ * limit queue for up to {@code maxWait}, then fail with {@link BulkheadFullException}.
+ *
+ * <p>Metrics, tagged {@code name}: {@code bulkhead.active} and {@code bulkhead.queued}
+ * gauges, a {@code bulkhead.wait} timer of the time spent queueing (zero for calls
+ * that got a permit straight away) and a {@code bulkhead.rejected} counter.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final Duration maxWait;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitTimer = Timer.builder("bulkhead.wait")
+                .description("Time spent waiting for a bulkhead permit")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("bulkhead.rejected")
+                .description("Calls that gave up waiting for a bulkhead permit")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.active", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Calls holding a bulkhead permit")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", queued, AtomicInteger::get)
+                .description("Calls waiting for a bulkhead permit")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Takes a permit, waiting up to {@code maxWait}. Every successful call must be
+     * paired with exactly one {@link #release()}.
+     */
+    public void acquire() {
+        // The timed variant honours fairness; untimed tryAcquire() would barge past queued callers
+        long start = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new BulkheadFullException(name, maxConcurrent, maxWait);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            throw new BulkheadFullException(name, maxConcurrent, maxWait);
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.simplecurdapp.bulkhead;
+
+import com.example.simplecurdapp.exception.BulkheadFullException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Holds a {@link Bulkhead} permit for as long as a connection is open, so no
+ * more callers than the bulkhead allows compete for the connection pool.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Bulkhead bulkhead;
+
+    public BulkheadDataSource(DataSource target, Bulkhead bulkhead) {
+        super(target);
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return wrap(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return wrap(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            bulkhead.acquire();
+        } catch (BulkheadFullException ex) {
+            // Surfaces through Spring's translation as a connection failure with this cause
+            throw new SQLTransientConnectionException(ex.getMessage(), ex);
+        }
+    }
+
+    private Connection wrap(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException ex) {
+            bulkhead.release();
+            throw ex;
+        }
+        return PermitReleasingProxy.wrap(connection, bulkhead);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.simplecurdapp.bulkhead;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+
+/**
+ * Holds a {@link Bulkhead} permit for each connection a template borrows, i.e. for
+ * each Redis command or pipeline. Not for pub/sub: a subscription keeps its
+ * connection, and its permit, for good.
+ */
+public class BulkheadRedisConnectionFactory implements RedisConnectionFactory {
+
+    private final RedisConnectionFactory delegate;
+    private final Bulkhead bulkhead;
+
+    public BulkheadRedisConnectionFactory(RedisConnectionFactory delegate, Bulkhead bulkhead) {
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        bulkhead.acquire();
+        try {
+            return PermitReleasingProxy.wrap(delegate.getConnection(), bulkhead);
+        } catch (RuntimeException ex) {
+            bulkhead.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        bulkhead.acquire();
+        try {
+            return PermitReleasingProxy.wrap(delegate.getClusterConnection(), bulkhead);
+        } catch (RuntimeException ex) {
+            bulkhead.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return delegate.getConvertPipelineAndTxResults();
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        return delegate.getSentinelConnection();
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return delegate.translateExceptionIfPossible(ex);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.simplecurdapp.bulkhead;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Wraps the application's primary {@code dataSource} bean in a
+ * {@link BulkheadDataSource}, unless it already bulkheads its connections (the
+ * read/write router wraps each of its pools).
+ */
+public class DataSourceBulkheadPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<Bulkhead> bulkhead;
+
+    public DataSourceBulkheadPostProcessor(ObjectProvider<Bulkhead> bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource && !isBulkheaded(dataSource)) {
+            return new BulkheadDataSource(dataSource, bulkhead.getObject());
+        }
+        return bean;
+    }
+
+    private static boolean isBulkheaded(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(BulkheadDataSource.class);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.simplecurdapp.bulkhead;
+
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Proxies a connection so its first {@code close()} hands the bulkhead permit back.
+ */
+final class PermitReleasingProxy implements InvocationHandler {
+
+    private final Object target;
+    private final Bulkhead bulkhead;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private PermitReleasingProxy(Object target, Bulkhead bulkhead) {
+        this.target = target;
+        this.bulkhead = bulkhead;
+    }
+
+    /**
+     * Wraps {@code target} in a proxy implementing all of its interfaces.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T wrap(T target, Bulkhead bulkhead) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(target);
+        return (T) Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces,
+                new PermitReleasingProxy(target, bulkhead));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                if (method.getParameterCount() == 0) {
+                    try {
+                        return method.invoke(target);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            bulkhead.release();
+                        }
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
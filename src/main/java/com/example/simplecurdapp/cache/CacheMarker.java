@@ -0,0 +1,10 @@
+package com.example.simplecurdapp.cache;
+
+/**
+ * Sentinel values stored in Redis in place of an entity.
+ */
+public enum CacheMarker {
+
+    /** The id was looked up and does not exist in the database (negative cache entry). */
+    ABSENT
+}
@@ -0,0 +1,340 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.metrics.CacheMetrics;
+import com.example.simplecurdapp.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for {@link Product} with two tiers: a bounded in-process
+ * near cache and the shared Redis {@code Product_{id}} keys.
+ *
+ * <p>Invalidations run after commit, delete the Redis key and are broadcast on
+ * {@link #INVALIDATION_CHANNEL} so every replica drops its near-cache copy.
+ * Each id maps to a version stripe that is bumped on every invalidation; a
+ * loader captures the version before reading the database and {@link #put}
+ * discards its result if an invalidation happened in between, so a slow read
+ * cannot re-populate the cache with data that was already overwritten.
+ *
+ * <p>Lookups, evictions and Redis round trips are recorded through {@link CacheMetrics}
+ * under {@code cache=product}.
+ *
+ * <p>Returned instances are shared between callers and must be treated as read-only.
+ */
+@Component
+public class ProductCache implements MessageListener {
+
+    public static final String KEY_PREFIX = "Product_";
+    public static final String INVALIDATION_CHANNEL = "product-cache-invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+    private static final String CACHE = "product";
+    private static final int VERSION_STRIPES = 1024;
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+    // Redis writes one getAll call may issue for products it had to load
+    private static final int MAX_BACKFILL = 1000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics cacheMetrics;
+    private final Cache<Long, Product> nearCache;
+    private final Duration redisTtl;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public ProductCache(RedisTemplate<String, Object> redisTemplate,
+                        StringRedisTemplate stringRedisTemplate,
+                        CacheMetrics cacheMetrics,
+                        @Value("${app.cache.product.near.max-size:10000}") long nearMaxSize,
+                        @Value("${app.cache.product.near.ttl:30s}") Duration nearTtl,
+                        @Value("${app.cache.product.redis.ttl:10m}") Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheMetrics = cacheMetrics;
+        this.redisTtl = redisTtl;
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(nearTtl)
+                .removalListener(cacheMetrics.<Long, Product>nearCacheRemovals(CACHE))
+                .build();
+    }
+
+    /**
+     * Returns the cached product, checking the near cache first and then Redis,
+     * or null on a miss. Redis failures are treated as misses.
+     */
+    public Product get(Long id) {
+        Product product = getLocal(id);
+        if (product != null) {
+            return product;
+        }
+        long version = version(id);
+        try {
+            Object cached = cacheMetrics.redis(KEY_PREFIX, "get")
+                    .record(() -> redisTemplate.opsForValue().get(KEY_PREFIX + id));
+            if (cached instanceof Product redisProduct) {
+                cacheMetrics.lookup(CACHE, CacheMetrics.REDIS, CacheMetrics.HIT);
+                putNear(redisProduct, version);
+                return redisProduct;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Redis read failed for {}{}, falling back to database", KEY_PREFIX, id, ex);
+        }
+        cacheMetrics.lookup(CACHE, CacheMetrics.REDIS, CacheMetrics.MISS);
+        return null;
+    }
+
+    /**
+     * Returns the product only if it is in this replica's near cache, never
+     * touching Redis.
+     */
+    public Product getLocal(Long id) {
+        Product product = nearCache.getIfPresent(id);
+        cacheMetrics.lookup(CACHE, CacheMetrics.NEAR, product != null ? CacheMetrics.HIT : CacheMetrics.MISS);
+        return product;
+    }
+
+    /**
+     * Stores a freshly loaded product in this replica's near cache only, unless it
+     * was invalidated after {@code version} was captured. Returns whether it was
+     * stored, i.e. whether the caller may write it to Redis as well.
+     */
+    public boolean putLocal(Product product, long version) {
+        return putNear(product, version);
+    }
+
+    /**
+     * Resolves many ids at once: near cache first, then the rest in chunks of at
+     * most {@code chunkSize} ids, each with one MGET, one {@code loader} call for
+     * its misses and one pipelined write to backfill Redis. Only the first
+     * {@value #MAX_BACKFILL} loaded products of a call are written back, so a
+     * listing that matches most of the catalog does not turn into a Redis write
+     * burst. Returns the products that exist, keyed by id.
+     */
+    public Map<Long, Product> getAll(Collection<Long> ids, int chunkSize,
+                                     Function<Collection<Long>, ? extends Iterable<Product>> loader) {
+        Map<Long, Product> found = new HashMap<>(nearCache.getAllPresent(ids));
+        List<Long> remaining = new ArrayList<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                remaining.add(id);
+            }
+        }
+        cacheMetrics.lookups(CACHE, CacheMetrics.NEAR, CacheMetrics.HIT, found.size());
+        cacheMetrics.lookups(CACHE, CacheMetrics.NEAR, CacheMetrics.MISS, remaining.size());
+
+        int backfillBudget = MAX_BACKFILL;
+        for (int from = 0; from < remaining.size(); from += chunkSize) {
+            List<Long> chunk = remaining.subList(from, Math.min(from + chunkSize, remaining.size()));
+            backfillBudget -= readThrough(chunk, loader, found, backfillBudget);
+        }
+        return found;
+    }
+
+    /**
+     * Current invalidation version for {@code id}; capture it before loading
+     * from the database and pass it to {@link #put}.
+     */
+    public long version(Long id) {
+        return versions.get(stripe(id));
+    }
+
+    /**
+     * Stores a freshly loaded product in both tiers unless it was invalidated
+     * after {@code version} was captured.
+     */
+    public void put(Product product, long version) {
+        if (!putNear(product, version)) {
+            return;
+        }
+        try {
+            cacheMetrics.redis(KEY_PREFIX, "set")
+                    .record(() -> redisTemplate.opsForValue().set(KEY_PREFIX + product.getId(), product, redisTtl));
+        } catch (RuntimeException ex) {
+            log.warn("Redis write failed for {}{}", KEY_PREFIX, product.getId(), ex);
+        }
+    }
+
+    /**
+     * Evicts {@code id} from every tier on every replica once the current
+     * transaction commits.
+     */
+    public void invalidate(Long id) {
+        AfterCommit.run(() -> {
+            evictLocal(id);
+            try {
+                Boolean deleted = cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(KEY_PREFIX + id));
+                cacheMetrics.evictions(CACHE, CacheMetrics.REDIS, CacheMetrics.INVALIDATED, Boolean.TRUE.equals(deleted) ? 1 : 0);
+                stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + id);
+            } catch (RuntimeException ex) {
+                log.warn("Redis invalidation failed for {}{}", KEY_PREFIX, id, ex);
+            }
+        });
+    }
+
+    /**
+     * Writes freshly inserted products to Redis in one pipelined round trip.
+     */
+    public void putAll(Collection<Product> products) {
+        Map<String, Product> entries = new HashMap<>(products.size() * 2);
+        for (Product product : products) {
+            entries.put(KEY_PREFIX + product.getId(), product);
+        }
+        try {
+            setAll(entries);
+        } catch (RuntimeException ex) {
+            log.warn("Redis write failed for {} products", entries.size(), ex);
+        }
+    }
+
+    /**
+     * Bulk form of {@link #invalidate(Long)}: one multi-key DEL and one broadcast
+     * per {@value #MAX_IDS_PER_MESSAGE} ids.
+     */
+    public void invalidateAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> idList = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            List<String> keys = new ArrayList<>(idList.size());
+            for (Long id : idList) {
+                evictLocal(id);
+                keys.add(KEY_PREFIX + id);
+            }
+            try {
+                Long deleted = cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(keys));
+                cacheMetrics.evictions(CACHE, CacheMetrics.REDIS, CacheMetrics.INVALIDATED,
+                        deleted != null ? deleted.intValue() : 0);
+                for (int from = 0; from < idList.size(); from += MAX_IDS_PER_MESSAGE) {
+                    List<Long> slice = idList.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, idList.size()));
+                    StringJoiner payload = new StringJoiner(",", nodeId + ":", "");
+                    slice.forEach(id -> payload.add(id.toString()));
+                    stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, payload.toString());
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Redis invalidation failed for {} products", idList.size(), ex);
+            }
+        });
+    }
+
+    // Payload is "<nodeId>:<id>[,<id>...]"; messages from this node were already applied locally
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            for (String id : payload.substring(separator + 1).split(",")) {
+                evictLocal(Long.valueOf(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed product invalidation message '{}'", payload);
+        }
+    }
+
+    // One chunk of getAll; returns how many products were written back to Redis
+    private int readThrough(List<Long> chunk, Function<Collection<Long>, ? extends Iterable<Product>> loader,
+                            Map<Long, Product> found, int backfillBudget) {
+        Map<Long, Long> loadVersions = new HashMap<>(chunk.size() * 2);
+        for (Long id : chunk) {
+            loadVersions.put(id, version(id));
+        }
+        List<Long> misses = new ArrayList<>();
+        List<Object> cached = multiGet(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            Long id = chunk.get(i);
+            if (cached.get(i) instanceof Product product) {
+                found.put(id, product);
+                putNear(product, loadVersions.get(id));
+            } else {
+                misses.add(id);
+            }
+        }
+        cacheMetrics.lookups(CACHE, CacheMetrics.REDIS, CacheMetrics.HIT, chunk.size() - misses.size());
+        cacheMetrics.lookups(CACHE, CacheMetrics.REDIS, CacheMetrics.MISS, misses.size());
+        if (misses.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Product> backfill = new HashMap<>(Math.min(misses.size(), Math.max(backfillBudget, 0)) * 2);
+        for (Product product : loader.apply(misses)) {
+            found.put(product.getId(), product);
+            if (putNear(product, loadVersions.get(product.getId())) && backfill.size() < backfillBudget) {
+                backfill.put(KEY_PREFIX + product.getId(), product);
+            }
+        }
+        try {
+            setAll(backfill);
+        } catch (RuntimeException ex) {
+            log.warn("Redis backfill failed for {} products", backfill.size(), ex);
+        }
+        return backfill.size();
+    }
+
+    private List<Object> multiGet(List<Long> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(KEY_PREFIX + id);
+        }
+        try {
+            List<Object> values = cacheMetrics.redis(KEY_PREFIX, "mget")
+                    .record(() -> redisTemplate.opsForValue().multiGet(keys));
+            if (values != null) {
+                return values;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Redis MGET failed for {} products, falling back to database", ids.size(), ex);
+        }
+        return Arrays.asList(new Object[ids.size()]);
+    }
+
+    private void setAll(Map<String, Product> entries) {
+        cacheMetrics.redis(KEY_PREFIX, "pipeline").record(() -> RedisPipelines.setAll(redisTemplate, entries, value -> redisTtl));
+    }
+
+    private boolean putNear(Product product, long version) {
+        if (version(product.getId()) != version) {
+            return false;
+        }
+        nearCache.put(product.getId(), product);
+        // An invalidation may have slipped in between the check and the put
+        if (version(product.getId()) != version) {
+            nearCache.invalidate(product.getId());
+            return false;
+        }
+        return true;
+    }
+
+    private void evictLocal(Long id) {
+        versions.incrementAndGet(stripe(id));
+        nearCache.invalidate(id);
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id ^ (id >>> 32), (long) VERSION_STRIPES);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.simplecurdapp.cache;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multi-key Redis writes issued as a single pipelined round trip.
+ */
+final class RedisPipelines {
+
+    private RedisPipelines() {}
+
+    /**
+     * Writes every entry with its own TTL (so per-key jitter is preserved) in one pipeline.
+     */
+    @SuppressWarnings("unchecked")
+    static void setAll(RedisTemplate<String, Object> redisTemplate, Map<String, ?> entries,
+                       Function<Object, Duration> ttlFor) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                entries.forEach((key, value) -> operations.opsForValue().set(key, value, ttlFor.apply(value)));
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.event.UserChangedEvent;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Keeps the Hibernate second-level cache (entity regions {@value #PRODUCT_REGION}
+ * and {@value #USER_REGION}, query regions {@value #PRODUCT_QUERY_REGION} and
+ * {@value #USER_QUERY_REGION}) consistent with writes Hibernate does not see.
+ *
+ * <p>Hibernate maintains the regions for writes made through the entity manager
+ * on this replica. Bulk JDBC writes bypass it, and every replica has regions of
+ * its own, so after each committed change the changed ids are evicted here and
+ * broadcast on {@value #INVALIDATION_CHANNEL} for the other replicas to evict
+ * too. An eviction also drops the entity's query region, since any cached
+ * listing may include the row. A lost message is bounded by the region TTLs.
+ */
+@Component
+public class SecondLevelCache implements MessageListener {
+
+    public static final String PRODUCT_REGION = "product";
+    public static final String USER_REGION = "user";
+    public static final String PRODUCT_QUERY_REGION = "product-queries";
+    public static final String USER_QUERY_REGION = "user-queries";
+    public static final String INVALIDATION_CHANNEL = "second-level-cache-invalidation";
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCache.class);
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+    private static final String PRODUCTS = "P";
+    private static final String USERS = "U";
+
+    private final Cache cache;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory, StringRedisTemplate stringRedisTemplate) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> ids = new ArrayList<>(event.saved().size() + event.deletedIds().size());
+        event.saved().forEach(product -> ids.add(product.getId()));
+        ids.addAll(event.deletedIds());
+        evictProducts(ids);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        List<Long> ids = new ArrayList<>(event.saved().size() + event.deletedIds().size());
+        event.saved().forEach(user -> ids.add(user.getId()));
+        ids.addAll(event.deletedIds());
+        evictUsers(ids);
+    }
+
+    /**
+     * Evicts committed product changes that published no change event, such as
+     * stock adjustments, here and on every other replica.
+     */
+    public void evictProducts(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            evict(PRODUCTS, ids);
+            broadcast(PRODUCTS, ids);
+        }
+    }
+
+    public void evictUsers(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            evict(USERS, ids);
+            broadcast(USERS, ids);
+        }
+    }
+
+    // Payload is "<nodeId>:<P|U>:<id>[,<id>...]"; messages from this node were already evicted locally
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : parts[2].split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed second-level cache message '{}'", payload);
+            return;
+        }
+        if (parts[1].equals(PRODUCTS) || parts[1].equals(USERS)) {
+            evict(parts[1], ids);
+        }
+    }
+
+    private void evict(String entity, Collection<Long> ids) {
+        Class<?> type = entity.equals(PRODUCTS) ? Product.class : User.class;
+        ids.forEach(id -> cache.evictEntityData(type, id));
+        cache.evictQueryRegion(entity.equals(PRODUCTS) ? PRODUCT_QUERY_REGION : USER_QUERY_REGION);
+    }
+
+    private void broadcast(String entity, Collection<Long> ids) {
+        List<Long> all = List.copyOf(ids);
+        try {
+            for (int from = 0; from < all.size(); from += MAX_IDS_PER_MESSAGE) {
+                StringJoiner payload = new StringJoiner(",", nodeId + ":" + entity + ":", "");
+                all.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, all.size()))
+                        .forEach(id -> payload.add(id.toString()));
+                stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, payload.toString());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Broadcasting second-level cache eviction failed", ex);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.simplecurdapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Size and time-to-live of each Hibernate second-level cache region (see
+ * {@link SecondLevelCache}). The update-timestamps region is not listed: it
+ * holds one entry per table and must never expire.
+ */
+@ConfigurationProperties("app.cache.second-level")
+public record SecondLevelCacheProperties(
+        @DefaultValue Region product,
+        @DefaultValue Region user,
+        @DefaultValue Region productQueries,
+        @DefaultValue Region userQueries) {
+
+    /**
+     * @param maxSize entries kept before the least valuable are evicted
+     * @param ttl     time after a write before an entry expires, bounding staleness
+     *                when an invalidation from another replica is lost
+     */
+    public record Region(@DefaultValue("10000") long maxSize, @DefaultValue("10m") Duration ttl) {
+    }
+}
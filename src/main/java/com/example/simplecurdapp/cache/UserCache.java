@@ -0,0 +1,437 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.metrics.CacheMetrics;
+import com.example.simplecurdapp.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Redis cache for {@link User} under the {@code User_{id}} keys, hardened against
+ * cache stampedes:
+ * <ul>
+ *   <li>concurrent misses for the same id on one node share a single loader call;</li>
+ *   <li>optionally, a short Redis lock makes the loader single-flight across nodes;</li>
+ *   <li>ids missing from the database are cached as {@link CacheMarker#ABSENT} for a short TTL;</li>
+ *   <li>TTLs are jittered so keys written together do not expire together;</li>
+ *   <li>entries close to expiry are served while one background refresh reloads them.</li>
+ * </ul>
+ *
+ * <p>Loaded users must not overwrite a later write. Each id maps to a version
+ * stripe that the write path ({@link #writeAll} and friends) bumps before it
+ * writes; a load captures the stripe first and skips its write, or deletes the
+ * key again afterwards, if the stripe moved. That covers writes flushed by this
+ * node. Against other nodes, a miss is only stored if the key is still absent,
+ * and a refresh only if the loaded {@code @Version} is not older than the one it
+ * replaces.
+ *
+ * <p>Lookups, evictions and Redis round trips are recorded through {@link CacheMetrics}
+ * under {@code cache=user}; negative entries count as {@code absent}.
+ */
+@Component
+public class UserCache {
+
+    public static final String KEY_PREFIX = "User_";
+
+    private static final Logger log = LoggerFactory.getLogger(UserCache.class);
+    private static final String CACHE = "user";
+    private static final String LOCK_PREFIX = "Lock_User_";
+    private static final int VERSION_STRIPES = 1024;
+    private static final long LOCK_POLL_MILLIS = 25;
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics cacheMetrics;
+    private final Executor refreshExecutor;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Duration refreshAhead;
+    private final double jitter;
+    private final boolean distributedLock;
+    private final Duration lockTtl;
+    private final Duration lockWait;
+    private final ConcurrentHashMap<Long, CompletableFuture<Optional<User>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final String lockOwner = UUID.randomUUID().toString();
+
+    public UserCache(RedisTemplate<String, Object> redisTemplate,
+                     StringRedisTemplate stringRedisTemplate,
+                     CacheMetrics cacheMetrics,
+                     @Qualifier("cacheRefreshExecutor") Executor refreshExecutor,
+                     @Value("${app.cache.user.ttl:10m}") Duration ttl,
+                     @Value("${app.cache.user.negative-ttl:30s}") Duration negativeTtl,
+                     @Value("${app.cache.user.refresh-ahead:60s}") Duration refreshAhead,
+                     @Value("${app.cache.user.ttl-jitter:0.1}") double jitter,
+                     @Value("${app.cache.user.distributed-lock.enabled:false}") boolean distributedLock,
+                     @Value("${app.cache.user.distributed-lock.ttl:5s}") Duration lockTtl,
+                     @Value("${app.cache.user.distributed-lock.wait:500ms}") Duration lockWait) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheMetrics = cacheMetrics;
+        this.refreshExecutor = refreshExecutor;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.refreshAhead = refreshAhead;
+        this.jitter = jitter;
+        this.distributedLock = distributedLock;
+        this.lockTtl = lockTtl;
+        this.lockWait = lockWait;
+    }
+
+    /**
+     * Returns the user for {@code id}, or null if it does not exist, calling
+     * {@code loader} at most once per node for concurrent misses on the same id.
+     */
+    public User getOrLoad(Long id, Function<Long, Optional<User>> loader) {
+        String key = KEY_PREFIX + id;
+        List<Object> cached = lookup(key);
+        Object value = cached.get(0);
+        if (value instanceof User user) {
+            cacheMetrics.lookup(CACHE, CacheMetrics.REDIS, CacheMetrics.HIT);
+            Long remainingMillis = (Long) cached.get(1);
+            if (remainingMillis != null && remainingMillis >= 0 && remainingMillis < refreshAhead.toMillis()) {
+                refreshInBackground(id, user, loader);
+            }
+            return user;
+        }
+        if (value != null) {
+            // Negative entry: short-lived by design, so it simply expires instead of being refreshed
+            cacheMetrics.lookup(CACHE, CacheMetrics.REDIS, CacheMetrics.ABSENT);
+            return null;
+        }
+        cacheMetrics.lookup(CACHE, CacheMetrics.REDIS, CacheMetrics.MISS);
+        return loadCoalesced(id, null, loader).orElse(null);
+    }
+
+    /**
+     * Resolves many ids at once: one MGET for all keys, then {@code loader} for the
+     * misses in chunks of at most {@code chunkSize} ids, then one pipelined write
+     * to backfill Redis (including negative entries for ids that do not exist).
+     * Returns the users that exist, keyed by id.
+     */
+    public Map<Long, User> getAll(Collection<Long> ids, int chunkSize,
+                                  Function<Collection<Long>, ? extends Iterable<User>> loader) {
+        List<Long> orderedIds = new ArrayList<>(ids);
+        Map<Long, User> found = new HashMap<>(orderedIds.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        List<Object> cached = multiGet(orderedIds);
+        for (int i = 0; i < orderedIds.size(); i++) {
+            Object value = cached.get(i);
+            if (value instanceof User user) {
+                found.put(orderedIds.get(i), user);
+            } else if (value == null) {
+                misses.add(orderedIds.get(i));
+            }
+        }
+        cacheMetrics.lookups(CACHE, CacheMetrics.REDIS, CacheMetrics.HIT, found.size());
+        cacheMetrics.lookups(CACHE, CacheMetrics.REDIS, CacheMetrics.ABSENT,
+                orderedIds.size() - found.size() - misses.size());
+        cacheMetrics.lookups(CACHE, CacheMetrics.REDIS, CacheMetrics.MISS, misses.size());
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        Map<Long, Long> loadVersions = new HashMap<>(misses.size() * 2);
+        for (Long id : misses) {
+            loadVersions.put(id, version(id));
+        }
+        Map<String, Object> backfill = new HashMap<>(misses.size() * 2);
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            List<Long> chunk = misses.subList(from, Math.min(from + chunkSize, misses.size()));
+            for (User user : loader.apply(chunk)) {
+                found.put(user.getId(), user);
+                backfill.put(KEY_PREFIX + user.getId(), user);
+            }
+        }
+        for (Long id : misses) {
+            backfill.putIfAbsent(KEY_PREFIX + id, CacheMarker.ABSENT);
+        }
+        List<Long> raced = racedWrites(loadVersions);
+        raced.forEach(id -> backfill.remove(KEY_PREFIX + id));
+        try {
+            cacheMetrics.redis(KEY_PREFIX, "pipeline").record(() -> RedisPipelines.setAll(redisTemplate, backfill,
+                    value -> jittered(value == CacheMarker.ABSENT ? negativeTtl : ttl)));
+            deleteRaced(loadVersions, raced);
+        } catch (RuntimeException ex) {
+            log.warn("Redis backfill failed for {} users", backfill.size(), ex);
+        }
+        return found;
+    }
+
+    public void put(User user) {
+        versions.incrementAndGet(stripe(user.getId()));
+        cacheMetrics.redis(KEY_PREFIX, "set")
+                .record(() -> redisTemplate.opsForValue().set(KEY_PREFIX + user.getId(), user, jittered(ttl)));
+    }
+
+    public void evict(Long id) {
+        versions.incrementAndGet(stripe(id));
+        Boolean deleted = cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(KEY_PREFIX + id));
+        cacheMetrics.evictions(CACHE, CacheMetrics.REDIS, CacheMetrics.INVALIDATED, Boolean.TRUE.equals(deleted) ? 1 : 0);
+    }
+
+    /**
+     * Writes many users in one pipelined round trip, each with its own jittered TTL.
+     */
+    public void putAll(Collection<User> users) {
+        Map<String, User> entries = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            versions.incrementAndGet(stripe(user.getId()));
+            entries.put(KEY_PREFIX + user.getId(), user);
+        }
+        cacheMetrics.redis(KEY_PREFIX, "pipeline")
+                .record(() -> RedisPipelines.setAll(redisTemplate, entries, value -> jittered(ttl)));
+    }
+
+    /**
+     * Applies a batch of writes in one pipelined round trip: SET for each user in
+     * {@code puts} (with jittered TTLs), DEL for each id in {@code evictions}.
+     */
+    public void writeAll(Collection<User> puts, Collection<Long> evictions) {
+        if (puts.isEmpty() && evictions.isEmpty()) {
+            return;
+        }
+        puts.forEach(user -> versions.incrementAndGet(stripe(user.getId())));
+        evictions.forEach(id -> versions.incrementAndGet(stripe(id)));
+        List<Object> results = cacheMetrics.redis(KEY_PREFIX, "pipeline").record(() -> redisTemplate.executePipelined(
+                new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        for (User user : puts) {
+                            operations.opsForValue().set(KEY_PREFIX + user.getId(), user, jittered(ttl));
+                        }
+                        for (Long id : evictions) {
+                            operations.delete(KEY_PREFIX + id);
+                        }
+                        return null;
+                    }
+                }));
+        // SET replies are booleans; each DEL reply is the number of keys it removed
+        long deleted = 0;
+        for (Object result : results) {
+            if (result instanceof Long count) {
+                deleted += count;
+            }
+        }
+        cacheMetrics.evictions(CACHE, CacheMetrics.REDIS, CacheMetrics.INVALIDATED, (int) deleted);
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            versions.incrementAndGet(stripe(id));
+            keys.add(KEY_PREFIX + id);
+        }
+        Long deleted = cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(keys));
+        cacheMetrics.evictions(CACHE, CacheMetrics.REDIS, CacheMetrics.INVALIDATED, deleted != null ? deleted.intValue() : 0);
+    }
+
+    /**
+     * Applies up to {@code jitter} (as a fraction) of random spread to {@code base}.
+     */
+    Duration jittered(Duration base) {
+        long baseMillis = base.toMillis();
+        long spread = (long) (baseMillis * jitter);
+        if (spread <= 0) {
+            return base;
+        }
+        return Duration.ofMillis(baseMillis + ThreadLocalRandom.current().nextLong(-spread, spread + 1));
+    }
+
+    private List<Object> multiGet(List<Long> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            keys.add(KEY_PREFIX + id);
+        }
+        try {
+            List<Object> values = cacheMetrics.redis(KEY_PREFIX, "mget")
+                    .record(() -> redisTemplate.opsForValue().multiGet(keys));
+            if (values != null) {
+                return values;
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Redis MGET failed for {} users, falling back to database", ids.size(), ex);
+        }
+        return Arrays.asList(new Object[ids.size()]);
+    }
+
+    // GET and PTTL in one round trip; element 0 is the value, element 1 the remaining TTL in ms
+    @SuppressWarnings("unchecked")
+    private List<Object> lookup(String key) {
+        try {
+            return cacheMetrics.redis(KEY_PREFIX, "get").record(() -> redisTemplate.executePipelined(
+                    new SessionCallback<Object>() {
+                        @Override
+                        public Object execute(RedisOperations operations) throws DataAccessException {
+                            operations.opsForValue().get(key);
+                            operations.getExpire(key, TimeUnit.MILLISECONDS);
+                            return null;
+                        }
+                    }));
+        } catch (RuntimeException ex) {
+            log.warn("Redis read failed for {}, falling back to database", key, ex);
+            return Arrays.asList(null, null);
+        }
+    }
+
+    private void refreshInBackground(Long id, User cached, Function<Long, Optional<User>> loader) {
+        if (inFlight.containsKey(id)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                loadCoalesced(id, cached, loader);
+            } catch (RuntimeException ex) {
+                log.warn("Refresh-ahead failed for {}{}", KEY_PREFIX, id, ex);
+            }
+        });
+    }
+
+    /**
+     * Loads {@code id} once for all concurrent callers on this node; {@code cached}
+     * is the entry being refreshed, or null on a miss.
+     */
+    private Optional<User> loadCoalesced(Long id, User cached, Function<Long, Optional<User>> loader) {
+        CompletableFuture<Optional<User>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> leader = inFlight.putIfAbsent(id, mine);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        try {
+            Optional<User> loaded = distributedLock ? loadWithLock(id, cached, loader) : loadAndStore(id, cached, loader);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private Optional<User> loadWithLock(Long id, User cached, Function<Long, Optional<User>> loader) {
+        String lockKey = LOCK_PREFIX + id;
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, lockOwner, lockTtl);
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return loadAndStore(id, cached, loader);
+            } finally {
+                stringRedisTemplate.execute(RELEASE_LOCK, List.of(lockKey), lockOwner);
+            }
+        }
+        // Another node is loading: wait briefly for it to fill the cache, then load ourselves
+        long deadline = System.nanoTime() + lockWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+            if (value != null) {
+                return value instanceof User user ? Optional.of(user) : Optional.empty();
+            }
+        }
+        return loadAndStore(id, cached, loader);
+    }
+
+    private Optional<User> loadAndStore(Long id, User cached, Function<Long, Optional<User>> loader) {
+        long version = version(id);
+        Optional<User> loaded = loader.apply(id);
+        if (version(id) != version) {
+            // A write was flushed while loading, so the row may predate it
+            return loaded;
+        }
+        Object value = loaded.isPresent() ? loaded.get() : CacheMarker.ABSENT;
+        Duration valueTtl = jittered(loaded.isPresent() ? ttl : negativeTtl);
+        try {
+            if (cached == null) {
+                // A write another node flushed meanwhile wins
+                cacheMetrics.redis(KEY_PREFIX, "set").record(() ->
+                        redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + id, value, valueTtl));
+            } else if (loaded.isEmpty() || !isOlder(loaded.get(), cached)) {
+                cacheMetrics.redis(KEY_PREFIX, "set").record(() ->
+                        redisTemplate.opsForValue().set(KEY_PREFIX + id, value, valueTtl));
+            }
+            if (version(id) != version) {
+                // A write flushed meanwhile may have been overwritten; the next read reloads
+                cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(KEY_PREFIX + id));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Redis write failed for {}{}", KEY_PREFIX, id, ex);
+        }
+        return loaded;
+    }
+
+    private long version(Long id) {
+        return versions.get(stripe(id));
+    }
+
+    // Ids whose stripe moved since their load started: a write may have been flushed meanwhile
+    private List<Long> racedWrites(Map<Long, Long> loadVersions) {
+        List<Long> raced = new ArrayList<>();
+        loadVersions.forEach((id, version) -> {
+            if (version(id) != version) {
+                raced.add(id);
+            }
+        });
+        return raced;
+    }
+
+    // A write flushed between racedWrites and the backfill may have been overwritten; drop its key so the next read reloads
+    private void deleteRaced(Map<Long, Long> loadVersions, List<Long> skipped) {
+        List<String> keys = new ArrayList<>();
+        loadVersions.forEach((id, version) -> {
+            if (version(id) != version && !skipped.contains(id)) {
+                keys.add(KEY_PREFIX + id);
+            }
+        });
+        if (!keys.isEmpty()) {
+            cacheMetrics.redis(KEY_PREFIX, "del").record(() -> redisTemplate.delete(keys));
+        }
+    }
+
+    private static boolean isOlder(User user, User than) {
+        return user.getVersion() != null && than.getVersion() != null && user.getVersion() < than.getVersion();
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id ^ (id >>> 32), (long) VERSION_STRIPES);
+    }
+}
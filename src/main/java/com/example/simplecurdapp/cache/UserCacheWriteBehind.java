@@ -0,0 +1,231 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for {@link UserCache}: user writes register their cache update
+ * here instead of calling Redis inside the transaction. Updates are queued only
+ * once the transaction commits, so rolled-back data is never cached and a write
+ * never waits on Redis.
+ *
+ * <p>Pending updates are keyed by user id, so several writes to one user between
+ * flushes collapse into the last one. Every flush interval up to
+ * {@code batch-size} of them go to Redis in one pipeline; a failed batch is put
+ * back (unless a newer update for the id has arrived meanwhile) and retried with
+ * exponential backoff. Until its update is flushed, readers may see the previous
+ * cached value; the queue is in memory, so updates still pending when a pod dies
+ * are lost and those keys stay stale until their TTL.
+ *
+ * <p>Metrics, tagged {@code cache=user}: {@code cache.write.pending} and
+ * {@code cache.write.lag} (age of the oldest pending update, in seconds) gauges,
+ * a {@code cache.write.delay} timer from commit to Redis, and
+ * {@code cache.write.coalesced} and {@code cache.write.failures} counters.
+ */
+@Component
+public class UserCacheWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheWriteBehind.class);
+    private static final String CACHE = "user";
+
+    private final UserCache userCache;
+    private final int batchSize;
+    private final Duration retryInitial;
+    private final Duration retryMax;
+    private final ConcurrentHashMap<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Timer delay;
+    private final Counter coalesced;
+    private final Counter failures;
+    // Guarded by flush()
+    private Duration backoff = Duration.ZERO;
+    private long retryAtNanos = System.nanoTime();
+
+    public UserCacheWriteBehind(UserCache userCache,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.user.write-behind.batch-size:500}") int batchSize,
+                                @Value("${app.cache.user.write-behind.retry-initial:100ms}") Duration retryInitial,
+                                @Value("${app.cache.user.write-behind.retry-max:10s}") Duration retryMax) {
+        this.userCache = userCache;
+        this.batchSize = batchSize;
+        this.retryInitial = retryInitial;
+        this.retryMax = retryMax;
+        this.delay = Timer.builder("cache.write.delay")
+                .description("Time from commit until a cache update reached Redis")
+                .tag("cache", CACHE)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cache.write.coalesced")
+                .description("Cache updates superseded by a later update to the same key before being flushed")
+                .tag("cache", CACHE)
+                .register(meterRegistry);
+        this.failures = Counter.builder("cache.write.failures")
+                .description("Cache update batches that failed and were queued for retry")
+                .tag("cache", CACHE)
+                .register(meterRegistry);
+        Gauge.builder("cache.write.pending", pending, Map::size)
+                .description("Cache updates waiting to be flushed")
+                .tag("cache", CACHE)
+                .register(meterRegistry);
+        Gauge.builder("cache.write.lag", this, UserCacheWriteBehind::lagSeconds)
+                .description("Age of the oldest cache update waiting to be flushed")
+                .tag("cache", CACHE)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Caches {@code user} once the current transaction commits.
+     */
+    public void put(User user) {
+        AfterCommit.run(() -> enqueue(user.getId(), new Pending(user, System.nanoTime())));
+    }
+
+    public void putAll(Collection<User> users) {
+        List<User> copy = List.copyOf(users);
+        AfterCommit.run(() -> {
+            long now = System.nanoTime();
+            copy.forEach(user -> enqueue(user.getId(), new Pending(user, now)));
+        });
+    }
+
+    /**
+     * Evicts {@code id} once the current transaction commits.
+     */
+    public void evict(Long id) {
+        AfterCommit.run(() -> enqueue(id, new Pending(null, System.nanoTime())));
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        List<Long> copy = List.copyOf(ids);
+        AfterCommit.run(() -> {
+            long now = System.nanoTime();
+            copy.forEach(id -> enqueue(id, new Pending(null, now)));
+        });
+    }
+
+    /**
+     * Writes pending updates to Redis in pipelined batches until the queue is
+     * drained or a batch fails.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.user.write-behind.flush-interval:PT0.05S}")
+    public synchronized void flush() {
+        if (pending.isEmpty() || System.nanoTime() - retryAtNanos < 0) {
+            return;
+        }
+        while (!pending.isEmpty()) {
+            Map<Long, Pending> batch = drain();
+            if (!write(batch)) {
+                return;
+            }
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        retryAtNanos = System.nanoTime();
+        flush();
+    }
+
+    private void enqueue(Long id, Pending update) {
+        pending.merge(id, update, (current, next) -> {
+            coalesced.increment();
+            return latest(current, next);
+        });
+    }
+
+    private Map<Long, Pending> drain() {
+        Map<Long, Pending> batch = new HashMap<>();
+        for (Long id : pending.keySet()) {
+            Pending update = pending.remove(id);
+            if (update != null) {
+                batch.put(id, update);
+                if (batch.size() == batchSize) {
+                    break;
+                }
+            }
+        }
+        return batch;
+    }
+
+    private boolean write(Map<Long, Pending> batch) {
+        List<User> puts = new ArrayList<>();
+        List<Long> evictions = new ArrayList<>();
+        batch.forEach((id, update) -> {
+            if (update.user() != null) {
+                puts.add(update.user());
+            } else {
+                evictions.add(id);
+            }
+        });
+        try {
+            userCache.writeAll(puts, evictions);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            // Put the batch back behind anything newer that was queued while it was in flight
+            batch.forEach((id, update) -> pending.merge(id, update, UserCacheWriteBehind::latest));
+            backoff = backoff.isZero() ? retryInitial : min(backoff.multipliedBy(2), retryMax);
+            retryAtNanos = System.nanoTime() + backoff.toNanos();
+            log.warn("Writing {} cache updates to Redis failed, retrying in {}", batch.size(), backoff, ex);
+            return false;
+        }
+        backoff = Duration.ZERO;
+        long now = System.nanoTime();
+        batch.values().forEach(update -> delay.record(now - update.enqueuedNanos(), TimeUnit.NANOSECONDS));
+        return true;
+    }
+
+    private double lagSeconds() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (Pending update : pending.values()) {
+            oldest = Math.min(oldest, update.enqueuedNanos());
+        }
+        return (now - oldest) / 1e9;
+    }
+
+    /**
+     * Keeps the later state of a user: an eviction is final (ids are never reused)
+     * and of two puts the higher version wins, whichever commit's callback ran
+     * first. The lag still counts from the older of the two.
+     */
+    private static Pending latest(Pending current, Pending next) {
+        boolean keepCurrent = current.user() == null
+                || (next.user() != null && isOlder(next.user(), current.user()));
+        User user = keepCurrent ? current.user() : next.user();
+        return new Pending(user, Math.min(current.enqueuedNanos(), next.enqueuedNanos()));
+    }
+
+    private static boolean isOlder(User user, User than) {
+        return user.getVersion() != null && than.getVersion() != null && user.getVersion() < than.getVersion();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    // A null user means the key is to be evicted
+    private record Pending(User user, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.simplecurdapp.cache.codec;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Reads what {@link BinaryWriter} wrote; truncated or malformed input fails
+ * with a {@link SerializationException}.
+ */
+public final class BinaryReader {
+
+    private final byte[] bytes;
+    private final int limit;
+    private int position;
+
+    public BinaryReader(byte[] bytes, int offset, int limit) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    public int readByte() {
+        if (position >= limit) {
+            throw new SerializationException("Truncated cache value");
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint in cache value");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() {
+        int length = readLength();
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public BigDecimal readDecimal() {
+        int scale = (int) readSignedVarLong();
+        int length = readLength();
+        BigInteger unscaled = new BigInteger(Arrays.copyOfRange(bytes, position, position + length));
+        position += length;
+        return new BigDecimal(unscaled, scale);
+    }
+
+    public LocalDateTime readDateTime() {
+        long epochSecond = readSignedVarLong();
+        int nano = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new SerializationException("Truncated cache value");
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.simplecurdapp.cache.codec;
+
+/**
+ * Schema-aware binary layout for one cached type.
+ *
+ * <p>{@link #id()} is written into every value's header and must never be reused
+ * for another type. To change a layout, bump {@link #version()} and keep decoding
+ * the older versions; deploy the reader everywhere before any pod writes the new
+ * version.
+ */
+public interface CacheCodec<T> {
+
+    byte id();
+
+    byte version();
+
+    Class<T> type();
+
+    void encode(T value, BinaryWriter out);
+
+    T decode(BinaryReader in, int version);
+}
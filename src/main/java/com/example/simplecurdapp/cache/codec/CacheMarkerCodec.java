@@ -0,0 +1,41 @@
+package com.example.simplecurdapp.cache.codec;
+
+import com.example.simplecurdapp.cache.CacheMarker;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Version 1 layout: the marker's ordinal as a varint.
+ */
+public class CacheMarkerCodec implements CacheCodec<CacheMarker> {
+
+    private static final CacheMarker[] MARKERS = CacheMarker.values();
+
+    @Override
+    public byte id() {
+        return 3;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public Class<CacheMarker> type() {
+        return CacheMarker.class;
+    }
+
+    @Override
+    public void encode(CacheMarker marker, BinaryWriter out) {
+        out.writeVarLong(marker.ordinal());
+    }
+
+    @Override
+    public CacheMarker decode(BinaryReader in, int version) {
+        long ordinal = in.readVarLong();
+        if (ordinal < 0 || ordinal >= MARKERS.length) {
+            throw new SerializationException("Unknown cache marker " + ordinal);
+        }
+        return MARKERS[(int) ordinal];
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.simplecurdapp.cache.codec;
+
+/**
+ * Format {@link CodecRedisSerializer} writes new values in. Both formats are
+ * always readable.
+ */
+public enum CacheValueFormat {
+
+    /** Polymorphic JSON with class names, readable by every build. */
+    JSON,
+
+    /** Versioned binary layout from a {@link CacheCodec}, JSON for types without one. */
+    BINARY
+}
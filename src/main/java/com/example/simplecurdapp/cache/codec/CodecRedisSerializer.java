@@ -0,0 +1,149 @@
+package com.example.simplecurdapp.cache.codec;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis value serializer that stores registered types with their {@link CacheCodec}
+ * and everything else with the JSON fallback.
+ *
+ * <p>Binary values start with a 4-byte header: magic byte, codec id, codec version
+ * and flags. The magic byte can never start a JSON document, so values from either
+ * format can be read at any time. That allows a two-step rollout across a fleet:
+ * deploy with {@link CacheValueFormat#JSON} writes, then switch to
+ * {@link CacheValueFormat#BINARY} once every pod can read it. A value from an unknown
+ * codec or a newer codec version reads as a cache miss, so it is reloaded and
+ * rewritten instead of failing.
+ *
+ * <p>Payloads of at least {@code compressionThreshold} bytes are LZ4 compressed
+ * when that makes them smaller.
+ */
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+    static final int MAGIC = 0xB1;
+    static final int HEADER_SIZE = 4;
+    static final int FLAG_LZ4 = 1;
+
+    private static final Logger log = LoggerFactory.getLogger(CodecRedisSerializer.class);
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final Map<Class<?>, CacheCodec<?>> codecsByType = new HashMap<>();
+    private final CacheCodec<?>[] codecsById = new CacheCodec<?>[256];
+    private final RedisSerializer<Object> json;
+    private final CacheValueFormat writeFormat;
+    private final int compressionThreshold;
+
+    public CodecRedisSerializer(List<CacheCodec<?>> codecs, RedisSerializer<Object> json,
+                                CacheValueFormat writeFormat, int compressionThreshold) {
+        for (CacheCodec<?> codec : codecs) {
+            int id = codec.id() & 0xFF;
+            if (codecsById[id] != null) {
+                throw new IllegalArgumentException("Duplicate cache codec id " + id);
+            }
+            codecsById[id] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+        this.json = json;
+        this.writeFormat = writeFormat;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CacheCodec<?> codec = writeFormat == CacheValueFormat.BINARY ? codecsByType.get(value.getClass()) : null;
+        if (codec == null) {
+            return json.serialize(value);
+        }
+        BinaryWriter out = new BinaryWriter(256);
+        out.writeByte(MAGIC);
+        out.writeByte(codec.id());
+        out.writeByte(codec.version());
+        out.writeByte(0);
+        encode(codec, value, out);
+        int payloadSize = out.size() - HEADER_SIZE;
+        if (payloadSize >= compressionThreshold) {
+            return compressed(out, payloadSize);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return json.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_SIZE) {
+            throw new SerializationException("Truncated cache value header");
+        }
+        int id = bytes[1] & 0xFF;
+        int version = bytes[2] & 0xFF;
+        int flags = bytes[3] & 0xFF;
+        CacheCodec<?> codec = codecsById[id];
+        if (codec == null || version > (codec.version() & 0xFF)) {
+            log.debug("Skipping cache value written by codec {} v{} this build cannot read", id, version);
+            return null;
+        }
+        BinaryReader in;
+        if ((flags & FLAG_LZ4) != 0) {
+            BinaryReader lengthReader = new BinaryReader(bytes, HEADER_SIZE, bytes.length);
+            int originalSize = (int) lengthReader.readVarLong();
+            int compressedOffset = HEADER_SIZE + varLongSize(originalSize);
+            byte[] payload = new byte[originalSize];
+            try {
+                DECOMPRESSOR.decompress(bytes, compressedOffset, payload, 0, originalSize);
+            } catch (RuntimeException ex) {
+                throw new SerializationException("Corrupt compressed cache value", ex);
+            }
+            in = new BinaryReader(payload, 0, originalSize);
+        } else {
+            in = new BinaryReader(bytes, HEADER_SIZE, bytes.length);
+        }
+        return codec.decode(in, version);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void encode(CacheCodec<T> codec, Object value, BinaryWriter out) {
+        codec.encode((T) value, out);
+    }
+
+    // Header with the LZ4 flag, varint original size, compressed payload; kept only if smaller
+    private byte[] compressed(BinaryWriter out, int payloadSize) {
+        byte[] buffer = out.buffer();
+        byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(payloadSize)];
+        int compressedSize = COMPRESSOR.compress(buffer, HEADER_SIZE, payloadSize, compressed, 0, compressed.length);
+        if (compressedSize + varLongSize(payloadSize) >= payloadSize) {
+            return out.toByteArray();
+        }
+        BinaryWriter result = new BinaryWriter(HEADER_SIZE + 5 + compressedSize);
+        result.writeBytes(buffer, 0, HEADER_SIZE - 1);
+        result.writeByte(FLAG_LZ4);
+        result.writeVarLong(payloadSize);
+        result.writeBytes(compressed, 0, compressedSize);
+        return result.toByteArray();
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
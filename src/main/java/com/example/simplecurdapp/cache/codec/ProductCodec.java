@@ -0,0 +1,121 @@
+package com.example.simplecurdapp.cache.codec;
+
+import com.example.simplecurdapp.model.Product;
+
+/**
+ * Version 1 layout: a varint bitmask of the non-null fields, then those fields
+ * in declaration order.
+ */
+public class ProductCodec implements CacheCodec<Product> {
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int DESCRIPTION = 1 << 2;
+    private static final int PRICE = 1 << 3;
+    private static final int QUANTITY = 1 << 4;
+    private static final int CATEGORY = 1 << 5;
+    private static final int IS_AVAILABLE = 1 << 6;
+    private static final int CREATED_AT = 1 << 7;
+    private static final int UPDATED_AT = 1 << 8;
+    private static final int VERSION = 1 << 9;
+
+    @Override
+    public byte id() {
+        return 1;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public Class<Product> type() {
+        return Product.class;
+    }
+
+    @Override
+    public void encode(Product product, BinaryWriter out) {
+        int present = (product.getId() != null ? ID : 0)
+                | (product.getName() != null ? NAME : 0)
+                | (product.getDescription() != null ? DESCRIPTION : 0)
+                | (product.getPrice() != null ? PRICE : 0)
+                | (product.getQuantity() != null ? QUANTITY : 0)
+                | (product.getCategory() != null ? CATEGORY : 0)
+                | (product.getIsAvailable() != null ? IS_AVAILABLE : 0)
+                | (product.getCreatedAt() != null ? CREATED_AT : 0)
+                | (product.getUpdatedAt() != null ? UPDATED_AT : 0)
+                | (product.getVersion() != null ? VERSION : 0);
+        out.writeVarLong(present);
+        if ((present & ID) != 0) {
+            out.writeVarLong(product.getId());
+        }
+        if ((present & NAME) != 0) {
+            out.writeString(product.getName());
+        }
+        if ((present & DESCRIPTION) != 0) {
+            out.writeString(product.getDescription());
+        }
+        if ((present & PRICE) != 0) {
+            out.writeDecimal(product.getPrice());
+        }
+        if ((present & QUANTITY) != 0) {
+            out.writeSignedVarLong(product.getQuantity());
+        }
+        if ((present & CATEGORY) != 0) {
+            out.writeString(product.getCategory());
+        }
+        if ((present & IS_AVAILABLE) != 0) {
+            out.writeByte(product.getIsAvailable() ? 1 : 0);
+        }
+        if ((present & CREATED_AT) != 0) {
+            out.writeDateTime(product.getCreatedAt());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            out.writeDateTime(product.getUpdatedAt());
+        }
+        if ((present & VERSION) != 0) {
+            out.writeVarLong(product.getVersion());
+        }
+    }
+
+    @Override
+    public Product decode(BinaryReader in, int version) {
+        int present = (int) in.readVarLong();
+        Product product = new Product();
+        // Field initializers default these; an absent field was null when written
+        product.setQuantity(null);
+        product.setIsAvailable(null);
+        if ((present & ID) != 0) {
+            product.setId(in.readVarLong());
+        }
+        if ((present & NAME) != 0) {
+            product.setName(in.readString());
+        }
+        if ((present & DESCRIPTION) != 0) {
+            product.setDescription(in.readString());
+        }
+        if ((present & PRICE) != 0) {
+            product.setPrice(in.readDecimal());
+        }
+        if ((present & QUANTITY) != 0) {
+            product.setQuantity((int) in.readSignedVarLong());
+        }
+        if ((present & CATEGORY) != 0) {
+            product.setCategory(in.readString());
+        }
+        if ((present & IS_AVAILABLE) != 0) {
+            product.setIsAvailable(in.readByte() != 0);
+        }
+        if ((present & CREATED_AT) != 0) {
+            product.setCreatedAt(in.readDateTime());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            product.setUpdatedAt(in.readDateTime());
+        }
+        if ((present & VERSION) != 0) {
+            product.setVersion(in.readVarLong());
+        }
+        return product;
+    }
+}
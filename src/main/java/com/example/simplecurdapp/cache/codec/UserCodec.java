@@ -0,0 +1,96 @@
+package com.example.simplecurdapp.cache.codec;
+
+import com.example.simplecurdapp.model.User;
+
+/**
+ * Version 1 layout: a varint bitmask of the non-null fields, then those fields
+ * in declaration order.
+ */
+public class UserCodec implements CacheCodec<User> {
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int PHONE = 1 << 3;
+    private static final int ADDRESS = 1 << 4;
+    private static final int IS_ACTIVE = 1 << 5;
+    private static final int VERSION = 1 << 6;
+
+    @Override
+    public byte id() {
+        return 2;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void encode(User user, BinaryWriter out) {
+        int present = (user.getId() != null ? ID : 0)
+                | (user.getName() != null ? NAME : 0)
+                | (user.getEmail() != null ? EMAIL : 0)
+                | (user.getPhone() != null ? PHONE : 0)
+                | (user.getAddress() != null ? ADDRESS : 0)
+                | (user.getIsActive() != null ? IS_ACTIVE : 0)
+                | (user.getVersion() != null ? VERSION : 0);
+        out.writeVarLong(present);
+        if ((present & ID) != 0) {
+            out.writeVarLong(user.getId());
+        }
+        if ((present & NAME) != 0) {
+            out.writeString(user.getName());
+        }
+        if ((present & EMAIL) != 0) {
+            out.writeString(user.getEmail());
+        }
+        if ((present & PHONE) != 0) {
+            out.writeString(user.getPhone());
+        }
+        if ((present & ADDRESS) != 0) {
+            out.writeString(user.getAddress());
+        }
+        if ((present & IS_ACTIVE) != 0) {
+            out.writeByte(user.getIsActive() ? 1 : 0);
+        }
+        if ((present & VERSION) != 0) {
+            out.writeVarLong(user.getVersion());
+        }
+    }
+
+    @Override
+    public User decode(BinaryReader in, int version) {
+        int present = (int) in.readVarLong();
+        User user = new User();
+        // Field initializer defaults it; an absent field was null when written
+        user.setIsActive(null);
+        if ((present & ID) != 0) {
+            user.setId(in.readVarLong());
+        }
+        if ((present & NAME) != 0) {
+            user.setName(in.readString());
+        }
+        if ((present & EMAIL) != 0) {
+            user.setEmail(in.readString());
+        }
+        if ((present & PHONE) != 0) {
+            user.setPhone(in.readString());
+        }
+        if ((present & ADDRESS) != 0) {
+            user.setAddress(in.readString());
+        }
+        if ((present & IS_ACTIVE) != 0) {
+            user.setIsActive(in.readByte() != 0);
+        }
+        if ((present & VERSION) != 0) {
+            user.setVersion(in.readVarLong());
+        }
+        return user;
+    }
+}
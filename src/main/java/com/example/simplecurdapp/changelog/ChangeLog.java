@@ -0,0 +1,400 @@
+package com.example.simplecurdapp.changelog;
+
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.event.UserChangedEvent;
+import com.example.simplecurdapp.exception.ChangeLogExpiredException;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of committed product and user writes, stored in memory-mapped
+ * segment files under {@code app.changes.directory}.
+ *
+ * <p>Every replica keeps its own log: committed writes are appended locally and
+ * broadcast on {@value #UPDATES_CHANNEL} so the other replicas append them too.
+ * Sequence numbers are therefore local to a log, which is named by {@link #logId()};
+ * a consumer whose checkpoint came from another log has to resynchronize.
+ *
+ * <p>Pub/sub drops whatever is published while a replica is not subscribed, so the
+ * log only vouches for entries appended since its current subscription began. Each
+ * (re)subscription, including the first after startup, starts a new log id at the
+ * current sequence; checkpoints issued before it are rejected rather than silently
+ * skipping the writes that were missed. Numbering continues across restarts, so a
+ * replica never reuses a sequence.
+ *
+ * <p>Only the newest {@code retained-segments} segments are kept; reading from a
+ * position that has been dropped fails with {@link ChangeLogExpiredException}.
+ */
+@Component
+public class ChangeLog implements MessageListener, SubscriptionListener {
+
+    public static final String UPDATES_CHANNEL = "change-log-updates";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeLog.class);
+    private static final int MAX_CHANGES_PER_MESSAGE = 1000;
+    private static final int MAX_UNSENT_MESSAGES = 10000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Path directory;
+    private final int segmentRecords;
+    private final int retainedSegments;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<LongConsumer> appendListeners = new CopyOnWriteArrayList<>();
+    // Broadcasts that failed, oldest first
+    private final Deque<String> unsent = new ConcurrentLinkedDeque<>();
+
+    // Replaced (never mutated) under this; the last element is the active segment
+    private volatile List<ChangeSegment> segments;
+    private volatile long lastSequence;
+    // Replaced under this
+    private volatile Epoch epoch;
+    // Guarded by this
+    private boolean dirty;
+
+    public ChangeLog(StringRedisTemplate stringRedisTemplate,
+                     @Value("${app.changes.directory:data/changes}") Path directory,
+                     @Value("${app.changes.segment-records:1048576}") int segmentRecords,
+                     @Value("${app.changes.retained-segments:8}") int retainedSegments) {
+        if (segmentRecords <= 0 || retainedSegments <= 0) {
+            throw new IllegalArgumentException("app.changes.segment-records and retained-segments must be positive");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.retainedSegments = retainedSegments;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        List<ChangeSegment> opened = openSegments();
+        if (opened.isEmpty()) {
+            opened = List.of(ChangeSegment.create(directory, 1, segmentRecords));
+        }
+        this.segments = opened;
+        this.lastSequence = opened.get(opened.size() - 1).lastSequence();
+        this.epoch = new Epoch(UUID.randomUUID().toString(), lastSequence);
+        log.info("Opened change log {} at sequence {} ({} segments)", epoch.logId(), lastSequence, opened.size());
+    }
+
+    public String logId() {
+        return epoch.logId();
+    }
+
+    /**
+     * The current log id and the sequence its entries start after, where a
+     * consumer without a checkpoint begins.
+     */
+    public Epoch epoch() {
+        return epoch;
+    }
+
+    /**
+     * Sequence of the newest entry, or 0 while the log is empty.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns up to {@code limit} entries with a sequence above {@code since}, oldest
+     * first. {@code logId} must be the current log id, and {@code since} must lie
+     * between the start of its epoch (or the oldest retained entry minus one, if
+     * later) and {@link #lastSequence()}.
+     */
+    public List<ChangeRecord> read(String logId, long since, int limit) {
+        // Epoch before the end, so its start never lies beyond it
+        Epoch current = epoch;
+        if (!current.logId().equals(logId)) {
+            throw new ChangeLogExpiredException("Checkpoint belongs to change log " + logId
+                    + ", not to " + current.logId() + "; resynchronize from a full read");
+        }
+        // Read the end first: every entry up to it is complete in the segment list read after it
+        long last = lastSequence;
+        List<ChangeSegment> retained = segments;
+        long first = Math.max(retained.get(0).baseSequence(), current.start() + 1);
+        if (since > last) {
+            throw new ChangeLogExpiredException("Position " + since + " is ahead of change log " + logId
+                    + " (last sequence " + last + ")");
+        }
+        if (since < first - 1) {
+            throw new ChangeLogExpiredException("Position " + since + " has expired from change log " + logId
+                    + " (oldest sequence " + first + ")");
+        }
+        List<ChangeRecord> changes = new ArrayList<>((int) Math.min(limit, last - since));
+        long sequence = since + 1;
+        for (int i = 0; i < retained.size() && changes.size() < limit && sequence <= last; i++) {
+            ChangeSegment segment = retained.get(i);
+            long end = i + 1 < retained.size() ? retained.get(i + 1).baseSequence() - 1 : last;
+            for (; sequence <= end && changes.size() < limit; sequence++) {
+                changes.add(segment.read(sequence));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Registers a callback invoked with the last sequence after each append and
+     * each new log id. Callbacks run on the calling thread and must not block.
+     */
+    public void onAppend(LongConsumer listener) {
+        appendListeners.add(listener);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> upserted = event.saved().stream().map(Product::getId).toList();
+        record(ChangeRecord.Entity.PRODUCT, upserted, event.deletedIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        List<Long> upserted = event.saved().stream().map(User::getId).toList();
+        record(ChangeRecord.Entity.USER, upserted, event.deletedIds());
+    }
+
+    /**
+     * Records committed writes that did not publish a change event, such as stock
+     * adjustments, and forwards them to the other replicas.
+     */
+    public void record(ChangeRecord.Entity entity, List<Long> upserted, List<Long> deleted) {
+        if (upserted.isEmpty() && deleted.isEmpty()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>(upserted.size() + deleted.size());
+        upserted.forEach(id -> changes.add(new Change(entity, ChangeRecord.Operation.UPSERT, id)));
+        deleted.forEach(id -> changes.add(new Change(entity, ChangeRecord.Operation.DELETE, id)));
+        appendAll(changes);
+        broadcast(changes);
+    }
+
+    /**
+     * Appends writes committed on another replica. Payload is
+     * {@code "<nodeId>:<change>,<change>,..."} in the {@link Change} format.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>();
+        try {
+            for (String change : payload.substring(separator + 1).split(",")) {
+                changes.add(Change.decode(change));
+            }
+        } catch (IllegalArgumentException ex) {
+            log.warn("Ignoring malformed change log message '{}'", payload);
+            return;
+        }
+        appendAll(changes);
+    }
+
+    /**
+     * Starts a new log id whenever the updates channel is (re)subscribed, since
+     * messages published while it was not are lost.
+     */
+    @Override
+    public void onChannelSubscribed(byte[] channel, long count) {
+        if (UPDATES_CHANNEL.equals(new String(channel, StandardCharsets.UTF_8))) {
+            rotate();
+        }
+    }
+
+    /**
+     * Flushes the active segment to disk. Appends are visible to readers (and to
+     * the OS page cache) immediately; this bounds what a host crash can lose.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.force-interval:PT1S}")
+    public void force() {
+        ChangeSegment active;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            active = segments.get(segments.size() - 1);
+        }
+        active.force();
+    }
+
+    /**
+     * Retries updates whose broadcast failed, so the other replicas append them
+     * late rather than never.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.force-interval:PT1S}")
+    public void retryBroadcasts() {
+        publishUnsent();
+    }
+
+    @PreDestroy
+    void forceOnShutdown() {
+        force();
+    }
+
+    void rotate() {
+        Epoch next;
+        synchronized (this) {
+            next = new Epoch(UUID.randomUUID().toString(), lastSequence);
+            epoch = next;
+        }
+        log.info("Change log is now {} from sequence {}", next.logId(), next.start());
+        notifyAppended();
+    }
+
+    private void appendAll(List<Change> changes) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (Change change : changes) {
+                append(change, now);
+            }
+        }
+        notifyAppended();
+    }
+
+    // Caller holds this
+    private void append(Change change, long epochMillis) {
+        List<ChangeSegment> current = segments;
+        ChangeSegment active = current.get(current.size() - 1);
+        if (active.isFull()) {
+            active.force();
+            active = ChangeSegment.create(directory, active.lastSequence() + 1, segmentRecords);
+            List<ChangeSegment> next = new ArrayList<>(current);
+            next.add(active);
+            List<ChangeSegment> dropped = List.of();
+            if (next.size() > retainedSegments) {
+                dropped = List.copyOf(next.subList(0, next.size() - retainedSegments));
+                next = next.subList(next.size() - retainedSegments, next.size());
+            }
+            segments = List.copyOf(next);
+            dropped.forEach(ChangeSegment::delete);
+        }
+        lastSequence = active.append(change.entity(), change.operation(), change.id(), epochMillis);
+        dirty = true;
+    }
+
+    private void notifyAppended() {
+        long last = lastSequence;
+        for (LongConsumer listener : appendListeners) {
+            try {
+                listener.accept(last);
+            } catch (RuntimeException ex) {
+                log.warn("Change log listener failed", ex);
+            }
+        }
+    }
+
+    private void broadcast(List<Change> changes) {
+        for (int from = 0; from < changes.size(); from += MAX_CHANGES_PER_MESSAGE) {
+            StringJoiner payload = new StringJoiner(",", nodeId + ":", "");
+            changes.subList(from, Math.min(from + MAX_CHANGES_PER_MESSAGE, changes.size()))
+                    .forEach(change -> payload.add(change.encode()));
+            unsent.addLast(payload.toString());
+        }
+        while (unsent.size() > MAX_UNSENT_MESSAGES && unsent.pollFirst() != null) {
+            log.error("Dropping unsent change log update; other replicas will miss it");
+        }
+        publishUnsent();
+    }
+
+    private void publishUnsent() {
+        String payload;
+        while ((payload = unsent.pollFirst()) != null) {
+            try {
+                stringRedisTemplate.convertAndSend(UPDATES_CHANNEL, payload);
+            } catch (RuntimeException ex) {
+                unsent.addFirst(payload);
+                log.warn("Broadcasting change log update failed, {} pending for retry", unsent.size(), ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A log id and the sequence its entries start after.
+     */
+    public record Epoch(String logId, long start) {
+    }
+
+    /**
+     * One change as broadcast between replicas: the entity initial, {@code +}
+     * (upsert) or {@code -} (delete) and the id, e.g. {@code P+12}.
+     */
+    record Change(ChangeRecord.Entity entity, ChangeRecord.Operation operation, long id) {
+
+        String encode() {
+            return entity.name().charAt(0) + (operation == ChangeRecord.Operation.UPSERT ? "+" : "-") + id;
+        }
+
+        static Change decode(String change) {
+            if (change.length() < 3) {
+                throw new IllegalArgumentException(change);
+            }
+            ChangeRecord.Entity entity = switch (change.charAt(0)) {
+                case 'P' -> ChangeRecord.Entity.PRODUCT;
+                case 'U' -> ChangeRecord.Entity.USER;
+                default -> throw new IllegalArgumentException(change);
+            };
+            ChangeRecord.Operation operation = switch (change.charAt(1)) {
+                case '+' -> ChangeRecord.Operation.UPSERT;
+                case '-' -> ChangeRecord.Operation.DELETE;
+                default -> throw new IllegalArgumentException(change);
+            };
+            return new Change(entity, operation, Long.parseLong(change.substring(2)));
+        }
+    }
+
+    private List<ChangeSegment> openSegments() {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(ChangeSegment::isSegment)
+                    .sorted((a, b) -> Long.compare(ChangeSegment.baseSequenceOf(a), ChangeSegment.baseSequenceOf(b)))
+                    .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        List<ChangeSegment> opened = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            ChangeSegment segment = ChangeSegment.open(path);
+            // A segment only follows a full one; anything else is left over from a crash mid-rollover
+            if (!opened.isEmpty()) {
+                ChangeSegment previous = opened.get(opened.size() - 1);
+                if (!previous.isFull() || previous.lastSequence() + 1 != segment.baseSequence()) {
+                    log.warn("Deleting change log segment {} that does not continue {}", path, previous.baseSequence());
+                    segment.delete();
+                    continue;
+                }
+            }
+            opened.add(segment);
+        }
+        return opened;
+    }
+}
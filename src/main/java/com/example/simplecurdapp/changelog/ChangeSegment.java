@@ -0,0 +1,149 @@
+package com.example.simplecurdapp.changelog;
+
+import com.example.simplecurdapp.dto.ChangeRecord;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+/**
+ * One memory-mapped, preallocated file of fixed-size change records. Record
+ * {@code i} holds sequence {@code baseSequence + i}, so sequences are never
+ * stored. The entity byte is written last and is zero in unused slots, which
+ * is how {@link #open} finds the end of a segment after a restart.
+ *
+ * <p>Layout (little-endian): id (8 bytes), epoch millis (8), operation (1), entity (1), padding (6).
+ * Appends must be serialized by the caller; reads may run concurrently with them
+ * for slots the caller knows to be complete.
+ */
+final class ChangeSegment {
+
+    static final int RECORD_SIZE = 24;
+    private static final String SUFFIX = ".log";
+
+    private static final int ID_OFFSET = 0;
+    private static final int TIMESTAMP_OFFSET = 8;
+    private static final int OPERATION_OFFSET = 16;
+    private static final int ENTITY_OFFSET = 17;
+
+    private static final ChangeRecord.Entity[] ENTITIES = ChangeRecord.Entity.values();
+    private static final ChangeRecord.Operation[] OPERATIONS = ChangeRecord.Operation.values();
+
+    private final Path path;
+    private final long baseSequence;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private int count;
+
+    private ChangeSegment(Path path, long baseSequence, int capacity, MappedByteBuffer buffer, int count) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    static ChangeSegment create(Path directory, long baseSequence, int capacity) {
+        Path path = directory.resolve(String.format("%020d%s", baseSequence, SUFFIX));
+        return map(path, baseSequence, capacity, StandardOpenOption.CREATE_NEW);
+    }
+
+    /**
+     * Maps an existing segment and counts its complete records.
+     */
+    static ChangeSegment open(Path path) {
+        try {
+            int capacity = (int) (Files.size(path) / RECORD_SIZE);
+            ChangeSegment segment = map(path, baseSequenceOf(path), capacity);
+            while (segment.count < capacity && segment.buffer.get(segment.count * RECORD_SIZE + ENTITY_OFFSET) != 0) {
+                segment.count++;
+            }
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SUFFIX) && name.length() == 20 + SUFFIX.length();
+    }
+
+    static long baseSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * Sequence of the last record written, or {@code baseSequence - 1} while empty.
+     */
+    long lastSequence() {
+        return baseSequence + count - 1;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    long append(ChangeRecord.Entity entity, ChangeRecord.Operation operation, long id, long epochMillis) {
+        int offset = count * RECORD_SIZE;
+        buffer.putLong(offset + ID_OFFSET, id);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, epochMillis);
+        buffer.put(offset + OPERATION_OFFSET, (byte) (operation.ordinal() + 1));
+        buffer.put(offset + ENTITY_OFFSET, (byte) (entity.ordinal() + 1));
+        return baseSequence + count++;
+    }
+
+    ChangeRecord read(long sequence) {
+        int offset = (int) (sequence - baseSequence) * RECORD_SIZE;
+        return new ChangeRecord(
+                sequence,
+                ENTITIES[buffer.get(offset + ENTITY_OFFSET) - 1],
+                OPERATIONS[buffer.get(offset + OPERATION_OFFSET) - 1],
+                buffer.getLong(offset + ID_OFFSET),
+                Instant.ofEpochMilli(buffer.getLong(offset + TIMESTAMP_OFFSET)));
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Deletes the file. The mapping stays valid until it is garbage collected, so
+     * readers still holding this segment are unaffected.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static ChangeSegment map(Path path, long baseSequence, int capacity, StandardOpenOption... extra) {
+        try {
+            StandardOpenOption[] options = new StandardOpenOption[extra.length + 2];
+            options[0] = StandardOpenOption.READ;
+            options[1] = StandardOpenOption.WRITE;
+            System.arraycopy(extra, 0, options, 2, extra.length);
+            try (FileChannel channel = FileChannel.open(path, options)) {
+                // Mapping past the end grows the file; the new bytes read as zero
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return new ChangeSegment(path, baseSequence, capacity, buffer, 0);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.simplecurdapp.changelog;
+
+import com.example.simplecurdapp.dto.ChangeBatch;
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.exception.ChangeLogExpiredException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves the {@link ChangeLog} to HTTP consumers, either as one batch per request
+ * (optionally held open until something is appended) or as a Server-Sent Events
+ * stream.
+ *
+ * <p>Waiting requests and streams hold no thread: appends schedule a single
+ * delivery pass on the {@code changeStreamExecutor}, and passes requested while
+ * one is pending are coalesced into it.
+ */
+@Component
+public class ChangeStreams {
+
+    public static final int MAX_LIMIT = 10000;
+    public static final Duration MAX_WAIT = Duration.ofSeconds(60);
+    // Entries sent to one stream per delivery pass, so a subscriber catching up cannot starve the others
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final String EVENT_ID_SEPARATOR = ":";
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreams.class);
+
+    private final ChangeLog changeLog;
+    private final Executor executor;
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+    public ChangeStreams(ChangeLog changeLog, @Qualifier("changeStreamExecutor") Executor executor) {
+        this.changeLog = changeLog;
+        this.executor = executor;
+        changeLog.onAppend(last -> scheduleDelivery());
+    }
+
+    /**
+     * Returns the entries after {@code since}. When there are none and {@code wait}
+     * is positive, the response is held until an entry is appended or the wait
+     * ends, whichever comes first.
+     *
+     * @throws ChangeLogExpiredException if {@code since} is not a position in this log,
+     *         or the checkpoint was issued by another log
+     * @throws InvalidRequestException if a position other than 0 comes without its {@code logId}
+     */
+    public DeferredResult<ChangeBatch> poll(String logId, long since, int limit, Duration wait) {
+        Checkpoint checkpoint = checkpoint(logId, since);
+        int batchSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Duration timeout = wait.isNegative() ? Duration.ZERO : wait.compareTo(MAX_WAIT) > 0 ? MAX_WAIT : wait;
+        ChangeBatch batch = read(checkpoint, batchSize);
+        if (!batch.changes().isEmpty() || timeout.isZero()) {
+            DeferredResult<ChangeBatch> result = new DeferredResult<>();
+            result.setResult(batch);
+            return result;
+        }
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(timeout.toMillis(), () -> read(checkpoint, batchSize));
+        Waiter waiter = new Waiter(checkpoint, batchSize, result);
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // An append or new log id between the read above and registering would otherwise go unnoticed
+        if (isStale(checkpoint, changeLog.logId(), changeLog.lastSequence())) {
+            scheduleDelivery();
+        }
+        return result;
+    }
+
+    /**
+     * Opens an event stream of the entries after {@code since}, each sent as a
+     * {@code change} event whose id is {@code <logId>:<sequence>}, so a reconnecting
+     * client's {@code Last-Event-ID} (see {@link #resume}) resumes where it stopped.
+     *
+     * @throws ChangeLogExpiredException if {@code since} is not a position in this log,
+     *         or the checkpoint was issued by another log
+     * @throws InvalidRequestException if a position other than 0 comes without its {@code logId}
+     */
+    public SseEmitter stream(String logId, long since) {
+        Checkpoint checkpoint = checkpoint(logId, since);
+        // Fails before the response is committed, so the caller still gets a status code
+        changeLog.read(checkpoint.logId(), checkpoint.since(), 0);
+        SseEmitter emitter = new SseEmitter();
+        Subscriber subscriber = new Subscriber(emitter, checkpoint.logId(), checkpoint.since());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        scheduleDelivery();
+        return emitter;
+    }
+
+    /**
+     * Reopens a stream from the id of the last event a client received.
+     */
+    public SseEmitter resume(String lastEventId) {
+        int separator = lastEventId.lastIndexOf(EVENT_ID_SEPARATOR);
+        try {
+            return stream(lastEventId.substring(0, Math.max(separator, 0)),
+                    Long.parseLong(lastEventId.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid Last-Event-ID: " + lastEventId, ex);
+        }
+    }
+
+    /**
+     * Sends a comment on idle streams so proxies do not close them.
+     */
+    @Scheduled(fixedDelayString = "${app.changes.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        executor.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                try {
+                    subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException ex) {
+                    subscribers.remove(subscriber);
+                }
+            }
+        });
+    }
+
+    int waiterCount() {
+        return waiters.size();
+    }
+
+    // Sequences are local to one log, so a checkpoint is only valid on the log that issued it;
+    // position 0 is the start of the current log
+    private Checkpoint checkpoint(String logId, long since) {
+        boolean hasLogId = logId != null && !logId.isBlank();
+        if (since != 0) {
+            if (!hasLogId) {
+                throw new InvalidRequestException("logId is required with a non-zero checkpoint");
+            }
+            return new Checkpoint(logId, since);
+        }
+        ChangeLog.Epoch epoch = changeLog.epoch();
+        return new Checkpoint(hasLogId ? logId : epoch.logId(), epoch.start());
+    }
+
+    private ChangeBatch read(Checkpoint checkpoint, int limit) {
+        List<ChangeRecord> changes = changeLog.read(checkpoint.logId(), checkpoint.since(), limit);
+        long nextSince = changes.isEmpty() ? checkpoint.since() : changes.get(changes.size() - 1).sequence();
+        return new ChangeBatch(checkpoint.logId(), changes, nextSince, Math.max(nextSince, changeLog.lastSequence()));
+    }
+
+    private static boolean isStale(Checkpoint checkpoint, String logId, long last) {
+        return checkpoint.since() < last || !checkpoint.logId().equals(logId);
+    }
+
+    private void scheduleDelivery() {
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        // Cleared first, so an append during this pass schedules another one
+        deliveryScheduled.set(false);
+        String logId = changeLog.logId();
+        long last = changeLog.lastSequence();
+        for (Waiter waiter : waiters) {
+            if (isStale(waiter.checkpoint(), logId, last) && waiters.remove(waiter)) {
+                try {
+                    waiter.result().setResult(read(waiter.checkpoint(), waiter.limit()));
+                } catch (ChangeLogExpiredException ex) {
+                    waiter.result().setErrorResult(ex);
+                }
+            }
+        }
+        boolean behind = false;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.position < last || !subscriber.logId.equals(logId)) {
+                behind |= send(subscriber);
+            }
+        }
+        if (behind) {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Sends the next batch to one stream; returns whether more entries are waiting.
+     */
+    private boolean send(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter();
+        try {
+            List<ChangeRecord> changes = changeLog.read(subscriber.logId, subscriber.position, STREAM_BATCH_SIZE);
+            for (ChangeRecord change : changes) {
+                emitter.send(SseEmitter.event()
+                        .id(subscriber.logId + EVENT_ID_SEPARATOR + change.sequence())
+                        .name("change")
+                        .data(change, MediaType.APPLICATION_JSON));
+                subscriber.position = change.sequence();
+            }
+            return changes.size() == STREAM_BATCH_SIZE;
+        } catch (ChangeLogExpiredException ex) {
+            // The stream fell behind retention or its log was replaced; tell the client to resynchronize
+            subscribers.remove(subscriber);
+            try {
+                emitter.send(SseEmitter.event().name("expired").data(ex.getMessage()));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ignored) {
+                // Client already gone
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping change stream subscriber", ex);
+            subscribers.remove(subscriber);
+        }
+        return false;
+    }
+
+    private record Checkpoint(String logId, long since) {
+    }
+
+    private record Waiter(Checkpoint checkpoint, int limit, DeferredResult<ChangeBatch> result) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String logId;
+        // Only touched on the executor thread after construction
+        private long position;
+
+        private Subscriber(SseEmitter emitter, String logId, long position) {
+            this.emitter = emitter;
+            this.logId = logId;
+            this.position = position;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+    }
+}
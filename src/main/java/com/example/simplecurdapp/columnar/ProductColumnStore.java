@@ -0,0 +1,385 @@
+package com.example.simplecurdapp.columnar;
+
+import com.example.simplecurdapp.facet.ProductFacetEntry;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The filterable columns of every product in parallel primitive arrays, one row
+ * per product: price as a long scaled by {@value #PRICE_SCALE} decimal places
+ * (the column is {@code DECIMAL(10, 2)}), quantity as an int, category as an int
+ * code into a dictionary, and availability and liveness as bitsets.
+ *
+ * <p>Filters scan the arrays 64 rows at a time into a match word, AND it with
+ * the liveness word and only then touch the ids of the set bits, so a scan
+ * allocates nothing per row. Deleted rows stay as dead slots until the owner
+ * replaces the store with a freshly built one.
+ *
+ * <p>Alongside the columns, every row is kept in a price-ordered tree (price,
+ * then id) overall and per category, so price-sorted slices are found in
+ * O(log n + offset + k) without scanning or sorting.
+ *
+ * <p>Categories are matched ignoring case, as MySQL's default collation does.
+ * Scans share a read lock; updates take the write lock.
+ */
+final class ProductColumnStore {
+
+    static final int PRICE_SCALE = 2;
+    private static final int NO_CATEGORY = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private long[] ids;
+    private long[] prices;
+    private int[] quantities;
+    private int[] categories;
+    private long[] available;
+    private long[] live;
+    private int rows;
+    private int liveRows;
+    private final Map<Long, Integer> rowOf = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final NavigableSet<PriceKey> byPrice = new TreeSet<>();
+    private final Map<Integer, NavigableSet<PriceKey>> byCategoryAndPrice = new HashMap<>();
+
+    ProductColumnStore(int initialCapacity) {
+        int capacity = Math.max(64, initialCapacity);
+        ids = new long[capacity];
+        prices = new long[capacity];
+        quantities = new int[capacity];
+        categories = new int[capacity];
+        available = new long[words(capacity)];
+        live = new long[words(capacity)];
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void upsert(ProductFacetEntry entry) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowOf.get(entry.id());
+            int row;
+            if (existing != null) {
+                row = existing;
+                unindex(row);
+            } else {
+                row = rows++;
+                ensureCapacity(rows);
+                rowOf.put(entry.id(), row);
+                ids[row] = entry.id();
+                live[row >>> 6] |= 1L << row;
+                liveRows++;
+            }
+            prices[row] = entry.price() == null ? Long.MIN_VALUE : entry.price().movePointRight(PRICE_SCALE).longValue();
+            quantities[row] = entry.quantity() == null ? 0 : entry.quantity();
+            categories[row] = entry.category() == null ? NO_CATEGORY : encode(entry.category());
+            if (Boolean.TRUE.equals(entry.isAvailable())) {
+                available[row >>> 6] |= 1L << row;
+            } else {
+                available[row >>> 6] &= ~(1L << row);
+            }
+            index(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the quantity of a known product; returns false when it is not in the store.
+     */
+    boolean setQuantity(Long id, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowOf.get(id);
+            if (row == null) {
+                return false;
+            }
+            quantities[row] = quantity;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowOf.remove(id);
+            if (row != null) {
+                unindex(row);
+                live[row >>> 6] &= ~(1L << row);
+                liveRows--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The stored columns of one product, or null when it is not in the store.
+     * Categories come back as first seen, which may differ in case.
+     */
+    ProductFacetEntry entry(Long id) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowOf.get(id);
+            if (row == null) {
+                return null;
+            }
+            return new ProductFacetEntry(id,
+                    categories[row] == NO_CATEGORY ? null : dictionary.get(categories[row]),
+                    (available[row >>> 6] & (1L << row)) != 0,
+                    quantities[row],
+                    prices[row] == Long.MIN_VALUE ? null : BigDecimal.valueOf(prices[row], PRICE_SCALE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products priced between {@code min} and {@code max} inclusive, ascending.
+     */
+    long[] priceBetween(BigDecimal min, BigDecimal max) {
+        long low = scaled(min, RoundingMode.CEILING);
+        long high = scaled(max, RoundingMode.FLOOR);
+        lock.readLock().lock();
+        try {
+            long[] matches = new long[liveRows];
+            int count = 0;
+            for (int word = 0, base = 0; base < rows; word++, base += 64) {
+                int end = Math.min(64, rows - base);
+                long mask = 0;
+                for (int bit = 0; bit < end; bit++) {
+                    long price = prices[base + bit];
+                    mask |= (price >= low & price <= high ? 1L : 0L) << bit;
+                }
+                count = collect(mask & live[word], base, matches, count);
+            }
+            return sorted(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products in {@code category} (ignoring case), ascending.
+     */
+    long[] inCategory(String category) {
+        lock.readLock().lock();
+        try {
+            Integer code = category == null ? null : codes.get(fold(category));
+            if (code == null) {
+                return new long[0];
+            }
+            int wanted = code;
+            long[] matches = new long[liveRows];
+            int count = 0;
+            for (int word = 0, base = 0; base < rows; word++, base += 64) {
+                int end = Math.min(64, rows - base);
+                long mask = 0;
+                for (int bit = 0; bit < end; bit++) {
+                    mask |= (categories[base + bit] == wanted ? 1L : 0L) << bit;
+                }
+                count = collect(mask & live[word], base, matches, count);
+            }
+            return sorted(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products marked available, ascending.
+     */
+    long[] available() {
+        lock.readLock().lock();
+        try {
+            long[] matches = new long[liveRows];
+            int count = 0;
+            for (int word = 0, base = 0; base < rows; word++, base += 64) {
+                count = collect(available[word] & live[word], base, matches, count);
+            }
+            return sorted(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products with a quantity above zero, ascending.
+     */
+    long[] inStock() {
+        lock.readLock().lock();
+        try {
+            long[] matches = new long[liveRows];
+            int count = 0;
+            for (int word = 0, base = 0; base < rows; word++, base += 64) {
+                int end = Math.min(64, rows - base);
+                long mask = 0;
+                for (int bit = 0; bit < end; bit++) {
+                    mask |= (quantities[base + bit] > 0 ? 1L : 0L) << bit;
+                }
+                count = collect(mask & live[word], base, matches, count);
+            }
+            return sorted(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products priced between {@code min} and {@code max} inclusive (a
+     * null bound is open), optionally only in {@code category} and only in stock,
+     * ordered by price and then id, skipping {@code offset} and returning at most
+     * {@code limit}.
+     */
+    long[] orderedByPrice(String category, BigDecimal min, BigDecimal max, boolean inStockOnly,
+                          boolean descending, int offset, int limit) {
+        long low = min == null ? Long.MIN_VALUE : scaled(min, RoundingMode.CEILING);
+        long high = max == null ? Long.MAX_VALUE : scaled(max, RoundingMode.FLOOR);
+        lock.readLock().lock();
+        try {
+            NavigableSet<PriceKey> ordered = byPrice;
+            if (category != null) {
+                Integer code = codes.get(fold(category));
+                ordered = code == null ? null : byCategoryAndPrice.get(code);
+            }
+            if (ordered == null || low > high) {
+                return new long[0];
+            }
+            NavigableSet<PriceKey> range = ordered.subSet(
+                    new PriceKey(low, Long.MIN_VALUE, 0), true, new PriceKey(high, Long.MAX_VALUE, 0), true);
+            long[] matches = new long[Math.min(limit, liveRows)];
+            int count = 0;
+            int skipped = 0;
+            for (PriceKey key : descending ? range.descendingSet() : range) {
+                if (count == matches.length) {
+                    break;
+                }
+                if (inStockOnly && quantities[key.row()] <= 0) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                matches[count++] = key.id();
+            }
+            return Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private int collect(long mask, int base, long[] matches, int count) {
+        while (mask != 0) {
+            matches[count++] = ids[base + Long.numberOfTrailingZeros(mask)];
+            mask &= mask - 1;
+        }
+        return count;
+    }
+
+    // Rows are in insertion order; new products usually have the highest ids, so this is mostly sorted already
+    private static long[] sorted(long[] matches, int count) {
+        long[] result = Arrays.copyOf(matches, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Caller holds the write lock
+    private int encode(String category) {
+        return codes.computeIfAbsent(fold(category), folded -> {
+            dictionary.add(category);
+            return dictionary.size() - 1;
+        });
+    }
+
+    // Caller holds the write lock
+    private void index(int row) {
+        PriceKey key = new PriceKey(prices[row], ids[row], row);
+        byPrice.add(key);
+        if (categories[row] != NO_CATEGORY) {
+            byCategoryAndPrice.computeIfAbsent(categories[row], code -> new TreeSet<>()).add(key);
+        }
+    }
+
+    // Caller holds the write lock; the row still has the values it was indexed with
+    private void unindex(int row) {
+        PriceKey key = new PriceKey(prices[row], ids[row], row);
+        byPrice.remove(key);
+        if (categories[row] != NO_CATEGORY) {
+            NavigableSet<PriceKey> category = byCategoryAndPrice.get(categories[row]);
+            category.remove(key);
+            if (category.isEmpty()) {
+                byCategoryAndPrice.remove(categories[row]);
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        available = Arrays.copyOf(available, words(capacity));
+        live = Arrays.copyOf(live, words(capacity));
+    }
+
+    private static long scaled(BigDecimal value, RoundingMode rounding) {
+        BigDecimal scaled = value.movePointRight(PRICE_SCALE).setScale(0, rounding);
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        // Long.MIN_VALUE marks a missing price, so the lowest bound stays above it
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MIN_VALUE + 1)) <= 0) {
+            return Long.MIN_VALUE + 1;
+        }
+        return scaled.longValueExact();
+    }
+
+    private static String fold(String category) {
+        return category.toLowerCase(Locale.ROOT);
+    }
+
+    private static int words(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    /**
+     * Tree entry ordered by price, then id; {@code row} rides along so a walk can
+     * check the other columns without a lookup.
+     */
+    private record PriceKey(long price, long id, int row) implements Comparable<PriceKey> {
+
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = Long.compare(price, other.price);
+            return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+        }
+    }
+}
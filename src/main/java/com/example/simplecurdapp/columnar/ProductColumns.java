@@ -0,0 +1,256 @@
+package com.example.simplecurdapp.columnar;
+
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.facet.ProductFacetEntry;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * In-process, column-oriented read model of the product columns that the
+ * category, availability, in-stock and price-range listings filter and sort on
+ * (see {@link ProductColumnStore}). Filters return matching ids only; callers
+ * materialize the rows, typically through the product cache.
+ *
+ * <p>Built from the database on startup, kept current from committed writes,
+ * and kept in step across replicas by broadcasting changed ids on
+ * {@value #UPDATES_CHANNEL} so other replicas reload them. Writes that bypass
+ * the events (hot-product stock flushes, direct SQL) are picked up by the
+ * periodic rebuild. Until the first build completes, and when disabled, every
+ * filter returns empty and callers query the database.
+ */
+@Component
+public class ProductColumns implements MessageListener {
+
+    public static final String UPDATES_CHANNEL = "product-column-updates";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductColumns.class);
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TransactionTemplate primaryTransaction;
+    private final Executor columnExecutor;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object rebuildLock = new Object();
+
+    // Replaced under this; updates to the current store are made under this as well
+    private volatile ProductColumnStore store = new ProductColumnStore(0);
+    private volatile boolean ready;
+    // Ids written while a rebuild is scanning; their live row is newer than the scanned one
+    private Set<Long> touchedDuringRebuild;
+
+    public ProductColumns(ProductRepository productRepository,
+                          StringRedisTemplate stringRedisTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Qualifier("searchIndexExecutor") Executor columnExecutor,
+                          @Value("${app.product-columns.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        // Not read-only, so scans and reloads see the primary rather than a lagging replica
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.columnExecutor = columnExecutor;
+        this.enabled = enabled;
+    }
+
+    public Optional<long[]> idsInCategory(String category) {
+        return ready ? Optional.of(store.inCategory(category)) : Optional.empty();
+    }
+
+    public Optional<long[]> availableIds() {
+        return ready ? Optional.of(store.available()) : Optional.empty();
+    }
+
+    public Optional<long[]> inStockIds() {
+        return ready ? Optional.of(store.inStock()) : Optional.empty();
+    }
+
+    public Optional<long[]> idsInPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null || maxPrice == null) {
+            return Optional.empty();
+        }
+        return ready ? Optional.of(store.priceBetween(minPrice, maxPrice)) : Optional.empty();
+    }
+
+    /**
+     * Ids ordered by price, then id (see {@link ProductColumnStore#orderedByPrice});
+     * null category and price bounds do not filter.
+     */
+    public Optional<long[]> idsOrderedByPrice(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                              boolean inStockOnly, boolean descending, int offset, int limit) {
+        return ready
+                ? Optional.of(store.orderedByPrice(category, minPrice, maxPrice, inStockOnly, descending, offset, limit))
+                : Optional.empty();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        List<ProductFacetEntry> saved = event.saved().stream().map(ProductFacetEntry::of).toList();
+        apply(saved, event.deletedIds());
+        List<Long> ids = new ArrayList<>(saved.size() + event.deletedIds().size());
+        saved.forEach(entry -> ids.add(entry.id()));
+        ids.addAll(event.deletedIds());
+        broadcast(ids);
+    }
+
+    /**
+     * Applies a committed stock adjustment that did not go through an entity save.
+     */
+    public void quantityChanged(Long id, int quantity) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (!store.setQuantity(id, quantity)) {
+                // Unknown products are left to the next rebuild
+                return;
+            }
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(id);
+            }
+        }
+        broadcast(List.of(id));
+    }
+
+    /**
+     * Builds a fresh store from the database, which also drops the slots of
+     * deleted products, and swaps it in, keeping changes that commit while the
+     * scan runs.
+     */
+    @Scheduled(fixedDelayString = "${app.product-columns.rebuild-interval:PT10M}",
+               initialDelayString = "${app.product-columns.rebuild-interval:PT10M}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                touchedDuringRebuild = new HashSet<>();
+            }
+            ProductColumnStore rebuilt = new ProductColumnStore(store.size());
+            try {
+                primaryTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductFacetEntry> rows = productRepository.streamFacetEntries()) {
+                        rows.forEach(rebuilt::upsert);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    touchedDuringRebuild = null;
+                }
+                log.error("Rebuilding product columns failed", ex);
+                return;
+            }
+            synchronized (this) {
+                for (Long id : touchedDuringRebuild) {
+                    ProductFacetEntry live = store.entry(id);
+                    if (live == null) {
+                        rebuilt.remove(id);
+                    } else {
+                        rebuilt.upsert(live);
+                    }
+                }
+                touchedDuringRebuild = null;
+                store = rebuilt;
+                ready = true;
+            }
+            log.info("Rebuilt product columns: {} products", rebuilt.size());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            columnExecutor.execute(this::rebuild);
+        }
+    }
+
+    // Payload is "<nodeId>:<id>[,<id>...]"; messages from this node were already applied locally
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!enabled) {
+            return;
+        }
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : payload.substring(separator + 1).split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed product column message '{}'", payload);
+            return;
+        }
+        columnExecutor.execute(() -> reload(ids));
+    }
+
+    private void reload(List<Long> ids) {
+        try {
+            List<ProductFacetEntry> saved = primaryTransaction.execute(status -> productRepository.findFacetEntriesByIdIn(ids));
+            Set<Long> missing = new HashSet<>(ids);
+            saved.forEach(entry -> missing.remove(entry.id()));
+            apply(saved, missing);
+        } catch (RuntimeException ex) {
+            log.warn("Reloading {} products into the product columns failed", ids.size(), ex);
+        }
+    }
+
+    private synchronized void apply(Collection<ProductFacetEntry> saved, Collection<Long> deletedIds) {
+        ProductColumnStore current = store;
+        saved.forEach(current::upsert);
+        deletedIds.forEach(current::remove);
+        if (touchedDuringRebuild != null) {
+            saved.forEach(entry -> touchedDuringRebuild.add(entry.id()));
+            touchedDuringRebuild.addAll(deletedIds);
+        }
+    }
+
+    private void broadcast(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_MESSAGE) {
+                StringJoiner payload = new StringJoiner(",", nodeId + ":", "");
+                ids.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, ids.size()))
+                        .forEach(id -> payload.add(id.toString()));
+                stringRedisTemplate.convertAndSend(UPDATES_CHANNEL, payload.toString());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Broadcasting product column update failed", ex);
+        }
+    }
+}
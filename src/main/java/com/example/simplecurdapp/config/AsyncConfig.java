@@ -0,0 +1,98 @@
+package com.example.simplecurdapp.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Executor for {@code @Async} methods and Spring MVC async work (streaming
+     * responses such as exports and NDJSON). Boot backs off from its own once the
+     * pools below exist, so it is declared here: virtual threads when
+     * {@code spring.threads.virtual.enabled} is active, otherwise a pool sized by
+     * {@code spring.task.execution.pool.*}.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    AsyncTaskExecutor applicationTaskExecutor(Environment environment,
+                                              SimpleAsyncTaskExecutorBuilder simpleAsyncTaskExecutorBuilder,
+                                              ThreadPoolTaskExecutorBuilder threadPoolTaskExecutorBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return simpleAsyncTaskExecutorBuilder.build();
+        }
+        return threadPoolTaskExecutorBuilder.build();
+    }
+
+    /**
+     * Small pool for refresh-ahead cache reloads. Refreshes are best-effort, so
+     * when the queue is full new ones are dropped rather than blocking callers.
+     */
+    @Bean
+    ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+
+    /**
+     * Single thread for search index, catalog facet and product column rebuilds
+     * and for reloading rows changed on other replicas, so this maintenance never
+     * competes with request threads.
+     */
+    @Bean
+    ThreadPoolTaskExecutor searchIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("search-index-");
+        return executor;
+    }
+
+    /**
+     * Single thread that delivers change log entries to waiting polls and event
+     * streams. Deliveries are coalesced, so the queue stays short.
+     */
+    @Bean
+    ThreadPoolTaskExecutor changeStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("change-stream-");
+        return executor;
+    }
+
+    /**
+     * Runs queued product imports one at a time; each import starts its own
+     * reader and parser threads (see ImportPipeline).
+     */
+    @Bean
+    ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("product-import-");
+        return executor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.simplecurdapp.config;
+
+import com.example.simplecurdapp.loader.BatchLoader;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+import com.example.simplecurdapp.repository.ProductRepository;
+import com.example.simplecurdapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Batch loaders behind the single-id GET endpoints, so concurrent lookups share
+ * one IN query instead of issuing a primary-key query each.
+ *
+ * <p>What they load is written to the caches, so they read the primary: the
+ * repositories' own read-only transactions would go to a replica, and a row read
+ * there just after a write could be cached in its old state for the whole TTL.
+ */
+@Configuration
+public class BatchLoaderConfig {
+
+    @Bean
+    BatchLoader<Product> productBatchLoader(ProductRepository productRepository,
+                                            PlatformTransactionManager transactionManager,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${app.batch-loader.window:2ms}") Duration window,
+                                            @Value("${app.batch-loader.max-size:100}") int maxSize) {
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        return new BatchLoader<>("product",
+                id -> primary.execute(status -> productRepository.findById(id)),
+                ids -> primary.execute(status -> productRepository.findAllById(ids)),
+                Product::getId, window, maxSize, meterRegistry);
+    }
+
+    @Bean
+    BatchLoader<User> userBatchLoader(UserRepository userRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.batch-loader.window:2ms}") Duration window,
+                                      @Value("${app.batch-loader.max-size:100}") int maxSize) {
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        return new BatchLoader<>("user",
+                id -> primary.execute(status -> userRepository.findById(id)),
+                ids -> primary.execute(status -> userRepository.findAllById(ids)),
+                User::getId, window, maxSize, meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.simplecurdapp.config;
+
+import com.example.simplecurdapp.bulkhead.Bulkhead;
+import com.example.simplecurdapp.bulkhead.DataSourceBulkheadPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bulkheads in front of MySQL and Redis. With virtual threads enabled nothing
+ * else bounds how many requests reach the backends at once; with platform
+ * threads they replace Hikari's own queueing, so both modes report the same
+ * {@code bulkhead.*} metrics.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    Bulkhead mysqlBulkhead(MeterRegistry meterRegistry,
+                           @Value("${app.bulkhead.mysql.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+                           @Value("${app.bulkhead.mysql.max-wait:5s}") Duration maxWait) {
+        return new Bulkhead("mysql", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    @Bean
+    Bulkhead redisBulkhead(MeterRegistry meterRegistry,
+                           @Value("${app.bulkhead.redis.max-concurrent:64}") int maxConcurrent,
+                           @Value("${app.bulkhead.redis.max-wait:1s}") Duration maxWait) {
+        return new Bulkhead("redis", maxConcurrent, maxWait, meterRegistry);
+    }
+
+    /**
+     * Caps concurrent table exports without queueing: each holds a database
+     * connection until its client has downloaded everything.
+     */
+    @Bean
+    Bulkhead exportBulkhead(MeterRegistry meterRegistry,
+                            @Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+        return new Bulkhead("export", maxConcurrent, Duration.ZERO, meterRegistry);
+    }
+
+    @Bean
+    static DataSourceBulkheadPostProcessor dataSourceBulkheadPostProcessor(
+            @Qualifier("mysqlBulkhead") ObjectProvider<Bulkhead> mysqlBulkhead) {
+        return new DataSourceBulkheadPostProcessor(mysqlBulkhead);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.simplecurdapp.config;
+
+import com.example.simplecurdapp.bulkhead.Bulkhead;
+import com.example.simplecurdapp.bulkhead.BulkheadDataSource;
+import com.example.simplecurdapp.datasource.ReadWriteRoutingDataSource;
+import com.example.simplecurdapp.datasource.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with a primary/replica router when
+ * {@code app.datasource.replicas.enabled=true}. Writes and ordinary transactions
+ * use {@code spring.datasource.*}; {@code @Transactional(readOnly = true)} work
+ * goes to the replicas. The pools are not beans, so their {@code hikaricp.*}
+ * metrics are bound here, tagged with the pool name.
+ *
+ * <p>Each pool gets its own bulkhead, so replicas add read capacity instead of
+ * sharing the primary's permits: the primary keeps {@code mysqlBulkhead}, and
+ * replica {@code n} gets {@code mysql-replica-n}, sized to its pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties,
+                                                        ReplicaProperties replicaProperties,
+                                                        MeterRegistry meterRegistry,
+                                                        @Qualifier("mysqlBulkhead") Bulkhead mysqlBulkhead,
+                                                        @Value("${app.bulkhead.mysql.max-wait:5s}") Duration maxWait) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaProperties.Node node : replicaProperties.nodes()) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(node.url())
+                    .username(node.username() != null ? node.username() : properties.determineUsername())
+                    .password(node.password() != null ? node.password() : properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            Bulkhead bulkhead = new Bulkhead("mysql-" + replica.getPoolName(), replica.getMaximumPoolSize(),
+                    maxWait, meterRegistry);
+            replicas.add(new BulkheadDataSource(replica, bulkhead));
+        }
+        return new ReadWriteRoutingDataSource(new BulkheadDataSource(primary, mysqlBulkhead), replicas,
+                replicaProperties.maxLag(), replicaProperties.lagQuery());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
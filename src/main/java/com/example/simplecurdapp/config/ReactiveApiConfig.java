@@ -0,0 +1,77 @@
+package com.example.simplecurdapp.config;
+
+import com.example.simplecurdapp.reactive.ReactiveApiServer;
+import com.example.simplecurdapp.reactive.ReactiveProductHandler;
+import com.example.simplecurdapp.reactive.ReactiveProductRoutes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import java.time.Duration;
+
+/**
+ * Starts the reactive product API on {@code app.reactive.port} when
+ * {@code app.reactive.enabled=true}. The servlet API is unaffected; WebFlux is
+ * wired by hand because the application itself stays a servlet application.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveApiConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    /**
+     * The pool is deliberately not a bean: an R2DBC ConnectionFactory in the
+     * context would switch off the JDBC DataSource auto-configuration.
+     */
+    @Bean
+    DatabaseClient reactiveDatabaseClient(@Value("${app.reactive.r2dbc.url}") String url,
+                                          @Value("${app.reactive.r2dbc.username:}") String username,
+                                          @Value("${app.reactive.r2dbc.password:}") String password,
+                                          @Value("${app.reactive.r2dbc.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    ReactiveApiServer reactiveApiServer(ReactiveProductHandler handler, ObjectMapper objectMapper,
+                                        @Value("${app.reactive.port:8083}") int port,
+                                        @Value("${app.reactive.idle-timeout:60s}") Duration idleTimeout) {
+        // Same JSON settings as the servlet API
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveApiServer(
+                RouterFunctions.toHttpHandler(ReactiveProductRoutes.routes(handler), strategies), port, idleTimeout);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
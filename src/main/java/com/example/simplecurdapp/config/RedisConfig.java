@@ -1,10 +1,32 @@
 package com.example.simplecurdapp.config;
 
+import com.example.simplecurdapp.bulkhead.Bulkhead;
+import com.example.simplecurdapp.bulkhead.BulkheadRedisConnectionFactory;
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.cache.codec.CacheMarkerCodec;
+import com.example.simplecurdapp.cache.codec.CacheValueFormat;
+import com.example.simplecurdapp.cache.codec.CodecRedisSerializer;
+import com.example.simplecurdapp.cache.codec.ProductCodec;
+import com.example.simplecurdapp.cache.codec.UserCodec;
+import com.example.simplecurdapp.changelog.ChangeLog;
+import com.example.simplecurdapp.columnar.ProductColumns;
+import com.example.simplecurdapp.facet.CatalogFacets;
+import com.example.simplecurdapp.search.ProductSearchIndex;
+import com.example.simplecurdapp.search.UserSearchIndex;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -12,6 +34,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
@@ -25,14 +49,65 @@ public class RedisConfig {
      */
 
     @Bean
-    RedisTemplate<String, Object> RedisTemplate(RedisConnectionFactory redisConnectionFactory) 
+    RedisTemplate<String, Object> RedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                                @Qualifier("redisBulkhead") Bulkhead redisBulkhead,
+                                                CodecRedisSerializer redisValueSerializer) 
     {
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
 
-        template.setConnectionFactory(redisConnectionFactory);
+        template.setConnectionFactory(new BulkheadRedisConnectionFactory(redisConnectionFactory, redisBulkhead));
         template.setKeySerializer(new StringRedisSerializer());
 
+        template.setValueSerializer(redisValueSerializer);
+
+        return template;
+
+    }
+
+    @Bean
+    CodecRedisSerializer redisValueSerializer(@Value("${app.cache.codec.write-format:json}") CacheValueFormat writeFormat,
+                                              @Value("${app.cache.codec.compression-threshold:512}") int compressionThreshold)
+    {
+        return new CodecRedisSerializer(
+            List.of(new ProductCodec(), new UserCodec(), new CacheMarkerCodec()),
+            new GenericJackson2JsonRedisSerializer(redisObjectMapper()),
+            writeFormat,
+            compressionThreshold);
+    }
+
+    /**
+     * Non-blocking counterpart of the RedisTemplate for the reactive API, storing
+     * values in the same format. It replaces the auto-configured reactiveRedisTemplate
+     * and bypasses the bulkhead, whose permits block.
+     */
+    @Bean
+    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                                CodecRedisSerializer redisValueSerializer)
+    {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+            .<String, Object>newSerializationContext(new StringRedisSerializer())
+            .value(redisValueSerializer)
+            .build();
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, context);
+    }
+
+    /**
+     * Replaces the auto-configured StringRedisTemplate so counters, locks and
+     * scripts go through the Redis bulkhead as well.
+     */
+    @Bean
+    StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory,
+                                            @Qualifier("redisBulkhead") Bulkhead redisBulkhead)
+    {
+        return new StringRedisTemplate(new BulkheadRedisConnectionFactory(redisConnectionFactory, redisBulkhead));
+    }
+
+    /**
+     * The mapper behind JSON Redis values: every value carries its type so cached
+     * entities round-trip without a target class. Shared with the benchmarks.
+     */
+    public static ObjectMapper redisObjectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.activateDefaultTyping(
             BasicPolymorphicTypeValidator.builder().allowIfSubType(Object.class).build(),
@@ -43,12 +118,34 @@ public class RedisConfig {
 
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.findAndRegisterModules();
+        return objectMapper;
+    }
 
-
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
-
-        return template;
-
+    /**
+     * Subscribes to cross-replica cache invalidations and search index updates so
+     * near caches, second-level caches, indexes, catalog facets, product columns and change logs on every pod pick up entries
+     * written through another pod.
+     */
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                ProductCache productCache,
+                                                                CatalogFacets catalogFacets,
+                                                                ProductSearchIndex productSearchIndex,
+                                                                UserSearchIndex userSearchIndex,
+                                                                ProductColumns productColumns,
+                                                                ChangeLog changeLog,
+                                                                SecondLevelCache secondLevelCache)
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(productCache, new ChannelTopic(ProductCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(catalogFacets, new ChannelTopic(CatalogFacets.UPDATES_CHANNEL));
+        container.addMessageListener(productSearchIndex, new ChannelTopic(productSearchIndex.channel()));
+        container.addMessageListener(userSearchIndex, new ChannelTopic(userSearchIndex.channel()));
+        container.addMessageListener(productColumns, new ChannelTopic(ProductColumns.UPDATES_CHANNEL));
+        container.addMessageListener(changeLog, new ChannelTopic(ChangeLog.UPDATES_CHANNEL));
+        container.addMessageListener(secondLevelCache, new ChannelTopic(SecondLevelCache.INVALIDATION_CHANNEL));
+        return container;
     }
 
 
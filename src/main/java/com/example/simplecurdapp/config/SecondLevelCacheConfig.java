@@ -0,0 +1,62 @@
+package com.example.simplecurdapp.config;
+
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.cache.SecondLevelCacheProperties;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Backs Hibernate's second-level and query caches with in-process Caffeine
+ * caches through JCache, one per region, sized from
+ * {@link SecondLevelCacheProperties}. Regions Hibernate asks for that are not
+ * created here fail startup rather than silently getting an unbounded cache.
+ */
+@Configuration
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        // A URI of its own per application context, so contexts sharing a JVM (tests) never share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("second-level-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+        create(cacheManager, SecondLevelCache.PRODUCT_REGION, properties.product());
+        create(cacheManager, SecondLevelCache.USER_REGION, properties.user());
+        create(cacheManager, SecondLevelCache.PRODUCT_QUERY_REGION, properties.productQueries());
+        create(cacheManager, SecondLevelCache.USER_QUERY_REGION, properties.userQueries());
+        // Hibernate creates the default query region whenever the query cache is on, though every cached finder names its own
+        create(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                new SecondLevelCacheProperties.Region(100, properties.productQueries().ttl()));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>().setStoreByValue(false));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Entries are Hibernate's own disassembled copies, so they are stored by reference rather than serialized again
+    private static void create(CacheManager cacheManager, String region, SecondLevelCacheProperties.Region settings) {
+        cacheManager.createCache(region, new CaffeineConfiguration<>()
+                .setStoreByValue(false)
+                .setMaximumSize(OptionalLong.of(settings.maxSize()))
+                .setExpireAfterWrite(OptionalLong.of(settings.ttl().toNanos())));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.changelog.ChangeStreams;
+import com.example.simplecurdapp.dto.ChangeBatch;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Change Log", description = "APIs for reading product and user changes incrementally")
+public class ChangeController {
+
+    @Autowired
+    private ChangeStreams changeStreams;
+
+    @Operation(summary = "Get changes since a checkpoint",
+               description = "Retrieve product and user changes after a sequence number, optionally waiting for new ones. "
+                       + "Store logId and nextSince together as the checkpoint; on 410, resynchronize from a full read")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved changes (empty when the wait ended without any)"),
+        @ApiResponse(responseCode = "400", description = "Non-zero checkpoint without its logId", content = @Content),
+        @ApiResponse(responseCode = "410", description = "Checkpoint has expired or belongs to another log", content = @Content)
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ChangeBatch> getChanges(
+            @Parameter(description = "logId returned with the checkpoint; required when since is not 0") @RequestParam(required = false) String logId,
+            @Parameter(description = "Last sequence already processed; 0 for the beginning of the current log") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes (max 10000)") @RequestParam(defaultValue = "1000") int limit,
+            @Parameter(description = "Seconds to wait for a change when there is none yet (max 60)") @RequestParam(defaultValue = "0") int waitSeconds) {
+        return changeStreams.poll(logId, since, limit, Duration.ofSeconds(waitSeconds));
+    }
+
+    @Operation(summary = "Stream changes",
+               description = "Stream product and user changes after a sequence number as Server-Sent Events; "
+                       + "event ids are <logId>:<sequence>, and reconnecting clients resume from Last-Event-ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream opened"),
+        @ApiResponse(responseCode = "400", description = "Non-zero checkpoint without its logId, or malformed Last-Event-ID", content = @Content),
+        @ApiResponse(responseCode = "410", description = "Checkpoint has expired or belongs to another log", content = @Content)
+    })
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "logId returned with the checkpoint; required when since is not 0") @RequestParam(required = false) String logId,
+            @Parameter(description = "Last sequence already processed; 0 for the beginning of the current log") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Sent by reconnecting clients; takes precedence over logId and since") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (lastEventId != null) {
+            return changeStreams.resume(lastEventId);
+        }
+        return changeStreams.stream(logId, since);
+    }
+}
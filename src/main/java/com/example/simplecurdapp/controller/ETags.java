@@ -0,0 +1,73 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags derived from an entity's {@code @Version}, and parsing of the
+ * {@code If-None-Match} / {@code If-Match} request headers.
+ */
+final class ETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(of(version));
+        }
+        return builder.body(body);
+    }
+
+    static <T> ResponseEntity<T> notModified(Long version) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(of(version)).build();
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}: true if any listed
+     * tag (or {@code *}) matches {@code version}.
+     */
+    static boolean noneMatchHits(String ifNoneMatch, Long version) {
+        if (version == null) {
+            return false;
+        }
+        String current = of(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith(WEAK_PREFIX)) {
+                trimmed = trimmed.substring(WEAK_PREFIX.length());
+            }
+            if (trimmed.equals("*") || trimmed.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or null when there is no
+     * precondition ({@code null} or {@code *}). Only one strong tag is accepted.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new InvalidRequestException("If-Match must be a single strong ETag or *");
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("If-Match must be a single strong ETag or *");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.export.DataExporter;
+import com.example.simplecurdapp.export.ExportFormat;
+import com.example.simplecurdapp.export.ExportTable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Builds file download responses that stream a table export to the client as
+ * the rows come off the database cursor.
+ */
+final class ExportResponses {
+
+    private ExportResponses() {}
+
+    static ResponseEntity<StreamingResponseBody> of(DataExporter dataExporter, ExportTable table, String format) {
+        // Parsed up front so an unknown format is a 400 rather than a broken download
+        ExportFormat exportFormat = ExportFormat.of(format);
+        // Likewise taken up front, so too many exports get a 503 instead of a broken download
+        dataExporter.reserve();
+        StreamingResponseBody body = outputStream -> {
+            try {
+                dataExporter.export(table, exportFormat, outputStream);
+            } finally {
+                dataExporter.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(table.tableName() + exportFormat.extension()).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+
+import java.util.Set;
+
+/**
+ * Parsing of the {@code fields} parameter on listing endpoints: either
+ * {@code summary} or a comma-separated list of properties. When every requested
+ * property is part of the summary projection, the summary is served instead of
+ * full entities.
+ */
+final class FieldSelection {
+
+    static final String SUMMARY = "summary";
+
+    private FieldSelection() {
+    }
+
+    /**
+     * True if the summary projection covers {@code fields}; false when the
+     * parameter is absent or asks for anything outside it.
+     *
+     * @throws InvalidRequestException if a requested property does not exist
+     */
+    static boolean summaryCovers(String fields, Set<String> summaryFields, Set<String> allFields) {
+        if (fields == null || fields.isBlank()) {
+            return false;
+        }
+        if (SUMMARY.equalsIgnoreCase(fields.trim())) {
+            return true;
+        }
+        boolean covered = true;
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allFields.contains(name)) {
+                throw new InvalidRequestException("Unknown field: " + name);
+            }
+            covered &= summaryFields.contains(name);
+        }
+        return covered;
+    }
+}
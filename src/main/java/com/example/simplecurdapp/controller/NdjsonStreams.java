@@ -0,0 +1,33 @@
+package com.example.simplecurdapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Builds newline-delimited JSON response bodies that write each row to the
+ * response as soon as the source produces it, instead of serializing a list.
+ */
+final class NdjsonStreams {
+
+    private NdjsonStreams() {}
+
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer();
+        return outputStream -> {
+            source.accept(row -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(row));
+                    outputStream.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            outputStream.flush();
+        };
+    }
+}
@@ -1,7 +1,21 @@
 package com.example.simplecurdapp.controller;
 
+import com.example.simplecurdapp.dto.BatchGetRequest;
+import com.example.simplecurdapp.dto.BatchGetResponse;
+import com.example.simplecurdapp.dto.BulkDeleteRequest;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.ProductSummary;
+import com.example.simplecurdapp.dto.SearchPage;
+import com.example.simplecurdapp.dto.StockAdjustmentRequest;
+import com.example.simplecurdapp.dto.StockLevel;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.export.DataExporter;
+import com.example.simplecurdapp.export.ExportTable;
 import com.example.simplecurdapp.model.Product;
 import com.example.simplecurdapp.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,40 +23,123 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 @Tag(name = "Product Management", description = "APIs for managing products in the inventory system")
 public class ProductController {
 
+    // Every property of Product, for validating the fields parameter
+    private static final Set<String> PRODUCT_FIELDS = Set.of("id", "name", "description", "price", "quantity", "category", "isAvailable",
+            "createdAt", "updatedAt", "version");
+    // Slice size of a price-ordered listing when no limit is given
+    private static final int DEFAULT_LIMIT = 50;
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataExporter dataExporter;
+
     @Operation(summary = "Get all products", description = "Retrieve a list of all products in the inventory")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved list of products")
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<List<?>> getAllProducts(
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getAllProductSummaries());
+        }
         List<Product> products = productService.getAllProducts();
         return ResponseEntity.ok(products);
     }
 
-    @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
+    @Operation(summary = "Get a page of products", description = "Retrieve products ordered by ID using an opaque continuation cursor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of products"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<?>> getProductsPage(
+            @Parameter(description = "Cursor returned by the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getProductSummariesPage(cursor, size));
+        }
+        CursorPage<Product> page = productService.getProductsPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Stream all products", description = "Stream every product as newline-delimited JSON while rows are read from the database")
+    @ApiResponse(responseCode = "200", description = "Product stream started")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = NdjsonStreams.of(objectMapper, productService::streamAllProducts);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Export all products", description = "Download every product as CSV, gzip-compressed NDJSON or a columnar binary file, "
+            + "streamed from a database cursor over one consistent snapshot")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export started"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Too many exports running", content = @Content)
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Output format: csv, ndjson (gzip-compressed) or columnar")
+            @RequestParam(defaultValue = "csv") String format) {
+        return ExportResponses.of(dataExporter, ExportTable.PRODUCTS, format);
+    }
+
+    @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID; supports If-None-Match via its ETag")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found"),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the given ETag", content = @Content),
         @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(
-            @Parameter(description = "ID of the product to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the product to retrieve") @PathVariable Long id,
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = productService.getProductVersion(id);
+            if (ETags.noneMatchHits(ifNoneMatch, version)) {
+                return ETags.notModified(version);
+            }
+        }
         Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ETags.ok(product, product.getVersion());
+    }
+
+    @Operation(summary = "Get products by IDs", description = "Retrieve up to 1000 products in one call, returned in the order requested")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Products resolved; unknown IDs are listed in missingIds"),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+    })
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<Product>> getProductsByIds(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "IDs of the products to retrieve", required = true)
+            @Valid @RequestBody BatchGetRequest request) {
+        BatchGetResponse<Product> response = productService.getProductsByIds(request.ids());
+        return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Create a new product", description = "Add a new product to the inventory")
@@ -61,19 +158,65 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
+    @Operation(summary = "Bulk create products", description = "Insert up to 10000 products using JDBC batching; each item reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk create processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request", content = @Content)
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOperationResult> bulkCreateProducts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Products to be created", required = true)
+            @RequestBody List<Product> products) {
+        BulkOperationResult result = productService.bulkCreateProducts(products);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Bulk update products", description = "Overwrite up to 10000 products by ID using JDBC batching; each item reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk update processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request", content = @Content)
+    })
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkOperationResult> bulkUpdateProducts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Products to be updated, each with its ID", required = true)
+            @RequestBody List<Product> products) {
+        BulkOperationResult result = productService.bulkUpdateProducts(products);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Bulk delete products", description = "Delete up to 10000 products by ID using JDBC batching; each ID reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk delete processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+    })
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkOperationResult> bulkDeleteProducts(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "IDs of the products to delete", required = true)
+            @Valid @RequestBody BulkDeleteRequest request) {
+        BulkOperationResult result = productService.bulkDeleteProducts(request.ids());
+        return ResponseEntity.ok(result);
+    }
+
     @Operation(summary = "Update a product", description = "Update an existing product's information")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product updated successfully"),
-        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
             @Parameter(description = "ID of the product to update") @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Updated product information", required = true)
-            @RequestBody Product productDetails) {
-        Product updatedProduct = productService.updateProduct(id, productDetails);
-        return ResponseEntity.ok(updatedProduct);
+            @RequestBody Product productDetails,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product updatedProduct = productService.updateProduct(id, productDetails, ETags.expectedVersion(ifMatch));
+        return ETags.ok(updatedProduct, updatedProduct.getVersion());
     }
 
     // ...existing code...
@@ -90,20 +233,42 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search products", description = "Search products by keyword in name, description, or category")
-    @ApiResponse(responseCode = "200", description = "Search completed successfully")
+    @Operation(summary = "Search products", description = "Ranked full-text search over product name, category, or description; supports prefixes and tolerates typos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+        @ApiResponse(responseCode = "400", description = "Page beyond the searchable window", content = @Content)
+    })
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(
-            @Parameter(description = "Keyword to search for") @RequestParam String keyword) {
-        List<Product> products = productService.searchProducts(keyword);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<SearchPage<Product>> searchProducts(
+            @Parameter(description = "Keyword to search for") @RequestParam String keyword,
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, capped at 100") @RequestParam(defaultValue = "20") int size) {
+        SearchPage<Product> results = productService.searchProducts(keyword, page, size);
+        return ResponseEntity.ok(results);
     }
 
-    @Operation(summary = "Get products by category", description = "Retrieve all products in a specific category")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved products in category")
+    @Operation(summary = "Get products by category", description = "Retrieve all products in a specific category, "
+            + "or with sort, limit, offset or inStock one price-ordered slice of them")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products in category"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort or offset beyond the listable window", content = @Content)
+    })
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(
-            @Parameter(description = "Category name") @PathVariable String category) {
+    public ResponseEntity<List<?>> getProductsByCategory(
+            @Parameter(description = "Category name") @PathVariable String category,
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields,
+            @Parameter(description = "'price', 'price,asc' or 'price,desc'; ties are broken by ID") @RequestParam(required = false) String sort,
+            @Parameter(description = "Maximum number of products, capped at 500; defaults to 50 when ordering") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Number of products to skip") @RequestParam(required = false) Integer offset,
+            @Parameter(description = "Only products with quantity greater than zero") @RequestParam(required = false) Boolean inStock) {
+        if (sort != null || limit != null || offset != null || inStock != null) {
+            List<Product> products = productService.getProductsByCategoryOrderedByPrice(category, Boolean.TRUE.equals(inStock),
+                    descendingByPrice(sort), offset == null ? 0 : offset, limit == null ? DEFAULT_LIMIT : limit);
+            return ResponseEntity.ok(summaryOnly(fields) ? products.stream().map(ProductSummary::of).toList() : products);
+        }
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getProductSummariesByCategory(category));
+        }
         List<Product> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(products);
     }
@@ -111,7 +276,11 @@ public class ProductController {
     @Operation(summary = "Get available products", description = "Retrieve all products marked as available")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved available products")
     @GetMapping("/available")
-    public ResponseEntity<List<Product>> getAvailableProducts() {
+    public ResponseEntity<List<?>> getAvailableProducts(
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getAvailableProductSummaries());
+        }
         List<Product> products = productService.getAvailableProducts();
         return ResponseEntity.ok(products);
     }
@@ -119,17 +288,39 @@ public class ProductController {
     @Operation(summary = "Get in-stock products", description = "Retrieve all products with quantity greater than zero")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved in-stock products")
     @GetMapping("/in-stock")
-    public ResponseEntity<List<Product>> getInStockProducts() {
+    public ResponseEntity<List<?>> getInStockProducts(
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getInStockProductSummaries());
+        }
         List<Product> products = productService.getInStockProducts();
         return ResponseEntity.ok(products);
     }
 
-    @Operation(summary = "Get products by price range", description = "Retrieve products within a specified price range")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved products in price range")
+    @Operation(summary = "Get products by price range", description = "Retrieve products within a specified price range, "
+            + "or with sort, limit, offset or inStock one price-ordered slice of them")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved products in price range"),
+        @ApiResponse(responseCode = "400", description = "Unsupported sort or offset beyond the listable window", content = @Content)
+    })
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public ResponseEntity<List<?>> getProductsByPriceRange(
             @Parameter(description = "Minimum price") @RequestParam BigDecimal minPrice,
-            @Parameter(description = "Maximum price") @RequestParam BigDecimal maxPrice) {
+            @Parameter(description = "Maximum price") @RequestParam BigDecimal maxPrice,
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields,
+            @Parameter(description = "'price', 'price,asc' or 'price,desc'; ties are broken by ID") @RequestParam(required = false) String sort,
+            @Parameter(description = "Maximum number of products, capped at 500; defaults to 50 when ordering") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Number of products to skip") @RequestParam(required = false) Integer offset,
+            @Parameter(description = "Only products with quantity greater than zero") @RequestParam(required = false) Boolean inStock) {
+        if (sort != null || limit != null || offset != null || inStock != null) {
+            List<Product> products = productService.getProductsByPriceRangeOrderedByPrice(minPrice, maxPrice,
+                    Boolean.TRUE.equals(inStock), descendingByPrice(sort), offset == null ? 0 : offset,
+                    limit == null ? DEFAULT_LIMIT : limit);
+            return ResponseEntity.ok(summaryOnly(fields) ? products.stream().map(ProductSummary::of).toList() : products);
+        }
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(productService.getProductSummariesByPriceRange(minPrice, maxPrice));
+        }
         List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
         return ResponseEntity.ok(products);
     }
@@ -142,29 +333,88 @@ public class ProductController {
         return ResponseEntity.ok(categories);
     }
 
+    @Operation(summary = "Get catalog facets", description = "Per-category product, availability and in-stock counts with price bounds")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved catalog facets")
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacet>> getCatalogFacets() {
+        return ResponseEntity.ok(productService.getCatalogFacets());
+    }
+
     @Operation(summary = "Update product availability", description = "Change the availability status of a product")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product availability updated"),
-        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PatchMapping("/{id}/availability")
     public ResponseEntity<Product> updateProductAvailability(
             @Parameter(description = "ID of the product") @PathVariable Long id,
-            @Parameter(description = "Availability status") @RequestParam Boolean isAvailable) {
-        Product product = productService.updateProductAvailability(id, isAvailable);
-        return ResponseEntity.ok(product);
+            @Parameter(description = "Availability status") @RequestParam Boolean isAvailable,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product product = productService.updateProductAvailability(id, isAvailable, ETags.expectedVersion(ifMatch));
+        return ETags.ok(product, product.getVersion());
     }
 
     @Operation(summary = "Update product quantity", description = "Change the quantity of a product in stock")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product quantity updated"),
-        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PatchMapping("/{id}/quantity")
     public ResponseEntity<Product> updateProductQuantity(
             @Parameter(description = "ID of the product") @PathVariable Long id,
-            @Parameter(description = "New quantity") @RequestParam Integer quantity) {
-        Product product = productService.updateProductQuantity(id, quantity);
-        return ResponseEntity.ok(product);
+            @Parameter(description = "New quantity") @RequestParam Integer quantity,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the product has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product product = productService.updateProductQuantity(id, quantity, ETags.expectedVersion(ifMatch));
+        return ETags.ok(product, product.getVersion());
+    }
+
+    @Operation(summary = "Decrement product stock", description = "Atomically remove units from stock and return the new level; never goes below zero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock decremented"),
+        @ApiResponse(responseCode = "400", description = "Invalid amount", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock", content = @Content)
+    })
+    @PostMapping("/{id}/stock/decrement")
+    public ResponseEntity<StockLevel> decrementStock(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentRequest request) {
+        StockLevel level = productService.decrementStock(id, request.amount());
+        return ResponseEntity.ok(level);
+    }
+
+    @Operation(summary = "Increment product stock", description = "Atomically add units to stock and return the new level")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock incremented"),
+        @ApiResponse(responseCode = "400", description = "Invalid amount", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+    })
+    @PostMapping("/{id}/stock/increment")
+    public ResponseEntity<StockLevel> incrementStock(
+            @Parameter(description = "Product ID") @PathVariable Long id,
+            @Valid @RequestBody StockAdjustmentRequest request) {
+        StockLevel level = productService.incrementStock(id, request.amount());
+        return ResponseEntity.ok(level);
+    }
+
+    // Price is the only supported sort key; without a sort the slice is cheapest first
+    private static boolean descendingByPrice(String sort) {
+        if (sort == null || sort.equals("price") || sort.equals("price,asc")) {
+            return false;
+        }
+        if (sort.equals("price,desc")) {
+            return true;
+        }
+        throw new InvalidRequestException("Unsupported sort '" + sort + "'; use price, price,asc or price,desc");
+    }
+
+    private static boolean summaryOnly(String fields) {
+        return FieldSelection.summaryCovers(fields, ProductSummary.FIELDS, PRODUCT_FIELDS);
     }
 }
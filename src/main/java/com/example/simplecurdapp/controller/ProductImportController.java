@@ -0,0 +1,98 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.dto.ImportProgress;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.importer.ImportFormat;
+import com.example.simplecurdapp.importer.ProductImports;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/products/import")
+@Tag(name = "Product Import", description = "APIs for importing large product files in the background")
+public class ProductImportController {
+
+    @Autowired
+    private ProductImports productImports;
+
+    @Operation(summary = "Import products from a file",
+               description = "Upload a CSV file with a header row (text/csv) or one JSON product per line (application/x-ndjson) "
+                       + "as the raw request body. The file is stored and imported in the background in committed chunks; "
+                       + "follow the Location header for progress")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "File stored and import queued"),
+        @ApiResponse(responseCode = "400", description = "Unusable CSV header", content = @Content)
+    })
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportProgress> importProducts(
+            @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        ImportProgress progress = productImports.submit(body, ImportFormat.forMediaType(contentType));
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}")
+                .buildAndExpand(progress.jobId()).toUri();
+        return ResponseEntity.accepted().location(location).body(progress);
+    }
+
+    @Operation(summary = "Get import progress", description = "Retrieve the state and counts of an import as of its last committed chunk")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved progress"),
+        @ApiResponse(responseCode = "404", description = "Import job not found", content = @Content)
+    })
+    @GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportProgress> getImportProgress(
+            @Parameter(description = "Import job ID", required = true) @PathVariable String jobId) {
+        return ResponseEntity.ok(productImports.progress(jobId));
+    }
+
+    @Operation(summary = "Get rejected rows", description = "Download the rows of an import that were not imported, as CSV with their line number and the reason")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved rejected rows"),
+        @ApiResponse(responseCode = "404", description = "Import job not found or not started yet", content = @Content)
+    })
+    @GetMapping(value = "/{jobId}/rejected", produces = "text/csv")
+    public ResponseEntity<Resource> getRejectedRows(
+            @Parameter(description = "Import job ID", required = true) @PathVariable String jobId) {
+        Path rejectedRows = productImports.rejectedRows(jobId);
+        if (!Files.exists(rejectedRows)) {
+            throw new ResourceNotFoundException("Rejected rows", "import job", jobId);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(rejectedRows));
+    }
+
+    @Operation(summary = "Resume an import", description = "Queue a failed or interrupted import again; it continues after its last committed chunk")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import queued"),
+        @ApiResponse(responseCode = "400", description = "Import has already completed", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Import job or its source file not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Import is already queued or running", content = @Content)
+    })
+    @PostMapping(value = "/{jobId}/resume", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportProgress> resumeImport(
+            @Parameter(description = "Import job ID", required = true) @PathVariable String jobId) {
+        return ResponseEntity.accepted().body(productImports.resume(jobId));
+    }
+}
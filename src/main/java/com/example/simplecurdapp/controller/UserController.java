@@ -1,7 +1,17 @@
 package com.example.simplecurdapp.controller;
 
+import com.example.simplecurdapp.dto.BatchGetRequest;
+import com.example.simplecurdapp.dto.BatchGetResponse;
+import com.example.simplecurdapp.dto.BulkDeleteRequest;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.SearchPage;
+import com.example.simplecurdapp.dto.UserSummary;
+import com.example.simplecurdapp.export.DataExporter;
+import com.example.simplecurdapp.export.ExportTable;
 import com.example.simplecurdapp.model.User;
 import com.example.simplecurdapp.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,21 +19,34 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "User Management", description = "APIs for managing users in the system")
 public class UserController {
 
+    // Every property of User, for validating the fields parameter
+    private static final Set<String> USER_FIELDS = Set.of("id", "name", "email", "phone", "address", "isActive", "version");
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataExporter dataExporter;
 
     @Operation(summary = "Get user data with caching", description = "Retrieve user by ID with Redis caching support")
     @ApiResponses(value = {
@@ -43,21 +66,87 @@ public class UserController {
     @Operation(summary = "Get all users", description = "Retrieve a list of all users in the system")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved list of users")
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
+    public ResponseEntity<List<?>> getAllUsers(
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(userService.getAllUserSummaries());
+        }
         List<User> users = userService.getAllUsers();
         return ResponseEntity.status(HttpStatus.OK).body(users);
     }
 
-    @Operation(summary = "Get user by ID", description = "Retrieve a specific user by their ID")
+    @Operation(summary = "Get a page of users", description = "Retrieve users ordered by ID using an opaque continuation cursor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved page of users"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor", content = @Content)
+    })
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<?>> getUsersPage(
+            @Parameter(description = "Cursor returned by the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 500)") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(userService.getUserSummariesPage(cursor, size));
+        }
+        CursorPage<User> page = userService.getUsersPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Stream all users", description = "Stream every user as newline-delimited JSON while rows are read from the database")
+    @ApiResponse(responseCode = "200", description = "User stream started")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = NdjsonStreams.of(objectMapper, userService::streamAllUsers);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Export all users", description = "Download every user as CSV, gzip-compressed NDJSON or a columnar binary file, "
+            + "streamed from a database cursor over one consistent snapshot")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export started"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Too many exports running", content = @Content)
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Output format: csv, ndjson (gzip-compressed) or columnar")
+            @RequestParam(defaultValue = "csv") String format) {
+        return ExportResponses.of(dataExporter, ExportTable.USERS, format);
+    }
+
+    @Operation(summary = "Get user by ID", description = "Retrieve a specific user by their ID; supports If-None-Match via its ETag")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User found"),
+        @ApiResponse(responseCode = "304", description = "User unchanged since the given ETag", content = @Content),
         @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
     })
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(
-            @Parameter(description = "ID of the user to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the user to retrieve") @PathVariable Long id,
+            @Parameter(description = "ETag from a previous response")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = userService.getUserVersion(id);
+            if (ETags.noneMatchHits(ifNoneMatch, version)) {
+                return ETags.notModified(version);
+            }
+        }
         User user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return ETags.ok(user, user.getVersion());
+    }
+
+    @Operation(summary = "Get users by IDs", description = "Retrieve up to 1000 users in one call, returned in the order requested")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Users resolved; unknown IDs are listed in missingIds"),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+    })
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponse<User>> getUsersByIds(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "IDs of the users to retrieve", required = true)
+            @Valid @RequestBody BatchGetRequest request) {
+        BatchGetResponse<User> response = userService.getUsersByIds(request.ids());
+        return ResponseEntity.ok(response);
     }
 
     @Operation(summary = "Create a new user", description = "Add a new user to the system")
@@ -76,20 +165,65 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
 
+    @Operation(summary = "Bulk create users", description = "Insert up to 10000 users using JDBC batching; each item reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk create processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request", content = @Content)
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOperationResult> bulkCreateUsers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Users to be created", required = true)
+            @RequestBody List<User> users) {
+        BulkOperationResult result = userService.bulkCreateUsers(users);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Bulk update users", description = "Overwrite up to 10000 users by ID using JDBC batching; each item reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk update processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request", content = @Content)
+    })
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkOperationResult> bulkUpdateUsers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Users to be updated, each with its ID", required = true)
+            @RequestBody List<User> users) {
+        BulkOperationResult result = userService.bulkUpdateUsers(users);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Bulk delete users", description = "Delete up to 10000 users by ID using JDBC batching; each ID reports its own outcome")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk delete processed; see per-item results"),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+    })
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<BulkOperationResult> bulkDeleteUsers(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "IDs of the users to delete", required = true)
+            @Valid @RequestBody BulkDeleteRequest request) {
+        BulkOperationResult result = userService.bulkDeleteUsers(request.ids());
+        return ResponseEntity.ok(result);
+    }
+
     @Operation(summary = "Update a user", description = "Update an existing user's information")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User updated successfully"),
         @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
-        @ApiResponse(responseCode = "409", description = "Email already in use", content = @Content)
+        @ApiResponse(responseCode = "409", description = "Email already in use or concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PutMapping("/{id}")
     public ResponseEntity<User> updateUser(
             @Parameter(description = "ID of the user to update") @PathVariable Long id,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Updated user information", required = true)
-            @RequestBody User userDetails) {
-        User updatedUser = userService.updateUser(id, userDetails);
-        return ResponseEntity.ok(updatedUser);
+            @RequestBody User userDetails,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the user has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User updatedUser = userService.updateUser(id, userDetails, ETags.expectedVersion(ifMatch));
+        return ETags.ok(updatedUser, updatedUser.getVersion());
     }
 
     @Operation(summary = "Delete a user", description = "Remove a user from the system")
@@ -104,19 +238,28 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search users", description = "Search users by keyword in name, email, phone, or address")
-    @ApiResponse(responseCode = "200", description = "Search completed successfully")
+    @Operation(summary = "Search users", description = "Ranked full-text search over user name, email, phone, or address; supports prefixes and tolerates typos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+        @ApiResponse(responseCode = "400", description = "Page beyond the searchable window", content = @Content)
+    })
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(
-            @Parameter(description = "Keyword to search for") @RequestParam String keyword) {
-        List<User> users = userService.searchUsers(keyword);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<SearchPage<User>> searchUsers(
+            @Parameter(description = "Keyword to search for") @RequestParam String keyword,
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, capped at 100") @RequestParam(defaultValue = "20") int size) {
+        SearchPage<User> results = userService.searchUsers(keyword, page, size);
+        return ResponseEntity.ok(results);
     }
 
     @Operation(summary = "Get active users", description = "Retrieve all users with active status")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved active users")
     @GetMapping("/active")
-    public ResponseEntity<List<User>> getActiveUsers() {
+    public ResponseEntity<List<?>> getActiveUsers(
+            @Parameter(description = "Properties needed, or 'summary'; served from a lightweight projection when it covers them") @RequestParam(required = false) String fields) {
+        if (summaryOnly(fields)) {
+            return ResponseEntity.ok(userService.getActiveUserSummaries());
+        }
         List<User> users = userService.getActiveUsers();
         return ResponseEntity.ok(users);
     }
@@ -137,24 +280,36 @@ public class UserController {
     @Operation(summary = "Deactivate a user", description = "Set user's active status to false")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User deactivated successfully"),
-        @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PatchMapping("/{id}/deactivate")
     public ResponseEntity<User> deactivateUser(
-            @Parameter(description = "ID of the user to deactivate") @PathVariable Long id) {
-        User user = userService.deactivateUser(id);
-        return ResponseEntity.ok(user);
+            @Parameter(description = "ID of the user to deactivate") @PathVariable Long id,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the user has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User user = userService.deactivateUser(id, ETags.expectedVersion(ifMatch));
+        return ETags.ok(user, user.getVersion());
     }
 
     @Operation(summary = "Activate a user", description = "Set user's active status to true")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User activated successfully"),
-        @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "User not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Concurrent modification", content = @Content),
+        @ApiResponse(responseCode = "412", description = "If-Match does not match the current version", content = @Content)
     })
     @PatchMapping("/{id}/activate")
     public ResponseEntity<User> activateUser(
-            @Parameter(description = "ID of the user to activate") @PathVariable Long id) {
-        User user = userService.activateUser(id);
-        return ResponseEntity.ok(user);
+            @Parameter(description = "ID of the user to activate") @PathVariable Long id,
+            @Parameter(description = "ETag the client last saw; the write is rejected with 412 if the user has changed since")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User user = userService.activateUser(id, ETags.expectedVersion(ifMatch));
+        return ETags.ok(user, user.getVersion());
+    }
+
+    private static boolean summaryOnly(String fields) {
+        return FieldSelection.summaryCovers(fields, UserSummary.FIELDS, USER_FIELDS);
     }
 }
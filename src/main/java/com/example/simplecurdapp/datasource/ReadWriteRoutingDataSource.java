@@ -0,0 +1,154 @@
+package com.example.simplecurdapp.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a healthy read replica, round-robin, and
+ * everything else to the primary. A replica counts as healthy while it answers
+ * and lags the primary by at most {@code maxLag}; with none healthy, reads fall
+ * back to the primary.
+ *
+ * <p>Must be wrapped in a {@code LazyConnectionDataSourceProxy}: JPA begins a
+ * transaction before it is marked read-only, so the physical connection has to
+ * be fetched lazily for the read-only flag to be visible here.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                      Duration maxLag, String lagQuery) {
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Re-evaluates every replica's connectivity and replication lag.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                log.warn("Read replica {} is now {}", replica.key, healthy ? "in rotation" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    /**
+     * Closes the primary and replica pools on shutdown.
+     */
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    List<String> healthyReplicas() {
+        List<String> keys = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                keys.add(replica.key);
+            }
+        }
+        return keys;
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery(lagQuery)) {
+                if (!status.next()) {
+                    // Not configured as a replica (e.g. a standalone local database): nothing to lag behind
+                    return true;
+                }
+                Long lagSeconds = secondsBehind(status);
+                // NULL means replication is stopped or broken
+                return lagSeconds != null && lagSeconds <= maxLag.toSeconds();
+            }
+        } catch (SQLException ex) {
+            log.debug("Health check failed for read replica {}", replica.key, ex);
+            return false;
+        }
+    }
+
+    // MySQL 8.0.22+ reports Seconds_Behind_Source; older servers Seconds_Behind_Master
+    private static Long secondsBehind(ResultSet status) throws SQLException {
+        for (String column : new String[] {"Seconds_Behind_Source", "Seconds_Behind_Master"}) {
+            try {
+                long value = status.getLong(status.findColumn(column));
+                return status.wasNull() ? null : value;
+            } catch (SQLException missingColumn) {
+                // try the next name
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        final String key;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+    }
+}
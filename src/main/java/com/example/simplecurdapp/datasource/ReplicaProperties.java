@@ -0,0 +1,25 @@
+package com.example.simplecurdapp.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas behind {@link ReadWriteRoutingDataSource}. Replica credentials
+ * default to the primary's ({@code spring.datasource.username/password}).
+ *
+ * @param maxLag   replicas further behind the primary than this are skipped
+ * @param lagQuery statement reporting replication lag; blank to only check connectivity
+ */
+@ConfigurationProperties("app.datasource.replicas")
+public record ReplicaProperties(
+        boolean enabled,
+        @DefaultValue List<Node> nodes,
+        @DefaultValue("PT5S") Duration maxLag,
+        @DefaultValue("SHOW REPLICA STATUS") String lagQuery) {
+
+    public record Node(String url, String username, String password) {
+    }
+}
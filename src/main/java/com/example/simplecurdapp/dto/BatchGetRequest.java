@@ -0,0 +1,15 @@
+package com.example.simplecurdapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchGetRequest(
+        @NotEmpty(message = "ids must not be empty")
+        @Size(max = BatchGetRequest.MAX_IDS, message = "at most " + BatchGetRequest.MAX_IDS + " ids per request")
+        List<@NotNull Long> ids) {
+
+    public static final int MAX_IDS = 1000;
+}
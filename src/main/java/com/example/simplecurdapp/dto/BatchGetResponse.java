@@ -0,0 +1,27 @@
+package com.example.simplecurdapp.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a batch lookup: the entities that exist, in the order their ids were
+ * requested (duplicates collapsed), plus the requested ids that were not found.
+ */
+public record BatchGetResponse<T>(List<T> items, List<Long> missingIds) {
+
+    public static <T> BatchGetResponse<T> inRequestOrder(List<Long> requestedIds, Map<Long, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(requestedIds)) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new BatchGetResponse<>(items, missingIds);
+    }
+}
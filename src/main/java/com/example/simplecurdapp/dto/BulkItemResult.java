@@ -0,0 +1,8 @@
+package com.example.simplecurdapp.dto;
+
+/**
+ * Outcome of one item in a bulk request. {@code index} is the item's position in
+ * the request body; {@code error} is only set when {@code status} is FAILED.
+ */
+public record BulkItemResult(int index, Long id, BulkItemStatus status, String error) {
+}
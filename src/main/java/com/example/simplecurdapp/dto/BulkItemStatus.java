@@ -0,0 +1,8 @@
+package com.example.simplecurdapp.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    FAILED
+}
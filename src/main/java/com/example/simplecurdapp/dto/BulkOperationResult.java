@@ -0,0 +1,40 @@
+package com.example.simplecurdapp.dto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public record BulkOperationResult(int total, int succeeded, int failed, List<BulkItemResult> items) {
+
+    public static Builder builder(int total) {
+        return new Builder(total);
+    }
+
+    public static final class Builder {
+
+        private final int total;
+        private final List<BulkItemResult> items;
+        private int failed;
+
+        private Builder(int total) {
+            this.total = total;
+            this.items = new ArrayList<>(total);
+        }
+
+        public Builder success(int index, Long id, BulkItemStatus status) {
+            items.add(new BulkItemResult(index, id, status, null));
+            return this;
+        }
+
+        public Builder failure(int index, Long id, String error) {
+            items.add(new BulkItemResult(index, id, BulkItemStatus.FAILED, error));
+            failed++;
+            return this;
+        }
+
+        public BulkOperationResult build() {
+            items.sort(Comparator.comparingInt(BulkItemResult::index));
+            return new BulkOperationResult(total, items.size() - failed, failed, List.copyOf(items));
+        }
+    }
+}
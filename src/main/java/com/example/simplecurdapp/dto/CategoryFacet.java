@@ -0,0 +1,16 @@
+package com.example.simplecurdapp.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog counts for one category.
+ *
+ * @param products  products in the category
+ * @param available products flagged available
+ * @param inStock   products with a positive quantity
+ * @param minPrice  lowest price in the category
+ * @param maxPrice  highest price in the category
+ */
+public record CategoryFacet(String category, long products, long available, long inStock,
+                            BigDecimal minPrice, BigDecimal maxPrice) {
+}
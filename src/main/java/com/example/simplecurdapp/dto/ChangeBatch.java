@@ -0,0 +1,12 @@
+package com.example.simplecurdapp.dto;
+
+import java.util.List;
+
+/**
+ * A slice of the change log. Pass {@code logId} and {@code nextSince} (as
+ * {@code since}) on the next call; together they are the checkpoint to store.
+ * Sequences are only meaningful within the log named by {@code logId}: once that
+ * log is replaced the checkpoint gets 410 Gone, so resynchronize and start over.
+ */
+public record ChangeBatch(String logId, List<ChangeRecord> changes, long nextSince, long lastSequence) {
+}
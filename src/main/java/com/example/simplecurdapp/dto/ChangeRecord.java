@@ -0,0 +1,15 @@
+package com.example.simplecurdapp.dto;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change log: the row {@code id} of {@code entity} was created
+ * or updated ({@code UPSERT}) or deleted ({@code DELETE}). Entries carry no row
+ * data; consumers fetch the current state, e.g. through the batch-get endpoints.
+ */
+public record ChangeRecord(long sequence, Entity entity, Operation operation, long id, Instant timestamp) {
+
+    public enum Entity { PRODUCT, USER }
+
+    public enum Operation { UPSERT, DELETE }
+}
@@ -0,0 +1,58 @@
+package com.example.simplecurdapp.dto;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token
+ * the client passes back to fetch the following page; it is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, boolean hasMore) {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    /**
+     * Builds a page from a query that fetched {@code pageSize + 1} rows ordered by id;
+     * the extra row only signals that another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> fromOverfetch(List<T> rows, int pageSize, Function<T, Long> idOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = List.copyOf(rows.subList(0, pageSize));
+        return new CursorPage<>(items, encodeCursor(idOf.apply(items.get(pageSize - 1))), true);
+    }
+
+    public static String encodeCursor(Long lastId) {
+        String raw = CURSOR_PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeCursor(Long)}. A null or blank
+     * cursor means "start from the beginning" and decodes to 0.
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, ex);
+        }
+        if (!raw.startsWith(CURSOR_PREFIX)) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+        try {
+            return Long.parseLong(raw.substring(CURSOR_PREFIX.length()));
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor, ex);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.simplecurdapp.dto;
+
+import com.example.simplecurdapp.importer.ImportFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Where a product import stands, as of its last committed chunk. Rows up to
+ * {@code bytesProcessed} of {@code totalBytes} are either imported or listed
+ * in the job's rejected-rows file.
+ */
+public record ImportProgress(String jobId,
+                             ImportFormat format,
+                             State state,
+                             long totalBytes,
+                             long bytesProcessed,
+                             long linesProcessed,
+                             long imported,
+                             long rejected,
+                             LocalDateTime createdAt,
+                             LocalDateTime updatedAt,
+                             String error) {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+}
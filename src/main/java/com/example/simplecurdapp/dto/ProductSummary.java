@@ -0,0 +1,21 @@
+package com.example.simplecurdapp.dto;
+
+import com.example.simplecurdapp.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Listing view of a product. Read through a constructor projection, so only
+ * these columns leave MySQL and no entity is hydrated or tracked.
+ */
+public record ProductSummary(Long id, String name, BigDecimal price, String category, Boolean isAvailable) {
+
+    public static final Set<String> FIELDS = Set.of("id", "name", "price", "category", "isAvailable");
+
+    // For listings that are already loaded as entities
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getCategory(),
+                product.getIsAvailable());
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.simplecurdapp.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results in relevance order.
+ *
+ * @param totalHits total number of matches across all pages
+ */
+public record SearchPage<T>(List<T> items, long totalHits, int page, int size) {
+}
@@ -0,0 +1,10 @@
+package com.example.simplecurdapp.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Number of units to add to or remove from a product's stock.
+ */
+public record StockAdjustmentRequest(@NotNull @Positive Integer amount) {
+}
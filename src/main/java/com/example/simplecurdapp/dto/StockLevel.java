@@ -0,0 +1,7 @@
+package com.example.simplecurdapp.dto;
+
+/**
+ * Stock on hand for a product right after an adjustment.
+ */
+public record StockLevel(Long productId, int quantity) {
+}
@@ -0,0 +1,12 @@
+package com.example.simplecurdapp.dto;
+
+import java.util.Set;
+
+/**
+ * Listing view of a user. Read through a constructor projection, so only
+ * these columns leave MySQL and no entity is hydrated or tracked.
+ */
+public record UserSummary(Long id, String name, String email, Boolean isActive) {
+
+    public static final Set<String> FIELDS = Set.of("id", "name", "email", "isActive");
+}
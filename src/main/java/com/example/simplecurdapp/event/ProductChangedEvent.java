@@ -0,0 +1,24 @@
+package com.example.simplecurdapp.event;
+
+import com.example.simplecurdapp.model.Product;
+
+import java.util.List;
+
+/**
+ * Published by {@code ProductService} whenever products are written. Listeners
+ * that maintain derived views (search index, ...) should consume it with
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param saved      products as they are after the change
+ * @param deletedIds ids of products that no longer exist
+ */
+public record ProductChangedEvent(List<Product> saved, List<Long> deletedIds) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(List.of(product), List.of());
+    }
+
+    public static ProductChangedEvent deleted(Long id) {
+        return new ProductChangedEvent(List.of(), List.of(id));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.simplecurdapp.event;
+
+import com.example.simplecurdapp.model.User;
+
+import java.util.List;
+
+/**
+ * Published by {@code UserService} whenever users are written. Listeners
+ * that maintain derived views (search index, ...) should consume it with
+ * {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param saved      users as they are after the change
+ * @param deletedIds ids of users that no longer exist
+ */
+public record UserChangedEvent(List<User> saved, List<Long> deletedIds) {
+
+    public static UserChangedEvent saved(User product) {
+        return new UserChangedEvent(List.of(product), List.of());
+    }
+
+    public static UserChangedEvent deleted(Long id) {
+        return new UserChangedEvent(List.of(), List.of(id));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.simplecurdapp.exception;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead, int maxConcurrent, Duration maxWait) {
+        super(String.format("%s bulkhead full: %d calls in flight, no permit within %d ms",
+                bulkhead, maxConcurrent, maxWait.toMillis()));
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
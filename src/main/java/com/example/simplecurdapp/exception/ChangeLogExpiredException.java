@@ -0,0 +1,12 @@
+package com.example.simplecurdapp.exception;
+
+/**
+ * The requested change log position is no longer (or was never) in this log,
+ * so the consumer has to resynchronize from a full read.
+ */
+public class ChangeLogExpiredException extends RuntimeException {
+
+    public ChangeLogExpiredException(String message) {
+        super(message);
+    }
+}
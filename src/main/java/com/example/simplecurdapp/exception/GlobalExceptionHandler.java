@@ -1,7 +1,11 @@
 package com.example.simplecurdapp.exception;
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -42,6 +46,102 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(
+            InsufficientStockException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Insufficient stock",
+            HttpStatus.CONFLICT.value(),
+            request.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Precondition failed",
+            HttpStatus.PRECONDITION_FAILED.value(),
+            request.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ChangeLogExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleChangeLogExpiredException(
+            ChangeLogExpiredException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Change log position expired",
+            HttpStatus.GONE.value(),
+            request.getDescription(false)
+        );
+
+        // Explicit type: the request may only accept text/event-stream
+        return ResponseEntity.status(HttpStatus.GONE).contentType(MediaType.APPLICATION_JSON).body(errorResponse);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "The resource was modified concurrently; reload it and retry",
+            "Concurrent modification",
+            HttpStatus.CONFLICT.value(),
+            request.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFullException(
+            BulkheadFullException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Service busy, retry later",
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            request.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // A full MySQL bulkhead surfaces wrapped in Spring's connection failure exceptions
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConnectionFailure(Exception ex, WebRequest request) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkheadFullException bulkheadFull) {
+                return handleBulkheadFullException(bulkheadFull, request);
+            }
+        }
+        return handleGlobalException(ex, request);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(
+            InvalidRequestException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            ex.getMessage(),
+            "Invalid request",
+            HttpStatus.BAD_REQUEST.value(),
+            request.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
@@ -0,0 +1,9 @@
+package com.example.simplecurdapp.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String resourceName, Object id, Long expectedVersion, Long currentVersion) {
+        super(String.format("%s %s is at version %s, but the request expected version %s",
+                resourceName, id, currentVersion, expectedVersion));
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.simplecurdapp.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, column-oriented binary file in the spirit of Parquet, written in
+ * one forward pass. Rows are buffered into row groups of {@code rowGroupSize}
+ * (the export's fetch size) and each group is written column by column, so a
+ * reader can skip the columns it does not need and similar values sit together.
+ *
+ * <p>Layout, big-endian:
+ * <pre>
+ * file      = "SCOL" version:u8 columnCount:u16 column* group* 0:i32 rowCount:i64
+ * column    = name:modified-UTF-8 (as DataOutput.writeUTF) type:u8 (ExportColumn.Type ordinal)
+ * group     = rows:i32 chunk*            (one chunk per column, in column order)
+ * chunk     = byteLength:i32 presence values
+ * presence  = ceil(rows / 8) bytes; bit i (LSB first) set when row i is not NULL
+ * </pre>
+ * Values are written for non-NULL rows only: LONG as zigzag varint deltas from
+ * the previous value in the chunk (ids are ascending, so mostly one byte), INT
+ * as zigzag varints, DECIMAL as a scale byte for the chunk followed by zigzag
+ * varint unscaled values, BOOLEAN as a bitmap like presence, TIMESTAMP as
+ * zigzag varint deltas of epoch microseconds (the stored local date-time read
+ * as UTC), and STRING as a varint byte length followed by UTF-8.
+ */
+final class ColumnarExportWriter implements ExportWriter {
+
+    static final byte[] MAGIC = {'S', 'C', 'O', 'L'};
+    static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final List<ExportColumn> columns;
+    private final Object[][] group;
+    private final ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+    private int rows;
+    private long totalRows;
+
+    ColumnarExportWriter(OutputStream out, List<ExportColumn> columns, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.columns = columns;
+        this.group = new Object[rowGroupSize][];
+        this.out.write(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeShort(columns.size());
+        for (ExportColumn column : columns) {
+            this.out.writeUTF(column.name());
+            this.out.writeByte(column.type().ordinal());
+        }
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        group[rows++] = values;
+        if (rows == group.length) {
+            flushGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (rows > 0) {
+            flushGroup();
+        }
+        out.writeInt(0);
+        out.writeLong(totalRows);
+        out.flush();
+    }
+
+    private void flushGroup() throws IOException {
+        out.writeInt(rows);
+        for (int column = 0; column < columns.size(); column++) {
+            chunk.reset();
+            writePresence(column);
+            writeValues(column, columns.get(column).type());
+            out.writeInt(chunk.size());
+            chunk.writeTo(out);
+        }
+        totalRows += rows;
+        // Drop the references so the previous group can be collected while the next one fills
+        Arrays.fill(group, 0, rows, null);
+        rows = 0;
+    }
+
+    private void writePresence(int column) {
+        byte[] bits = new byte[(rows + 7) >>> 3];
+        for (int row = 0; row < rows; row++) {
+            if (group[row][column] != null) {
+                bits[row >>> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+        chunk.writeBytes(bits);
+    }
+
+    private void writeValues(int column, ExportColumn.Type type) {
+        switch (type) {
+            case LONG -> {
+                long previous = 0;
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof Long value) {
+                        writeVarLong(value - previous);
+                        previous = value;
+                    }
+                }
+            }
+            case INT -> {
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof Integer value) {
+                        writeVarLong(value);
+                    }
+                }
+            }
+            case DECIMAL -> {
+                int scale = 0;
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof BigDecimal value) {
+                        scale = Math.max(scale, value.scale());
+                    }
+                }
+                chunk.write(scale);
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof BigDecimal value) {
+                        writeVarLong(value.setScale(scale).unscaledValue().longValueExact());
+                    }
+                }
+            }
+            case BOOLEAN -> {
+                byte[] bits = new byte[(rows + 7) >>> 3];
+                for (int row = 0; row < rows; row++) {
+                    if (Boolean.TRUE.equals(group[row][column])) {
+                        bits[row >>> 3] |= (byte) (1 << (row & 7));
+                    }
+                }
+                chunk.writeBytes(bits);
+            }
+            case TIMESTAMP -> {
+                long previous = 0;
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof LocalDateTime value) {
+                        long micros = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+                        writeVarLong(micros - previous);
+                        previous = micros;
+                    }
+                }
+            }
+            case STRING -> {
+                for (int row = 0; row < rows; row++) {
+                    if (group[row][column] instanceof String value) {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        writeVarLong(bytes.length);
+                        chunk.writeBytes(bytes);
+                    }
+                }
+            }
+        }
+    }
+
+    // Zigzag, then 7 bits per byte with the high bit marking a continuation
+    private void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            chunk.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        chunk.write((int) zigzag);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.simplecurdapp.export;
+
+import com.example.simplecurdapp.bulkhead.Bulkhead;
+import com.example.simplecurdapp.exception.BulkheadFullException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Streams whole tables to an output stream in id order, straight off a
+ * forward-only, read-only JDBC cursor: the driver fetches {@code fetch-size}
+ * rows at a time (MySQL needs {@code useCursorFetch=true} on the URL for this)
+ * and each row is encoded as soon as it is read, so memory stays at about one
+ * fetch batch whatever the table size. No entities or persistence context are
+ * involved.
+ *
+ * <p>The export runs in one read-only REPEATABLE READ transaction, so it reflects
+ * a single consistent snapshot even while writes continue. Being read-only, it
+ * is served by a replica when replicas are enabled.
+ *
+ * <p>An export holds its connection until the client has read everything, so
+ * slow downloads would drain the connection pool; at most
+ * {@code app.export.max-concurrent} run at once (see {@link #reserve()}).
+ */
+@Component
+public class DataExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(DataExporter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate snapshot;
+    private final Bulkhead exportBulkhead;
+    private final int fetchSize;
+
+    public DataExporter(JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        @Qualifier("exportBulkhead") Bulkhead exportBulkhead,
+                        @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("app.export.fetch-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        // Plain JDBC, so a JDBC transaction manager over the same (routing) data source is enough
+        this.snapshot = new TransactionTemplate(new JdbcTransactionManager(jdbcTemplate.getDataSource()));
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.exportBulkhead = exportBulkhead;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Takes an export slot before the response is committed; pair each successful
+     * call with one {@link #release()} once the export has ended.
+     *
+     * @throws BulkheadFullException if the maximum number of exports is already running
+     */
+    public void reserve() {
+        exportBulkhead.acquire();
+    }
+
+    public void release() {
+        exportBulkhead.release();
+    }
+
+    /**
+     * Writes every row of {@code table} to {@code out} and returns the number of
+     * rows. {@code out} is flushed but not closed.
+     */
+    public long export(ExportTable table, ExportFormat format, OutputStream out) {
+        long started = System.nanoTime();
+        List<ExportColumn> columns = table.columns();
+        Long rows = snapshot.execute(status -> {
+            try {
+                ExportWriter writer = format.writer(out, columns, fetchSize, objectMapper.getFactory());
+                long[] count = {0};
+                jdbcTemplate.query(con -> {
+                    PreparedStatement statement = con.prepareStatement(table.selectSql(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, rs -> {
+                    Object[] values = new Object[columns.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = columns.get(i).type().read(rs, i + 1);
+                    }
+                    try {
+                        writer.row(values);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    count[0]++;
+                });
+                writer.finish();
+                return count[0];
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        log.info("Exported {} {} as {} in {} ms", rows, table.tableName(), format,
+                (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.simplecurdapp.export;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * One exported column: {@code name} is the property name used in every format
+ * (as in the JSON API), {@code sqlColumn} the column it is selected from.
+ */
+public record ExportColumn(String name, String sqlColumn, Type type) {
+
+    /**
+     * Value types; the Java type of a read value is given per constant.
+     */
+    public enum Type {
+        /** {@link Long} */
+        LONG,
+        /** {@link Integer} */
+        INT,
+        /** {@link java.math.BigDecimal} */
+        DECIMAL,
+        /** {@link String} */
+        STRING,
+        /** {@link Boolean} */
+        BOOLEAN,
+        /** {@link java.time.LocalDateTime} */
+        TIMESTAMP;
+
+        Object read(ResultSet rs, int index) throws SQLException {
+            Object value = switch (this) {
+                case LONG -> rs.getLong(index);
+                case INT -> rs.getInt(index);
+                case DECIMAL -> rs.getBigDecimal(index);
+                case STRING -> rs.getString(index);
+                case BOOLEAN -> rs.getBoolean(index);
+                case TIMESTAMP -> {
+                    Timestamp timestamp = rs.getTimestamp(index);
+                    yield timestamp == null ? null : timestamp.toLocalDateTime();
+                }
+            };
+            return rs.wasNull() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.simplecurdapp.export;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Output formats of {@link DataExporter}.
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", ".csv"),
+    NDJSON_GZIP("application/gzip", ".ndjson.gz"),
+    COLUMNAR("application/octet-stream", ".scol");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * Parses {@code csv}, {@code ndjson} (always gzip-compressed) or {@code columnar}.
+     */
+    public static ExportFormat of(String name) {
+        return switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "csv" -> CSV;
+            case "ndjson", "ndjson.gz" -> NDJSON_GZIP;
+            case "columnar" -> COLUMNAR;
+            default -> throw new InvalidRequestException("Unsupported export format '" + name
+                    + "'; use csv, ndjson or columnar");
+        };
+    }
+
+    ExportWriter writer(OutputStream out, List<ExportColumn> columns, int rowGroupSize, JsonFactory jsonFactory)
+            throws IOException {
+        return switch (this) {
+            case CSV -> new CsvExportWriter(out, columns);
+            case NDJSON_GZIP -> new NdjsonExportWriter(out, columns, jsonFactory);
+            case COLUMNAR -> new ColumnarExportWriter(out, columns, rowGroupSize);
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.simplecurdapp.export;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.example.simplecurdapp.export.ExportColumn.Type.BOOLEAN;
+import static com.example.simplecurdapp.export.ExportColumn.Type.DECIMAL;
+import static com.example.simplecurdapp.export.ExportColumn.Type.INT;
+import static com.example.simplecurdapp.export.ExportColumn.Type.LONG;
+import static com.example.simplecurdapp.export.ExportColumn.Type.STRING;
+import static com.example.simplecurdapp.export.ExportColumn.Type.TIMESTAMP;
+
+/**
+ * The tables that can be exported, with every column of their entity. Column
+ * names follow the JSON properties, so an exported product CSV can be imported
+ * again as is.
+ */
+public enum ExportTable {
+
+    PRODUCTS("products", List.of(
+            new ExportColumn("id", "id", LONG),
+            new ExportColumn("name", "name", STRING),
+            new ExportColumn("description", "description", STRING),
+            new ExportColumn("price", "price", DECIMAL),
+            new ExportColumn("quantity", "quantity", INT),
+            new ExportColumn("category", "category", STRING),
+            new ExportColumn("isAvailable", "is_available", BOOLEAN),
+            new ExportColumn("createdAt", "created_at", TIMESTAMP),
+            new ExportColumn("updatedAt", "updated_at", TIMESTAMP),
+            new ExportColumn("version", "version", LONG))),
+
+    USERS("users", List.of(
+            new ExportColumn("id", "id", LONG),
+            new ExportColumn("name", "name", STRING),
+            new ExportColumn("email", "email", STRING),
+            new ExportColumn("phone", "phone", STRING),
+            new ExportColumn("address", "address", STRING),
+            new ExportColumn("isActive", "is_active", BOOLEAN),
+            new ExportColumn("version", "version", LONG)));
+
+    private final String tableName;
+    private final List<ExportColumn> columns;
+
+    ExportTable(String tableName, List<ExportColumn> columns) {
+        this.tableName = tableName;
+        this.columns = columns;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public List<ExportColumn> columns() {
+        return columns;
+    }
+
+    // Primary key order, so the cursor walks the clustered index without sorting
+    String selectSql() {
+        return columns.stream().map(ExportColumn::sqlColumn)
+                .collect(Collectors.joining(", ", "SELECT ", " FROM " + tableName + " ORDER BY id"));
+    }
+}
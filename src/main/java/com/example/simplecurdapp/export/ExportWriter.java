@@ -0,0 +1,17 @@
+package com.example.simplecurdapp.export;
+
+import java.io.IOException;
+
+/**
+ * Encodes exported rows onto a response stream. Values arrive in column order
+ * and have the Java types of their {@link ExportColumn.Type}; null means SQL NULL.
+ */
+interface ExportWriter {
+
+    void row(Object[] values) throws IOException;
+
+    /**
+     * Writes anything still buffered and the format's trailer; does not close the stream.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,63 @@
+package com.example.simplecurdapp.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed newline-delimited JSON, one object per row with the same
+ * property names and value shapes as the JSON API (timestamps as ISO-8601
+ * strings, nulls included).
+ */
+final class NdjsonExportWriter implements ExportWriter {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final List<ExportColumn> columns;
+    private final GZIPOutputStream gzip;
+    private final JsonGenerator generator;
+
+    NdjsonExportWriter(OutputStream out, List<ExportColumn> columns, JsonFactory jsonFactory) throws IOException {
+        this.columns = columns;
+        this.gzip = new GZIPOutputStream(out, BUFFER_BYTES);
+        this.generator = jsonFactory.createGenerator(gzip);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows end with a newline instead of the default space between root values
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void row(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            generator.writeFieldName(columns.get(i).name());
+            Object value = values[i];
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Long number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Integer number) {
+                generator.writeNumber(number);
+            } else if (value instanceof BigDecimal number) {
+                generator.writeNumber(number);
+            } else if (value instanceof Boolean bool) {
+                generator.writeBoolean(bool);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+        gzip.finish();
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.simplecurdapp.facet;
+
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+/**
+ * Per-category product counts and price bounds, kept in memory so
+ * {@code /api/products/categories} and {@code /api/products/facets} never scan
+ * the products table.
+ *
+ * <p>Each product's contribution is remembered, so committed writes move it
+ * between categories without a query. Changed categories are written to the
+ * {@value #REDIS_KEY} hash, which serves reads until this replica's first build
+ * completes, and the changed ids are broadcast so other replicas reload them.
+ *
+ * <p>Hot-product stock flushes and direct SQL bypass the write events; a periodic
+ * reconcile rebuilds everything from the database and corrects any drift.
+ */
+@Component
+public class CatalogFacets implements MessageListener {
+
+    public static final String REDIS_KEY = "Product_Facets";
+    public static final String UPDATES_CHANNEL = "product-facet-updates";
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogFacets.class);
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TransactionTemplate primaryTransaction;
+    private final Executor facetExecutor;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object reconcileLock = new Object();
+
+    // Guarded by this
+    private final Map<Long, ProductFacetEntry> entries = new HashMap<>();
+    private final Map<String, CategoryAggregate> aggregates = new TreeMap<>();
+    // Ids written while a reconcile is scanning; their live entry is newer than the scanned row
+    private Set<Long> touchedDuringReconcile;
+
+    private volatile List<CategoryFacet> snapshot = List.of();
+    private volatile boolean ready;
+
+    public CatalogFacets(ProductRepository productRepository,
+                         StringRedisTemplate stringRedisTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Qualifier("searchIndexExecutor") Executor facetExecutor) {
+        this.productRepository = productRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        // Not read-only, so scans and reloads see the primary rather than a lagging replica
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.facetExecutor = facetExecutor;
+    }
+
+    /**
+     * Facets of every category in name order, or empty when neither this replica
+     * nor Redis has them yet and the caller should query the database.
+     */
+    public Optional<List<CategoryFacet>> facets() {
+        if (ready) {
+            return Optional.of(snapshot);
+        }
+        return fromRedis();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<ProductFacetEntry> saved = event.saved().stream().map(ProductFacetEntry::of).toList();
+        apply(saved, event.deletedIds());
+        List<Long> ids = new ArrayList<>(saved.size() + event.deletedIds().size());
+        saved.forEach(entry -> ids.add(entry.id()));
+        ids.addAll(event.deletedIds());
+        broadcast(ids);
+    }
+
+    /**
+     * Applies a committed stock adjustment that did not go through an entity save.
+     */
+    public void quantityChanged(Long id, int quantity) {
+        synchronized (this) {
+            ProductFacetEntry entry = entries.get(id);
+            // Unknown products are left to the next reconcile; only crossing zero changes a facet
+            if (entry == null || entry.inStock() == (quantity > 0)) {
+                return;
+            }
+            apply(List.of(entry.withQuantity(quantity)), List.of());
+        }
+        broadcast(List.of(id));
+    }
+
+    /**
+     * Rebuilds the facets from the database, keeping changes that commit while
+     * the scan runs, and replaces the Redis hash.
+     */
+    @Scheduled(fixedDelayString = "${app.facets.reconcile-interval:PT10M}",
+               initialDelayString = "${app.facets.reconcile-interval:PT10M}")
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            synchronized (this) {
+                touchedDuringReconcile = new HashSet<>();
+            }
+            Map<Long, ProductFacetEntry> loaded = new HashMap<>();
+            try {
+                primaryTransaction.executeWithoutResult(status -> {
+                    try (Stream<ProductFacetEntry> rows = productRepository.streamFacetEntries()) {
+                        rows.forEach(entry -> loaded.put(entry.id(), entry));
+                    }
+                });
+            } catch (RuntimeException ex) {
+                synchronized (this) {
+                    touchedDuringReconcile = null;
+                }
+                log.error("Reconciling catalog facets failed", ex);
+                return;
+            }
+            List<CategoryFacet> previous;
+            List<CategoryFacet> current;
+            synchronized (this) {
+                for (Long id : touchedDuringReconcile) {
+                    ProductFacetEntry live = entries.get(id);
+                    if (live == null) {
+                        loaded.remove(id);
+                    } else {
+                        loaded.put(id, live);
+                    }
+                }
+                touchedDuringReconcile = null;
+                entries.clear();
+                entries.putAll(loaded);
+                aggregates.clear();
+                loaded.values().forEach(entry -> contribute(entry, 1));
+                previous = snapshot;
+                current = publishSnapshot();
+                ready = true;
+            }
+            if (!current.equals(previous)) {
+                log.info("Reconciled catalog facets: {} categories from {} products", current.size(), loaded.size());
+            }
+            replaceInRedis(current);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        facetExecutor.execute(this::reconcile);
+    }
+
+    // Payload is "<nodeId>:<id>[,<id>...]"; messages from this node were already applied locally
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : payload.substring(separator + 1).split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed catalog facet message '{}'", payload);
+            return;
+        }
+        facetExecutor.execute(() -> reload(ids));
+    }
+
+    private void reload(List<Long> ids) {
+        try {
+            List<ProductFacetEntry> saved = primaryTransaction.execute(status -> productRepository.findFacetEntriesByIdIn(ids));
+            Set<Long> missing = new HashSet<>(ids);
+            saved.forEach(entry -> missing.remove(entry.id()));
+            apply(saved, missing);
+        } catch (RuntimeException ex) {
+            log.warn("Reloading {} products into the catalog facets failed", ids.size(), ex);
+        }
+    }
+
+    private void apply(Collection<ProductFacetEntry> saved, Collection<Long> deletedIds) {
+        Set<String> changed = new TreeSet<>();
+        List<CategoryFacet> current;
+        synchronized (this) {
+            for (ProductFacetEntry entry : saved) {
+                replace(entries.put(entry.id(), entry), entry, changed);
+            }
+            for (Long id : deletedIds) {
+                replace(entries.remove(id), null, changed);
+            }
+            if (touchedDuringReconcile != null) {
+                saved.forEach(entry -> touchedDuringReconcile.add(entry.id()));
+                touchedDuringReconcile.addAll(deletedIds);
+            }
+            current = changed.isEmpty() ? snapshot : publishSnapshot();
+        }
+        if (!changed.isEmpty()) {
+            updateInRedis(changed, current);
+        }
+    }
+
+    private void replace(ProductFacetEntry previous, ProductFacetEntry next, Set<String> changed) {
+        if (previous != null) {
+            contribute(previous, -1);
+            if (previous.category() != null) {
+                changed.add(previous.category());
+            }
+        }
+        if (next != null) {
+            contribute(next, 1);
+            if (next.category() != null) {
+                changed.add(next.category());
+            }
+        }
+    }
+
+    private void contribute(ProductFacetEntry entry, int sign) {
+        if (entry.category() == null) {
+            return;
+        }
+        CategoryAggregate aggregate = aggregates.computeIfAbsent(entry.category(), category -> new CategoryAggregate());
+        aggregate.add(entry, sign);
+        if (aggregate.products == 0) {
+            aggregates.remove(entry.category());
+        }
+    }
+
+    private List<CategoryFacet> publishSnapshot() {
+        List<CategoryFacet> facets = new ArrayList<>(aggregates.size());
+        aggregates.forEach((category, aggregate) -> facets.add(aggregate.toFacet(category)));
+        snapshot = List.copyOf(facets);
+        return snapshot;
+    }
+
+    // Concurrent writers may land out of order; the next reconcile rewrites the whole hash
+    private void updateInRedis(Set<String> changed, List<CategoryFacet> current) {
+        try {
+            Map<String, String> values = new HashMap<>();
+            for (CategoryFacet facet : current) {
+                if (changed.contains(facet.category())) {
+                    values.put(facet.category(), encode(facet));
+                }
+            }
+            List<Object> removed = new ArrayList<>(changed);
+            removed.removeAll(values.keySet());
+            if (!values.isEmpty()) {
+                stringRedisTemplate.opsForHash().putAll(REDIS_KEY, values);
+            }
+            if (!removed.isEmpty()) {
+                stringRedisTemplate.opsForHash().delete(REDIS_KEY, removed.toArray());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Updating catalog facets in Redis failed", ex);
+        }
+    }
+
+    private void replaceInRedis(List<CategoryFacet> current) {
+        try {
+            if (current.isEmpty()) {
+                stringRedisTemplate.delete(REDIS_KEY);
+                return;
+            }
+            Map<String, String> values = new HashMap<>();
+            current.forEach(facet -> values.put(facet.category(), encode(facet)));
+            // Filled under a private key and renamed so readers never see a partial hash
+            String staging = REDIS_KEY + "_" + nodeId;
+            stringRedisTemplate.delete(staging);
+            stringRedisTemplate.opsForHash().putAll(staging, values);
+            stringRedisTemplate.rename(staging, REDIS_KEY);
+        } catch (RuntimeException ex) {
+            log.warn("Replacing catalog facets in Redis failed", ex);
+        }
+    }
+
+    private Optional<List<CategoryFacet>> fromRedis() {
+        try {
+            Map<Object, Object> values = stringRedisTemplate.opsForHash().entries(REDIS_KEY);
+            if (values.isEmpty()) {
+                return Optional.empty();
+            }
+            Map<String, CategoryFacet> facets = new TreeMap<>();
+            values.forEach((category, value) -> facets.put((String) category, decode((String) category, (String) value)));
+            return Optional.of(List.copyOf(facets.values()));
+        } catch (RuntimeException ex) {
+            log.warn("Reading catalog facets from Redis failed", ex);
+            return Optional.empty();
+        }
+    }
+
+    private void broadcast(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_MESSAGE) {
+                StringJoiner payload = new StringJoiner(",", nodeId + ":", "");
+                ids.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, ids.size()))
+                        .forEach(id -> payload.add(id.toString()));
+                stringRedisTemplate.convertAndSend(UPDATES_CHANNEL, payload.toString());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Broadcasting catalog facet update failed", ex);
+        }
+    }
+
+    // Hash value is "products,available,inStock,minPrice,maxPrice"
+    static String encode(CategoryFacet facet) {
+        return facet.products() + "," + facet.available() + "," + facet.inStock() + ","
+                + (facet.minPrice() == null ? "" : facet.minPrice().toPlainString()) + ","
+                + (facet.maxPrice() == null ? "" : facet.maxPrice().toPlainString());
+    }
+
+    static CategoryFacet decode(String category, String value) {
+        String[] parts = value.split(",", -1);
+        return new CategoryFacet(category, Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                parts[3].isEmpty() ? null : new BigDecimal(parts[3]),
+                parts[4].isEmpty() ? null : new BigDecimal(parts[4]));
+    }
+
+    private static final class CategoryAggregate {
+
+        private long products;
+        private long available;
+        private long inStock;
+        // Price multiset, so the bounds survive removing the cheapest or dearest product
+        private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        void add(ProductFacetEntry entry, int sign) {
+            products += sign;
+            if (entry.available()) {
+                available += sign;
+            }
+            if (entry.inStock()) {
+                inStock += sign;
+            }
+            if (entry.price() != null) {
+                prices.merge(entry.price(), sign, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        CategoryFacet toFacet(String category) {
+            return new CategoryFacet(category, products, available, inStock,
+                    prices.isEmpty() ? null : prices.firstKey(),
+                    prices.isEmpty() ? null : prices.lastKey());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.simplecurdapp.facet;
+
+import com.example.simplecurdapp.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of one product that feed the catalog facets.
+ */
+public record ProductFacetEntry(Long id, String category, Boolean isAvailable, Integer quantity, BigDecimal price) {
+
+    public static ProductFacetEntry of(Product product) {
+        return new ProductFacetEntry(product.getId(), product.getCategory(), product.getIsAvailable(),
+                product.getQuantity(), product.getPrice());
+    }
+
+    ProductFacetEntry withQuantity(int quantity) {
+        return new ProductFacetEntry(id, category, isAvailable, quantity, price);
+    }
+
+    boolean available() {
+        return Boolean.TRUE.equals(isAvailable);
+    }
+
+    boolean inStock() {
+        return quantity != null && quantity > 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * Source file formats accepted by {@link ProductImports}: CSV with a header row
+ * (RFC 4180 quoting) or one JSON product per line.
+ */
+public enum ImportFormat {
+
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ImportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ImportFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unsupported import format '" + name + "'; use csv or ndjson");
+        }
+    }
+
+    public static ImportFormat forMediaType(MediaType contentType) {
+        for (ImportFormat format : values()) {
+            if (MediaType.parseMediaType(format.mediaType).includes(contentType)) {
+                return format;
+            }
+        }
+        throw new InvalidRequestException("Unsupported import content type '" + contentType
+                + "'; use text/csv or application/x-ndjson");
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.simplecurdapp.importer;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves an import file through three stages joined by bounded queues: a reader
+ * thread cuts records into chunks, parser threads turn chunks into rows in
+ * parallel, and the calling thread hands parsed chunks to the sink in file
+ * order. A chunk holds a permit from the moment it is read until the sink is
+ * done with it, so at most {@code chunksInFlight} chunks are in memory and a
+ * slow sink holds the reader back rather than letting the queues grow.
+ */
+final class ImportPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final int chunkSize;
+    private final int parsers;
+    private final int chunksInFlight;
+
+    ImportPipeline(int chunkSize, int parsers, int chunksInFlight) {
+        if (chunkSize <= 0 || parsers <= 0 || chunksInFlight <= 0) {
+            throw new IllegalArgumentException("Import chunk size, parsers and chunks in flight must be positive");
+        }
+        this.chunkSize = chunkSize;
+        this.parsers = parsers;
+        this.chunksInFlight = chunksInFlight;
+    }
+
+    /**
+     * Runs {@code reader} to its end, handing every chunk to {@code sink} in order.
+     * A failure in any stage stops the others and is rethrown here.
+     */
+    void run(RecordReader reader, ProductRecordParser parser, ChunkSink sink) throws IOException, InterruptedException {
+        Semaphore permits = new Semaphore(chunksInFlight);
+        BlockingQueue<RawChunk> raw = new ArrayBlockingQueue<>(chunksInFlight);
+        BlockingQueue<ParsedChunk> parsed = new ArrayBlockingQueue<>(chunksInFlight);
+        AtomicLong chunkCount = new AtomicLong(-1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("import-");
+        threadFactory.setDaemon(true);
+        ExecutorService stages = Executors.newFixedThreadPool(parsers + 1, threadFactory);
+        try {
+            stages.execute(guarded(failure, () -> read(reader, permits, raw, chunkCount)));
+            for (int i = 0; i < parsers; i++) {
+                stages.execute(guarded(failure, () -> parse(parser, raw, parsed)));
+            }
+            write(parsed, permits, chunkCount, failure, sink);
+        } finally {
+            stages.shutdownNow();
+        }
+    }
+
+    private void read(RecordReader reader, Semaphore permits, BlockingQueue<RawChunk> raw, AtomicLong chunkCount)
+            throws IOException, InterruptedException {
+        for (long sequence = 0; ; sequence++) {
+            permits.acquire();
+            List<SourceRecord> records = new ArrayList<>(chunkSize);
+            SourceRecord record;
+            while (records.size() < chunkSize && (record = reader.next()) != null) {
+                records.add(record);
+            }
+            if (records.isEmpty()) {
+                chunkCount.set(sequence);
+                return;
+            }
+            raw.put(new RawChunk(sequence, records, reader.offset(), reader.line()));
+        }
+    }
+
+    private static void parse(ProductRecordParser parser, BlockingQueue<RawChunk> raw, BlockingQueue<ParsedChunk> parsed)
+            throws InterruptedException {
+        // Ends when the pipeline shuts the stages down
+        while (true) {
+            RawChunk chunk = raw.take();
+            List<ProductRecordParser.Row> rows = new ArrayList<>(chunk.records().size());
+            chunk.records().forEach(record -> rows.add(parser.parse(record)));
+            parsed.put(new ParsedChunk(chunk.sequence(), rows, chunk.endOffset(), chunk.endLine()));
+        }
+    }
+
+    // Parsers finish out of order; chunks wait here until the ones before them are written
+    private static void write(BlockingQueue<ParsedChunk> parsed, Semaphore permits, AtomicLong chunkCount,
+                              AtomicReference<Throwable> failure, ChunkSink sink) throws IOException, InterruptedException {
+        Map<Long, ParsedChunk> pending = new HashMap<>();
+        long next = 0;
+        while (next != chunkCount.get()) {
+            Throwable failed = failure.get();
+            if (failed != null) {
+                rethrow(failed);
+            }
+            ParsedChunk chunk = parsed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (chunk == null) {
+                continue;
+            }
+            pending.put(chunk.sequence(), chunk);
+            for (ParsedChunk ready; (ready = pending.remove(next)) != null; next++) {
+                sink.accept(ready);
+                permits.release();
+            }
+        }
+    }
+
+    private static Runnable guarded(AtomicReference<Throwable> failure, Stage stage) {
+        return () -> {
+            try {
+                stage.run();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable ex) {
+                failure.compareAndSet(null, ex);
+            }
+        };
+    }
+
+    private static void rethrow(Throwable failure) throws IOException {
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(failure);
+    }
+
+    /**
+     * Receives parsed chunks in file order on the thread that called {@link #run}.
+     */
+    interface ChunkSink {
+        void accept(ParsedChunk chunk) throws IOException;
+    }
+
+    /**
+     * Parsed rows of one chunk; the file position just after its last record is
+     * where a resumed import continues once the chunk is committed.
+     */
+    record ParsedChunk(long sequence, List<ProductRecordParser.Row> rows, long endOffset, long endLine) {
+    }
+
+    private record RawChunk(long sequence, List<SourceRecord> records, long endOffset, long endLine) {
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+}
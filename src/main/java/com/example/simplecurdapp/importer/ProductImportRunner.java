@@ -0,0 +1,78 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.dto.ImportProgress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Command-line import: started with {@code --import-file=<path>} (plus optional
+ * {@code --import-format=csv|ndjson} and {@code --import-job=<id>}), the
+ * application imports the file, logs progress, and exits with 0 on success or 1
+ * on failure. Without a job id the job is named after the file's absolute path,
+ * so running the same command again after a failure resumes it.
+ */
+@Component
+public class ProductImportRunner implements ApplicationRunner {
+
+    static final String FILE_OPTION = "import-file";
+    static final String FORMAT_OPTION = "import-format";
+    static final String JOB_OPTION = "import-job";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportRunner.class);
+
+    private final ProductImports productImports;
+    private final ConfigurableApplicationContext context;
+
+    public ProductImportRunner(ProductImports productImports, ConfigurableApplicationContext context) {
+        this.productImports = productImports;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String file = option(args, FILE_OPTION);
+        if (file == null) {
+            return;
+        }
+        Path source = Path.of(file).toAbsolutePath();
+        String format = option(args, FORMAT_OPTION);
+        String jobId = option(args, JOB_OPTION);
+        if (jobId == null) {
+            jobId = "file-" + UUID.nameUUIDFromBytes(source.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        ImportProgress result = productImports.importFile(jobId, source,
+                format != null ? ImportFormat.of(format) : formatOf(source));
+        log.info("Import {} {}: {} imported, {} rejected (rejected rows in {})", jobId,
+                result.state().name().toLowerCase(Locale.ROOT), result.imported(), result.rejected(),
+                productImports.rejectedRows(jobId));
+        int exitCode = result.state() == ImportProgress.State.COMPLETED ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    private static ImportFormat formatOf(Path source) {
+        String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + source + "; pass --" + FORMAT_OPTION);
+    }
+
+    private static String option(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
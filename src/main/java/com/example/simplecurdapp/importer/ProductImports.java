@@ -0,0 +1,490 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.dto.ImportProgress;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.exception.DuplicateResourceException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports large CSV or NDJSON product files through an {@link ImportPipeline}.
+ * Each chunk of valid rows is inserted with one JDBC batch and committed
+ * together with the job's checkpoint in {@code import_jobs}, so memory use does
+ * not grow with the file and a failed or interrupted job resumes exactly after
+ * its last committed chunk.
+ *
+ * <p>Rows that fail to parse or validate, and rows the database refuses, are
+ * appended to {@code <job id>.rejected.csv} (line, error, record) next to the
+ * upload and the rest of the chunk is imported. A chunk whose batch fails is
+ * retried row by row, each row under its own savepoint, to single out the bad ones.
+ *
+ * <p>A job is claimed in {@code import_jobs} before it runs: the claim records a
+ * run id, and every checkpoint and state change of that run is conditional on
+ * it, so two replicas can never import the same rows. A claim whose job has not
+ * checkpointed for {@code claim-timeout} is presumed abandoned and can be taken
+ * over. Any replica that can read the source file (with {@code app.import.directory}
+ * on shared storage) can resume a job; progress can be read from any replica.
+ */
+@Component
+public class ProductImports {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImports.class);
+    private static final String REJECTED_SUFFIX = ".rejected.csv";
+    private static final String REJECTED_HEADER = "line,error,record\n";
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final String INSERT_JOB_SQL =
+            "INSERT INTO import_jobs (id, source, format, state, run_id, total_bytes, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_JOB_SQL =
+            "SELECT id, source, format, state, total_bytes, byte_offset, line_number, imported, rejected, "
+            + "rejected_bytes, error, created_at, updated_at FROM import_jobs WHERE id = ?";
+    // Failed jobs, and queued or running ones whose run stopped checkpointing, can be claimed
+    private static final String CLAIM_SQL =
+            "UPDATE import_jobs SET state = ?, run_id = ?, error = NULL, updated_at = ? "
+            + "WHERE id = ? AND (state = ? OR (state IN (?, ?) AND updated_at < ?))";
+    private static final String UPDATE_STATE_SQL =
+            "UPDATE import_jobs SET state = ?, error = ?, updated_at = ? WHERE id = ? AND run_id = ?";
+    private static final String CHECKPOINT_SQL =
+            "UPDATE import_jobs SET byte_offset = ?, line_number = ?, imported = imported + ?, rejected = rejected + ?, "
+            + "rejected_bytes = ?, updated_at = ? WHERE id = ? AND run_id = ? AND byte_offset = ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Executor importExecutor;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate savepoint;
+    private final Path directory;
+    private final ImportPipeline pipeline;
+    private final Duration claimTimeout;
+
+    public ProductImports(ProductRepository productRepository,
+                          JdbcTemplate jdbcTemplate,
+                          ApplicationEventPublisher eventPublisher,
+                          ObjectMapper objectMapper,
+                          @Qualifier("importExecutor") Executor importExecutor,
+                          @Value("${app.import.directory:data/imports}") Path directory,
+                          @Value("${app.import.chunk-size:1000}") int chunkSize,
+                          @Value("${app.import.parsers:0}") int parsers,
+                          @Value("${app.import.chunks-in-flight:0}") int chunksInFlight,
+                          @Value("${app.import.claim-timeout:PT10M}") Duration claimTimeout) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.importExecutor = importExecutor;
+        // Imports only use JDBC, so they can run on a JDBC transaction manager, which (unlike JPA's) supports savepoints
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(jdbcTemplate.getDataSource());
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.savepoint = new TransactionTemplate(transactionManager);
+        savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        this.directory = directory;
+        int parserThreads = parsers > 0 ? parsers : Runtime.getRuntime().availableProcessors();
+        this.pipeline = new ImportPipeline(chunkSize, parserThreads,
+                chunksInFlight > 0 ? chunksInFlight : parserThreads + 2);
+        this.claimTimeout = claimTimeout;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Stores an uploaded file under the import directory and queues its import.
+     * A CSV header is checked before the job is created.
+     */
+    public ImportProgress submit(InputStream body, ImportFormat format) {
+        String jobId = UUID.randomUUID().toString();
+        Path source = directory.resolve(jobId + format.extension());
+        String runId;
+        try {
+            Files.copy(body, source);
+            runId = create(jobId, source, format);
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(source);
+            if (ex instanceof IOException io) {
+                throw new UncheckedIOException("Storing import upload failed", io);
+            }
+            throw (RuntimeException) ex;
+        }
+        schedule(jobId, runId);
+        return progress(jobId);
+    }
+
+    /**
+     * Imports {@code source} on the calling thread. A job id that has been used
+     * before continues where that job stopped, or returns at once if it completed.
+     */
+    public ImportProgress importFile(String jobId, Path source, ImportFormat format) {
+        String runId;
+        if (find(jobId) == null) {
+            runId = create(jobId, source.toAbsolutePath(), format);
+        } else if (progress(jobId).state() == ImportProgress.State.COMPLETED) {
+            return progress(jobId);
+        } else {
+            runId = claim(jobId);
+        }
+        return run(jobId, runId);
+    }
+
+    /**
+     * Queues a failed or interrupted job again, from its last committed chunk.
+     */
+    public ImportProgress resume(String jobId) {
+        if (progress(jobId).state() == ImportProgress.State.COMPLETED) {
+            throw new InvalidRequestException("Import job '" + jobId + "' has already completed");
+        }
+        schedule(jobId, claim(jobId));
+        return progress(jobId);
+    }
+
+    public ImportProgress progress(String jobId) {
+        Job job = find(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        return job.progress();
+    }
+
+    /**
+     * The rejected-rows file of a job; it exists once the job has started.
+     */
+    public Path rejectedRows(String jobId) {
+        progress(jobId);
+        return directory.resolve(jobId + REJECTED_SUFFIX);
+    }
+
+    /**
+     * Inserts a queued job, claimed by the run whose id is returned.
+     */
+    private String create(String jobId, Path source, ImportFormat format) {
+        try {
+            // Fails on an unusable CSV header before anything is queued
+            open(source, format, 0, 0);
+            String runId = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update(INSERT_JOB_SQL, jobId, source.toString(), format.name(), ImportProgress.State.QUEUED.name(),
+                    runId, Files.size(source), Timestamp.valueOf(now), Timestamp.valueOf(now));
+            return runId;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Reading import source " + source + " failed", ex);
+        }
+    }
+
+    private void schedule(String jobId, String runId) {
+        try {
+            importExecutor.execute(() -> run(jobId, runId));
+        } catch (RejectedExecutionException ex) {
+            setState(jobId, runId, ImportProgress.State.FAILED, "Import queue is full; resume the job later");
+            throw ex;
+        }
+    }
+
+    /**
+     * Queues an existing job under a new run id, unless another run holds it.
+     */
+    private String claim(String jobId) {
+        Job job = find(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", "id", jobId);
+        }
+        if (!Files.isReadable(job.source())) {
+            throw new ResourceNotFoundException("Import source", "path", job.source());
+        }
+        String runId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update(CLAIM_SQL, ImportProgress.State.QUEUED.name(), runId, Timestamp.valueOf(now),
+                jobId, ImportProgress.State.FAILED.name(), ImportProgress.State.QUEUED.name(),
+                ImportProgress.State.RUNNING.name(), Timestamp.valueOf(now.minus(claimTimeout)));
+        if (claimed == 0) {
+            throw new DuplicateResourceException("Import job '" + jobId + "' is already queued or running");
+        }
+        return runId;
+    }
+
+    private ImportProgress run(String jobId, String runId) {
+        try {
+            if (!setState(jobId, runId, ImportProgress.State.RUNNING, null)) {
+                log.warn("Import {} was taken over by another run before it started", jobId);
+                return progress(jobId);
+            }
+            Job job = find(jobId);
+            log.info("Import {} of {} starting at line {}", jobId, job.source(), job.lineNumber() + 1);
+            new Run(job, runId).execute();
+            setState(jobId, runId, ImportProgress.State.COMPLETED, null);
+            ImportProgress done = progress(jobId);
+            log.info("Import {} completed: {} imported, {} rejected", jobId, done.imported(), done.rejected());
+            return done;
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Import {} failed; it can be resumed from its last committed chunk", jobId, ex);
+            try {
+                setState(jobId, runId, ImportProgress.State.FAILED,
+                        ex.getMessage() != null ? ex.getMessage() : ex.toString());
+            } catch (RuntimeException stateEx) {
+                log.warn("Recording the failure of import {} failed", jobId, stateEx);
+            }
+            return progress(jobId);
+        }
+    }
+
+    /**
+     * A parser for the file and the position its first data record starts at,
+     * or {@code offset} and {@code line} when resuming.
+     */
+    private Start open(Path source, ImportFormat format, long offset, long line) throws IOException {
+        if (format == ImportFormat.NDJSON) {
+            return new Start(ProductRecordParser.ndjson(objectMapper), offset, line);
+        }
+        try (RecordReader reader = new RecordReader(source, format, 0, 0)) {
+            SourceRecord header = reader.next();
+            if (header == null) {
+                throw new InvalidRequestException("CSV import has no header row");
+            }
+            ProductRecordParser parser;
+            try {
+                parser = ProductRecordParser.csv(header.text());
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidRequestException(ex.getMessage(), ex);
+            }
+            return offset == 0 ? new Start(parser, reader.offset(), reader.line()) : new Start(parser, offset, line);
+        }
+    }
+
+    private Job find(String jobId) {
+        List<Job> jobs = jdbcTemplate.query(SELECT_JOB_SQL, ProductImports::job, jobId);
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    /**
+     * Records a state change of run {@code runId}; returns false if the job has
+     * since been claimed by another run.
+     */
+    private boolean setState(String jobId, String runId, ImportProgress.State state, String error) {
+        if (error != null && error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        return jdbcTemplate.update(UPDATE_STATE_SQL, state.name(), error, Timestamp.valueOf(LocalDateTime.now()),
+                jobId, runId) == 1;
+    }
+
+    private static Job job(ResultSet rs, int rowNum) throws SQLException {
+        return new Job(rs.getString("id"), Path.of(rs.getString("source")), ImportFormat.valueOf(rs.getString("format")),
+                ImportProgress.State.valueOf(rs.getString("state")), rs.getLong("total_bytes"), rs.getLong("byte_offset"),
+                rs.getLong("line_number"), rs.getLong("imported"), rs.getLong("rejected"), rs.getLong("rejected_bytes"),
+                rs.getString("error"), rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("updated_at").toLocalDateTime());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Deleting {} failed", path, ex);
+        }
+    }
+
+    // Database errors span lines; keep each rejected row's reason on one
+    private static String singleLine(String error) {
+        return error.replaceAll("\\s*\\R\\s*", " ");
+    }
+
+    private static String quoted(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * One execution of a job, from its checkpoint to the end of the file.
+     */
+    private final class Run {
+
+        private final Job job;
+        private final String runId;
+        private FileChannel rejected;
+        private long committedOffset;
+        private long committedRejectedBytes;
+        private long imported;
+        private long rejectedCount;
+        private long lastLog = System.nanoTime();
+
+        private Run(Job job, String runId) {
+            this.job = job;
+            this.runId = runId;
+            this.committedOffset = job.byteOffset();
+            this.committedRejectedBytes = job.rejectedBytes();
+            this.imported = job.imported();
+            this.rejectedCount = job.rejected();
+        }
+
+        void execute() throws Exception {
+            Start start = open(job.source(), job.format(), job.byteOffset(), job.lineNumber());
+            try (FileChannel rejected = FileChannel.open(directory.resolve(job.id() + REJECTED_SUFFIX),
+                         StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 RecordReader reader = new RecordReader(job.source(), job.format(), start.offset(), start.line())) {
+                this.rejected = rejected;
+                // Drops rows written for a chunk that never committed
+                rejected.truncate(committedRejectedBytes);
+                rejected.position(committedRejectedBytes);
+                if (committedRejectedBytes == 0) {
+                    write(REJECTED_HEADER);
+                }
+                try {
+                    pipeline.run(reader, start.parser(), this::commit);
+                } catch (Exception ex) {
+                    try {
+                        rejected.truncate(committedRejectedBytes);
+                    } catch (IOException truncateEx) {
+                        ex.addSuppressed(truncateEx);
+                    }
+                    throw ex;
+                }
+            }
+        }
+
+        private void commit(ImportPipeline.ParsedChunk chunk) {
+            List<ProductRecordParser.Row> valid = new ArrayList<>(chunk.rows().size());
+            List<ProductRecordParser.Row> rejectedRows = new ArrayList<>();
+            for (ProductRecordParser.Row row : chunk.rows()) {
+                (row.product() != null ? valid : rejectedRows).add(row);
+            }
+            List<Product> inserted = chunkTransaction.execute(status -> {
+                List<Product> saved = insert(valid, rejectedRows);
+                long rejectedBytes = appendRejected(rejectedRows);
+                int checkpointed = jdbcTemplate.update(CHECKPOINT_SQL, chunk.endOffset(), chunk.endLine(), saved.size(),
+                        rejectedRows.size(), rejectedBytes, Timestamp.valueOf(LocalDateTime.now()), job.id(), runId,
+                        committedOffset);
+                if (checkpointed == 0) {
+                    // Rolls the chunk back: another run has claimed the job
+                    throw new IllegalStateException("Import job '" + job.id() + "' was taken over by another run");
+                }
+                return saved;
+            });
+            committedOffset = chunk.endOffset();
+            committedRejectedBytes = position();
+            imported += inserted.size();
+            rejectedCount += rejectedRows.size();
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new ProductChangedEvent(inserted, List.of()));
+            }
+            if (System.nanoTime() - lastLog >= PROGRESS_LOG_INTERVAL_NANOS) {
+                lastLog = System.nanoTime();
+                log.info("Import {}: {}% ({} of {} bytes), {} imported, {} rejected", job.id(),
+                        job.totalBytes() == 0 ? 100 : chunk.endOffset() * 100 / job.totalBytes(),
+                        chunk.endOffset(), job.totalBytes(), imported, rejectedCount);
+            }
+        }
+
+        // Runs inside the chunk transaction; rows the database refuses move to rejectedRows
+        private List<Product> insert(List<ProductRecordParser.Row> valid, List<ProductRecordParser.Row> rejectedRows) {
+            List<Product> products = valid.stream().map(ProductRecordParser.Row::product).toList();
+            if (products.isEmpty()) {
+                return products;
+            }
+            try {
+                savepoint.executeWithoutResult(status -> productRepository.batchInsert(products));
+                return products;
+            } catch (DataAccessException ex) {
+                List<Product> saved = new ArrayList<>(products.size());
+                for (ProductRecordParser.Row row : valid) {
+                    try {
+                        savepoint.executeWithoutResult(status -> productRepository.batchInsert(List.of(row.product())));
+                        saved.add(row.product());
+                    } catch (DataAccessException rowEx) {
+                        rejectedRows.add(new ProductRecordParser.Row(row.source(), null,
+                                rowEx.getMostSpecificCause().getMessage()));
+                    }
+                }
+                return saved;
+            }
+        }
+
+        // Forced to disk before the checkpoint that covers it commits
+        private long appendRejected(List<ProductRecordParser.Row> rows) {
+            try {
+                if (!rows.isEmpty()) {
+                    rows.sort(Comparator.comparingLong(row -> row.source().line()));
+                    StringBuilder out = new StringBuilder();
+                    for (ProductRecordParser.Row row : rows) {
+                        out.append(row.source().line()).append(',').append(quoted(singleLine(row.error()))).append(',')
+                                .append(quoted(row.source().text())).append('\n');
+                    }
+                    write(out);
+                    rejected.force(false);
+                }
+                return rejected.position();
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Writing rejected rows of import " + job.id() + " failed", ex);
+            }
+        }
+
+        private void write(CharSequence text) throws IOException {
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+            while (bytes.hasRemaining()) {
+                rejected.write(bytes);
+            }
+        }
+
+        private long position() {
+            try {
+                return rejected.position();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private record Start(ProductRecordParser parser, long offset, long line) {
+    }
+
+    private record Job(String id, Path source, ImportFormat format, ImportProgress.State state, long totalBytes,
+                       long byteOffset, long lineNumber, long imported, long rejected, long rejectedBytes, String error,
+                       LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        ImportProgress progress() {
+            return new ImportProgress(id, format, state, totalBytes, byteOffset, lineNumber, imported, rejected,
+                    createdAt, updatedAt, error);
+        }
+    }
+}
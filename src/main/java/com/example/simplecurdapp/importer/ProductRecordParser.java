@@ -0,0 +1,192 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.service.ProductService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns import records into products, or into the reason they are rejected.
+ * Thread-safe: parser threads share one instance.
+ *
+ * <p>CSV columns are matched to product fields by header name, ignoring case,
+ * underscores, dashes and spaces; {@code name} and {@code price} are required.
+ * Server-assigned columns (id, version, timestamps) are ignored in both formats.
+ */
+final class ProductRecordParser {
+
+    private enum Column { NAME, DESCRIPTION, PRICE, QUANTITY, CATEGORY, AVAILABLE, IGNORED }
+
+    private final Column[] columns;
+    private final ObjectMapper objectMapper;
+
+    private ProductRecordParser(Column[] columns, ObjectMapper objectMapper) {
+        this.columns = columns;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A CSV parser for files starting with {@code header}; fails on unknown,
+     * repeated or missing required columns.
+     */
+    static ProductRecordParser csv(String header) {
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        List<String> names = fields(header);
+        Column[] columns = new Column[names.size()];
+        List<Column> seen = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = column(names.get(i));
+            if (columns[i] != Column.IGNORED) {
+                if (seen.contains(columns[i])) {
+                    throw new IllegalArgumentException("CSV column '" + names.get(i).trim() + "' appears more than once");
+                }
+                seen.add(columns[i]);
+            }
+        }
+        if (!seen.contains(Column.NAME) || !seen.contains(Column.PRICE)) {
+            throw new IllegalArgumentException("CSV header must have name and price columns");
+        }
+        return new ProductRecordParser(columns, null);
+    }
+
+    static ProductRecordParser ndjson(ObjectMapper objectMapper) {
+        return new ProductRecordParser(null, objectMapper);
+    }
+
+    Row parse(SourceRecord record) {
+        Product product;
+        try {
+            product = columns != null ? fromCsv(record.text()) : fromJson(record.text());
+        } catch (IllegalArgumentException ex) {
+            return new Row(record, null, ex.getMessage());
+        }
+        String error = ProductService.validateForBulk(product);
+        return new Row(record, error == null ? product : null, error);
+    }
+
+    private Product fromCsv(String text) {
+        List<String> values = fields(text);
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException("expected " + columns.length + " fields but found " + values.size());
+        }
+        Product product = new Product();
+        for (int i = 0; i < columns.length; i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns[i]) {
+                case NAME -> product.setName(value);
+                case DESCRIPTION -> product.setDescription(value);
+                case PRICE -> product.setPrice(decimal(value));
+                case QUANTITY -> product.setQuantity(integer(value));
+                case CATEGORY -> product.setCategory(value);
+                case AVAILABLE -> product.setIsAvailable(bool(value));
+                case IGNORED -> { }
+            }
+        }
+        return product;
+    }
+
+    private Product fromJson(String text) {
+        Product product;
+        try {
+            product = objectMapper.readValue(text, Product.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (product == null) {
+            throw new IllegalArgumentException("malformed JSON: expected an object");
+        }
+        product.setId(null);
+        product.setVersion(null);
+        product.setCreatedAt(null);
+        product.setUpdatedAt(null);
+        return product;
+    }
+
+    /**
+     * Splits one CSV record into its fields, unquoting them (RFC 4180).
+     */
+    static List<String> fields(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unclosed quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Column column(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT).replaceAll("[\\s_-]", "");
+        return switch (normalized) {
+            case "name" -> Column.NAME;
+            case "description" -> Column.DESCRIPTION;
+            case "price" -> Column.PRICE;
+            case "quantity" -> Column.QUANTITY;
+            case "category" -> Column.CATEGORY;
+            case "isavailable", "available" -> Column.AVAILABLE;
+            case "id", "version", "createdat", "updatedat" -> Column.IGNORED;
+            default -> throw new IllegalArgumentException("Unknown CSV column '" + name.trim() + "'");
+        };
+    }
+
+    private static BigDecimal decimal(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("price is not a number: '" + value + "'");
+        }
+    }
+
+    private static Integer integer(String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("quantity is not a whole number: '" + value + "'");
+        }
+    }
+
+    private static Boolean bool(String value) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "1" -> Boolean.TRUE;
+            case "false", "0" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("isAvailable is not true or false: '" + value + "'");
+        };
+    }
+
+    /**
+     * A parsed record: {@code product} when it is valid, otherwise {@code error}.
+     */
+    record Row(SourceRecord source, Product product, String error) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.simplecurdapp.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits an import file into records by reading its channel through one reused
+ * buffer, so memory stays flat whatever the file size. A record ends at a
+ * newline, except inside a quoted CSV field; a trailing carriage return is
+ * dropped and empty lines are skipped.
+ *
+ * <p>{@link #offset()} and {@link #line()} describe the position just after
+ * the last record returned, which is what an import checkpoints and later
+ * reopens the file at.
+ */
+final class RecordReader implements Closeable {
+
+    static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final boolean csv;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private byte[] record = new byte[1024];
+    // File offset of the next unread byte and the number of lines consumed so far
+    private long offset;
+    private long line;
+
+    RecordReader(Path path, ImportFormat format, long offset, long line) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.csv = format == ImportFormat.CSV;
+        this.offset = offset;
+        this.line = line;
+        channel.position(offset);
+        buffer.limit(0);
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    long line() {
+        return line;
+    }
+
+    /**
+     * The next non-empty record, or null at the end of the file.
+     */
+    SourceRecord next() throws IOException {
+        int length = 0;
+        long firstLine = line + 1;
+        boolean quoted = false;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (isEmpty(length)) {
+                    return null;
+                }
+                line++;
+                return record(firstLine, length);
+            }
+            byte b = buffer.get();
+            offset++;
+            if (b == '\n') {
+                line++;
+                if (!quoted) {
+                    if (!isEmpty(length)) {
+                        return record(firstLine, length);
+                    }
+                    length = 0;
+                    firstLine = line + 1;
+                    continue;
+                }
+            } else if (b == '"' && csv) {
+                quoted = !quoted;
+            }
+            if (length == record.length) {
+                grow(firstLine);
+            }
+            record[length++] = b;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private void grow(long firstLine) {
+        if (record.length >= MAX_RECORD_BYTES) {
+            // Almost always an unbalanced quote swallowing the rest of the file
+            throw new IllegalStateException("Record starting at line " + firstLine + " is longer than "
+                    + MAX_RECORD_BYTES + " bytes; check for an unclosed quote");
+        }
+        record = Arrays.copyOf(record, Math.min(record.length * 2, MAX_RECORD_BYTES));
+    }
+
+    private boolean isEmpty(int length) {
+        return length == 0 || (length == 1 && record[0] == '\r');
+    }
+
+    private SourceRecord record(long firstLine, int length) {
+        if (record[length - 1] == '\r') {
+            length--;
+        }
+        return new SourceRecord(firstLine, new String(record, 0, length, StandardCharsets.UTF_8));
+    }
+}
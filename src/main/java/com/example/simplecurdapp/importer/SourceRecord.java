@@ -0,0 +1,10 @@
+package com.example.simplecurdapp.importer;
+
+/**
+ * One record of an import file.
+ *
+ * @param line line number the record starts on, from 1
+ * @param text the record without its line ending
+ */
+record SourceRecord(long line, String text) {
+}
@@ -0,0 +1,185 @@
+package com.example.simplecurdapp.inventory;
+
+import com.example.simplecurdapp.cache.AfterCommit;
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.exception.InsufficientStockException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis-side stock counters for flash-sale products listed in
+ * {@code app.inventory.hot-product-ids}.
+ *
+ * <p>For those products Redis owns the stock level: adjustments run as one Lua
+ * script (check, INCRBY, mark dirty) so a single SKU is never bottlenecked on a
+ * MySQL row lock. Every flush interval the levels of dirty products are written
+ * back to {@code products.quantity}. A counter is seeded lazily from the database
+ * on first use and has no TTL.
+ *
+ * <p>While a product is hot, entity saves that do not set the quantity may write
+ * a stale one; they only mark the product dirty so the next flush restores the
+ * counter's level. Writes that do set it must also {@link #set} the counter, or
+ * that flush reverts them.
+ */
+@Component
+public class HotStockCounter {
+
+    static final String COUNTER_PREFIX = "Stock_Product_";
+    static final String DIRTY_KEY = "Stock_Product_Dirty";
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockCounter.class);
+    private static final long NOT_LOADED = 0;
+    private static final long APPLIED = 1;
+    // Returns {status, level}: status 0 = counter not loaded, 1 = applied, 2 = would go negative
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADJUST = new DefaultRedisScript<>(
+            "local stock = redis.call('GET', KEYS[1]) "
+            + "if not stock then return {0, 0} end "
+            + "stock = tonumber(stock) "
+            + "if stock + tonumber(ARGV[1]) < 0 then return {2, stock} end "
+            + "local level = redis.call('INCRBY', KEYS[1], ARGV[1]) "
+            + "redis.call('SADD', KEYS[2], ARGV[2]) "
+            + "return {1, level}",
+            List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_DIRTY = new DefaultRedisScript<>(
+            "local ids = redis.call('SMEMBERS', KEYS[1]) redis.call('DEL', KEYS[1]) return ids",
+            List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final SecondLevelCache secondLevelCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> hotProductIds;
+
+    public HotStockCounter(StringRedisTemplate stringRedisTemplate,
+                           ProductRepository productRepository,
+                           ProductCache productCache,
+                           SecondLevelCache secondLevelCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.inventory.hot-product-ids:}") Set<Long> hotProductIds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.secondLevelCache = secondLevelCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotProductIds = Set.copyOf(hotProductIds);
+    }
+
+    public boolean isHot(Long productId) {
+        return hotProductIds.contains(productId);
+    }
+
+    /**
+     * Applies {@code delta} to the counter and returns the new level, or throws
+     * {@link InsufficientStockException} if it would drop below zero.
+     */
+    public int adjust(Long productId, int delta) {
+        List<String> keys = List.of(COUNTER_PREFIX + productId, DIRTY_KEY);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<?> result = stringRedisTemplate.execute(ADJUST, keys, Integer.toString(delta), productId.toString());
+            long status = ((Number) result.get(0)).longValue();
+            int level = ((Number) result.get(1)).intValue();
+            if (status == APPLIED) {
+                return level;
+            }
+            if (status != NOT_LOADED) {
+                throw new InsufficientStockException(productId, -delta, level);
+            }
+            seed(productId);
+        }
+        throw new IllegalStateException("Stock counter for product " + productId + " could not be loaded");
+    }
+
+    /**
+     * Overwrites the counter with an absolute level, e.g. after a stock count,
+     * once the current transaction commits; a rolled-back write leaves it as it was.
+     */
+    public void set(Long productId, int quantity) {
+        AfterCommit.run(() -> {
+            stringRedisTemplate.opsForValue().set(COUNTER_PREFIX + productId, Integer.toString(quantity));
+            stringRedisTemplate.opsForSet().add(DIRTY_KEY, productId.toString());
+        });
+    }
+
+    /**
+     * Writes the level of every product adjusted since the last flush back to MySQL.
+     * Products whose write fails stay dirty and are retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flush-interval:PT1S}")
+    public void flush() {
+        if (hotProductIds.isEmpty()) {
+            return;
+        }
+        List<?> dirty = stringRedisTemplate.execute(DRAIN_DIRTY, List.of(DIRTY_KEY));
+        if (dirty == null || dirty.isEmpty()) {
+            return;
+        }
+        List<String> counterKeys = new ArrayList<>(dirty.size());
+        dirty.forEach(id -> counterKeys.add(COUNTER_PREFIX + id));
+        List<String> levels = stringRedisTemplate.opsForValue().multiGet(counterKeys);
+        List<Long> flushed = new ArrayList<>(dirty.size());
+        for (int i = 0; i < dirty.size(); i++) {
+            Long productId = Long.valueOf(dirty.get(i).toString());
+            String level = levels == null ? null : levels.get(i);
+            if (level == null) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> productRepository.setQuantity(productId, Integer.parseInt(level)));
+                flushed.add(productId);
+            } catch (RuntimeException ex) {
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, productId.toString());
+                log.warn("Flushing stock level for product {} failed, will retry", productId, ex);
+            }
+        }
+        productCache.invalidateAll(flushed);
+        secondLevelCache.evictProducts(flushed);
+    }
+
+    // Saves that did not set the quantity may have written a stale one for a hot product
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (hotProductIds.isEmpty()) {
+            return;
+        }
+        for (Product product : event.saved()) {
+            if (isHot(product.getId())) {
+                stringRedisTemplate.opsForSet().add(DIRTY_KEY, product.getId().toString());
+            }
+        }
+        for (Long productId : event.deletedIds()) {
+            if (isHot(productId)) {
+                stringRedisTemplate.delete(COUNTER_PREFIX + productId);
+                stringRedisTemplate.opsForSet().remove(DIRTY_KEY, productId.toString());
+            }
+        }
+    }
+
+    private void seed(Long productId) {
+        Integer quantity = productRepository.findQuantityById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        // NX: another replica may have seeded (and adjusted) the counter meanwhile
+        stringRedisTemplate.opsForValue().setIfAbsent(COUNTER_PREFIX + productId, quantity.toString());
+    }
+}
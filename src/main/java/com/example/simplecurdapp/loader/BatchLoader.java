@@ -0,0 +1,180 @@
+package com.example.simplecurdapp.loader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Data-loader style batching of single-id lookups. Concurrent {@link #load} calls
+ * that arrive within {@code window} of each other join one batch; its distinct
+ * ids are resolved with a single {@code loadAll} (IN) query and each caller gets
+ * its own row back.
+ *
+ * <p>No extra threads are involved: the caller that opens a batch waits out the
+ * window and then runs the query, unless the batch reaches {@code maxBatchSize}
+ * first, in which case the caller that filled it runs the query at once. Rows are
+ * shared between the callers of a batch, so they must be treated as read-only.
+ *
+ * <p>Lookups inside a transaction use {@code loadOne} directly, so the caller gets
+ * an entity of its own persistence context. A zero window turns batching off.
+ *
+ * <p>Metrics, tagged {@code loader}: {@code batch.loader.size} (distinct ids per
+ * query) and {@code batch.loader.coalesced} (lookups served by another caller's
+ * identical request in the same batch).
+ */
+public class BatchLoader<T> {
+
+    private final Function<Long, Optional<T>> loadOne;
+    private final Function<Collection<Long>, ? extends Iterable<T>> loadAll;
+    private final Function<T, Long> idOf;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final Counter coalesced;
+    private final Object lock = new Object();
+
+    // Guarded by lock
+    private Batch<T> open;
+
+    public BatchLoader(String name,
+                       Function<Long, Optional<T>> loadOne,
+                       Function<Collection<Long>, ? extends Iterable<T>> loadAll,
+                       Function<T, Long> idOf,
+                       Duration window,
+                       int maxBatchSize,
+                       MeterRegistry meterRegistry) {
+        if (window.isNegative() || maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch window must not be negative and max batch size must be positive");
+        }
+        this.loadOne = loadOne;
+        this.loadAll = loadAll;
+        this.idOf = idOf;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("batch.loader.size")
+                .description("Distinct ids resolved per batched query")
+                .tag("loader", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) maxBatchSize)
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("batch.loader.coalesced")
+                .description("Lookups answered by an identical lookup already waiting in the same batch")
+                .tag("loader", name)
+                .register(meterRegistry);
+    }
+
+    public Optional<T> load(Long id) {
+        if (windowNanos == 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadOne.apply(id);
+        }
+        Batch<T> batch;
+        CompletableFuture<Optional<T>> result;
+        boolean leader = false;
+        boolean full = false;
+        synchronized (lock) {
+            if (open == null) {
+                open = new Batch<>(Thread.currentThread());
+                leader = true;
+            }
+            batch = open;
+            result = batch.results.get(id);
+            if (result != null) {
+                coalesced.increment();
+            } else {
+                result = new CompletableFuture<>();
+                batch.results.put(id, result);
+                if (batch.results.size() >= maxBatchSize) {
+                    open = null;
+                    full = true;
+                }
+            }
+        }
+        if (full) {
+            run(batch);
+            if (!leader) {
+                LockSupport.unpark(batch.leader);
+            }
+        } else if (leader && awaitWindow(batch)) {
+            run(batch);
+        }
+        return await(result);
+    }
+
+    /**
+     * Parks the leader until the window ends or the batch is taken, then returns
+     * whether the leader closed the batch and should run it. An interrupted leader
+     * closes the batch early (parkNanos would return at once and spin until the
+     * deadline) and keeps its interrupt status.
+     */
+    private boolean awaitWindow(Batch<T> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        boolean interrupted = false;
+        try {
+            while (true) {
+                synchronized (lock) {
+                    if (open != batch) {
+                        return false;
+                    }
+                    if (interrupted || System.nanoTime() - deadline >= 0) {
+                        open = null;
+                        return true;
+                    }
+                }
+                LockSupport.parkNanos(this, deadline - System.nanoTime());
+                interrupted = Thread.interrupted();
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Runs after the batch was detached under lock, so its map is no longer modified
+    private void run(Batch<T> batch) {
+        batchSizes.record(batch.results.size());
+        try {
+            Map<Long, T> found = new HashMap<>(batch.results.size() * 2);
+            for (T row : loadAll.apply(batch.results.keySet())) {
+                found.put(idOf.apply(row), row);
+            }
+            batch.results.forEach((id, result) -> result.complete(Optional.ofNullable(found.get(id))));
+        } catch (RuntimeException | Error ex) {
+            batch.results.values().forEach(result -> result.completeExceptionally(ex));
+        }
+    }
+
+    private static <T> Optional<T> await(CompletableFuture<Optional<T>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class Batch<T> {
+
+        private final Thread leader;
+        private final Map<Long, CompletableFuture<Optional<T>>> results = new LinkedHashMap<>();
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.simplecurdapp.metrics;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.RemovalListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Meters shared by the cache layers. Every tag value comes from a fixed set
+ * (cache name, tier, result, cause, key prefix, command), never from a key, so
+ * the number of series stays constant however many ids are cached.
+ *
+ * <ul>
+ *   <li>{@code cache.lookups} counter, tagged {@code cache}, {@code tier} and
+ *       {@code result} ({@code hit}, {@code miss} or {@code absent} for a cached "not found");</li>
+ *   <li>{@code cache.evictions} counter, tagged {@code cache}, {@code tier} and
+ *       {@code cause} ({@code invalidated}, {@code size} or {@code expired});</li>
+ *   <li>{@code redis.commands} timer, tagged {@code prefix} (the key prefix) and {@code command}.</li>
+ * </ul>
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String NEAR = "near";
+    public static final String REDIS = "redis";
+
+    public static final String HIT = "hit";
+    public static final String MISS = "miss";
+    public static final String ABSENT = "absent";
+
+    public static final String INVALIDATED = "invalidated";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<MeterKey, Counter> lookups = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MeterKey, Counter> evictions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MeterKey, Timer> redisCommands = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void lookup(String cache, String tier, String result) {
+        lookups(cache, tier, result, 1);
+    }
+
+    public void lookups(String cache, String tier, String result, int count) {
+        if (count > 0) {
+            lookups.computeIfAbsent(new MeterKey(cache, tier, result), key -> Counter.builder("cache.lookups")
+                    .description("Cache lookups by tier and result")
+                    .tag("cache", key.first())
+                    .tag("tier", key.second())
+                    .tag("result", key.third())
+                    .register(meterRegistry))
+                .increment(count);
+        }
+    }
+
+    public void evictions(String cache, String tier, String cause, int count) {
+        if (count > 0) {
+            evictions.computeIfAbsent(new MeterKey(cache, tier, cause), key -> Counter.builder("cache.evictions")
+                    .description("Cache entries removed before being read again")
+                    .tag("cache", key.first())
+                    .tag("tier", key.second())
+                    .tag("cause", key.third())
+                    .register(meterRegistry))
+                .increment(count);
+        }
+    }
+
+    /**
+     * Caffeine listener counting near-cache removals: explicit ones as
+     * {@value #INVALIDATED}, evictions by their cause. Replacements are not removals.
+     */
+    public <K, V> RemovalListener<K, V> nearCacheRemovals(String cache) {
+        return (key, value, cause) -> {
+            if (cause != RemovalCause.REPLACED) {
+                String tag = cause == RemovalCause.EXPLICIT ? INVALIDATED : cause.name().toLowerCase(Locale.ROOT);
+                evictions(cache, NEAR, tag, 1);
+            }
+        };
+    }
+
+    /**
+     * Timer for one kind of Redis command against keys starting with {@code prefix}.
+     */
+    public Timer redis(String prefix, String command) {
+        return redisCommands.computeIfAbsent(new MeterKey(prefix, command, ""), key -> Timer.builder("redis.commands")
+                .description("Redis round trips issued by the caches")
+                .tag("prefix", key.first())
+                .tag("command", key.second())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private record MeterKey(String first, String second, String third) {
+    }
+}
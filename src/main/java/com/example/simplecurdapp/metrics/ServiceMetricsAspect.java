@@ -0,0 +1,67 @@
+package com.example.simplecurdapp.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the application's {@code @Service} beans as
+ * {@code service.calls}, tagged {@code class}, {@code method} and {@code exception}
+ * ({@code none}, or the simple name of the exception thrown). Runs outside the
+ * transaction advice, so the time includes acquiring the connection and committing.
+ *
+ * <p>Repository queries are timed by Spring Boot as {@code spring.data.repository.invocations}
+ * and endpoints as {@code http.server.requests}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.example.simplecurdapp.service..*) "
+            + "&& @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String type = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            timer(new TimerKey(type, method, exception)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        return timers.computeIfAbsent(key, k -> Timer.builder("service.calls")
+                .description("Service method latency")
+                .tag("class", k.type())
+                .tag("method", k.method())
+                .tag("exception", k.exception())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private record TimerKey(String type, String method, String exception) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.simplecurdapp.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Adds the optimistic-locking {@code version} columns of {@code products} and
+ * {@code users} where they are missing. Databases created before Flyway are
+ * baselined at V1 and skip it, but the ones whose schema predates the columns
+ * would then fail Hibernate's validation. Written in Java because MySQL has no
+ * {@code ADD COLUMN IF NOT EXISTS}; existing rows start at version 0.
+ */
+public class V6__Add_missing_version_columns extends BaseJavaMigration {
+
+    private static final List<String> TABLES = List.of("products", "users");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        for (String table : TABLES) {
+            if (!hasColumn(connection, table, "version")) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN version BIGINT DEFAULT 0");
+                }
+            }
+        }
+    }
+
+    // MySQL reports table names as created, H2 upper-cases unquoted ones
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT))) {
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, name, null)) {
+                while (columns.next()) {
+                    if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
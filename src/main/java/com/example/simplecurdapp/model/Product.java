@@ -1,7 +1,10 @@
 package com.example.simplecurdapp.model;
 
+import com.example.simplecurdapp.cache.SecondLevelCache;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -10,6 +13,8 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.PRODUCT_REGION)
 public class Product {
 
     @Id
@@ -39,6 +44,11 @@ public class Product {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic-lock version, exposed to clients as the ETag
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
     // Constructors
     public Product() {}
 
@@ -1,11 +1,16 @@
 package com.example.simplecurdapp.model;
 
+import com.example.simplecurdapp.cache.SecondLevelCache;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.USER_REGION)
 public class User {
 
     @Id
@@ -25,5 +30,10 @@ public class User {
     @Column(name = "is_active")
     private Boolean isActive = true;
 
+    // Optimistic-lock version, exposed to clients as the ETag
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
 
 }
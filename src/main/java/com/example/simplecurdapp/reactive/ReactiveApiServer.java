@@ -0,0 +1,60 @@
+package com.example.simplecurdapp.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+/**
+ * Serves the reactive API from its own Reactor Netty server on a separate port,
+ * next to the servlet container: a few event-loop threads hold any number of
+ * open client connections.
+ */
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveApiServer.class);
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private final Duration idleTimeout;
+    private volatile DisposableServer server;
+
+    public ReactiveApiServer(HttpHandler httpHandler, int port, Duration idleTimeout) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.idleTimeout = idleTimeout;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .idleTimeout(idleTimeout)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive API listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int port() {
+        return server != null ? server.port() : port;
+    }
+}
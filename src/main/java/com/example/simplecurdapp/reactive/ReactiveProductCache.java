@@ -0,0 +1,83 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.metrics.CacheMetrics;
+import com.example.simplecurdapp.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking view of {@link ProductCache}: the same near cache and version
+ * stripes, with Redis reached through a {@link ReactiveRedisTemplate} under the
+ * same {@code Product_{id}} keys and value format. Redis failures are misses.
+ * Lookups are counted under the same {@code cache=product} meters.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveProductCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductCache.class);
+    private static final String CACHE = "product";
+
+    private final ProductCache productCache;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final CacheMetrics cacheMetrics;
+    private final Duration redisTtl;
+
+    public ReactiveProductCache(ProductCache productCache,
+                                ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                                CacheMetrics cacheMetrics,
+                                @Value("${app.cache.product.redis.ttl:10m}") Duration redisTtl) {
+        this.productCache = productCache;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.cacheMetrics = cacheMetrics;
+        this.redisTtl = redisTtl;
+    }
+
+    /**
+     * Returns the product from cache, or loads it with {@code loader} and caches
+     * it unless it was invalidated while loading.
+     */
+    public Mono<Product> getOrLoad(Long id, Mono<Product> loader) {
+        Product local = productCache.getLocal(id);
+        if (local != null) {
+            return Mono.just(local);
+        }
+        return Mono.defer(() -> {
+            long version = productCache.version(id);
+            return fromRedis(id, version)
+                    .switchIfEmpty(loader.flatMap(product -> store(product, version)));
+        });
+    }
+
+    private Mono<Product> fromRedis(Long id, long version) {
+        return reactiveRedisTemplate.opsForValue().get(ProductCache.KEY_PREFIX + id)
+                .ofType(Product.class)
+                .doOnNext(product -> productCache.putLocal(product, version))
+                .onErrorResume(ex -> {
+                    log.warn("Redis read failed for {}{}, falling back to database", ProductCache.KEY_PREFIX, id, ex);
+                    return Mono.empty();
+                })
+                .doOnSuccess(product -> cacheMetrics.lookup(CACHE, CacheMetrics.REDIS,
+                        product != null ? CacheMetrics.HIT : CacheMetrics.MISS));
+    }
+
+    private Mono<Product> store(Product product, long version) {
+        if (!productCache.putLocal(product, version)) {
+            return Mono.just(product);
+        }
+        return reactiveRedisTemplate.opsForValue().set(ProductCache.KEY_PREFIX + product.getId(), product, redisTtl)
+                .onErrorResume(ex -> {
+                    log.warn("Redis write failed for {}{}", ProductCache.KEY_PREFIX, product.getId(), ex);
+                    return Mono.just(false);
+                })
+                .thenReturn(product);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.model.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking counterpart of the read endpoints in
+ * {@link com.example.simplecurdapp.controller.ProductController}. Lists are streamed
+ * row by row as NDJSON, or as server-sent events when the client accepts
+ * {@code text/event-stream}; demand from a slow client propagates back to the
+ * database cursor instead of buffering the result.
+ */
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveProductHandler {
+
+    // Rows requested from the database ahead of what the client has consumed
+    static final int PREFETCH = 256;
+
+    private final ReactiveProductRepository productRepository;
+    private final ReactiveProductCache productCache;
+
+    public ReactiveProductHandler(ReactiveProductRepository productRepository, ReactiveProductCache productCache) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+    }
+
+    public Mono<ServerResponse> getProductById(ServerRequest request) {
+        // Deferred so parameter errors surface as error signals the route error filters map
+        return Mono.defer(() -> getProductById(request, parseId(request.pathVariable("id"))));
+    }
+
+    private Mono<ServerResponse> getProductById(ServerRequest request, Long id) {
+        return productCache.getOrLoad(id, productRepository.findById(id))
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Product", "id", id)))
+                .flatMap(product -> {
+                    if (product.getVersion() == null) {
+                        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(product);
+                    }
+                    String eTag = product.getVersion().toString();
+                    return request.checkNotModified(eTag)
+                            .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(eTag)
+                                    .contentType(MediaType.APPLICATION_JSON).bodyValue(product)));
+                });
+    }
+
+    public Mono<ServerResponse> getProductsByCategory(ServerRequest request) {
+        return stream(request, productRepository.findByCategory(request.pathVariable("category")));
+    }
+
+    public Mono<ServerResponse> getInStockProducts(ServerRequest request) {
+        return stream(request, productRepository.findInStockProducts());
+    }
+
+    public Mono<ServerResponse> getProductsByPriceRange(ServerRequest request) {
+        return Mono.defer(() -> {
+            BigDecimal minPrice = requiredDecimal(request, "minPrice");
+            BigDecimal maxPrice = requiredDecimal(request, "maxPrice");
+            return stream(request, productRepository.findByPriceBetween(minPrice, maxPrice));
+        });
+    }
+
+    public Mono<ServerResponse> streamProducts(ServerRequest request) {
+        return stream(request, productRepository.findAllOrderedById());
+    }
+
+    private Mono<ServerResponse> stream(ServerRequest request, Flux<Product> products) {
+        MediaType mediaType = request.headers().accept().stream()
+                .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype)
+                ? MediaType.TEXT_EVENT_STREAM
+                : MediaType.APPLICATION_NDJSON;
+        return ServerResponse.ok().contentType(mediaType).body(products.limitRate(PREFETCH), Product.class);
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid product id: " + id);
+        }
+    }
+
+    private static BigDecimal requiredDecimal(ServerRequest request, String name) {
+        String value = request.queryParam(name)
+                .orElseThrow(() -> new InvalidRequestException("Missing request parameter: " + name));
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.model.Product;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC reads over the {@code products} table mirroring the queries of
+ * {@link com.example.simplecurdapp.repository.ProductRepository}. Plain SQL through
+ * {@link DatabaseClient} rather than a Spring Data R2DBC repository, so the JPA
+ * entity needs no second set of mapping annotations.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveProductRepository {
+
+    private static final String SELECT = "SELECT id, name, description, price, quantity, category, is_available, "
+            + "created_at, updated_at, version FROM products";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Product> findById(Long id) {
+        return databaseClient.sql(SELECT + " WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveProductRepository::toProduct)
+                .one();
+    }
+
+    public Flux<Product> findByCategory(String category) {
+        return databaseClient.sql(SELECT + " WHERE category = :category")
+                .bind("category", category)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        return databaseClient.sql(SELECT + " WHERE price BETWEEN :minPrice AND :maxPrice")
+                .bind("minPrice", minPrice)
+                .bind("maxPrice", maxPrice)
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findInStockProducts() {
+        return databaseClient.sql(SELECT + " WHERE quantity > 0")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    public Flux<Product> findAllOrderedById() {
+        return databaseClient.sql(SELECT + " ORDER BY id")
+                .map(ReactiveProductRepository::toProduct)
+                .all();
+    }
+
+    private static Product toProduct(Readable row) {
+        Product product = new Product();
+        product.setId(row.get("id", Long.class));
+        product.setName(row.get("name", String.class));
+        product.setDescription(row.get("description", String.class));
+        product.setPrice(row.get("price", BigDecimal.class));
+        product.setQuantity(row.get("quantity", Integer.class));
+        product.setCategory(row.get("category", String.class));
+        product.setIsAvailable(row.get("is_available", Boolean.class));
+        product.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        product.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        product.setVersion(row.get("version", Long.class));
+        return product;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.exception.ErrorResponse;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Routes of the reactive product API under {@code /api/reactive/products}, with
+ * errors rendered as the same {@link ErrorResponse} bodies as the servlet API.
+ */
+public final class ReactiveProductRoutes {
+
+    public static final String BASE_PATH = "/api/reactive/products";
+
+    private ReactiveProductRoutes() {
+    }
+
+    public static RouterFunction<ServerResponse> routes(ReactiveProductHandler handler) {
+        return route()
+                .path(BASE_PATH, builder -> builder
+                        .GET("/stream", handler::streamProducts)
+                        .GET("/in-stock", handler::getInStockProducts)
+                        .GET("/price-range", handler::getProductsByPriceRange)
+                        .GET("/category/{category}", handler::getProductsByCategory)
+                        .route(GET("/{id}"), handler::getProductById))
+                .onError(ResourceNotFoundException.class,
+                        (ex, request) -> error(HttpStatus.NOT_FOUND, "Resource not found", ex, request))
+                .onError(InvalidRequestException.class,
+                        (ex, request) -> error(HttpStatus.BAD_REQUEST, "Invalid request", ex, request))
+                .build();
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String details, Throwable ex, ServerRequest request) {
+        ErrorResponse body = new ErrorResponse(ex.getMessage(), details, status.value(), "uri=" + request.path());
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the finder's results in the Hibernate query cache, region
+ * {@value SecondLevelCache#PRODUCT_QUERY_REGION}. Any write to the products
+ * table invalidates them; only put it on listings that can tolerate that
+ * (never on reads that back a write decision, such as stock or version checks).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@QueryHints({
+    @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = SecondLevelCache.PRODUCT_QUERY_REGION)
+})
+@interface CachedProductQuery {
+}
@@ -0,0 +1,29 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.model.Product;
+
+import java.util.List;
+
+/**
+ * Multi-row writes for {@link Product} sent as JDBC batches, bypassing the
+ * persistence context. Callers are responsible for cache maintenance.
+ */
+public interface ProductBatchRepository {
+
+    /**
+     * Inserts all products in one batch and assigns the generated ids (and
+     * timestamps) back onto the given instances.
+     */
+    void batchInsert(List<Product> products);
+
+    /**
+     * Overwrites the mutable columns of each product by id; returns the
+     * per-row update counts (0 when the id does not exist).
+     */
+    int[] batchUpdate(List<Product> products);
+
+    /**
+     * Deletes each id; returns the per-row delete counts.
+     */
+    int[] batchDelete(List<Long> ids);
+}
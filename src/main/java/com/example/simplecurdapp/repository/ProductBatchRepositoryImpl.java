@@ -0,0 +1,120 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.model.Product;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, quantity, category, is_available, created_at, updated_at, "
+            + "version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_SQL =
+            "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, category = ?, is_available = ?, "
+            + "updated_at = ?, version = version + 1 WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM products WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        product.setCreatedAt(now);
+                        product.setUpdatedAt(now);
+                        product.setVersion(0L);
+                        // New rows take the entity default; updates never invent a quantity
+                        if (product.getQuantity() == null) {
+                            product.setQuantity(0);
+                        }
+                        bindColumns(ps, product);
+                        ps.setTimestamp(7, Timestamp.valueOf(now));
+                        ps.setTimestamp(8, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            products.get(i).setId(id.longValue());
+        }
+    }
+
+    @Override
+    public int[] batchUpdate(List<Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Product product = products.get(i);
+                product.setUpdatedAt(now);
+                bindColumns(ps, product);
+                ps.setTimestamp(7, Timestamp.valueOf(now));
+                ps.setLong(8, product.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] batchDelete(List<Long> ids) {
+        return jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    // Binds parameters 1-6, shared by the INSERT and UPDATE statements
+    private static void bindColumns(PreparedStatement ps, Product product) throws SQLException {
+        ps.setString(1, product.getName());
+        ps.setString(2, product.getDescription());
+        ps.setBigDecimal(3, product.getPrice());
+        if (product.getQuantity() != null) {
+            ps.setInt(4, product.getQuantity());
+        } else {
+            ps.setNull(4, Types.INTEGER);
+        }
+        ps.setString(5, product.getCategory());
+        if (product.getIsAvailable() != null) {
+            ps.setBoolean(6, product.getIsAvailable());
+        } else {
+            ps.setNull(6, Types.BOOLEAN);
+        }
+    }
+}
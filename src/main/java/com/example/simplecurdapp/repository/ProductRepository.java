@@ -1,31 +1,136 @@
 package com.example.simplecurdapp.repository;
 
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.facet.ProductFacetEntry;
 import com.example.simplecurdapp.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBatchRepository {
 
+    @CachedProductQuery
     List<Product> findByNameContainingIgnoreCase(String name);
 
+    @CachedProductQuery
     List<Product> findByCategory(String category);
 
+    @CachedProductQuery
     List<Product> findByIsAvailable(Boolean isAvailable);
 
+    @CachedProductQuery
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
+    @CachedProductQuery
     @Query("SELECT p FROM Product p WHERE p.quantity > 0")
     List<Product> findInStockProducts();
 
+    // Price-ordered top-N; only used until the in-memory product columns are built
+    @CachedProductQuery
+    List<Product> findByCategory(String category, Sort sort, Limit limit);
+
+    @CachedProductQuery
+    List<Product> findByCategoryAndQuantityGreaterThan(String category, Integer quantity, Sort sort, Limit limit);
+
+    @CachedProductQuery
+    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Sort sort, Limit limit);
+
+    @CachedProductQuery
+    List<Product> findByPriceBetweenAndQuantityGreaterThan(BigDecimal minPrice, BigDecimal maxPrice, Integer quantity,
+                                                           Sort sort, Limit limit);
+
+    // Dynamic projections: pass Product.class for entities or a DTO such as ProductSummary to select only its columns
+    @CachedProductQuery
+    <T> List<T> findBy(Class<T> type);
+
+    @CachedProductQuery
+    <T> List<T> findByCategory(String category, Class<T> type);
+
+    @CachedProductQuery
+    <T> List<T> findByIsAvailable(Boolean isAvailable, Class<T> type);
+
+    @CachedProductQuery
+    <T> List<T> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Class<T> type);
+
+    @CachedProductQuery
+    <T> List<T> findByQuantityGreaterThan(Integer quantity, Class<T> type);
+
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
+
+    // Full table scan; only used while the search index is being built
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:keyword% OR p.description LIKE %:keyword%")
-    List<Product> searchByKeyword(@Param("keyword") String keyword);
+    Page<Product> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
+    @CachedProductQuery
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL")
     List<String> findAllCategories();
+
+    // Full scan with GROUP BY; only used until the in-memory catalog facets are built
+    @CachedProductQuery
+    @Query("SELECT new com.example.simplecurdapp.dto.CategoryFacet(p.category, COUNT(p), "
+            + "SUM(CASE WHEN p.isAvailable = true THEN 1L ELSE 0L END), "
+            + "SUM(CASE WHEN p.quantity > 0 THEN 1L ELSE 0L END), MIN(p.price), MAX(p.price)) "
+            + "FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category ORDER BY p.category")
+    List<CategoryFacet> findCategoryFacets();
+
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.simplecurdapp.facet.ProductFacetEntry(p.id, p.category, p.isAvailable, p.quantity, p.price) "
+            + "FROM Product p")
+    Stream<ProductFacetEntry> streamFacetEntries();
+
+    @Query("SELECT new com.example.simplecurdapp.facet.ProductFacetEntry(p.id, p.category, p.isAvailable, p.quantity, p.price) "
+            + "FROM Product p WHERE p.id IN :ids")
+    List<ProductFacetEntry> findFacetEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Conditional in-place decrement: one row lock for the statement, no read-modify-write; 0 rows means insufficient stock or no such id
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :amount, p.updatedAt = LOCAL DATETIME, "
+            + "p.version = p.version + 1 WHERE p.id = :id AND p.quantity >= :amount")
+    int decrementQuantity(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :amount, p.updatedAt = LOCAL DATETIME, "
+            + "p.version = p.version + 1 WHERE p.id = :id")
+    int incrementQuantity(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = :quantity, p.updatedAt = LOCAL DATETIME, "
+            + "p.version = p.version + 1 WHERE p.id = :id")
+    int setQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Keyset pagination: seeks past the last id of the previous page via the primary key index
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Forward-only cursor; must be consumed inside a transaction and closed by the caller
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderedById();
 }
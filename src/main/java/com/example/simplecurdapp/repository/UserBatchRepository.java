@@ -0,0 +1,29 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.model.User;
+
+import java.util.List;
+
+/**
+ * Multi-row writes for {@link User} sent as JDBC batches, bypassing the
+ * persistence context. Callers are responsible for cache maintenance.
+ */
+public interface UserBatchRepository {
+
+    /**
+     * Inserts all users in one batch and assigns the generated ids back onto
+     * the given instances.
+     */
+    void batchInsert(List<User> users);
+
+    /**
+     * Overwrites the mutable columns of each user by id; returns the per-row
+     * update counts (0 when the id does not exist).
+     */
+    int[] batchUpdate(List<User> users);
+
+    /**
+     * Deletes each id; returns the per-row delete counts.
+     */
+    int[] batchDelete(List<Long> ids);
+}
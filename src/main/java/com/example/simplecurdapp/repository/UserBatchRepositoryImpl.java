@@ -0,0 +1,99 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.model.User;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, phone, address, is_active, version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_SQL =
+            "UPDATE users SET name = ?, email = ?, phone = ?, address = ?, is_active = ?, version = version + 1 "
+            + "WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<User> users) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        users.get(i).setVersion(0L);
+                        bindColumns(ps, users.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            users.get(i).setId(id.longValue());
+        }
+    }
+
+    @Override
+    public int[] batchUpdate(List<User> users) {
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                User user = users.get(i);
+                bindColumns(ps, user);
+                ps.setLong(6, user.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return users.size();
+            }
+        });
+    }
+
+    @Override
+    public int[] batchDelete(List<Long> ids) {
+        return jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+    }
+
+    // Binds parameters 1-5, shared by the INSERT and UPDATE statements
+    private static void bindColumns(PreparedStatement ps, User user) throws SQLException {
+        ps.setString(1, user.getName());
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getPhone());
+        ps.setString(4, user.getAddress());
+        if (user.getIsActive() != null) {
+            ps.setBoolean(5, user.getIsActive());
+        } else {
+            ps.setNull(5, Types.BOOLEAN);
+        }
+    }
+}
@@ -1,25 +1,61 @@
 package com.example.simplecurdapp.repository;
 
 import com.example.simplecurdapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository {
 
     Optional<User> findByEmail(String email);
 
+    @CachedUserQuery
     List<User> findByNameContainingIgnoreCase(String name);
 
+    @CachedUserQuery
     List<User> findByIsActive(Boolean isActive);
 
+    // Dynamic projections: pass User.class for entities or a DTO such as UserSummary to select only its columns
+    @CachedUserQuery
+    <T> List<T> findBy(Class<T> type);
+
+    @CachedUserQuery
+    <T> List<T> findByIsActive(Boolean isActive, Class<T> type);
+
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
+
+    // Full table scan; only used while the search index is being built
     @Query("SELECT u FROM User u WHERE u.name LIKE %:keyword% OR u.email LIKE %:keyword%")
-    List<User> searchByKeyword(@Param("keyword") String keyword);
+    Page<User> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
 
     boolean existsByEmail(String email);
+
+    List<User> findByEmailIn(Collection<String> emails);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Keyset pagination: seeks past the last id of the previous page via the primary key index
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Forward-only cursor; must be consumed inside a transaction and closed by the caller
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderedById();
 }
@@ -0,0 +1,419 @@
+package com.example.simplecurdapp.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * In-process Lucene index over one entity type, held in heap memory and rebuilt
+ * from the database on startup and periodically thereafter.
+ *
+ * <p>Committed writes are applied as they happen and become searchable within
+ * one refresh interval. They are also broadcast on a Redis channel so the other
+ * replicas reload the changed rows into their own copy of the index.
+ *
+ * <p>A rebuild fills a fresh index in the background while the previous one keeps
+ * serving queries, then swaps them. Writes that commit during the rebuild go to
+ * both, and the rebuild never overwrites a document that such a write has already
+ * touched. Until the first build completes {@link #search} returns empty so that
+ * callers fall back to the database.
+ */
+public abstract class LuceneIndex<T> implements MessageListener {
+
+    static final String ID_FIELD = "id";
+
+    private static final Logger log = LoggerFactory.getLogger(LuceneIndex.class);
+    // Upper bound on analyzed query terms, keeping the expanded boolean query well under Lucene's clause limit
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final float FUZZY_BOOST = 0.3f;
+    private static final int MAX_IDS_PER_MESSAGE = 1000;
+
+    private final String channel;
+    private final Map<String, Float> fieldBoosts;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TransactionTemplate rebuildTransaction;
+    private final Executor indexExecutor;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Generation current;
+    private volatile Generation building;
+    private volatile boolean ready;
+
+    protected LuceneIndex(String channel, Map<String, Float> fieldBoosts, StringRedisTemplate stringRedisTemplate,
+                          PlatformTransactionManager transactionManager, Executor indexExecutor) {
+        this.channel = channel;
+        this.fieldBoosts = new LinkedHashMap<>(fieldBoosts);
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.indexExecutor = indexExecutor;
+        // Deliberately not read-only: that would route the scan to a replica, which may not yet
+        // have commits the rebuild's touched-set logic assumes it sees
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.current = new Generation(analyzer);
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    /**
+     * Returns the ids of the best matches for {@code text}, most relevant first,
+     * or empty while the index has not been built yet.
+     */
+    public Optional<SearchHits> search(String text, int page, int size) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Query query = buildQuery(text);
+        if (query == null) {
+            return Optional.of(SearchHits.EMPTY);
+        }
+        int offset = page * size;
+        while (true) {
+            Generation generation = current;
+            IndexSearcher searcher;
+            try {
+                searcher = generation.searcherManager.acquire();
+            } catch (AlreadyClosedException ex) {
+                // Swapped out by a rebuild between reading current and acquiring; retry on the new one
+                continue;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            try {
+                TopScoreDocCollector collector = TopScoreDocCollector.create(offset + size, Integer.MAX_VALUE);
+                searcher.search(query, collector);
+                TopDocs topDocs = collector.topDocs(offset, size);
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Long.valueOf(searcher.storedFields().document(scoreDoc.doc).get(ID_FIELD)));
+                }
+                return Optional.of(new SearchHits(ids, topDocs.totalHits.value));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                release(generation, searcher);
+            }
+        }
+    }
+
+    /**
+     * Applies committed changes to this replica's index and tells the other
+     * replicas to reload the same ids.
+     */
+    protected void onCommitted(Collection<T> saved, Collection<Long> deletedIds) {
+        apply(saved, deletedIds);
+        List<Long> ids = new ArrayList<>(saved.size() + deletedIds.size());
+        saved.forEach(entity -> ids.add(idOf(entity)));
+        ids.addAll(deletedIds);
+        broadcast(ids);
+    }
+
+    /**
+     * Rebuilds the whole index from the database while the current one keeps
+     * serving queries.
+     */
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval:PT6H}",
+               initialDelayString = "${app.search.rebuild-interval:PT6H}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Generation next = new Generation(analyzer);
+        building = next;
+        try {
+            rebuildTransaction.executeWithoutResult(status -> forEachEntity(entity -> {
+                Long id = idOf(entity);
+                synchronized (next) {
+                    if (!next.touched.contains(id)) {
+                        upsertUnchecked(next, id, entity);
+                    }
+                }
+            }));
+            next.searcherManager.maybeRefresh();
+            Generation previous;
+            synchronized (next) {
+                previous = current;
+                current = next;
+                building = null;
+            }
+            ready = true;
+            IOUtils.closeWhileHandlingException(previous);
+            log.info("Rebuilt {} search index in {} ms", channel, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            building = null;
+            IOUtils.closeWhileHandlingException(next);
+            log.error("Rebuilding {} search index failed", channel, ex);
+        }
+    }
+
+    /**
+     * Makes recently applied writes visible to searches.
+     */
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval:PT1S}")
+    public void refresh() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            current.searcherManager.maybeRefresh();
+        } catch (AlreadyClosedException ex) {
+            // Swapped out by a rebuild; the new generation is already refreshed
+        } catch (IOException ex) {
+            dirty.set(true);
+            log.warn("Refreshing {} search index failed", channel, ex);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexExecutor.execute(this::rebuild);
+    }
+
+    // Payload is "<nodeId>:<id>[,<id>...]"; messages from this node were already applied locally
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = payload.lastIndexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (String id : payload.substring(separator + 1).split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed {} search index message '{}'", channel, payload);
+            return;
+        }
+        indexExecutor.execute(() -> reload(ids));
+    }
+
+    protected abstract Long idOf(T entity);
+
+    /**
+     * Adds the searchable fields of {@code entity}; the id field is added by the caller.
+     */
+    protected abstract void addFields(Document document, T entity);
+
+    /**
+     * Streams every row to {@code consumer}; runs inside a read-only transaction.
+     */
+    protected abstract void forEachEntity(Consumer<T> consumer);
+
+    protected abstract Iterable<T> loadByIds(Collection<Long> ids);
+
+    protected static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    Query buildQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        // Every term must match some field, exactly, as a prefix or within a small edit distance
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String value : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> field : fieldBoosts.entrySet()) {
+                Term term = new Term(field.getKey(), value);
+                float boost = field.getValue();
+                anyField.add(new BoostQuery(new TermQuery(term), boost), BooleanClause.Occur.SHOULD);
+                if (value.length() >= MIN_PREFIX_LENGTH) {
+                    anyField.add(new BoostQuery(new PrefixQuery(term), boost * PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+                }
+                int maxEdits = value.length() >= 8 ? 2 : value.length() >= 4 ? 1 : 0;
+                if (maxEdits > 0) {
+                    anyField.add(new BoostQuery(new FuzzyQuery(term, maxEdits, 1), boost * FUZZY_BOOST),
+                            BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream("", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return terms;
+    }
+
+    private void apply(Collection<T> saved, Collection<Long> deletedIds) {
+        // Read building before current: a write that misses the rebuild committed before it started
+        Generation next = building;
+        Generation live = current;
+        try {
+            write(live, saved, deletedIds);
+            if (next != null && next != live) {
+                synchronized (next) {
+                    saved.forEach(entity -> next.touched.add(idOf(entity)));
+                    next.touched.addAll(deletedIds);
+                    write(next, saved, deletedIds);
+                }
+            }
+        } catch (AlreadyClosedException ex) {
+            // live was swapped out concurrently; the rebuilt generation already holds these rows
+        } catch (IOException ex) {
+            log.warn("Updating {} search index failed", channel, ex);
+        }
+        dirty.set(true);
+    }
+
+    private void write(Generation generation, Collection<T> saved, Collection<Long> deletedIds) throws IOException {
+        for (T entity : saved) {
+            generation.upsert(idOf(entity), toDocument(entity));
+        }
+        for (Long id : deletedIds) {
+            generation.writer.deleteDocuments(new Term(ID_FIELD, id.toString()));
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        try {
+            List<T> saved = new ArrayList<>();
+            Set<Long> missing = new HashSet<>(ids);
+            for (T entity : loadByIds(ids)) {
+                saved.add(entity);
+                missing.remove(idOf(entity));
+            }
+            apply(saved, missing);
+        } catch (RuntimeException ex) {
+            log.warn("Reloading {} {} ids into the search index failed", ids.size(), channel, ex);
+        }
+    }
+
+    private void broadcast(List<Long> ids) {
+        try {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_MESSAGE) {
+                StringJoiner payload = new StringJoiner(",", nodeId + ":", "");
+                ids.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, ids.size()))
+                        .forEach(id -> payload.add(id.toString()));
+                stringRedisTemplate.convertAndSend(channel, payload.toString());
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Broadcasting {} search index update failed", channel, ex);
+        }
+    }
+
+    private Document toDocument(T entity) {
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, idOf(entity).toString(), Field.Store.YES));
+        addFields(document, entity);
+        return document;
+    }
+
+    private void upsertUnchecked(Generation generation, Long id, T entity) {
+        try {
+            generation.upsert(id, toDocument(entity));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void release(Generation generation, IndexSearcher searcher) {
+        try {
+            generation.searcherManager.release(searcher);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * One self-contained index: its directory, writer and near-real-time searcher.
+     */
+    private static final class Generation implements Closeable {
+
+        final IndexWriter writer;
+        final SearcherManager searcherManager;
+        // Ids written by live changes while this generation is being rebuilt
+        final Set<Long> touched = ConcurrentHashMap.newKeySet();
+
+        Generation(Analyzer analyzer) {
+            try {
+                this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+                this.searcherManager = new SearcherManager(writer, null);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        void upsert(Long id, Document document) throws IOException {
+            writer.updateDocument(new Term(ID_FIELD, id.toString()), document);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(searcherManager, writer, writer.getDirectory());
+        }
+    }
+}
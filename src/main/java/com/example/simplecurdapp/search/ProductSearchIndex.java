@@ -0,0 +1,75 @@
+package com.example.simplecurdapp.search;
+
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.lucene.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over product name, category and description, replacing the
+ * {@code LIKE '%keyword%'} scans for product search.
+ */
+@Component
+public class ProductSearchIndex extends LuceneIndex<Product> {
+
+    public static final String UPDATES_CHANNEL = "product-search-updates";
+
+    private final ProductRepository productRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              StringRedisTemplate stringRedisTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("searchIndexExecutor") Executor searchIndexExecutor) {
+        super(UPDATES_CHANNEL, Map.of("name", 3.0f, "category", 2.0f, "description", 1.0f),
+                stringRedisTemplate, transactionManager, searchIndexExecutor);
+        this.productRepository = productRepository;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        onCommitted(event.saved(), event.deletedIds());
+    }
+
+    @Override
+    protected Long idOf(Product product) {
+        return product.getId();
+    }
+
+    @Override
+    protected void addFields(Document document, Product product) {
+        addText(document, "name", product.getName());
+        addText(document, "category", product.getCategory());
+        addText(document, "description", product.getDescription());
+    }
+
+    @Override
+    protected void forEachEntity(Consumer<Product> consumer) {
+        try (Stream<Product> products = productRepository.streamAllOrderedById()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Override
+    protected Iterable<Product> loadByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
+    }
+}
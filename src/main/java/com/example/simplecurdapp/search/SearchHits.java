@@ -0,0 +1,12 @@
+package com.example.simplecurdapp.search;
+
+import java.util.List;
+
+/**
+ * One page of search results: matching ids in relevance order and the total
+ * number of matches.
+ */
+public record SearchHits(List<Long> ids, long totalHits) {
+
+    public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+}
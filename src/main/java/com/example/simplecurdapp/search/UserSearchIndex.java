@@ -0,0 +1,76 @@
+package com.example.simplecurdapp.search;
+
+import com.example.simplecurdapp.event.UserChangedEvent;
+import com.example.simplecurdapp.model.User;
+import com.example.simplecurdapp.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.lucene.document.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over user name, email, phone and address, replacing the
+ * {@code LIKE '%keyword%'} scans for user search.
+ */
+@Component
+public class UserSearchIndex extends LuceneIndex<User> {
+
+    public static final String UPDATES_CHANNEL = "user-search-updates";
+
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           StringRedisTemplate stringRedisTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("searchIndexExecutor") Executor searchIndexExecutor) {
+        super(UPDATES_CHANNEL, Map.of("name", 3.0f, "email", 2.0f, "phone", 1.0f, "address", 1.0f),
+                stringRedisTemplate, transactionManager, searchIndexExecutor);
+        this.userRepository = userRepository;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        onCommitted(event.saved(), event.deletedIds());
+    }
+
+    @Override
+    protected Long idOf(User user) {
+        return user.getId();
+    }
+
+    @Override
+    protected void addFields(Document document, User user) {
+        addText(document, "name", user.getName());
+        addText(document, "email", user.getEmail());
+        addText(document, "phone", user.getPhone());
+        addText(document, "address", user.getAddress());
+    }
+
+    @Override
+    protected void forEachEntity(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Override
+    protected Iterable<User> loadByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.simplecurdapp.service;
+
+import com.example.simplecurdapp.dto.BulkItemStatus;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs a JDBC batch operation over validated items in fixed-size chunks, each in
+ * its own transaction. When a chunk fails as a whole (e.g. one row violates a
+ * constraint) it is rolled back and replayed row by row, so only the offending
+ * items are reported as failed.
+ */
+final class ChunkedBatchWriter<T> {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Function<List<T>, int[]> batch;
+    private final Function<T, Long> idOf;
+    private final BulkItemStatus successStatus;
+
+    ChunkedBatchWriter(TransactionTemplate transactionTemplate, int chunkSize, Function<List<T>, int[]> batch,
+                       Function<T, Long> idOf, BulkItemStatus successStatus) {
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.batch = batch;
+        this.idOf = idOf;
+        this.successStatus = successStatus;
+    }
+
+    /**
+     * Writes {@code items}, whose positions in the original request are given by
+     * {@code indexes}, and returns the items that were written successfully.
+     */
+    List<T> write(List<T> items, List<Integer> indexes, BulkOperationResult.Builder result) {
+        List<T> written = new ArrayList<>(items.size());
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, items.size());
+            List<T> chunk = items.subList(from, to);
+            int[] counts;
+            try {
+                counts = transactionTemplate.execute(status -> batch.apply(chunk));
+            } catch (DataAccessException ex) {
+                for (int i = from; i < to; i++) {
+                    writeSingle(items.get(i), indexes.get(i), result, written);
+                }
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                record(items.get(i), indexes.get(i), counts[i - from], result, written);
+            }
+        }
+        return written;
+    }
+
+    private void writeSingle(T item, int index, BulkOperationResult.Builder result, List<T> written) {
+        try {
+            int[] counts = transactionTemplate.execute(status -> batch.apply(List.of(item)));
+            record(item, index, counts[0], result, written);
+        } catch (DataAccessException ex) {
+            result.failure(index, idOf.apply(item), NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        }
+    }
+
+    private void record(T item, int index, int count, BulkOperationResult.Builder result, List<T> written) {
+        // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches; only 0 means "no such row"
+        if (count == 0) {
+            result.failure(index, idOf.apply(item), "Resource not found with id : '" + idOf.apply(item) + "'");
+        } else {
+            result.success(index, idOf.apply(item), successStatus);
+            written.add(item);
+        }
+    }
+}
@@ -1,37 +1,286 @@
 package com.example.simplecurdapp.service;
 
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.changelog.ChangeLog;
+import com.example.simplecurdapp.columnar.ProductColumns;
+import com.example.simplecurdapp.dto.BatchGetResponse;
+import com.example.simplecurdapp.dto.BulkItemStatus;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.ProductSummary;
+import com.example.simplecurdapp.dto.SearchPage;
+import com.example.simplecurdapp.dto.StockLevel;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.exception.InsufficientStockException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.facet.CatalogFacets;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.inventory.HotStockCounter;
+import com.example.simplecurdapp.loader.BatchLoader;
 import com.example.simplecurdapp.model.Product;
 import com.example.simplecurdapp.repository.ProductRepository;
+import com.example.simplecurdapp.search.ProductSearchIndex;
+import com.example.simplecurdapp.search.SearchHits;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class ProductService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    // Upper bound on ids per IN (...) query issued for batch lookups
+    public static final int BATCH_QUERY_CHUNK_SIZE = 500;
+    public static final int MAX_BULK_ITEMS = 10000;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Deepest match a search can page to
+    public static final int MAX_SEARCH_WINDOW = 10000;
+    // Deepest row a price-ordered listing can page to; offset + limit may not exceed it
+    public static final int MAX_PRICE_ORDER_WINDOW = 10000;
+    // Rows per JDBC batch and per transaction in the bulk endpoints
+    private static final int BULK_CHUNK_SIZE = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HotStockCounter hotStockCounter;
+
+    @Autowired
+    private CatalogFacets catalogFacets;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private ProductColumns productColumns;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    // Coalesces concurrent cache-miss lookups into one IN query
+    @Autowired
+    private BatchLoader<Product> productBatchLoader;
+
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getAllProductSummaries() {
+        return productRepository.findBy(ProductSummary.class);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Product> getProductsPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = CursorPage.decodeCursor(cursor);
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.fromOverfetch(rows, pageSize, Product::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ProductSummary> getProductSummariesPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = CursorPage.decodeCursor(cursor);
+        List<ProductSummary> rows = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1),
+                ProductSummary.class);
+        return CursorPage.fromOverfetch(rows, pageSize, ProductSummary::id);
+    }
+
+    /**
+     * Hands every product to {@code consumer} in id order as rows come off the JDBC
+     * cursor. Each entity is detached once consumed so the persistence context,
+     * and therefore heap usage, stays flat regardless of table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<Product> consumer) {
+        try (Stream<Product> products = productRepository.streamAllOrderedById()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    /**
+     * Read-through lookup via {@link ProductCache}. Runs without a transaction of its
+     * own so cache hits never check out a database connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        Product cached = productCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long version = productCache.version(id);
+        Product product = productBatchLoader.load(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+        productCache.put(product, version);
+        return product;
+    }
+
+    /**
+     * Current version of a product for conditional GETs: served from this replica's
+     * near cache when present, otherwise by a primary-key lookup of the version
+     * column alone, so a 304 never loads or deserializes the full row.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getProductVersion(Long id) {
+        Product cached = productCache.getLocal(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return productRepository.findVersionById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 
+    /**
+     * Resolves many products with one cache round trip and chunked IN queries for the
+     * misses, returning them in the order the ids were requested.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BatchGetResponse<Product> getProductsByIds(List<Long> ids) {
+        Map<Long, Product> found = productCache.getAll(new LinkedHashSet<>(ids), BATCH_QUERY_CHUNK_SIZE,
+                this::loadFromPrimary);
+        return BatchGetResponse.inRequestOrder(ids, found);
+    }
+
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        // The version is assigned by JPA; a client-supplied one would make save() treat the row as existing
+        product.setVersion(null);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(savedProduct));
+        return savedProduct;
+    }
+
+    /**
+     * Inserts many products through JDBC batches, committing every
+     * {@value #BULK_CHUNK_SIZE} rows, and reports the outcome of each item.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkCreateProducts(List<Product> products) {
+        requireBulkSize(products.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(products.size());
+        List<Product> valid = new ArrayList<>(products.size());
+        List<Integer> indexes = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            String error = validateForBulk(products.get(i));
+            if (error != null) {
+                result.failure(i, null, error);
+            } else {
+                valid.add(products.get(i));
+                indexes.add(i);
+            }
+        }
+        List<Product> created = new ChunkedBatchWriter<Product>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                chunk -> {
+                    productRepository.batchInsert(chunk);
+                    int[] counts = new int[chunk.size()];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                },
+                Product::getId, BulkItemStatus.CREATED).write(valid, indexes, result);
+        productCache.putAll(created);
+        eventPublisher.publishEvent(new ProductChangedEvent(created, List.of()));
+        return result.build();
     }
 
-    public Product updateProduct(Long id, Product productDetails) {
-        Product existingProduct = getProductById(id);
+    /**
+     * Overwrites many products by id through JDBC batches and reports the outcome
+     * of each item; ids that do not exist are reported as failed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkUpdateProducts(List<Product> products) {
+        requireBulkSize(products.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(products.size());
+        List<Product> valid = new ArrayList<>(products.size());
+        List<Integer> indexes = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String error = validateForBulkUpdate(product);
+            if (error != null) {
+                result.failure(i, product.getId(), error);
+            } else {
+                valid.add(product);
+                indexes.add(i);
+            }
+        }
+        List<Product> updated = new ChunkedBatchWriter<Product>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                productRepository::batchUpdate, Product::getId, BulkItemStatus.UPDATED).write(valid, indexes, result);
+        updated.forEach(this::setHotStock);
+        productCache.invalidateAll(updated.stream().map(Product::getId).toList());
+        eventPublisher.publishEvent(new ProductChangedEvent(updated, List.of()));
+        return result.build();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkDeleteProducts(List<Long> ids) {
+        requireBulkSize(ids.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(ids.size());
+        List<Integer> indexes = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            indexes.add(i);
+        }
+        List<Long> deleted = new ChunkedBatchWriter<Long>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                productRepository::batchDelete, id -> id, BulkItemStatus.DELETED).write(ids, indexes, result);
+        productCache.invalidateAll(deleted);
+        eventPublisher.publishEvent(new ProductChangedEvent(List.of(), deleted));
+        return result.build();
+    }
+
+    /**
+     * Overwrites a product. When {@code expectedVersion} is given (from
+     * {@code If-Match}) the update is rejected unless the product is still at that
+     * version; concurrent writers are caught by the {@code @Version} check.
+     */
+    public Product updateProduct(Long id, Product productDetails, Long expectedVersion) {
+        Product existingProduct = findProductOrThrow(id);
+        Versions.requireMatch("Product", id, expectedVersion, existingProduct.getVersion());
 
         existingProduct.setName(productDetails.getName());
         existingProduct.setDescription(productDetails.getDescription());
@@ -40,47 +289,317 @@ public class ProductService {
         existingProduct.setCategory(productDetails.getCategory());
         existingProduct.setIsAvailable(productDetails.getIsAvailable());
 
-        return productRepository.save(existingProduct);
+        Product updatedProduct = productRepository.save(existingProduct);
+        setHotStock(updatedProduct);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
+        return updatedProduct;
     }
 
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProductOrThrow(id);
         productRepository.delete(product);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return productRepository.searchByKeyword(keyword);
+    /**
+     * Ranked full-text search backed by ProductSearchIndex, hydrated through the cache.
+     * Falls back to a {@code LIKE} scan while the index is still being built.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SearchPage<Product> searchProducts(String keyword, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        if (page < 0 || (long) (page + 1) * pageSize > MAX_SEARCH_WINDOW) {
+            throw new InvalidRequestException("Search results are limited to the first " + MAX_SEARCH_WINDOW + " matches");
+        }
+        Optional<SearchHits> hits = productSearchIndex.search(keyword, page, pageSize);
+        if (hits.isEmpty()) {
+            Page<Product> products = productRepository.searchByKeyword(keyword, PageRequest.of(page, pageSize));
+            return new SearchPage<>(products.getContent(), products.getTotalElements(), page, pageSize);
+        }
+        List<Long> ids = hits.get().ids();
+        Map<Long, Product> found = productCache.getAll(ids, BATCH_QUERY_CHUNK_SIZE, this::loadFromPrimary);
+        // A hit can briefly outlive its row on another replica; skip ids that no longer resolve
+        List<Product> items = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+        return new SearchPage<>(items, hits.get().totalHits(), page, pageSize);
     }
 
+    /**
+     * The four filtered listings below are answered from {@link ProductColumns} once
+     * it is built: the filter runs in memory and only the matching products are
+     * loaded, through the cache. Until then they query the database, on a replica
+     * since the transactions are read-only.
+     */
+    @Transactional(readOnly = true)
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        return productColumns.idsInCategory(category)
+                .map(ids -> materialize(ids, product -> category.equalsIgnoreCase(product.getCategory())))
+                .orElseGet(() -> productRepository.findByCategory(category));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAvailableProducts() {
-        return productRepository.findByIsAvailable(true);
+        return productColumns.availableIds()
+                .map(ids -> materialize(ids, product -> Boolean.TRUE.equals(product.getIsAvailable())))
+                .orElseGet(() -> productRepository.findByIsAvailable(true));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getInStockProducts() {
-        return productRepository.findInStockProducts();
+        return productColumns.inStockIds()
+                .map(ids -> materialize(ids, ProductService::inStock))
+                .orElseGet(productRepository::findInStockProducts);
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice);
+        return productColumns.idsInPriceRange(minPrice, maxPrice)
+                .map(ids -> materialize(ids, product -> product.getPrice().compareTo(minPrice) >= 0
+                        && product.getPrice().compareTo(maxPrice) <= 0))
+                .orElseGet(() -> productRepository.findByPriceBetween(minPrice, maxPrice));
+    }
+
+    /**
+     * The two price-ordered listings below return one slice, by {@code offset} and
+     * {@code limit}, of the matching products ordered by price and then id. They
+     * are served from the price-ordered index of {@link ProductColumns} in
+     * O(log n + offset + limit); until it is built, from a database query that
+     * reads the rows in index order and stops after the slice.
+     */
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByCategoryOrderedByPrice(String category, boolean inStockOnly, boolean descending,
+                                                            int offset, int limit) {
+        int pageSize = priceOrderPageSize(offset, limit);
+        return productColumns.idsOrderedByPrice(category, null, null, inStockOnly, descending, offset, pageSize)
+                .map(ids -> materialize(ids, product -> category.equalsIgnoreCase(product.getCategory())
+                        && (!inStockOnly || inStock(product))))
+                .orElseGet(() -> {
+                    List<Product> rows = inStockOnly
+                            ? productRepository.findByCategoryAndQuantityGreaterThan(category, 0,
+                                    priceOrder(descending), Limit.of(offset + pageSize))
+                            : productRepository.findByCategory(category, priceOrder(descending), Limit.of(offset + pageSize));
+                    return skip(rows, offset);
+                });
+    }
+
+    @Transactional(readOnly = true)
+    public List<Product> getProductsByPriceRangeOrderedByPrice(BigDecimal minPrice, BigDecimal maxPrice, boolean inStockOnly,
+                                                              boolean descending, int offset, int limit) {
+        int pageSize = priceOrderPageSize(offset, limit);
+        return productColumns.idsOrderedByPrice(null, minPrice, maxPrice, inStockOnly, descending, offset, pageSize)
+                .map(ids -> materialize(ids, product -> product.getPrice().compareTo(minPrice) >= 0
+                        && product.getPrice().compareTo(maxPrice) <= 0 && (!inStockOnly || inStock(product))))
+                .orElseGet(() -> {
+                    List<Product> rows = inStockOnly
+                            ? productRepository.findByPriceBetweenAndQuantityGreaterThan(minPrice, maxPrice, 0,
+                                    priceOrder(descending), Limit.of(offset + pageSize))
+                            : productRepository.findByPriceBetween(minPrice, maxPrice, priceOrder(descending),
+                                    Limit.of(offset + pageSize));
+                    return skip(rows, offset);
+                });
     }
 
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductSummariesByCategory(String category) {
+        return productRepository.findByCategory(category, ProductSummary.class);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getAvailableProductSummaries() {
+        return productRepository.findByIsAvailable(true, ProductSummary.class);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getInStockProductSummaries() {
+        return productRepository.findByQuantityGreaterThan(0, ProductSummary.class);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductSummary> getProductSummariesByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return productRepository.findByPriceBetween(minPrice, maxPrice, ProductSummary.class);
+    }
+
+    /**
+     * Served from {@link CatalogFacets} without touching the database once the
+     * facets are built; falls back to a {@code SELECT DISTINCT} until then. The
+     * read-only transaction sends that fallback to a replica and costs no
+     * connection when the facets answer (the connection is fetched lazily).
+     */
+    @Transactional(readOnly = true)
     public List<String> getAllCategories() {
-        return productRepository.findAllCategories();
+        return catalogFacets.facets()
+                .map(facets -> facets.stream().map(CategoryFacet::category).toList())
+                .orElseGet(productRepository::findAllCategories);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategoryFacet> getCatalogFacets() {
+        return catalogFacets.facets().orElseGet(productRepository::findCategoryFacets);
     }
 
-    public Product updateProductAvailability(Long id, Boolean isAvailable) {
-        Product product = getProductById(id);
+    public Product updateProductAvailability(Long id, Boolean isAvailable, Long expectedVersion) {
+        Product product = findProductOrThrow(id);
+        Versions.requireMatch("Product", id, expectedVersion, product.getVersion());
         product.setIsAvailable(isAvailable);
-        return productRepository.save(product);
+        Product updatedProduct = productRepository.save(product);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
+        return updatedProduct;
     }
 
-    public Product updateProductQuantity(Long id, Integer quantity) {
-        Product product = getProductById(id);
+    public Product updateProductQuantity(Long id, Integer quantity, Long expectedVersion) {
+        Product product = findProductOrThrow(id);
+        Versions.requireMatch("Product", id, expectedVersion, product.getVersion());
         product.setQuantity(quantity);
-        return productRepository.save(product);
+        Product updatedProduct = productRepository.save(product);
+        setHotStock(updatedProduct);
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(updatedProduct));
+        return updatedProduct;
+    }
+
+    /**
+     * Atomically removes {@code amount} units and returns the new level; fails with
+     * {@link InsufficientStockException} rather than letting stock go negative.
+     * Hot products are adjusted in Redis without touching the database.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public StockLevel decrementStock(Long id, int amount) {
+        return adjustStock(id, -requirePositive(amount));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public StockLevel incrementStock(Long id, int amount) {
+        return adjustStock(id, requirePositive(amount));
+    }
+
+    // Redis owns a hot product's stock, so a write that sets the quantity must set the counter too
+    private void setHotStock(Product product) {
+        if (hotStockCounter.isHot(product.getId()) && product.getQuantity() != null) {
+            hotStockCounter.set(product.getId(), product.getQuantity());
+        }
+    }
+
+    private StockLevel adjustStock(Long id, int delta) {
+        if (hotStockCounter.isHot(id)) {
+            StockLevel level = new StockLevel(id, hotStockCounter.adjust(id, delta));
+            // Stock adjustments publish no change event
+            changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(id), List.of());
+            return level;
+        }
+        int quantity = new TransactionTemplate(transactionManager).execute(status -> {
+            int updated = delta < 0
+                    ? productRepository.decrementQuantity(id, -delta)
+                    : productRepository.incrementQuantity(id, delta);
+            Integer current = productRepository.findQuantityById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
+            if (updated == 0) {
+                throw new InsufficientStockException(id, -delta, current);
+            }
+            return current;
+        });
+        productCache.invalidate(id);
+        secondLevelCache.evictProducts(List.of(id));
+        catalogFacets.quantityChanged(id, quantity);
+        productColumns.quantityChanged(id, quantity);
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(id), List.of());
+        return new StockLevel(id, quantity);
+    }
+
+    private static int requirePositive(int amount) {
+        if (amount <= 0) {
+            throw new InvalidRequestException("amount must be positive");
+        }
+        return amount;
+    }
+
+    /**
+     * Loads rows that are about to be written to the cache from the primary, in a
+     * transaction of their own: a read-only one would go to a replica, which can
+     * still return a row as it was before a write whose invalidation already ran.
+     */
+    private List<Product> loadFromPrimary(Collection<Long> ids) {
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return primary.execute(status -> productRepository.findAllById(ids));
+    }
+
+    private TransactionTemplate bulkTransactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static void requireBulkSize(int size) {
+        if (size == 0 || size > MAX_BULK_ITEMS) {
+            throw new InvalidRequestException("Bulk requests must contain between 1 and " + MAX_BULK_ITEMS + " items");
+        }
+    }
+
+    /**
+     * The reason {@code product} cannot be bulk-written, or null when it can.
+     */
+    public static String validateForBulk(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getPrice() == null || product.getPrice().signum() < 0) {
+            return "price must be zero or positive";
+        }
+        if (product.getQuantity() != null && product.getQuantity() < 0) {
+            return "quantity must be zero or positive";
+        }
+        return null;
+    }
+
+    // An update overwrites every column, so a missing quantity is refused rather than zeroing stock
+    private static String validateForBulkUpdate(Product product) {
+        if (product.getId() == null) {
+            return "id is required";
+        }
+        if (product.getQuantity() == null) {
+            return "quantity is required";
+        }
+        return validateForBulk(product);
+    }
+
+    private static int priceOrderPageSize(int offset, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (offset < 0 || (long) offset + pageSize > MAX_PRICE_ORDER_WINDOW) {
+            throw new InvalidRequestException("Price-ordered listings are limited to the first "
+                    + MAX_PRICE_ORDER_WINDOW + " matches");
+        }
+        return pageSize;
+    }
+
+    // Id breaks price ties, matching the order of the in-memory index
+    private static Sort priceOrder(boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, "price").and(Sort.by(direction, "id"));
+    }
+
+    private static List<Product> skip(List<Product> rows, int offset) {
+        return rows.size() <= offset ? List.of() : rows.subList(offset, rows.size());
+    }
+
+    private static boolean inStock(Product product) {
+        return product.getQuantity() != null && product.getQuantity() > 0;
+    }
+
+    /**
+     * Loads the products matched by an in-memory filter, in the order of {@code ids}. The columns
+     * can trail a write on another replica by a moment, so rows that no longer
+     * match (or no longer exist) are dropped.
+     */
+    private List<Product> materialize(long[] ids, Predicate<Product> stillMatches) {
+        List<Long> idList = Arrays.stream(ids).boxed().toList();
+        Map<Long, Product> found = productCache.getAll(idList, BATCH_QUERY_CHUNK_SIZE, this::loadFromPrimary);
+        return idList.stream().map(found::get).filter(Objects::nonNull).filter(stillMatches).toList();
+    }
+
+    // Write paths always read the row from the database, never from the cache
+
+    private Product findProductOrThrow(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 }
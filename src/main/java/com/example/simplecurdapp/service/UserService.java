@@ -1,76 +1,277 @@
 package com.example.simplecurdapp.service;
 
+import com.example.simplecurdapp.cache.UserCache;
+import com.example.simplecurdapp.cache.UserCacheWriteBehind;
+import com.example.simplecurdapp.dto.BatchGetResponse;
+import com.example.simplecurdapp.dto.BulkItemStatus;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.SearchPage;
+import com.example.simplecurdapp.dto.UserSummary;
+import com.example.simplecurdapp.event.UserChangedEvent;
 import com.example.simplecurdapp.exception.DuplicateResourceException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.loader.BatchLoader;
 import com.example.simplecurdapp.model.User;
 import com.example.simplecurdapp.repository.UserRepository;
+import com.example.simplecurdapp.search.SearchHits;
+import com.example.simplecurdapp.search.UserSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    // Upper bound on ids per IN (...) query issued for batch lookups
+    public static final int BATCH_QUERY_CHUNK_SIZE = 500;
+    public static final int MAX_BULK_ITEMS = 10000;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Deepest match a search can page to
+    public static final int MAX_SEARCH_WINDOW = 10000;
+    // Rows per JDBC batch and per transaction in the bulk endpoints
+    private static final int BULK_CHUNK_SIZE = 500;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private UserCache userCache;
 
+    // Cache updates from writes go to Redis after commit, batched, instead of inside the transaction
+    @Autowired
+    private UserCacheWriteBehind userCacheWriteBehind;
 
-    public User getUserData(Long id)
-    {
+    @PersistenceContext
+    private EntityManager entityManager;
 
-        //User_10
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-        User user=(User) redisTemplate.opsForValue().get("User_"+id);
+    @Autowired
+    private UserSearchIndex userSearchIndex;
 
-        System.out.println(user);
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        if(user==null)
-        {
-            System.out.println("Fetching from DB");
-           Optional<User> optData = userRepository.findById(id);
-           if(optData.isEmpty()==false)
-           {
-               user=optData.get();
-               redisTemplate.opsForValue().set("User_"+id, user);
-           }
+    // Coalesces concurrent lookups outside transactions into one IN query
+    @Autowired
+    private BatchLoader<User> userBatchLoader;
 
-        }
-        
-       
-        return user;
 
+    /**
+     * Cached lookup of a user, or null when the id does not exist. Misses are
+     * coalesced and absent ids are negatively cached by {@link UserCache}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public User getUserData(Long id)
+    {
+        return userCache.getOrLoad(id, userBatchLoader::load);
     }
 
 
+    /**
+     * Resolves many users with one Redis MGET and chunked IN queries for the misses,
+     * returning them in the order the ids were requested.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public BatchGetResponse<User> getUsersByIds(List<Long> ids) {
+        Map<Long, User> found = userCache.getAll(new LinkedHashSet<>(ids), BATCH_QUERY_CHUNK_SIZE,
+                this::loadFromPrimary);
+        return BatchGetResponse.inRequestOrder(ids, found);
+    }
+
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = CursorPage.decodeCursor(cursor);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.fromOverfetch(rows, pageSize, User::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserSummary> getAllUserSummaries() {
+        return userRepository.findBy(UserSummary.class);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUserSummariesPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = CursorPage.decodeCursor(cursor);
+        List<UserSummary> rows = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1),
+                UserSummary.class);
+        return CursorPage.fromOverfetch(rows, pageSize, UserSummary::id);
+    }
+
+    /**
+     * Hands every user to {@code consumer} in id order as rows come off the JDBC
+     * cursor, detaching each one so memory stays flat for large tables.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderedById()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    /**
+     * Current version of a user for conditional GETs, read from the version column
+     * alone so a 304 never loads the full row.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Long getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+    }
+
+    /**
+     * Loads a user, batched with concurrent lookups when called outside a
+     * transaction. Called from a write method, it returns the managed entity.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public User getUserById(Long id) {
-        return userRepository.findById(id)
+        return userBatchLoader.load(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
     }
 
     public User createUser(User user) {
+        // The version is assigned by JPA; a client-supplied one would make save() treat the row as existing
+        user.setVersion(null);
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new DuplicateResourceException("User", "email", user.getEmail());
         }
         User savedUser = userRepository.save(user);
         // Cache the newly created user
-        redisTemplate.opsForValue().set("User_" + savedUser.getId(), savedUser);
+        userCacheWriteBehind.put(savedUser);
+        eventPublisher.publishEvent(UserChangedEvent.saved(savedUser));
         return savedUser;
     }
 
-    public User updateUser(Long id, User userDetails) {
+    /**
+     * Inserts many users through JDBC batches, committing every
+     * {@value #BULK_CHUNK_SIZE} rows, and reports the outcome of each item.
+     * Emails already taken, or repeated within the request, fail individually.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkCreateUsers(List<User> users) {
+        requireBulkSize(users.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(users.size());
+        Set<String> takenEmails = findExistingEmails(users);
+        Set<String> seenEmails = new HashSet<>();
+        List<User> valid = new ArrayList<>(users.size());
+        List<Integer> indexes = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = validateForBulk(user);
+            if (error == null && (takenEmails.contains(user.getEmail()) || !seenEmails.add(user.getEmail()))) {
+                error = new DuplicateResourceException("User", "email", user.getEmail()).getMessage();
+            }
+            if (error != null) {
+                result.failure(i, null, error);
+            } else {
+                valid.add(user);
+                indexes.add(i);
+            }
+        }
+        List<User> created = new ChunkedBatchWriter<User>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                chunk -> {
+                    userRepository.batchInsert(chunk);
+                    int[] counts = new int[chunk.size()];
+                    Arrays.fill(counts, 1);
+                    return counts;
+                },
+                User::getId, BulkItemStatus.CREATED).write(valid, indexes, result);
+        userCacheWriteBehind.putAll(created);
+        eventPublisher.publishEvent(new UserChangedEvent(created, List.of()));
+        return result.build();
+    }
+
+    /**
+     * Overwrites many users by id through JDBC batches and reports the outcome of
+     * each item; unknown ids and email conflicts are reported as failed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkUpdateUsers(List<User> users) {
+        requireBulkSize(users.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(users.size());
+        List<User> valid = new ArrayList<>(users.size());
+        List<Integer> indexes = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = user.getId() == null ? "id is required" : validateForBulk(user);
+            if (error != null) {
+                result.failure(i, user.getId(), error);
+            } else {
+                valid.add(user);
+                indexes.add(i);
+            }
+        }
+        // Email uniqueness is enforced by the unique index; conflicting rows fail individually
+        List<User> updated = new ChunkedBatchWriter<User>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                userRepository::batchUpdate, User::getId, BulkItemStatus.UPDATED).write(valid, indexes, result);
+        // The batch bumped each row's version, so the request's copies are stale; let the next read reload them
+        userCacheWriteBehind.evictAll(updated.stream().map(User::getId).toList());
+        eventPublisher.publishEvent(new UserChangedEvent(updated, List.of()));
+        return result.build();
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkOperationResult bulkDeleteUsers(List<Long> ids) {
+        requireBulkSize(ids.size());
+        BulkOperationResult.Builder result = BulkOperationResult.builder(ids.size());
+        List<Integer> indexes = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            indexes.add(i);
+        }
+        List<Long> deleted = new ChunkedBatchWriter<Long>(bulkTransactionTemplate(), BULK_CHUNK_SIZE,
+                userRepository::batchDelete, id -> id, BulkItemStatus.DELETED).write(ids, indexes, result);
+        userCacheWriteBehind.evictAll(deleted);
+        eventPublisher.publishEvent(new UserChangedEvent(List.of(), deleted));
+        return result.build();
+    }
+
+    /**
+     * Overwrites a user. When {@code expectedVersion} is given (from {@code If-Match})
+     * the update is rejected unless the user is still at that version; concurrent
+     * writers are caught by the {@code @Version} check.
+     */
+    public User updateUser(Long id, User userDetails, Long expectedVersion) {
         User existingUser = getUserById(id);
+        Versions.requireMatch("User", id, expectedVersion, existingUser.getVersion());
 
         // Check email uniqueness only if email is being changed
         if (!existingUser.getEmail().equals(userDetails.getEmail())
@@ -84,9 +285,11 @@ public class UserService {
         existingUser.setAddress(userDetails.getAddress());
         existingUser.setIsActive(userDetails.getIsActive());
 
-        User updatedUser = userRepository.save(existingUser);
+        // Flush so the cached copy carries the incremented version
+        User updatedUser = userRepository.saveAndFlush(existingUser);
         // Update cache with modified user
-        redisTemplate.opsForValue().set("User_" + id, updatedUser);
+        userCacheWriteBehind.put(updatedUser);
+        eventPublisher.publishEvent(UserChangedEvent.saved(updatedUser));
         return updatedUser;
     }
 
@@ -94,36 +297,112 @@ public class UserService {
         User user = getUserById(id);
         userRepository.delete(user);
         // Remove from cache
-        redisTemplate.delete("User_" + id);
+        userCacheWriteBehind.evict(id);
+        eventPublisher.publishEvent(UserChangedEvent.deleted(id));
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
-    public List<User> searchUsers(String keyword) {
-        return userRepository.searchByKeyword(keyword);
+    /**
+     * Ranked full-text search backed by UserSearchIndex, hydrated through the cache.
+     * Falls back to a {@code LIKE} scan while the index is still being built.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SearchPage<User> searchUsers(String keyword, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        if (page < 0 || (long) (page + 1) * pageSize > MAX_SEARCH_WINDOW) {
+            throw new InvalidRequestException("Search results are limited to the first " + MAX_SEARCH_WINDOW + " matches");
+        }
+        Optional<SearchHits> hits = userSearchIndex.search(keyword, page, pageSize);
+        if (hits.isEmpty()) {
+            Page<User> users = userRepository.searchByKeyword(keyword, PageRequest.of(page, pageSize));
+            return new SearchPage<>(users.getContent(), users.getTotalElements(), page, pageSize);
+        }
+        List<Long> ids = hits.get().ids();
+        Map<Long, User> found = userCache.getAll(ids, BATCH_QUERY_CHUNK_SIZE, this::loadFromPrimary);
+        // A hit can briefly outlive its row on another replica; skip ids that no longer resolve
+        List<User> items = ids.stream().map(found::get).filter(Objects::nonNull).toList();
+        return new SearchPage<>(items, hits.get().totalHits(), page, pageSize);
     }
 
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userRepository.findByIsActive(true);
     }
 
-    public User deactivateUser(Long id) {
+    @Transactional(readOnly = true)
+    public List<UserSummary> getActiveUserSummaries() {
+        return userRepository.findByIsActive(true, UserSummary.class);
+    }
+
+    public User deactivateUser(Long id, Long expectedVersion) {
         User user = getUserById(id);
+        Versions.requireMatch("User", id, expectedVersion, user.getVersion());
         user.setIsActive(false);
-        User deactivatedUser = userRepository.save(user);
+        User deactivatedUser = userRepository.saveAndFlush(user);
         // Update cache with deactivated user
-        redisTemplate.opsForValue().set("User_" + id, deactivatedUser);
+        userCacheWriteBehind.put(deactivatedUser);
+        eventPublisher.publishEvent(UserChangedEvent.saved(deactivatedUser));
         return deactivatedUser;
     }
 
-    public User activateUser(Long id) {
+    public User activateUser(Long id, Long expectedVersion) {
         User user = getUserById(id);
+        Versions.requireMatch("User", id, expectedVersion, user.getVersion());
         user.setIsActive(true);
-        User activatedUser = userRepository.save(user);
+        User activatedUser = userRepository.saveAndFlush(user);
         // Update cache with activated user
-        redisTemplate.opsForValue().set("User_" + id, activatedUser);
+        userCacheWriteBehind.put(activatedUser);
+        eventPublisher.publishEvent(UserChangedEvent.saved(activatedUser));
         return activatedUser;
     }
+
+    private Set<String> findExistingEmails(List<User> users) {
+        List<String> emails = new ArrayList<>(users.size());
+        for (User user : users) {
+            if (user.getEmail() != null) {
+                emails.add(user.getEmail());
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += BATCH_QUERY_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(from, Math.min(from + BATCH_QUERY_CHUNK_SIZE, emails.size()));
+            userRepository.findByEmailIn(chunk).forEach(user -> existing.add(user.getEmail()));
+        }
+        return existing;
+    }
+
+    /**
+     * Loads rows that are about to be written to the cache from the primary, in a
+     * transaction of their own: a read-only one would go to a replica, which can
+     * still return a row as it was before a write whose invalidation already ran.
+     */
+    private List<User> loadFromPrimary(Collection<Long> ids) {
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return primary.execute(status -> userRepository.findAllById(ids));
+    }
+
+    private TransactionTemplate bulkTransactionTemplate() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static void requireBulkSize(int size) {
+        if (size == 0 || size > MAX_BULK_ITEMS) {
+            throw new InvalidRequestException("Bulk requests must contain between 1 and " + MAX_BULK_ITEMS + " items");
+        }
+    }
+
+    private static String validateForBulk(User user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            return "name is required";
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return "email is required";
+        }
+        return null;
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.simplecurdapp.service;
+
+import com.example.simplecurdapp.exception.PreconditionFailedException;
+
+import java.util.Objects;
+
+/**
+ * Checks the version a client last saw (its {@code If-Match} ETag) against the
+ * row just loaded. The {@code @Version} column then guards the short window
+ * between this check and the flush.
+ */
+final class Versions {
+
+    private Versions() {
+    }
+
+    /**
+     * Throws {@link PreconditionFailedException} unless {@code expected} is null
+     * (no precondition) or equal to {@code current}.
+     */
+    static void requireMatch(String resourceName, Long id, Long expected, Long current) {
+        if (expected != null && !Objects.equals(expected, current)) {
+            throw new PreconditionFailedException(resourceName, id, expected, current);
+        }
+    }
+}
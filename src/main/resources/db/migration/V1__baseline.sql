@@ -0,0 +1,29 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update. Existing
+-- databases are baselined at this version (spring.flyway.baseline-on-migrate) and
+-- skip it; new databases start here.
+
+CREATE TABLE products (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    price DECIMAL(10, 2) NOT NULL,
+    quantity INT NOT NULL,
+    category VARCHAR(255),
+    is_available BIT,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    version BIGINT DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    phone VARCHAR(255),
+    address VARCHAR(255),
+    is_active BIT,
+    version BIGINT DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
@@ -0,0 +1,18 @@
+-- One index per repository finder that used to scan the table; QueryPlanTest
+-- fails when a finder stops using one. InnoDB appends the primary key to every
+-- secondary index, so equality lookups also come back in id order.
+
+-- findByCategory, findAllCategories, and findCategoryFacets, which reads only this index
+CREATE INDEX idx_products_category ON products (category, is_available, quantity, price);
+
+-- findByIsAvailable
+CREATE INDEX idx_products_is_available ON products (is_available);
+
+-- findByPriceBetween
+CREATE INDEX idx_products_price ON products (price);
+
+-- findInStockProducts
+CREATE INDEX idx_products_quantity ON products (quantity);
+
+-- findByIsActive
+CREATE INDEX idx_users_is_active ON users (is_active);
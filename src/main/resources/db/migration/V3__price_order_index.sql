@@ -0,0 +1,4 @@
+-- findByCategory and findByCategoryAndQuantityGreaterThan ordered by price: the
+-- rows of one category come off this index already in (price, id) order, so a
+-- top-N query reads N entries instead of sorting the whole category
+CREATE INDEX idx_products_category_price ON products (category, price);
@@ -0,0 +1,20 @@
+-- Product import jobs (ProductImports). byte_offset and line_number point just
+-- past the last committed chunk and are written in the same transaction as its
+-- rows, so a resumed import neither skips nor repeats rows; rejected_bytes is
+-- the length of the rejected-rows file at that commit.
+CREATE TABLE import_jobs (
+    id VARCHAR(64) NOT NULL,
+    source VARCHAR(1024) NOT NULL,
+    format VARCHAR(16) NOT NULL,
+    state VARCHAR(16) NOT NULL,
+    total_bytes BIGINT NOT NULL,
+    byte_offset BIGINT DEFAULT 0 NOT NULL,
+    line_number BIGINT DEFAULT 0 NOT NULL,
+    imported BIGINT DEFAULT 0 NOT NULL,
+    rejected BIGINT DEFAULT 0 NOT NULL,
+    rejected_bytes BIGINT DEFAULT 0 NOT NULL,
+    error VARCHAR(1024),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,4 @@
+-- The run that has claimed an import job (ProductImports). Claims, checkpoints
+-- and state changes are conditional on it, so a job resumed on another replica
+-- while its previous run is still going cannot import the same rows twice.
+ALTER TABLE import_jobs ADD COLUMN run_id VARCHAR(64);
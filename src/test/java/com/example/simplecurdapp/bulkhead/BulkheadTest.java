@@ -0,0 +1,85 @@
+package com.example.simplecurdapp.bulkhead;
+
+import com.example.simplecurdapp.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquireShouldFailAfterMaxWaitWhenFullAndCountRejection() {
+        Bulkhead bulkhead = new Bulkhead("mysql", 1, Duration.ofMillis(20), meterRegistry);
+        bulkhead.acquire();
+
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("name", "mysql").counter().count());
+        assertEquals(1.0, meterRegistry.get("bulkhead.active").tag("name", "mysql").gauge().value());
+        assertEquals(2, meterRegistry.get("bulkhead.wait").tag("name", "mysql").timer().count());
+    }
+
+    @Test
+    void queuedCallerShouldProceedOnceAPermitIsReleased() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("redis", 1, Duration.ofSeconds(5), meterRegistry);
+        bulkhead.acquire();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(bulkhead::acquire);
+        while (meterRegistry.get("bulkhead.queued").tag("name", "redis").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        bulkhead.release();
+
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(0.0, meterRegistry.get("bulkhead.queued").tag("name", "redis").gauge().value());
+    }
+
+    @Test
+    void dataSourceShouldHoldPermitUntilConnectionIsClosedOnce() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("mysql", 1, Duration.ofMillis(20), meterRegistry);
+        BulkheadDataSource dataSource = new BulkheadDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1", "sa", ""), bulkhead);
+
+        Connection connection = dataSource.getConnection();
+        SQLTransientConnectionException full =
+                assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertInstanceOf(BulkheadFullException.class, full.getCause());
+
+        connection.close();
+        connection.close();
+
+        try (Connection again = dataSource.getConnection()) {
+            assertEquals(1.0, meterRegistry.get("bulkhead.active").tag("name", "mysql").gauge().value());
+        }
+        assertEquals(0.0, meterRegistry.get("bulkhead.active").tag("name", "mysql").gauge().value());
+    }
+
+    @Test
+    void postProcessorShouldLeaveDataSourcesThatBulkheadTheirPoolsAlone() {
+        Bulkhead bulkhead = new Bulkhead("mysql", 1, Duration.ofMillis(20), meterRegistry);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("mysqlBulkhead", bulkhead);
+        DataSourceBulkheadPostProcessor postProcessor =
+                new DataSourceBulkheadPostProcessor(beanFactory.getBeanProvider(Bulkhead.class));
+        DriverManagerDataSource pool = new DriverManagerDataSource("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1", "sa", "");
+        LazyConnectionDataSourceProxy router = new LazyConnectionDataSourceProxy(new BulkheadDataSource(pool, bulkhead));
+
+        assertSame(router, postProcessor.postProcessAfterInitialization(router, "dataSource"));
+        assertInstanceOf(BulkheadDataSource.class, postProcessor.postProcessAfterInitialization(pool, "dataSource"));
+    }
+}
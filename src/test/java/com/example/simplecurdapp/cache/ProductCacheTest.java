@@ -0,0 +1,171 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.metrics.CacheMetrics;
+import com.example.simplecurdapp.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CacheMetrics cacheMetrics = new CacheMetrics(meterRegistry);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        productCache = new ProductCache(redisTemplate, stringRedisTemplate, cacheMetrics, 100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getShouldServeNearCacheAfterFirstRedisHit() {
+        Product product = createProduct(1L);
+        when(valueOperations.get("Product_1")).thenReturn(product);
+
+        assertSame(product, productCache.get(1L));
+        assertSame(product, productCache.get(1L));
+
+        verify(valueOperations, times(1)).get("Product_1");
+    }
+
+    @Test
+    void getShouldCountLookupsPerTier() {
+        when(valueOperations.get("Product_1")).thenReturn(createProduct(1L));
+
+        productCache.get(1L);
+        productCache.get(1L);
+        productCache.get(2L);
+
+        assertEquals(1, lookups("near", "hit"));
+        assertEquals(2, lookups("near", "miss"));
+        assertEquals(1, lookups("redis", "hit"));
+        assertEquals(1, lookups("redis", "miss"));
+        assertEquals(2, meterRegistry.get("redis.commands").tag("prefix", "Product_").tag("command", "get").timer().count());
+    }
+
+    @Test
+    void putShouldWriteBothTiersWhenVersionIsCurrent() {
+        Product product = createProduct(2L);
+
+        productCache.put(product, productCache.version(2L));
+
+        verify(valueOperations).set("Product_2", product, Duration.ofMinutes(10));
+        assertSame(product, productCache.get(2L));
+    }
+
+    @Test
+    void putShouldBeDiscardedWhenInvalidatedDuringLoad() {
+        long version = productCache.version(3L);
+        productCache.invalidate(3L);
+
+        productCache.put(createProduct(3L), version);
+
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        assertNull(productCache.get(3L));
+    }
+
+    @Test
+    void invalidateShouldDeleteRedisKeyAndBroadcast() {
+        productCache.invalidate(4L);
+
+        verify(redisTemplate).delete("Product_4");
+        verify(stringRedisTemplate).convertAndSend(eq(ProductCache.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void remoteInvalidationShouldEvictNearCache() {
+        Product product = createProduct(5L);
+        productCache.put(product, productCache.version(5L));
+
+        productCache.onMessage(new DefaultMessage(
+                ProductCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:5".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertNull(productCache.get(5L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getAllShouldChunkRedisReadsAndCapTheBackfill() {
+        when(valueOperations.multiGet(any())).thenAnswer(invocation ->
+                Arrays.asList(new Object[invocation.<Collection<String>>getArgument(0).size()]));
+        RedisOperations<String, Object> pipeline = mock(RedisOperations.class);
+        ValueOperations<String, Object> pipelinedValues = mock(ValueOperations.class);
+        when(pipeline.opsForValue()).thenReturn(pipelinedValues);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation ->
+                invocation.<SessionCallback<Object>>getArgument(0).execute(pipeline));
+        List<Long> ids = LongStream.rangeClosed(1, 1200).boxed().toList();
+        List<Integer> loaderCalls = new ArrayList<>();
+
+        Map<Long, Product> found = productCache.getAll(ids, 500, chunk -> {
+            loaderCalls.add(chunk.size());
+            return chunk.stream().map(this::createProduct).toList();
+        });
+
+        assertEquals(1200, found.size());
+        verify(valueOperations, times(3)).multiGet(any());
+        assertEquals(List.of(500, 500, 200), loaderCalls);
+        verify(redisTemplate, times(2)).executePipelined(any(SessionCallback.class));
+        verify(pipelinedValues, times(1000)).set(anyString(), any(), any(Duration.class));
+        assertEquals(1200, lookups("redis", "miss"));
+    }
+
+    private double lookups(String tier, String result) {
+        return meterRegistry.get("cache.lookups").tag("cache", "product").tag("tier", tier).tag("result", result)
+                .counter().count();
+    }
+
+    private Product createProduct(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setQuantity(1);
+        return product;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.config.SecondLevelCacheConfig;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the repositories against the Flyway schema with the Caffeine-backed
+ * regions of {@link SecondLevelCacheConfig}, counting database work through
+ * Hibernate statistics. Not transactional: a read-write region only serves an
+ * entry to transactions that start after it was cached, so every call runs in
+ * a transaction of its own, as it does in the services.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SecondLevelCacheConfig.class, SecondLevelCache.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:second-level-cache;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private StringRedisTemplate stringRedisTemplate;
+
+    private Statistics statistics;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Through JDBC, so the row starts out uncached
+        jdbcTemplate.update("INSERT INTO products (name, price, quantity, category, is_available, version) "
+            + "VALUES ('Lamp', 19.99, 1, 'Lighting', true, 0)");
+        productId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM products", Long.class);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    }
+
+    @Test
+    void entityLookupsShouldBeServedFromTheProductRegion() {
+        productRepository.findById(productId);
+        productRepository.findById(productId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics(SecondLevelCache.PRODUCT_REGION).getHitCount());
+    }
+
+    @Test
+    void repeatedListingsShouldBeServedFromTheQueryCache() {
+        productRepository.findByCategory("Lighting");
+        List<Product> cached = productRepository.findByCategory("Lighting");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(List.of(productId), cached.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void evictingProductsShouldDropTheirEntriesAndListingsAndTellOtherReplicas() {
+        productRepository.findByCategory("Lighting");
+
+        secondLevelCache.evictProducts(List.of(productId));
+        productRepository.findByCategory("Lighting");
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        verify(stringRedisTemplate).convertAndSend(eq(SecondLevelCache.INVALIDATION_CHANNEL), endsWith(":P:" + productId));
+    }
+
+    @Test
+    void evictionsFromOtherReplicasShouldApplyLocally() {
+        productRepository.findById(productId);
+        assertTrue(entityManagerFactory.getCache().contains(Product.class, productId));
+
+        secondLevelCache.onMessage(new DefaultMessage(SecondLevelCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("other-node:P:" + productId).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertFalse(entityManagerFactory.getCache().contains(Product.class, productId));
+    }
+}
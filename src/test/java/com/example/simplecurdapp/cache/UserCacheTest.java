@@ -0,0 +1,239 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.metrics.CacheMetrics;
+import com.example.simplecurdapp.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CacheMetrics cacheMetrics = new CacheMetrics(meterRegistry);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        userCache = new UserCache(redisTemplate, stringRedisTemplate, cacheMetrics, Runnable::run,
+                Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofSeconds(60), 0.1,
+                false, Duration.ofSeconds(5), Duration.ofMillis(500));
+    }
+
+    @Test
+    void hitShouldNotCallLoader() {
+        User cached = createUser(1L);
+        cacheReturns(cached, 300_000L);
+
+        User actual = userCache.getOrLoad(1L, id -> {
+            throw new AssertionError("loader should not run on a fresh hit");
+        });
+
+        assertSame(cached, actual);
+    }
+
+    @Test
+    void missForAbsentIdShouldStoreNegativeEntry() {
+        cacheReturns(null, -2L);
+
+        User actual = userCache.getOrLoad(2L, id -> Optional.empty());
+
+        assertNull(actual);
+        verify(valueOperations).setIfAbsent(eq("User_2"), eq(CacheMarker.ABSENT), any(Duration.class));
+    }
+
+    @Test
+    void negativeEntryShouldReturnNullWithoutLoading() {
+        cacheReturns(CacheMarker.ABSENT, 20_000L);
+
+        User actual = userCache.getOrLoad(3L, id -> {
+            throw new AssertionError("loader should not run for a cached absent id");
+        });
+
+        assertNull(actual);
+    }
+
+    @Test
+    void entryNearExpiryShouldBeServedAndRefreshed() {
+        User stale = createUser(4L);
+        User fresh = createUser(4L);
+        fresh.setName("Fresh");
+        cacheReturns(stale, 1_000L);
+
+        User actual = userCache.getOrLoad(4L, id -> Optional.of(fresh));
+
+        assertSame(stale, actual);
+        verify(valueOperations).set(eq("User_4"), eq(fresh), any(Duration.class));
+    }
+
+    @Test
+    void loadThatRacedAFlushedWriteShouldNotBeStored() {
+        cacheReturns(null, -2L);
+        User old = createUser(6L);
+        User written = createUser(6L);
+
+        User actual = userCache.getOrLoad(6L, id -> {
+            // The write-behind flushes a newer version while the row is being read
+            userCache.writeAll(List.of(written), List.of());
+            return Optional.of(old);
+        });
+
+        assertSame(old, actual);
+        verify(valueOperations, never()).setIfAbsent(eq("User_6"), any(), any(Duration.class));
+    }
+
+    @Test
+    void refreshShouldNotReplaceANewerVersion() {
+        User cached = createUser(7L);
+        cached.setVersion(3L);
+        User older = createUser(7L);
+        older.setVersion(2L);
+        cacheReturns(cached, 1_000L);
+
+        userCache.getOrLoad(7L, id -> Optional.of(older));
+
+        verify(valueOperations, never()).set(eq("User_7"), any(), any(Duration.class));
+    }
+
+    @Test
+    void concurrentMissesShouldShareOneLoad() throws Exception {
+        cacheReturns(null, -2L);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        User loaded = createUser(5L);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<User> first = pool.submit(() -> userCache.getOrLoad(5L, id -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(loaded);
+            }));
+            // Give the leader time to register before the followers arrive
+            Thread.sleep(100);
+            Future<User> second = pool.submit(() -> userCache.getOrLoad(5L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(loaded);
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertSame(loaded, first.get(5, TimeUnit.SECONDS));
+            assertSame(loaded, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getAllShouldUseOneMgetAndLoadOnlyMisses() {
+        User cached = createUser(1L);
+        User loaded = createUser(3L);
+        when(valueOperations.multiGet(List.of("User_1", "User_2", "User_3", "User_4")))
+            .thenReturn(Arrays.asList(cached, CacheMarker.ABSENT, null, null));
+        List<Collection<Long>> loaderCalls = new ArrayList<>();
+
+        Map<Long, User> found = userCache.getAll(List.of(1L, 2L, 3L, 4L), 500, ids -> {
+            loaderCalls.add(List.copyOf(ids));
+            return List.of(loaded);
+        });
+
+        assertEquals(Map.of(1L, cached, 3L, loaded), found);
+        assertEquals(List.of(List.of(3L, 4L)), loaderCalls);
+        verify(redisTemplate).executePipelined(any(SessionCallback.class));
+        assertEquals(1, lookups("hit"));
+        assertEquals(1, lookups("absent"));
+        assertEquals(2, lookups("miss"));
+    }
+
+    @Test
+    void getAllShouldChunkDatabaseLookups() {
+        when(valueOperations.multiGet(any())).thenReturn(Arrays.asList(null, null, null));
+        List<Collection<Long>> loaderCalls = new ArrayList<>();
+
+        userCache.getAll(List.of(1L, 2L, 3L), 2, ids -> {
+            loaderCalls.add(List.copyOf(ids));
+            return List.of();
+        });
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), loaderCalls);
+    }
+
+    @Test
+    void jitteredTtlShouldStayWithinConfiguredSpread() {
+        for (int i = 0; i < 100; i++) {
+            long millis = userCache.jittered(Duration.ofSeconds(100)).toMillis();
+            assertTrue(millis >= 90_000 && millis <= 110_000, "ttl out of range: " + millis);
+        }
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("cache.lookups").tag("cache", "user").tag("tier", "redis").tag("result", result)
+                .counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cacheReturns(Object value, Long ttlMillis) {
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(value, ttlMillis));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private User createUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+}
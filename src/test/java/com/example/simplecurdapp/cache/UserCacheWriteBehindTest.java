@@ -0,0 +1,140 @@
+package com.example.simplecurdapp.cache;
+
+import com.example.simplecurdapp.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheWriteBehindTest {
+
+    @Mock
+    private UserCache userCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserCacheWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        writeBehind = new UserCacheWriteBehind(userCache, meterRegistry, 500, Duration.ofHours(1), Duration.ofHours(2));
+    }
+
+    @Test
+    void updatesToOneUserShouldCoalesceIntoTheHighestVersion() {
+        User v2 = createUser(1L, 2L);
+        writeBehind.put(createUser(1L, 1L));
+        writeBehind.put(v2);
+        writeBehind.put(createUser(1L, 0L));
+
+        writeBehind.flush();
+
+        verify(userCache).writeAll(List.of(v2), List.of());
+        assertEquals(2, meterRegistry.get("cache.write.coalesced").counter().count());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void evictionShouldWinOverEarlierAndLaterPuts() {
+        writeBehind.put(createUser(2L, 1L));
+        writeBehind.evict(2L);
+        writeBehind.put(createUser(2L, 2L));
+
+        writeBehind.flush();
+
+        verify(userCache).writeAll(List.of(), List.of(2L));
+    }
+
+    @Test
+    void updatesShouldOnlyBeQueuedOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writeBehind.put(createUser(3L, 0L));
+            assertEquals(0, writeBehind.pendingCount());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, writeBehind.pendingCount());
+    }
+
+    @Test
+    void rolledBackUpdatesShouldNeverBeQueued() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writeBehind.put(createUser(4L, 0L));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        writeBehind.flush();
+
+        assertEquals(0, writeBehind.pendingCount());
+        verify(userCache, never()).writeAll(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void failedBatchShouldBeRequeuedAndHeldBackUntilTheRetryIsDue() {
+        User user = createUser(5L, 0L);
+        doThrow(new QueryTimeoutException("Redis timed out"))
+                .doNothing()
+                .when(userCache).writeAll(any(), any());
+        writeBehind.put(user);
+
+        writeBehind.flush();
+        writeBehind.flush();
+
+        verify(userCache, times(1)).writeAll(any(), any());
+        assertEquals(1, writeBehind.pendingCount());
+        assertEquals(1, meterRegistry.get("cache.write.failures").counter().count());
+
+        writeBehind.flushOnShutdown();
+
+        verify(userCache, times(2)).writeAll(List.of(user), List.of());
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals(1, meterRegistry.get("cache.write.delay").timer().count());
+    }
+
+    @Test
+    void flushShouldSplitLargeQueuesIntoBatches() {
+        writeBehind = new UserCacheWriteBehind(userCache, meterRegistry, 2, Duration.ZERO, Duration.ZERO);
+        doNothing().when(userCache).writeAll(any(), any());
+        writeBehind.evictAll(List.of(1L, 2L, 3L, 4L, 5L));
+
+        writeBehind.flush();
+
+        verify(userCache, times(3)).writeAll(any(), any());
+    }
+
+    private User createUser(Long id, Long version) {
+        User user = new User();
+        user.setId(id);
+        user.setVersion(version);
+        user.setName("User " + id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+}
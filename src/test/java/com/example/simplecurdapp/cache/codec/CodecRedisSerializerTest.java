@@ -0,0 +1,111 @@
+package com.example.simplecurdapp.cache.codec;
+
+import com.example.simplecurdapp.cache.CacheMarker;
+import com.example.simplecurdapp.config.RedisConfig;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CodecRedisSerializerTest {
+
+    private final RedisSerializer<Object> json = new GenericJackson2JsonRedisSerializer(RedisConfig.redisObjectMapper());
+
+    @Test
+    void binaryShouldRoundTripProductAndBeSmallerThanJson() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+        Product product = product("Short description");
+
+        byte[] bytes = serializer.serialize(product);
+
+        assertEquals(CodecRedisSerializer.MAGIC, bytes[0] & 0xFF);
+        assertEquals(product, serializer.deserialize(bytes));
+        assertTrue(bytes.length * 2 < json.serialize(product).length);
+    }
+
+    @Test
+    void binaryShouldRoundTripUserWithNullFields() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+        User user = new User();
+        user.setId(7L);
+        user.setName("Ann");
+        user.setEmail("ann@example.com");
+        user.setIsActive(null);
+
+        User copy = (User) serializer.deserialize(serializer.serialize(user));
+
+        assertEquals(user, copy);
+        assertNull(copy.getIsActive());
+        assertNull(copy.getPhone());
+    }
+
+    @Test
+    void binaryShouldRoundTripNegativeCacheMarker() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+
+        assertSame(CacheMarker.ABSENT, serializer.deserialize(serializer.serialize(CacheMarker.ABSENT)));
+    }
+
+    @Test
+    void largePayloadShouldBeCompressed() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+        Product product = product("A long and repetitive description. ".repeat(100));
+
+        byte[] bytes = serializer.serialize(product);
+
+        assertEquals(CodecRedisSerializer.FLAG_LZ4, bytes[3] & CodecRedisSerializer.FLAG_LZ4);
+        assertTrue(bytes.length < product.getDescription().length() / 4);
+        assertEquals(product, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void jsonWriteFormatShouldStillReadBinaryValues() {
+        byte[] binary = serializer(CacheValueFormat.BINARY, 512).serialize(product("Description"));
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.JSON, 512);
+
+        assertArrayEquals(json.serialize(product("Description")), serializer.serialize(product("Description")));
+        assertEquals(product("Description"), serializer.deserialize(binary));
+    }
+
+    @Test
+    void binaryWriteFormatShouldReadLegacyJsonAndFallBackToJsonForOtherTypes() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+
+        assertEquals(product("Description"), serializer.deserialize(json.serialize(product("Description"))));
+        assertEquals("plain value", serializer.deserialize(serializer.serialize("plain value")));
+    }
+
+    @Test
+    void valueFromNewerCodecVersionShouldReadAsMiss() {
+        CodecRedisSerializer serializer = serializer(CacheValueFormat.BINARY, 512);
+        byte[] bytes = serializer.serialize(product("Description"));
+        bytes[2] = 2;
+
+        assertNull(serializer.deserialize(bytes));
+    }
+
+    private CodecRedisSerializer serializer(CacheValueFormat format, int compressionThreshold) {
+        return new CodecRedisSerializer(List.of(new ProductCodec(), new UserCodec(), new CacheMarkerCodec()),
+                json, format, compressionThreshold);
+    }
+
+    private Product product(String description) {
+        Product product = new Product("Laptop", description, new BigDecimal("1299.99"), 5, "Electronics");
+        product.setId(42L);
+        product.setVersion(3L);
+        product.setCreatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000));
+        product.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 0));
+        return product;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.simplecurdapp.changelog;
+
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.event.UserChangedEvent;
+import com.example.simplecurdapp.exception.ChangeLogExpiredException;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void committedWritesShouldBeReadBackInOrderAndBroadcast() {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        Product product = new Product();
+        product.setId(7L);
+        User user = new User();
+        user.setId(3L);
+
+        changeLog.onProductChanged(ProductChangedEvent.saved(product));
+        changeLog.onUserChanged(new UserChangedEvent(List.of(user), List.of(4L)));
+
+        List<ChangeRecord> changes = changeLog.read(changeLog.logId(), 0, 10);
+        assertEquals(List.of(1L, 2L, 3L), changes.stream().map(ChangeRecord::sequence).toList());
+        assertEquals(ChangeRecord.Entity.PRODUCT, changes.get(0).entity());
+        assertEquals(ChangeRecord.Operation.UPSERT, changes.get(0).operation());
+        assertEquals(7L, changes.get(0).id());
+        assertEquals(ChangeRecord.Entity.USER, changes.get(2).entity());
+        assertEquals(ChangeRecord.Operation.DELETE, changes.get(2).operation());
+        assertEquals(4L, changes.get(2).id());
+        assertEquals(List.of(3L), changeLog.read(changeLog.logId(), 2, 10).stream().map(ChangeRecord::sequence).toList());
+        assertTrue(changeLog.read(changeLog.logId(), 3, 10).isEmpty());
+        verify(stringRedisTemplate).convertAndSend(eq(ChangeLog.UPDATES_CHANNEL), endsWith(":P+7"));
+        verify(stringRedisTemplate).convertAndSend(eq(ChangeLog.UPDATES_CHANNEL), endsWith(":U+3,U-4"));
+    }
+
+    @Test
+    void reopeningShouldContinueNumberingUnderANewLogId() {
+        ChangeLog first = new ChangeLog(stringRedisTemplate, directory, 4, 4);
+        first.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L, 3L, 4L, 5L), List.of());
+        first.force();
+
+        ChangeLog reopened = new ChangeLog(stringRedisTemplate, directory, 4, 4);
+
+        assertNotEquals(first.logId(), reopened.logId());
+        assertEquals(5, reopened.lastSequence());
+        assertEquals(new ChangeLog.Epoch(reopened.logId(), 5), reopened.epoch());
+        // Writes made on other replicas while it was closed are missing, so earlier entries are not served
+        assertThrows(ChangeLogExpiredException.class, () -> reopened.read(first.logId(), 5, 10));
+        assertThrows(ChangeLogExpiredException.class, () -> reopened.read(reopened.logId(), 4, 10));
+        reopened.record(ChangeRecord.Entity.USER, List.of(), List.of(9L));
+        assertEquals(List.of(6L), reopened.read(reopened.logId(), 5, 10).stream().map(ChangeRecord::sequence).toList());
+    }
+
+    @Test
+    void resubscribingShouldStartANewLogId() {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L), List.of());
+        String before = changeLog.logId();
+        List<Long> notified = new ArrayList<>();
+        changeLog.onAppend(notified::add);
+
+        changeLog.onChannelSubscribed("other-channel".getBytes(StandardCharsets.UTF_8), 1);
+        assertEquals(before, changeLog.logId());
+        changeLog.onChannelSubscribed(ChangeLog.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8), 1);
+
+        String after = changeLog.logId();
+        assertNotEquals(before, after);
+        assertEquals(List.of(2L), notified);
+        assertThrows(ChangeLogExpiredException.class, () -> changeLog.read(before, 2, 10));
+        assertThrows(ChangeLogExpiredException.class, () -> changeLog.read(after, 1, 10));
+        assertTrue(changeLog.read(after, 2, 10).isEmpty());
+    }
+
+    @Test
+    void oldSegmentsShouldBeDroppedAndTheirPositionsExpire() throws Exception {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 2, 2);
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            ids.add(id);
+        }
+        changeLog.record(ChangeRecord.Entity.PRODUCT, ids, List.of());
+
+        // Segments start at 1, 3, 5 and 7; only the last two remain
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.filter(ChangeSegment::isSegment).count());
+        }
+        assertThrows(ChangeLogExpiredException.class, () -> changeLog.read(changeLog.logId(), 3, 10));
+        assertEquals(List.of(5L, 6L, 7L), changeLog.read(changeLog.logId(), 4, 10).stream().map(ChangeRecord::sequence).toList());
+        assertEquals(List.of(5L, 6L), changeLog.read(changeLog.logId(), 4, 2).stream().map(ChangeRecord::sequence).toList());
+    }
+
+    @Test
+    void positionsAheadOfTheLogShouldBeRejected() {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        changeLog.record(ChangeRecord.Entity.USER, List.of(1L), List.of());
+
+        assertThrows(ChangeLogExpiredException.class, () -> changeLog.read(changeLog.logId(), 2, 10));
+    }
+
+    @Test
+    void changesFromOtherReplicasShouldBeAppendedWithoutRebroadcast() {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        List<Long> notified = new ArrayList<>();
+        changeLog.onAppend(notified::add);
+
+        changeLog.onMessage(new DefaultMessage(ChangeLog.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:P+12,U-5".getBytes(StandardCharsets.UTF_8)), null);
+        changeLog.onMessage(new DefaultMessage(ChangeLog.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:X+1".getBytes(StandardCharsets.UTF_8)), null);
+
+        List<ChangeRecord> changes = changeLog.read(changeLog.logId(), 0, 10);
+        assertEquals(2, changes.size());
+        assertEquals(new ChangeLog.Change(ChangeRecord.Entity.PRODUCT, ChangeRecord.Operation.UPSERT, 12L),
+                new ChangeLog.Change(changes.get(0).entity(), changes.get(0).operation(), changes.get(0).id()));
+        assertEquals(new ChangeLog.Change(ChangeRecord.Entity.USER, ChangeRecord.Operation.DELETE, 5L),
+                new ChangeLog.Change(changes.get(1).entity(), changes.get(1).operation(), changes.get(1).id()));
+        assertEquals(List.of(2L), notified);
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void failedBroadcastsShouldBeRetried() {
+        ChangeLog changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        when(stringRedisTemplate.convertAndSend(eq(ChangeLog.UPDATES_CHANNEL), anyString()))
+            .thenThrow(new RedisConnectionFailureException("down"))
+            .thenReturn(1L);
+
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(7L), List.of());
+        changeLog.retryBroadcasts();
+        changeLog.retryBroadcasts();
+
+        verify(stringRedisTemplate, times(2)).convertAndSend(eq(ChangeLog.UPDATES_CHANNEL), endsWith(":P+7"));
+    }
+
+    @Test
+    void separateDirectoriesShouldHaveDifferentLogIds(@TempDir Path other) {
+        assertNotEquals(new ChangeLog(stringRedisTemplate, directory, 16, 2).logId(),
+                new ChangeLog(stringRedisTemplate, other, 16, 2).logId());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.simplecurdapp.changelog;
+
+import com.example.simplecurdapp.dto.ChangeBatch;
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.exception.ChangeLogExpiredException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeStreamsTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private ChangeLog changeLog;
+    private ChangeStreams changeStreams;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ChangeLog(stringRedisTemplate, directory, 16, 2);
+        changeStreams = new ChangeStreams(changeLog, Runnable::run);
+    }
+
+    @Test
+    void pollShouldReturnPendingChangesImmediately() {
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L, 3L), List.of());
+
+        ChangeBatch batch = (ChangeBatch) changeStreams.poll(changeLog.logId(), 1, 1, Duration.ofSeconds(30)).getResult();
+
+        assertEquals(changeLog.logId(), batch.logId());
+        assertEquals(List.of(2L), batch.changes().stream().map(ChangeRecord::id).toList());
+        assertEquals(2, batch.nextSince());
+        assertEquals(3, batch.lastSequence());
+    }
+
+    @Test
+    void pollShouldWaitForTheNextAppend() {
+        DeferredResult<ChangeBatch> result = changeStreams.poll(null, 0, 100, Duration.ofSeconds(30));
+        assertFalse(result.hasResult());
+
+        changeLog.record(ChangeRecord.Entity.USER, List.of(8L), List.of());
+
+        ChangeBatch batch = (ChangeBatch) result.getResult();
+        assertEquals(List.of(8L), batch.changes().stream().map(ChangeRecord::id).toList());
+        assertEquals(1, batch.nextSince());
+        assertEquals(0, changeStreams.waiterCount());
+    }
+
+    @Test
+    void pollWithoutWaitShouldReturnAnEmptyBatch() {
+        ChangeBatch batch = (ChangeBatch) changeStreams.poll(null, 0, 100, Duration.ZERO).getResult();
+
+        assertEquals(List.of(), batch.changes());
+        assertEquals(0, batch.nextSince());
+    }
+
+    @Test
+    void pollAndStreamShouldRejectUnknownPositions() {
+        String logId = changeLog.logId();
+        assertThrows(ChangeLogExpiredException.class, () -> changeStreams.poll(logId, 5, 100, Duration.ZERO));
+        assertThrows(ChangeLogExpiredException.class, () -> changeStreams.stream(logId, 5));
+    }
+
+    @Test
+    void pollAndStreamShouldRejectCheckpointsFromAnotherLog() {
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L), List.of());
+
+        assertThrows(ChangeLogExpiredException.class, () -> changeStreams.poll("other-log", 1, 100, Duration.ZERO));
+        assertThrows(ChangeLogExpiredException.class, () -> changeStreams.stream("other-log", 1));
+        assertThrows(ChangeLogExpiredException.class, () -> changeStreams.resume("other-log:1"));
+    }
+
+    @Test
+    void aNewLogIdShouldExpireWaitingPolls() {
+        DeferredResult<ChangeBatch> result = changeStreams.poll(null, 0, 100, Duration.ofSeconds(30));
+        assertFalse(result.hasResult());
+
+        changeLog.rotate();
+
+        assertTrue(result.getResult() instanceof ChangeLogExpiredException);
+        assertEquals(0, changeStreams.waiterCount());
+    }
+
+    @Test
+    void pollWithoutCheckpointShouldStartAtTheCurrentLog() {
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L), List.of());
+        changeLog.rotate();
+        changeLog.record(ChangeRecord.Entity.USER, List.of(3L), List.of());
+
+        ChangeBatch batch = (ChangeBatch) changeStreams.poll(null, 0, 100, Duration.ZERO).getResult();
+
+        assertEquals(changeLog.logId(), batch.logId());
+        assertEquals(List.of(3L), batch.changes().stream().map(ChangeRecord::id).toList());
+        assertEquals(3, batch.nextSince());
+    }
+
+    @Test
+    void pollAndStreamShouldRequireTheLogIdWithANonZeroCheckpoint() {
+        changeLog.record(ChangeRecord.Entity.PRODUCT, List.of(1L, 2L), List.of());
+
+        assertThrows(InvalidRequestException.class, () -> changeStreams.poll(null, 1, 100, Duration.ZERO));
+        assertThrows(InvalidRequestException.class, () -> changeStreams.stream(" ", 1));
+        assertThrows(InvalidRequestException.class, () -> changeStreams.resume("1"));
+        assertThrows(InvalidRequestException.class, () -> changeStreams.resume(changeLog.logId() + ":x"));
+    }
+}
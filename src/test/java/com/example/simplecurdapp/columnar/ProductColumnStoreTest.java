@@ -0,0 +1,95 @@
+package com.example.simplecurdapp.columnar;
+
+import com.example.simplecurdapp.facet.ProductFacetEntry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductColumnStoreTest {
+
+    private final ProductColumnStore store = new ProductColumnStore(0);
+
+    @Test
+    void filtersShouldMatchTheDatabaseFinders() {
+        store.upsert(entry(3L, "Electronics", true, 5, "199.99"));
+        store.upsert(entry(1L, "electronics", false, 0, "10.00"));
+        store.upsert(entry(2L, "Furniture", true, 0, "20.01"));
+        store.upsert(entry(4L, null, null, null, "20.00"));
+
+        assertArrayEquals(new long[] {1L, 3L}, store.inCategory("ELECTRONICS"));
+        assertArrayEquals(new long[0], store.inCategory("Garden"));
+        assertArrayEquals(new long[0], store.inCategory(null));
+        assertArrayEquals(new long[] {2L, 3L}, store.available());
+        assertArrayEquals(new long[] {3L}, store.inStock());
+        assertArrayEquals(new long[] {1L, 4L}, store.priceBetween(new BigDecimal("10"), new BigDecimal("20")));
+        // Bounds between cents round inward, as the DECIMAL comparison would
+        assertArrayEquals(new long[] {2L}, store.priceBetween(new BigDecimal("20.001"), new BigDecimal("20.019")));
+    }
+
+    @Test
+    void updatesAndDeletesShouldBeReflectedInScans() {
+        store.upsert(entry(1L, "Books", true, 1, "5.00"));
+        store.upsert(entry(2L, "Books", true, 1, "6.00"));
+
+        store.upsert(entry(1L, "Toys", false, 1, "5.00"));
+        store.setQuantity(2L, 0);
+        store.remove(3L);
+
+        assertArrayEquals(new long[] {2L}, store.inCategory("Books"));
+        assertArrayEquals(new long[] {1L}, store.inStock());
+        assertArrayEquals(new long[] {2L}, store.available());
+
+        store.remove(2L);
+
+        assertArrayEquals(new long[0], store.inCategory("Books"));
+        assertArrayEquals(new long[0], store.available());
+        assertEquals(1, store.size());
+        assertNull(store.entry(2L));
+        assertEquals(entry(1L, "Toys", false, 1, "5.00"), store.entry(1L));
+    }
+
+    @Test
+    void scansShouldCoverRowsBeyondTheFirstWordsAfterGrowth() {
+        for (long id = 1; id <= 1000; id++) {
+            store.upsert(entry(id, id % 2 == 0 ? "Even" : "Odd", id % 3 == 0, (int) (id % 5), id + ".00"));
+        }
+
+        assertEquals(500, store.inCategory("Even").length);
+        assertEquals(333, store.available().length);
+        assertEquals(800, store.inStock().length);
+        assertArrayEquals(new long[] {998L, 999L, 1000L}, store.priceBetween(new BigDecimal("998"), new BigDecimal("5000")));
+    }
+
+    @Test
+    void priceOrderedSlicesShouldFollowPriceThenId() {
+        store.upsert(entry(1L, "Books", true, 3, "9.99"));
+        store.upsert(entry(2L, "books", true, 0, "4.50"));
+        store.upsert(entry(3L, "Toys", true, 1, "4.50"));
+        store.upsert(entry(4L, "Books", true, 2, "12.00"));
+        store.upsert(entry(5L, "Books", true, 5, "1.00"));
+
+        assertArrayEquals(new long[] {5L, 2L, 3L, 1L, 4L}, store.orderedByPrice(null, null, null, false, false, 0, 10));
+        assertArrayEquals(new long[] {4L, 1L, 3L, 2L}, store.orderedByPrice(null, new BigDecimal("2"), null, false, true, 0, 10));
+        assertArrayEquals(new long[] {1L, 4L}, store.orderedByPrice("BOOKS", null, null, true, false, 1, 2));
+        assertArrayEquals(new long[] {2L, 3L}, store.orderedByPrice(null, new BigDecimal("4.50"), new BigDecimal("4.50"), false, false, 0, 10));
+        assertArrayEquals(new long[0], store.orderedByPrice("Garden", null, null, false, false, 0, 10));
+
+        // Repricing, recategorizing and deleting move the row within the order
+        store.upsert(entry(4L, "Books", true, 2, "0.50"));
+        store.upsert(entry(5L, "Toys", true, 5, "1.00"));
+        store.remove(1L);
+        store.setQuantity(2L, 7);
+
+        assertArrayEquals(new long[] {4L, 2L}, store.orderedByPrice("Books", null, null, true, false, 0, 10));
+        assertArrayEquals(new long[] {3L, 5L}, store.orderedByPrice("toys", null, null, false, true, 0, 10));
+        assertArrayEquals(new long[] {4L, 5L}, store.orderedByPrice(null, null, null, false, false, 0, 2));
+    }
+
+    private static ProductFacetEntry entry(Long id, String category, Boolean available, Integer quantity, String price) {
+        return new ProductFacetEntry(id, category, available, quantity, new BigDecimal(price));
+    }
+}
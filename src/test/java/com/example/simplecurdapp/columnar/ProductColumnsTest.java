@@ -0,0 +1,116 @@
+package com.example.simplecurdapp.columnar;
+
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.facet.ProductFacetEntry;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductColumnsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new ProductColumns(productRepository, stringRedisTemplate, transactionManager, Runnable::run, true);
+    }
+
+    @Test
+    void filtersShouldBeEmptyUntilFirstBuild() {
+        assertTrue(columns.availableIds().isEmpty());
+        assertTrue(columns.idsInCategory("Books").isEmpty());
+    }
+
+    @Test
+    void committedWritesShouldUpdateColumnsAndBeBroadcast() {
+        when(productRepository.streamFacetEntries()).thenReturn(Stream.of(entry(1L, "Books", 3)));
+        columns.rebuild();
+
+        columns.onProductChanged(new ProductChangedEvent(List.of(product(2L, "Books", 0)), List.of(1L)));
+
+        assertArrayEquals(new long[] {2L}, columns.idsInCategory("Books").orElseThrow());
+        assertArrayEquals(new long[0], columns.inStockIds().orElseThrow());
+        verify(stringRedisTemplate).convertAndSend(eq(ProductColumns.UPDATES_CHANNEL), endsWith(":2,1"));
+    }
+
+    @Test
+    void stockAdjustmentsShouldUpdateQuantities() {
+        when(productRepository.streamFacetEntries()).thenReturn(Stream.of(entry(1L, "Books", 0)));
+        columns.rebuild();
+
+        columns.quantityChanged(1L, 4);
+
+        assertArrayEquals(new long[] {1L}, columns.inStockIds().orElseThrow());
+    }
+
+    @Test
+    void remoteChangesShouldBeReloadedFromTheDatabase() {
+        when(productRepository.streamFacetEntries()).thenReturn(Stream.of(entry(1L, "Books", 1), entry(2L, "Books", 1)));
+        columns.rebuild();
+        when(productRepository.findFacetEntriesByIdIn(List.of(1L, 2L))).thenReturn(List.of(entry(1L, "Toys", 1)));
+
+        columns.onMessage(new DefaultMessage(ProductColumns.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:1,2".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertArrayEquals(new long[0], columns.idsInCategory("Books").orElseThrow());
+        assertArrayEquals(new long[] {1L}, columns.idsInCategory("Toys").orElseThrow());
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void disabledColumnsShouldNeverBuild() {
+        ProductColumns disabled = new ProductColumns(productRepository, stringRedisTemplate, transactionManager,
+                Runnable::run, false);
+
+        disabled.buildOnStartup();
+        disabled.rebuild();
+
+        assertTrue(disabled.inStockIds().isEmpty());
+        verify(productRepository, never()).streamFacetEntries();
+    }
+
+    private static ProductFacetEntry entry(Long id, String category, int quantity) {
+        return new ProductFacetEntry(id, category, true, quantity, new BigDecimal("9.99"));
+    }
+
+    private static Product product(Long id, String category, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setCategory(category);
+        product.setIsAvailable(true);
+        product.setQuantity(quantity);
+        product.setPrice(new BigDecimal("9.99"));
+        return product;
+    }
+}
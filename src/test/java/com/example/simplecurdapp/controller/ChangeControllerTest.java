@@ -0,0 +1,100 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.changelog.ChangeStreams;
+import com.example.simplecurdapp.dto.ChangeBatch;
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.exception.ChangeLogExpiredException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeStreams changeStreams;
+
+    @Test
+    void getChangesShouldReturnTheBatch() throws Exception {
+        DeferredResult<ChangeBatch> result = new DeferredResult<>();
+        result.setResult(new ChangeBatch("log-1",
+                List.of(new ChangeRecord(6, ChangeRecord.Entity.PRODUCT, ChangeRecord.Operation.DELETE, 42, Instant.EPOCH)),
+                6, 9));
+        when(changeStreams.poll("log-1", 5, 10, Duration.ofSeconds(20))).thenReturn(result);
+
+        MvcResult started = mockMvc.perform(get("/api/changes")
+                .param("logId", "log-1").param("since", "5").param("limit", "10").param("waitSeconds", "20")
+                .accept(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.logId").value("log-1"))
+            .andExpect(jsonPath("$.changes[0].entity").value("PRODUCT"))
+            .andExpect(jsonPath("$.changes[0].operation").value("DELETE"))
+            .andExpect(jsonPath("$.changes[0].id").value(42))
+            .andExpect(jsonPath("$.nextSince").value(6));
+    }
+
+    @Test
+    void expiredCheckpointShouldReturnGone() throws Exception {
+        when(changeStreams.poll("log-1", 1, 1000, Duration.ZERO)).thenThrow(new ChangeLogExpiredException("expired"));
+
+        mockMvc.perform(get("/api/changes").param("logId", "log-1").param("since", "1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isGone())
+            .andExpect(jsonPath("$.message").value("expired"));
+    }
+
+    @Test
+    void checkpointWithoutLogIdShouldReturnBadRequest() throws Exception {
+        when(changeStreams.poll(null, 1, 1000, Duration.ZERO))
+            .thenThrow(new InvalidRequestException("logId is required with a non-zero checkpoint"));
+
+        mockMvc.perform(get("/api/changes").param("since", "1").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void streamShouldResumeFromLastEventIdWithJsonErrors() throws Exception {
+        when(changeStreams.resume("log-1:17")).thenThrow(new ChangeLogExpiredException("expired"));
+
+        mockMvc.perform(get("/api/changes").param("logId", "log-1").param("since", "3").header("Last-Event-ID", "log-1:17")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isGone())
+            .andExpect(jsonPath("$.message").value("expired"));
+        verify(changeStreams).resume("log-1:17");
+    }
+
+    @Test
+    void streamShouldPassTheCheckpointWithoutLastEventId() throws Exception {
+        when(changeStreams.stream("log-1", 3)).thenThrow(new ChangeLogExpiredException("expired"));
+
+        mockMvc.perform(get("/api/changes").param("logId", "log-1").param("since", "3")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isGone());
+        verify(changeStreams).stream("log-1", 3);
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.simplecurdapp.controller;
 
+import com.example.simplecurdapp.dto.BatchGetResponse;
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.dto.ProductSummary;
+import com.example.simplecurdapp.export.DataExporter;
+import com.example.simplecurdapp.export.ExportFormat;
+import com.example.simplecurdapp.export.ExportTable;
+import com.example.simplecurdapp.exception.BulkheadFullException;
+import com.example.simplecurdapp.exception.PreconditionFailedException;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
 import com.example.simplecurdapp.model.Product;
 import com.example.simplecurdapp.service.ProductService;
@@ -11,17 +19,31 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +60,44 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private DataExporter dataExporter;
+
+    @Test
+    void exportProductsShouldStreamTheExportAsAnAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("id,name\n1,Phone\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(dataExporter).export(eq(ExportTable.PRODUCTS), eq(ExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/api/products/export").param("format", "csv")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "text/csv"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+            .andExpect(content().string("id,name\n1,Phone\n"));
+        verify(dataExporter).release();
+    }
+
+    @Test
+    void exportProductsShouldBeRefusedWhileTooManyExportsRun() throws Exception {
+        doThrow(new BulkheadFullException("export", 2, Duration.ZERO)).when(dataExporter).reserve();
+
+        mockMvc.perform(get("/api/products/export").param("format", "csv"))
+            .andExpect(status().isServiceUnavailable());
+
+        verify(dataExporter, never()).export(any(), any(), any());
+    }
+
+    @Test
+    void exportProductsShouldRejectAnUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/products/export").param("format", "xlsx"))
+            .andExpect(status().isBadRequest());
+
+        verify(dataExporter, never()).export(any(), any(), any());
+    }
+
     @Test
     void getAllProductsShouldReturnOkAndList() throws Exception {
         when(productService.getAllProducts()).thenReturn(List.of(createProduct(1L, "Phone")));
@@ -48,6 +108,70 @@ class ProductControllerTest {
             .andExpect(jsonPath("$[0].name").value("Phone"));
     }
 
+    @Test
+    void getAllProductsShouldReturnSummariesWhenFieldsAreCovered() throws Exception {
+        when(productService.getAllProductSummaries())
+            .thenReturn(List.of(new ProductSummary(1L, "Phone", new BigDecimal("25.50"), "Electronics", true)));
+
+        mockMvc.perform(get("/api/products").param("fields", "id,name,price"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Phone"))
+            .andExpect(jsonPath("$[0].isAvailable").value(true))
+            .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsByCategoryShouldReturnEntitiesWhenFieldsNeedMoreThanSummary() throws Exception {
+        when(productService.getProductsByCategory("Electronics")).thenReturn(List.of(createProduct(1L, "Phone")));
+
+        mockMvc.perform(get("/api/products/category/Electronics").param("fields", "name,description"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].description").value("Description"));
+
+        verify(productService, never()).getProductSummariesByCategory("Electronics");
+    }
+
+    @Test
+    void getProductsByCategoryShouldReturnPriceOrderedSliceWhenSorted() throws Exception {
+        when(productService.getProductsByCategoryOrderedByPrice("Electronics", true, false, 0, 20))
+            .thenReturn(List.of(createProduct(1L, "Phone")));
+
+        mockMvc.perform(get("/api/products/category/Electronics").param("sort", "price").param("limit", "20")
+                .param("inStock", "true").param("fields", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("Phone"))
+            .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        verify(productService, never()).getProductsByCategory("Electronics");
+    }
+
+    @Test
+    void getProductsByPriceRangeShouldPassDescendingSortAndOffset() throws Exception {
+        when(productService.getProductsByPriceRangeOrderedByPrice(new BigDecimal("10"), new BigDecimal("20"), false, true, 40, 50))
+            .thenReturn(List.of(createProduct(2L, "Desk")));
+
+        mockMvc.perform(get("/api/products/price-range").param("minPrice", "10").param("maxPrice", "20")
+                .param("sort", "price,desc").param("offset", "40"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(2));
+    }
+
+    @Test
+    void priceOrderedListingShouldRejectUnsupportedSort() throws Exception {
+        mockMvc.perform(get("/api/products/price-range").param("minPrice", "10").param("maxPrice", "20")
+                .param("sort", "name"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listingShouldRejectUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/products/in-stock").param("fields", "name,colour"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Unknown field: colour"));
+    }
+
     @Test
     void getProductByIdShouldReturnOkWhenFound() throws Exception {
         when(productService.getProductById(1L)).thenReturn(createProduct(1L, "Laptop"));
@@ -58,6 +182,41 @@ class ProductControllerTest {
             .andExpect(jsonPath("$.name").value("Laptop"));
     }
 
+    @Test
+    void getProductByIdShouldReturnETagFromVersion() throws Exception {
+        Product product = createProduct(1L, "Laptop");
+        product.setVersion(4L);
+        when(productService.getProductById(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/api/products/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void getProductByIdShouldReturnNotModifiedWithoutLoadingWhenETagMatches() throws Exception {
+        when(productService.getProductVersion(1L)).thenReturn(4L);
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"4\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"4\""));
+
+        verify(productService, never()).getProductById(1L);
+    }
+
+    @Test
+    void updateProductShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+        when(productService.updateProduct(eq(1L), any(Product.class), eq(3L)))
+            .thenThrow(new PreconditionFailedException("Product", 1L, 3L, 4L));
+
+        mockMvc.perform(put("/api/products/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createProduct(null, "Laptop"))))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.status").value(412));
+    }
+
     @Test
     void getProductByIdShouldReturnNotFoundWhenMissing() throws Exception {
         doThrow(new ResourceNotFoundException("Product", "id", 99L))
@@ -68,6 +227,51 @@ class ProductControllerTest {
             .andExpect(jsonPath("$.status").value(404));
     }
 
+    @Test
+    void getProductByIdShouldReturnServiceUnavailableWhenBulkheadIsFull() throws Exception {
+        when(productService.getProductById(1L))
+            .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager",
+                new BulkheadFullException("mysql", 10, Duration.ofSeconds(5))));
+
+        mockMvc.perform(get("/api/products/1"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void getCatalogFacetsShouldReturnCountsPerCategory() throws Exception {
+        when(productService.getCatalogFacets()).thenReturn(List.of(
+            new CategoryFacet("Electronics", 12, 10, 7, new BigDecimal("9.99"), new BigDecimal("1499.00"))));
+
+        mockMvc.perform(get("/api/products/facets"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].category").value("Electronics"))
+            .andExpect(jsonPath("$[0].inStock").value(7))
+            .andExpect(jsonPath("$[0].maxPrice").value(1499.00));
+    }
+
+    @Test
+    void batchGetShouldReturnItemsInRequestedOrder() throws Exception {
+        when(productService.getProductsByIds(List.of(3L, 1L, 2L)))
+            .thenReturn(new BatchGetResponse<>(List.of(createProduct(3L, "C"), createProduct(1L, "A")), List.of(2L)));
+
+        mockMvc.perform(post("/api/products/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[3,1,2]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(3))
+            .andExpect(jsonPath("$.items[1].id").value(1))
+            .andExpect(jsonPath("$.missingIds[0]").value(2));
+    }
+
+    @Test
+    void batchGetShouldRejectEmptyIdList() throws Exception {
+        mockMvc.perform(post("/api/products/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[]}"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createProductShouldReturnCreated() throws Exception {
         Product created = createProduct(3L, "Tablet");
@@ -93,7 +297,7 @@ class ProductControllerTest {
     void updateProductQuantityShouldReturnOk() throws Exception {
         Product updated = createProduct(8L, "Monitor");
         updated.setQuantity(42);
-        when(productService.updateProductQuantity(8L, 42)).thenReturn(updated);
+        when(productService.updateProductQuantity(8L, 42, null)).thenReturn(updated);
 
         mockMvc.perform(patch("/api/products/8/quantity").param("quantity", "42"))
             .andExpect(status().isOk())
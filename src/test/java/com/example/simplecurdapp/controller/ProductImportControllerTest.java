@@ -0,0 +1,97 @@
+package com.example.simplecurdapp.controller;
+
+import com.example.simplecurdapp.dto.ImportProgress;
+import com.example.simplecurdapp.exception.DuplicateResourceException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.importer.ImportFormat;
+import com.example.simplecurdapp.importer.ProductImports;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductImportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ProductImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductImports productImports;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void uploadShouldQueueAnImportAndPointAtItsProgress() throws Exception {
+        when(productImports.submit(any(InputStream.class), eq(ImportFormat.CSV)))
+                .thenReturn(progress("job-1", ImportProgress.State.QUEUED));
+
+        mockMvc.perform(post("/api/products/import")
+                .contentType("text/csv")
+                .content("name,price\nLamp,19.99\n"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "http://localhost/api/products/import/job-1"))
+            .andExpect(jsonPath("$.jobId").value("job-1"))
+            .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    void progressShouldReportTheJobOrNotFound() throws Exception {
+        when(productImports.progress("job-1")).thenReturn(progress("job-1", ImportProgress.State.RUNNING));
+        when(productImports.progress("missing")).thenThrow(new ResourceNotFoundException("Import job", "id", "missing"));
+
+        mockMvc.perform(get("/api/products/import/job-1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("RUNNING"))
+            .andExpect(jsonPath("$.imported").value(10))
+            .andExpect(jsonPath("$.rejected").value(1));
+        mockMvc.perform(get("/api/products/import/missing"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectedRowsShouldBeServedAsCsv() throws Exception {
+        Path rejected = Files.writeString(directory.resolve("job-1.rejected.csv"), "line,error,record\n3,\"name is required\",\",1\"\n");
+        when(productImports.rejectedRows("job-1")).thenReturn(rejected);
+
+        mockMvc.perform(get("/api/products/import/job-1/rejected"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(content().string(Files.readString(rejected)));
+    }
+
+    @Test
+    void resumingARunningImportShouldConflict() throws Exception {
+        when(productImports.resume("job-1")).thenThrow(new DuplicateResourceException("Import job 'job-1' is already queued or running"));
+
+        mockMvc.perform(post("/api/products/import/job-1/resume"))
+            .andExpect(status().isConflict());
+        verify(productImports).resume("job-1");
+    }
+
+    private static ImportProgress progress(String jobId, ImportProgress.State state) {
+        LocalDateTime now = LocalDateTime.now();
+        return new ImportProgress(jobId, ImportFormat.CSV, state, 1000, 400, 11, 10, 1, now, now, null);
+    }
+}
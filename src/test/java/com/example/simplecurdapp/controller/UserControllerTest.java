@@ -1,6 +1,12 @@
 package com.example.simplecurdapp.controller;
 
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.UserSummary;
+import com.example.simplecurdapp.exception.InvalidRequestException;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.export.DataExporter;
+import com.example.simplecurdapp.export.ExportFormat;
+import com.example.simplecurdapp.export.ExportTable;
 import com.example.simplecurdapp.model.User;
 import com.example.simplecurdapp.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,16 +17,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +49,21 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private DataExporter dataExporter;
+
+    @Test
+    void exportUsersShouldStreamGzippedNdjsonAsAnAttachment() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "ndjson")).andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/gzip"))
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.ndjson.gz\""));
+
+        verify(dataExporter).export(eq(ExportTable.USERS), eq(ExportFormat.NDJSON_GZIP), any(OutputStream.class));
+    }
+
     @Test
     void getAllUsersShouldReturnOkAndList() throws Exception {
         when(userService.getAllUsers()).thenReturn(List.of(createUser(1L, "user1@example.com")));
@@ -47,6 +74,47 @@ class UserControllerTest {
             .andExpect(jsonPath("$[0].email").value("user1@example.com"));
     }
 
+    @Test
+    void getActiveUsersShouldReturnSummariesWhenRequested() throws Exception {
+        when(userService.getActiveUserSummaries())
+            .thenReturn(List.of(new UserSummary(1L, "Test User", "user1@example.com", true)));
+
+        mockMvc.perform(get("/api/users/active").param("fields", "summary"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].email").value("user1@example.com"))
+            .andExpect(jsonPath("$[0].isActive").value(true))
+            .andExpect(jsonPath("$[0].address").doesNotExist());
+    }
+
+    @Test
+    void getUsersPageShouldReturnItemsAndNextCursor() throws Exception {
+        when(userService.getUsersPage(null, 1))
+            .thenReturn(new CursorPage<>(List.of(createUser(1L, "user1@example.com")), CursorPage.encodeCursor(1L), true));
+
+        mockMvc.perform(get("/api/users/page").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items[0].id").value(1))
+            .andExpect(jsonPath("$.nextCursor").value(CursorPage.encodeCursor(1L)))
+            .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void getUsersPageShouldReturnBadRequestForInvalidCursor() throws Exception {
+        when(userService.getUsersPage("bogus", 50)).thenThrow(new InvalidRequestException("Invalid cursor: bogus"));
+
+        mockMvc.perform(get("/api/users/page").param("cursor", "bogus"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void getUsersPageShouldReportServerSideArgumentFailuresAsInternalErrors() throws Exception {
+        when(userService.getUsersPage("bogus", 50)).thenThrow(new IllegalArgumentException("Entity must not be null"));
+
+        mockMvc.perform(get("/api/users/page").param("cursor", "bogus"))
+            .andExpect(status().isInternalServerError());
+    }
+
     @Test
     void getUserByEmailShouldReturnOkWhenFound() throws Exception {
         when(userService.findByEmail("user2@example.com")).thenReturn(Optional.of(createUser(2L, "user2@example.com")));
@@ -91,7 +159,7 @@ class UserControllerTest {
     void deactivateUserShouldReturnOkAndUpdatedUser() throws Exception {
         User deactivated = createUser(5L, "active@example.com");
         deactivated.setIsActive(false);
-        when(userService.deactivateUser(5L)).thenReturn(deactivated);
+        when(userService.deactivateUser(5L, null)).thenReturn(deactivated);
 
         mockMvc.perform(patch("/api/users/5/deactivate"))
             .andExpect(status().isOk())
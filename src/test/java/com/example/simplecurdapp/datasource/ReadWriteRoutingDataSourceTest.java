@@ -0,0 +1,108 @@
+package com.example.simplecurdapp.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String LAGGING = "SELECT 30 AS Seconds_Behind_Source";
+    private static final String IN_SYNC = "SELECT 0 AS Seconds_Behind_Source";
+
+    @Test
+    void readOnlyTransactionsShouldUseReplicaAndOthersThePrimary() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                node("primary"), List.of(node("replica-a")), Duration.ofSeconds(5), IN_SYNC);
+
+        assertThat(nodeName(routing, true)).isEqualTo("replica-a");
+        assertThat(nodeName(routing, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void cachePopulatingLoadsShouldReachThePrimaryFromEitherKindOfTransaction() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                node("primary"), List.of(node("replica-a")), Duration.ofSeconds(5), IN_SYNC);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        primary.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // As BatchLoaderConfig wraps the repositories' read-only finders
+        String joined = readWrite.execute(outer -> readOnly.execute(inner ->
+                jdbc.queryForObject("SELECT name FROM node", String.class)));
+        // As the services load cache misses from inside read-only listings
+        String separate = readOnly.execute(outer -> primary.execute(inner ->
+                jdbc.queryForObject("SELECT name FROM node", String.class)));
+
+        assertThat(joined).isEqualTo("primary");
+        assertThat(separate).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransactionsShouldRoundRobinAcrossReplicas() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                node("primary"), List.of(node("replica-a"), node("replica-b")), Duration.ofSeconds(5), IN_SYNC);
+
+        assertThat(List.of(nodeName(routing, true), nodeName(routing, true)))
+                .containsExactlyInAnyOrder("replica-a", "replica-b");
+    }
+
+    @Test
+    void laggingReplicaShouldFallBackToPrimary() {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                node("primary"), List.of(node("replica-a")), Duration.ofSeconds(5), LAGGING);
+
+        routing.checkReplicas();
+
+        assertThat(routing.healthyReplicas()).isEmpty();
+        assertThat(nodeName(routing, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplicaShouldBeTakenOutOfRotation() {
+        DriverManagerDataSource unreachable = new DriverManagerDataSource("jdbc:h2:mem:gone;IFEXISTS=TRUE", "sa", "");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                node("primary"), List.of(unreachable, node("replica-b")), Duration.ofSeconds(5), IN_SYNC);
+
+        routing.checkReplicas();
+
+        assertThat(routing.healthyReplicas()).containsExactly("replica-1");
+        assertThat(nodeName(routing, true)).isEqualTo("replica-b");
+        assertThat(nodeName(routing, true)).isEqualTo("replica-b");
+    }
+
+    // Each in-memory database records its own name so a query reveals where it was routed
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(32))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static String nodeName(ReadWriteRoutingDataSource routing, boolean readOnly) {
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+    }
+}
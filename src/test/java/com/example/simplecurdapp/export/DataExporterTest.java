@@ -0,0 +1,275 @@
+package com.example.simplecurdapp.export;
+
+import com.example.simplecurdapp.bulkhead.Bulkhead;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports tables from the Flyway schema on H2 and decodes each format again.
+ * A fetch size of 2 makes the three products span two columnar row groups.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DataExporter.class, DataExporterTest.Config.class})
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:data-exports;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "app.export.fetch-size=2"
+})
+class DataExporterTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 250_000_000);
+
+    @Autowired
+    private DataExporter dataExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        String insert = "INSERT INTO products (id, name, description, price, quantity, category, is_available, created_at, "
+                + "updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(insert, 1L, "Lamp", "Warm, \"soft\" light", new BigDecimal("19.99"), 3, "Lighting",
+                true, CREATED, CREATED, 0L);
+        jdbcTemplate.update(insert, 2L, "Desk", null, new BigDecimal("120.00"), 0, null,
+                false, CREATED.plusDays(1), null, 2L);
+        jdbcTemplate.update(insert, 5L, "Chair", "Line one\nline two", new BigDecimal("49.50"), 7, "Furniture",
+                null, CREATED.plusDays(2), CREATED.plusDays(3), 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void csvExportShouldQuoteFieldsAndLeaveNullsEmpty() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = dataExporter.export(ExportTable.PRODUCTS, ExportFormat.CSV, out);
+
+        assertEquals(3, rows);
+        assertEquals("id,name,description,price,quantity,category,isAvailable,createdAt,updatedAt,version\n"
+                + "1,Lamp,\"Warm, \"\"soft\"\" light\",19.99,3,Lighting,true,2024-03-01T12:30:15.250,2024-03-01T12:30:15.250,0\n"
+                + "2,Desk,,120.00,0,,false,2024-03-02T12:30:15.250,,2\n"
+                + "5,Chair,\"Line one\nline two\",49.50,7,Furniture,,2024-03-03T12:30:15.250,2024-03-04T12:30:15.250,1\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjsonExportShouldBeGzippedJsonLinesInIdOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        dataExporter.export(ExportTable.PRODUCTS, ExportFormat.NDJSON_GZIP, out);
+
+        List<JsonNode> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        assertEquals(3, rows.size());
+        assertEquals(List.of(1L, 2L, 5L), rows.stream().map(row -> row.get("id").asLong()).toList());
+        assertEquals("Warm, \"soft\" light", rows.get(0).get("description").asText());
+        assertEquals(new BigDecimal("19.99"), rows.get(0).get("price").decimalValue());
+        assertEquals(CREATED.toString(), rows.get(0).get("createdAt").asText());
+        assertTrue(rows.get(1).get("description").isNull());
+        assertFalse(rows.get(1).get("isAvailable").asBoolean());
+        assertEquals("Line one\nline two", rows.get(2).get("description").asText());
+    }
+
+    @Test
+    void columnarExportShouldRoundTripAcrossRowGroups() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        dataExporter.export(ExportTable.PRODUCTS, ExportFormat.COLUMNAR, out);
+
+        ColumnarFile file = ColumnarFile.read(out.toByteArray());
+        assertEquals(ExportTable.PRODUCTS.columns().stream().map(ExportColumn::name).toList(), file.names);
+        assertEquals(List.of(2, 1), file.groupSizes);
+        assertEquals(3, file.rows.size());
+        assertArrayEquals(new Object[] {1L, "Lamp", "Warm, \"soft\" light", new BigDecimal("19.99"), 3, "Lighting",
+                true, CREATED, CREATED, 0L}, file.rows.get(0));
+        assertArrayEquals(new Object[] {2L, "Desk", null, new BigDecimal("120.00"), 0, null,
+                false, CREATED.plusDays(1), null, 2L}, file.rows.get(1));
+        assertArrayEquals(new Object[] {5L, "Chair", "Line one\nline two", new BigDecimal("49.50"), 7, "Furniture",
+                null, CREATED.plusDays(2), CREATED.plusDays(3), 1L}, file.rows.get(2));
+    }
+
+    @Test
+    void usersExportShouldWriteEveryUserColumn() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, phone, address, is_active, version) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                7L, "Ada", "ada@example.com", null, "1 Main St", true, 0L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = dataExporter.export(ExportTable.USERS, ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertEquals("id,name,email,phone,address,isActive,version\n7,Ada,ada@example.com,,1 Main St,true,0\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyTableShouldStillWriteAWellFormedFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = dataExporter.export(ExportTable.USERS, ExportFormat.COLUMNAR, out);
+
+        assertEquals(0, rows);
+        ColumnarFile file = ColumnarFile.read(out.toByteArray());
+        assertEquals(List.of(), file.groupSizes);
+        assertEquals(List.of(), file.rows);
+    }
+
+    @Test
+    void unknownFormatShouldBeRejected() {
+        assertThrows(InvalidRequestException.class, () -> ExportFormat.of("xlsx"));
+        assertEquals(ExportFormat.NDJSON_GZIP, ExportFormat.of("NDJSON"));
+    }
+
+    // Decodes the layout documented on ColumnarExportWriter
+    private static final class ColumnarFile {
+
+        final List<String> names = new ArrayList<>();
+        final List<ExportColumn.Type> types = new ArrayList<>();
+        final List<Integer> groupSizes = new ArrayList<>();
+        final List<Object[]> rows = new ArrayList<>();
+
+        static ColumnarFile read(byte[] bytes) throws IOException {
+            ColumnarFile file = new ColumnarFile();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte[] magic = new byte[4];
+            in.readFully(magic);
+            assertArrayEquals(ColumnarExportWriter.MAGIC, magic);
+            assertEquals(ColumnarExportWriter.VERSION, in.readUnsignedByte());
+            int columnCount = in.readUnsignedShort();
+            for (int column = 0; column < columnCount; column++) {
+                file.names.add(in.readUTF());
+                file.types.add(ExportColumn.Type.values()[in.readUnsignedByte()]);
+            }
+            for (int groupRows = in.readInt(); groupRows != 0; groupRows = in.readInt()) {
+                file.groupSizes.add(groupRows);
+                Object[][] group = new Object[groupRows][columnCount];
+                for (int column = 0; column < columnCount; column++) {
+                    byte[] chunk = new byte[in.readInt()];
+                    in.readFully(chunk);
+                    file.readChunk(new ByteArrayInputStream(chunk), group, column);
+                }
+                file.rows.addAll(Arrays.asList(group));
+            }
+            assertEquals(file.rows.size(), in.readLong());
+            assertEquals(-1, in.read());
+            return file;
+        }
+
+        private void readChunk(ByteArrayInputStream chunk, Object[][] group, int column) throws IOException {
+            boolean[] present = bits(chunk, group.length);
+            ExportColumn.Type type = types.get(column);
+            int scale = type == ExportColumn.Type.DECIMAL ? chunk.read() : 0;
+            boolean[] flags = type == ExportColumn.Type.BOOLEAN ? bits(chunk, group.length) : null;
+            long previous = 0;
+            for (int row = 0; row < group.length; row++) {
+                if (!present[row]) {
+                    continue;
+                }
+                group[row][column] = switch (type) {
+                    case LONG -> previous += readVarLong(chunk);
+                    case INT -> (int) readVarLong(chunk);
+                    case DECIMAL -> new BigDecimal(BigInteger.valueOf(readVarLong(chunk)), scale);
+                    case BOOLEAN -> flags[row];
+                    case TIMESTAMP -> {
+                        previous += readVarLong(chunk);
+                        yield LocalDateTime.ofEpochSecond(Math.floorDiv(previous, 1_000_000),
+                                (int) Math.floorMod(previous, 1_000_000) * 1_000, ZoneOffset.UTC);
+                    }
+                    case STRING -> new String(chunk.readNBytes((int) readVarLong(chunk)), StandardCharsets.UTF_8);
+                };
+            }
+            assertEquals(0, chunk.available());
+        }
+
+        private static boolean[] bits(ByteArrayInputStream chunk, int rows) throws IOException {
+            byte[] bytes = chunk.readNBytes((rows + 7) >>> 3);
+            boolean[] bits = new boolean[rows];
+            for (int row = 0; row < rows; row++) {
+                bits[row] = (bytes[row >>> 3] & (1 << (row & 7))) != 0;
+            }
+            return bits;
+        }
+
+        private static long readVarLong(ByteArrayInputStream chunk) {
+            long zigzag = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = chunk.read();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        Bulkhead exportBulkhead() {
+            return new Bulkhead("export", 1, Duration.ZERO, new SimpleMeterRegistry());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.simplecurdapp.facet;
+
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogFacetsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CatalogFacets facets;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        facets = new CatalogFacets(productRepository, stringRedisTemplate, transactionManager, Runnable::run);
+    }
+
+    @Test
+    void facetsShouldFallBackToRedisUntilFirstReconcile() {
+        when(hashOperations.entries(CatalogFacets.REDIS_KEY)).thenReturn(Map.of("Books", "3,2,1,4.50,12.00"));
+
+        assertEquals(List.of(new CategoryFacet("Books", 3, 2, 1, new BigDecimal("4.50"), new BigDecimal("12.00"))),
+                facets.facets().orElseThrow());
+    }
+
+    @Test
+    void facetsShouldBeEmptyWhenNothingIsBuilt() {
+        when(hashOperations.entries(CatalogFacets.REDIS_KEY)).thenReturn(Map.of());
+
+        assertTrue(facets.facets().isEmpty());
+    }
+
+    @Test
+    void reconcileShouldAggregateEveryProduct() {
+        reconcileWith(entry(1L, "Electronics", true, 5, "199.00"),
+                      entry(2L, "Electronics", false, 0, "999.00"),
+                      entry(3L, "Furniture", true, 2, "120.00"),
+                      entry(4L, null, true, 1, "1.00"));
+
+        assertEquals(List.of(
+                new CategoryFacet("Electronics", 2, 1, 1, new BigDecimal("199.00"), new BigDecimal("999.00")),
+                new CategoryFacet("Furniture", 1, 1, 1, new BigDecimal("120.00"), new BigDecimal("120.00"))),
+                facets.facets().orElseThrow());
+        verify(stringRedisTemplate).rename(anyString(), eq(CatalogFacets.REDIS_KEY));
+    }
+
+    @Test
+    void committedChangesShouldMoveProductsBetweenCategories() {
+        reconcileWith(entry(1L, "Electronics", true, 5, "199.00"),
+                      entry(2L, "Electronics", true, 3, "999.00"));
+
+        facets.onProductChanged(ProductChangedEvent.saved(product(2L, "Furniture", false, 0, "999.00")));
+
+        assertEquals(List.of(
+                new CategoryFacet("Electronics", 1, 1, 1, new BigDecimal("199.00"), new BigDecimal("199.00")),
+                new CategoryFacet("Furniture", 1, 0, 0, new BigDecimal("999.00"), new BigDecimal("999.00"))),
+                facets.facets().orElseThrow());
+        verify(stringRedisTemplate).convertAndSend(eq(CatalogFacets.UPDATES_CHANNEL), anyString());
+    }
+
+    @Test
+    void deletingTheLastProductShouldDropTheCategory() {
+        reconcileWith(entry(1L, "Electronics", true, 5, "199.00"),
+                      entry(2L, "Furniture", true, 3, "120.00"));
+
+        facets.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertEquals(List.of("Electronics"), categories());
+        verify(hashOperations).delete(CatalogFacets.REDIS_KEY, "Furniture");
+    }
+
+    @Test
+    void quantityChangesShouldOnlyMoveInStockCountsWhenCrossingZero() {
+        reconcileWith(entry(1L, "Electronics", true, 5, "199.00"));
+
+        facets.quantityChanged(1L, 0);
+        assertEquals(0, facets.facets().orElseThrow().get(0).inStock());
+
+        facets.quantityChanged(1L, 4);
+        assertEquals(1, facets.facets().orElseThrow().get(0).inStock());
+    }
+
+    @Test
+    void messagesFromOtherReplicasShouldReloadChangedProducts() {
+        reconcileWith(entry(1L, "Electronics", true, 5, "199.00"));
+        when(productRepository.findFacetEntriesByIdIn(List.of(1L, 2L)))
+            .thenReturn(List.of(entry(2L, "Electronics", true, 0, "10.00")));
+
+        facets.onMessage(new DefaultMessage(CatalogFacets.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:1,2".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(List.of(new CategoryFacet("Electronics", 1, 1, 0, new BigDecimal("10.00"), new BigDecimal("10.00"))),
+                facets.facets().orElseThrow());
+    }
+
+    @Test
+    void redisValuesShouldRoundTrip() {
+        CategoryFacet facet = new CategoryFacet("Books", 3, 2, 1, new BigDecimal("4.50"), null);
+
+        assertEquals(facet, CatalogFacets.decode("Books", CatalogFacets.encode(facet)));
+    }
+
+    private void reconcileWith(ProductFacetEntry... entries) {
+        when(productRepository.streamFacetEntries()).thenReturn(Stream.of(entries));
+        facets.reconcile();
+    }
+
+    private List<String> categories() {
+        return facets.facets().orElseThrow().stream().map(CategoryFacet::category).toList();
+    }
+
+    private static ProductFacetEntry entry(Long id, String category, boolean available, int quantity, String price) {
+        return new ProductFacetEntry(id, category, available, quantity, new BigDecimal(price));
+    }
+
+    private static Product product(Long id, String category, boolean available, int quantity, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setIsAvailable(available);
+        product.setQuantity(quantity);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.simplecurdapp.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportPipelineTest {
+
+    private static final String HEADER = "name,price\n";
+    private static final int ROWS = 2000;
+    // "Product 1999,1999\n"
+    private static final int MAX_ROW_BYTES = 18;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void chunksShouldReachTheSinkInFileOrder() throws Exception {
+        List<Long> sequences = new ArrayList<>();
+        List<Long> lines = new ArrayList<>();
+
+        try (RecordReader reader = reader()) {
+            new ImportPipeline(7, 4, 3).run(reader, ProductRecordParser.csv(HEADER.trim()), chunk -> {
+                sequences.add(chunk.sequence());
+                chunk.rows().forEach(row -> lines.add(row.source().line()));
+            });
+        }
+
+        assertEquals((ROWS + 6) / 7, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i, sequences.get(i));
+        }
+        assertEquals(ROWS, lines.size());
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(i + 2, lines.get(i));
+        }
+    }
+
+    @Test
+    void readerShouldStayWithinTheChunksInFlightOfASlowSink() throws Exception {
+        List<Long> readAhead = new ArrayList<>();
+
+        try (RecordReader reader = reader()) {
+            new ImportPipeline(10, 2, 3).run(reader, ProductRecordParser.csv(HEADER.trim()), chunk -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                readAhead.add(reader.offset() - chunk.endOffset());
+            });
+        }
+
+        // This chunk holds one permit, so at most two more chunks have been read
+        assertEquals(ROWS / 10, readAhead.size());
+        assertTrue(readAhead.stream().allMatch(bytes -> bytes <= 2 * 10 * MAX_ROW_BYTES), readAhead::toString);
+    }
+
+    @Test
+    void failingSinkShouldStopThePipeline() throws Exception {
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        try (RecordReader reader = reader()) {
+            ImportPipeline pipeline = new ImportPipeline(10, 2, 2);
+            IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                    () -> pipeline.run(reader, ProductRecordParser.csv(HEADER.trim()), chunk -> {
+                        throw failure;
+                    }));
+            assertSame(failure, thrown);
+        }
+    }
+
+    // Positioned after the header, as ProductImports opens it
+    private RecordReader reader() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Product ").append(i).append(',').append(i).append('\n');
+        }
+        Path file = Files.writeString(directory.resolve("products.csv"), csv);
+        return new RecordReader(file, ImportFormat.CSV, HEADER.length(), 1);
+    }
+}
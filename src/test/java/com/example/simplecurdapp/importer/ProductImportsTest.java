@@ -0,0 +1,260 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.dto.ImportProgress;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.exception.DuplicateResourceException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs imports end to end against the Flyway schema on H2. Not transactional:
+ * every chunk commits on its own, as it does in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductImports.class, ProductImportsTest.Config.class})
+@RecordApplicationEvents
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:product-imports;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "app.import.chunk-size=2",
+    "app.import.parsers=2",
+    "app.import.chunks-in-flight=2"
+})
+class ProductImportsTest {
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private ProductImports productImports;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private Takeover takeover;
+
+    @DynamicPropertySource
+    static void importDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.import.directory", () -> directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        takeover.jobId = null;
+        jdbcTemplate.update("DELETE FROM products");
+        jdbcTemplate.update("DELETE FROM import_jobs");
+    }
+
+    @Test
+    void csvImportShouldInsertValidRowsAndListTheRest() throws IOException {
+        Path source = write("products.csv", "name,price,quantity,category\n"
+                + "Lamp,19.99,3,Lighting\n"
+                + "Desk,oops,1,Furniture\n"
+                + "\"" + "x".repeat(300) + "\",5,1,Furniture\n"
+                + "Chair,49.50,,Furniture\n"
+                + "Shelf,12,-1,Furniture\n");
+
+        ImportProgress progress = productImports.importFile("csv", source, ImportFormat.CSV);
+
+        assertEquals(ImportProgress.State.COMPLETED, progress.state());
+        assertEquals(2, progress.imported());
+        assertEquals(3, progress.rejected());
+        assertEquals(Files.size(source), progress.bytesProcessed());
+        assertEquals(6, progress.linesProcessed());
+        assertEquals(List.of("Chair", "Lamp"),
+                jdbcTemplate.queryForList("SELECT name FROM products ORDER BY name", String.class));
+        List<String> rejected = Files.readAllLines(productImports.rejectedRows("csv"));
+        assertEquals("line,error,record", rejected.get(0));
+        assertTrue(rejected.get(1).startsWith("3,\"price is not a number: 'oops'\""), rejected.get(1));
+        assertTrue(rejected.get(2).startsWith("4,"), rejected.get(2));
+        assertTrue(rejected.get(3).startsWith("6,\"quantity must be zero or positive\""), rejected.get(3));
+        assertEquals(2, events.stream(ProductChangedEvent.class).mapToInt(event -> event.saved().size()).sum());
+    }
+
+    @Test
+    void failedImportShouldResumeAfterItsLastCommittedChunk() throws IOException {
+        String committed = "name,price\nA,1\nB,2\nC,3\nD,4\n";
+        // An unclosed quote runs past the record size limit and fails the job
+        Path source = write("resume.csv", committed + "\"E" + "x".repeat(RecordReader.MAX_RECORD_BYTES) + "\n");
+
+        ImportProgress failed = productImports.importFile("resume", source, ImportFormat.CSV);
+
+        assertEquals(ImportProgress.State.FAILED, failed.state());
+        assertEquals(4, failed.imported());
+        assertEquals(committed.length(), failed.bytesProcessed());
+
+        Files.writeString(source, committed + "E,5\nF,oops\n");
+        ImportProgress resumed = productImports.importFile("resume", source, ImportFormat.CSV);
+
+        assertEquals(ImportProgress.State.COMPLETED, resumed.state());
+        assertEquals(5, resumed.imported());
+        assertEquals(1, resumed.rejected());
+        assertEquals(List.of("A", "B", "C", "D", "E"),
+                jdbcTemplate.queryForList("SELECT name FROM products ORDER BY name", String.class));
+        List<String> rejected = Files.readAllLines(productImports.rejectedRows("resume"));
+        assertEquals(2, rejected.size());
+        assertTrue(rejected.get(1).startsWith("7,"), rejected.get(1));
+    }
+
+    @Test
+    void ndjsonUploadShouldBeStoredAndImported() throws IOException {
+        String body = "{\"name\":\"Lamp\",\"price\":19.99,\"isAvailable\":false}\n{\"name\":\"Desk\",\"price\":80}\n{\"price\":1}\n";
+
+        ImportProgress queued = productImports.submit(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ImportFormat.NDJSON);
+        ImportProgress progress = productImports.progress(queued.jobId());
+
+        assertEquals(ImportProgress.State.COMPLETED, progress.state());
+        assertEquals(2, progress.imported());
+        assertEquals(1, progress.rejected());
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT is_available FROM products WHERE name = 'Lamp'", Boolean.class));
+        assertTrue(Files.exists(directory.resolve(queued.jobId() + ".ndjson")));
+    }
+
+    @Test
+    void uploadWithAnUnusableHeaderShouldBeRefusedUpFront() {
+        assertThrows(InvalidRequestException.class, () -> productImports.submit(
+                new ByteArrayInputStream("name,colour\nLamp,red\n".getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM import_jobs", Integer.class));
+    }
+
+    @Test
+    void completedImportShouldNotBeResumed() throws IOException {
+        Path source = write("done.csv", "name,price\nLamp,1\n");
+        productImports.importFile("done", source, ImportFormat.CSV);
+
+        assertThrows(InvalidRequestException.class, () -> productImports.resume("done"));
+        assertEquals(1, productImports.importFile("done", source, ImportFormat.CSV).imported());
+    }
+
+    @Test
+    void jobClaimedByAnotherRunShouldNotBeResumedUntilItsClaimGoesStale() throws IOException {
+        Path source = write("claimed.csv", "name,price\nLamp,1\n\"" + "x".repeat(RecordReader.MAX_RECORD_BYTES) + "\n");
+        productImports.importFile("claimed", source, ImportFormat.CSV);
+        // As left by a run on another replica
+        jdbcTemplate.update("UPDATE import_jobs SET state = 'RUNNING', run_id = 'other', updated_at = ? WHERE id = 'claimed'",
+                Timestamp.valueOf(LocalDateTime.now()));
+
+        assertThrows(DuplicateResourceException.class, () -> productImports.resume("claimed"));
+
+        jdbcTemplate.update("UPDATE import_jobs SET updated_at = ? WHERE id = 'claimed'",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        assertEquals(ImportProgress.State.FAILED, productImports.resume("claimed").state());
+        assertTrue(jdbcTemplate.queryForList("SELECT run_id FROM import_jobs WHERE run_id = 'other'").isEmpty());
+    }
+
+    @Test
+    void chunksOfARunThatLostItsClaimShouldRollBack() throws IOException {
+        Path source = write("stale.csv", "name,price\nA,1\nB,2\nC,3\nD,4\n");
+        takeover.jobId = "stale";
+
+        ImportProgress progress = productImports.importFile("stale", source, ImportFormat.CSV);
+
+        // The first chunk committed before the job was taken over; the second was refused its checkpoint
+        assertEquals(2, progress.imported());
+        assertEquals(ImportProgress.State.RUNNING, progress.state());
+        assertEquals(List.of("A", "B"), jdbcTemplate.queryForList("SELECT name FROM products ORDER BY name", String.class));
+    }
+
+    @Test
+    void jobWhoseSourceIsMissingShouldNotBeResumed() throws IOException {
+        Path source = write("missing.csv", "name,price\n\"" + "x".repeat(RecordReader.MAX_RECORD_BYTES) + "\n");
+        productImports.importFile("missing", source, ImportFormat.CSV);
+        Files.delete(source);
+
+        assertThrows(ResourceNotFoundException.class, () -> productImports.resume("missing"));
+        assertEquals(ImportProgress.State.FAILED, productImports.progress("missing").state());
+    }
+
+    private static Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        // Queued imports run on the submitting thread
+        @Bean
+        Executor importExecutor() {
+            return new SyncTaskExecutor();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        Takeover takeover(JdbcTemplate jdbcTemplate) {
+            return new Takeover(jdbcTemplate);
+        }
+    }
+
+    /**
+     * Hands {@code jobId} to another run as soon as its first chunk commits.
+     */
+    static class Takeover {
+
+        private final JdbcTemplate jdbcTemplate;
+        private volatile String jobId;
+
+        Takeover(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @EventListener
+        void onProductChanged(ProductChangedEvent event) {
+            if (jobId != null) {
+                jdbcTemplate.update("UPDATE import_jobs SET run_id = 'other' WHERE id = ?", jobId);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.simplecurdapp.importer;
+
+import com.example.simplecurdapp.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductRecordParserTest {
+
+    @Test
+    void csvColumnsShouldMapByHeaderNameInAnyOrder() {
+        ProductRecordParser parser = ProductRecordParser.csv("\uFEFFID,Price,Is_Available,name,description");
+
+        ProductRecordParser.Row row = parser.parse(new SourceRecord(2, "99,19.99,false,Lamp,\"Warm, \"\"soft\"\" light\""));
+
+        Product product = row.product();
+        assertNull(row.error());
+        assertNull(product.getId());
+        assertEquals("Lamp", product.getName());
+        assertEquals(new BigDecimal("19.99"), product.getPrice());
+        assertFalse(product.getIsAvailable());
+        assertEquals("Warm, \"soft\" light", product.getDescription());
+        assertEquals(0, product.getQuantity());
+    }
+
+    @Test
+    void unusableHeadersShouldBeRefused() {
+        assertThrows(IllegalArgumentException.class, () -> ProductRecordParser.csv("name,price,colour"));
+        assertThrows(IllegalArgumentException.class, () -> ProductRecordParser.csv("name,quantity"));
+        assertThrows(IllegalArgumentException.class, () -> ProductRecordParser.csv("name,price,Price"));
+    }
+
+    @Test
+    void invalidCsvRowsShouldBeRejectedWithTheReason() {
+        ProductRecordParser parser = ProductRecordParser.csv("name,price,quantity");
+
+        assertEquals("price is not a number: 'cheap'", parser.parse(new SourceRecord(2, "Lamp,cheap,1")).error());
+        assertEquals("quantity must be zero or positive", parser.parse(new SourceRecord(3, "Lamp,1,-1")).error());
+        assertEquals("name is required", parser.parse(new SourceRecord(4, ",1,1")).error());
+        assertEquals("expected 3 fields but found 2", parser.parse(new SourceRecord(5, "Lamp,1")).error());
+        assertEquals("unclosed quote", parser.parse(new SourceRecord(6, "\"Lamp,1,1")).error());
+    }
+
+    @Test
+    void ndjsonRecordsShouldIgnoreServerAssignedFields() {
+        ProductRecordParser parser = ProductRecordParser.ndjson(new ObjectMapper());
+
+        ProductRecordParser.Row row = parser.parse(new SourceRecord(1,
+                "{\"id\":5,\"version\":3,\"name\":\"Lamp\",\"price\":19.99,\"quantity\":4,\"category\":\"Lighting\"}"));
+        ProductRecordParser.Row malformed = parser.parse(new SourceRecord(2, "{\"name\":"));
+
+        assertNull(row.product().getId());
+        assertNull(row.product().getVersion());
+        assertEquals(4, row.product().getQuantity());
+        assertEquals("Lighting", row.product().getCategory());
+        assertNull(malformed.product());
+        assertTrue(malformed.error().startsWith("malformed JSON"));
+    }
+
+    @Test
+    void fieldsShouldFollowRfc4180Quoting() {
+        assertEquals(List.of("a", "", "b,c", "d\"e", ""), ProductRecordParser.fields("a,,\"b,c\",\"d\"\"e\","));
+    }
+}
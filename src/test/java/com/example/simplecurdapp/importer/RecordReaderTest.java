@@ -0,0 +1,85 @@
+package com.example.simplecurdapp.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecordReaderTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void csvRecordsShouldSpanQuotedNewlinesAndSkipEmptyLines() throws IOException {
+        Path file = write("name,description\r\n\r\nLamp,\"Warm\nlight\"\r\nDesk,plain");
+
+        List<SourceRecord> records = readAll(file, ImportFormat.CSV, 0, 0);
+
+        assertEquals(List.of(
+                new SourceRecord(1, "name,description"),
+                new SourceRecord(3, "Lamp,\"Warm\nlight\""),
+                new SourceRecord(5, "Desk,plain")), records);
+    }
+
+    @Test
+    void ndjsonRecordsShouldEndAtEveryNewline() throws IOException {
+        Path file = write("{\"name\":\"a \\\"quoted\"}\n{\"name\":\"b\"}\n");
+
+        List<SourceRecord> records = readAll(file, ImportFormat.NDJSON, 0, 0);
+
+        assertEquals(2, records.size());
+        assertEquals(new SourceRecord(2, "{\"name\":\"b\"}"), records.get(1));
+    }
+
+    @Test
+    void readerShouldResumeAtTheRecordedPosition() throws IOException {
+        Path file = write("name\nfirst\nsecond\nthird\n");
+        long offset;
+        long line;
+        try (RecordReader reader = new RecordReader(file, ImportFormat.CSV, 0, 0)) {
+            reader.next();
+            reader.next();
+            offset = reader.offset();
+            line = reader.line();
+        }
+
+        List<SourceRecord> rest = readAll(file, ImportFormat.CSV, offset, line);
+
+        assertEquals(List.of(new SourceRecord(3, "second"), new SourceRecord(4, "third")), rest);
+    }
+
+    @Test
+    void oversizedRecordShouldFailInsteadOfBufferingTheFile() throws IOException {
+        Path file = write("name\n\"" + "x".repeat(RecordReader.MAX_RECORD_BYTES) + "\n");
+
+        try (RecordReader reader = new RecordReader(file, ImportFormat.CSV, 0, 0)) {
+            reader.next();
+            assertThrows(IllegalStateException.class, reader::next);
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(directory.resolve("products.txt"), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<SourceRecord> readAll(Path file, ImportFormat format, long offset, long line) throws IOException {
+        List<SourceRecord> records = new ArrayList<>();
+        try (RecordReader reader = new RecordReader(file, format, offset, line)) {
+            for (SourceRecord record; (record = reader.next()) != null; ) {
+                records.add(record);
+            }
+            assertNull(reader.next());
+        }
+        return records;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.simplecurdapp.inventory;
+
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.exception.InsufficientStockException;
+import com.example.simplecurdapp.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotStockCounterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private HotStockCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        counter = new HotStockCounter(stringRedisTemplate, productRepository, productCache, secondLevelCache,
+                transactionManager, Set.of(1L));
+    }
+
+    @Test
+    void onlyConfiguredProductsShouldBeHot() {
+        assertTrue(counter.isHot(1L));
+        assertFalse(counter.isHot(2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjustShouldSeedCounterFromDatabaseOnFirstUse() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), eq("-1"), eq("1")))
+            .thenReturn(List.of(0L, 0L), List.of(1L, 9L));
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+
+        assertEquals(9, counter.adjust(1L, -1));
+        verify(valueOperations).setIfAbsent(HotStockCounter.COUNTER_PREFIX + 1, "10");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void adjustShouldRejectDecrementBelowZero() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), eq("-5"), eq("1")))
+            .thenReturn(List.of(2L, 3L));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class, () -> counter.adjust(1L, -5));
+        assertEquals(3, ex.getAvailable());
+    }
+
+    @Test
+    void setShouldWaitForTheTransactionToCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counter.set(1L, 7);
+            verifyNoInteractions(valueOperations, setOperations);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(valueOperations).set(HotStockCounter.COUNTER_PREFIX + 1, "7");
+        verify(setOperations).add(HotStockCounter.DIRTY_KEY, "1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushShouldWriteDirtyLevelsBackToDatabase() {
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of(HotStockCounter.DIRTY_KEY))))
+            .thenReturn(List.of("1"));
+        when(valueOperations.multiGet(List.of(HotStockCounter.COUNTER_PREFIX + 1))).thenReturn(List.of("42"));
+
+        counter.flush();
+
+        verify(productRepository).setQuantity(1L, 42);
+        verify(productCache).invalidateAll(List.of(1L));
+        verify(secondLevelCache).evictProducts(List.of(1L));
+    }
+}
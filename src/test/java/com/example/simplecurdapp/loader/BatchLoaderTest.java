@@ -0,0 +1,152 @@
+package com.example.simplecurdapp.loader;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> queries = new CopyOnWriteArrayList<>();
+    private final AtomicInteger singleLookups = new AtomicInteger();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentLookupsShouldShareOneDedupedQuery() throws Exception {
+        BatchLoader<Long> loader = loader(Duration.ofMillis(200), 100);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Long>>> results = new ArrayList<>();
+        for (long id : new long[] {1, 2, 2, 3, 3, 3}) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return loader.load(id);
+            }));
+        }
+        start.countDown();
+
+        List<Long> loaded = new ArrayList<>();
+        for (Future<Optional<Long>> result : results) {
+            loaded.add(result.get(5, TimeUnit.SECONDS).orElseThrow());
+        }
+
+        assertEquals(List.of(10L, 20L, 20L, 30L, 30L, 30L), loaded);
+        assertEquals(1, queries.size());
+        assertEquals(3, queries.get(0).size());
+        assertEquals(3, meterRegistry.get("batch.loader.coalesced").tag("loader", "test").counter().count());
+        assertEquals(1, meterRegistry.get("batch.loader.size").tag("loader", "test").summary().count());
+        assertEquals(3, meterRegistry.get("batch.loader.size").tag("loader", "test").summary().totalAmount());
+    }
+
+    @Test
+    void fullBatchShouldRunWithoutWaitingForTheWindow() throws Exception {
+        BatchLoader<Long> loader = loader(Duration.ofSeconds(30), 2);
+
+        Future<Optional<Long>> first = callers.submit(() -> loader.load(1L));
+        Future<Optional<Long>> second = callers.submit(() -> loader.load(2L));
+
+        assertEquals(Optional.of(10L), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(20L), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    void interruptedLeaderShouldRunTheBatchWithoutWaitingForTheWindow() throws Exception {
+        BatchLoader<Long> loader = loader(Duration.ofSeconds(30), 100);
+
+        Future<Boolean> leader = callers.submit(() -> {
+            Thread.currentThread().interrupt();
+            assertEquals(Optional.of(10L), loader.load(1L));
+            return Thread.currentThread().isInterrupted();
+        });
+
+        assertTrue(leader.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(1L)), queries);
+    }
+
+    @Test
+    void missingIdsShouldBeEmpty() {
+        BatchLoader<Long> loader = loader(Duration.ofMillis(1), 100);
+
+        assertEquals(Optional.empty(), loader.load(-1L));
+    }
+
+    @Test
+    void failedQueryShouldReachEveryCaller() throws Exception {
+        IllegalStateException failure = new IllegalStateException("database down");
+        BatchLoader<Long> loader = new BatchLoader<>("test", id -> Optional.empty(),
+                ids -> { throw failure; }, id -> id, Duration.ofSeconds(30), 2, meterRegistry);
+
+        Future<Optional<Long>> first = callers.submit(() -> loader.load(1L));
+        Future<Optional<Long>> second = callers.submit(() -> loader.load(2L));
+
+        for (Future<Optional<Long>> result : List.of(first, second)) {
+            Exception ex = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ex.getCause());
+        }
+    }
+
+    @Test
+    void lookupsInsideATransactionShouldNotBeBatched() {
+        BatchLoader<Long> loader = loader(Duration.ofSeconds(30), 100);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertEquals(Optional.of(40L), loader.load(4L));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertEquals(1, singleLookups.get());
+        assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    void zeroWindowShouldDisableBatching() {
+        BatchLoader<Long> loader = loader(Duration.ZERO, 100);
+
+        assertEquals(Optional.of(50L), loader.load(5L));
+
+        assertEquals(1, singleLookups.get());
+        assertTrue(queries.isEmpty());
+    }
+
+    // Rows are id * 10; negative ids do not exist
+    private BatchLoader<Long> loader(Duration window, int maxBatchSize) {
+        return new BatchLoader<>("test",
+                id -> {
+                    singleLookups.incrementAndGet();
+                    return id < 0 ? Optional.empty() : Optional.of(id * 10);
+                },
+                this::loadAll,
+                row -> row / 10,
+                window, maxBatchSize, meterRegistry);
+    }
+
+    private List<Long> loadAll(Collection<Long> ids) {
+        queries.add(List.copyOf(ids));
+        return ids.stream().filter(id -> id >= 0).map(id -> id * 10).toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.simplecurdapp.metrics;
+
+import com.example.simplecurdapp.cache.UserCache;
+import com.example.simplecurdapp.loader.BatchLoader;
+import com.example.simplecurdapp.model.User;
+import com.example.simplecurdapp.repository.UserRepository;
+import com.example.simplecurdapp.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private BatchLoader<User> userBatchLoader;
+
+    @InjectMocks
+    private UserService userService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserService timedService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(userService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        timedService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void shouldTimeServiceCallsByClassAndMethod() {
+        User user = new User();
+        when(userCache.getOrLoad(eq(1L), any())).thenReturn(user);
+
+        assertSame(user, timedService.getUserData(1L));
+        assertSame(user, timedService.getUserData(1L));
+
+        assertEquals(2, meterRegistry.get("service.calls")
+                .tag("class", "UserService")
+                .tag("method", "getUserData")
+                .tag("exception", "none")
+                .timer().count());
+    }
+
+    @Test
+    void shouldTagFailedCallsWithExceptionType() {
+        when(userCache.getOrLoad(eq(2L), any())).thenThrow(new IllegalStateException("Redis down"));
+
+        assertThrows(IllegalStateException.class, () -> timedService.getUserData(2L));
+
+        assertEquals(1, meterRegistry.get("service.calls")
+                .tag("method", "getUserData")
+                .tag("exception", "IllegalStateException")
+                .timer().count());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactiveProductHandlerTest {
+
+    private ReactiveProductRepository productRepository;
+    private ReactiveProductCache productCache;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ReactiveProductRepository.class);
+        productCache = mock(ReactiveProductCache.class);
+        ReactiveProductHandler handler = new ReactiveProductHandler(productRepository, productCache);
+        client = WebTestClient.bindToRouterFunction(ReactiveProductRoutes.routes(handler)).build();
+    }
+
+    @Test
+    void getProductByIdShouldReturnCachedProductWithETag() {
+        Product product = createProduct(1L, "Laptop");
+        product.setVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Mono.empty());
+        when(productCache.getOrLoad(eq(1L), any())).thenReturn(Mono.just(product));
+
+        client.get().uri("/api/reactive/products/1").exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"4\"")
+            .expectBody()
+            .jsonPath("$.id").isEqualTo(1)
+            .jsonPath("$.name").isEqualTo("Laptop");
+    }
+
+    @Test
+    void getProductByIdShouldReturnNotModifiedWhenETagMatches() {
+        Product product = createProduct(1L, "Laptop");
+        product.setVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Mono.empty());
+        when(productCache.getOrLoad(eq(1L), any())).thenReturn(Mono.just(product));
+
+        client.get().uri("/api/reactive/products/1").header("If-None-Match", "\"4\"").exchange()
+            .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getProductByIdShouldReturnNotFoundWhenMissing() {
+        when(productRepository.findById(99L)).thenReturn(Mono.empty());
+        when(productCache.getOrLoad(eq(99L), any())).thenReturn(Mono.empty());
+
+        client.get().uri("/api/reactive/products/99").exchange()
+            .expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo(404)
+            .jsonPath("$.path").isEqualTo("uri=/api/reactive/products/99");
+    }
+
+    @Test
+    void getProductsByPriceRangeShouldRejectMissingBound() {
+        client.get().uri("/api/reactive/products/price-range?minPrice=10").exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    void getProductsByCategoryShouldStreamNdjson() {
+        when(productRepository.findByCategory("Electronics"))
+            .thenReturn(Flux.just(createProduct(1L, "Phone"), createProduct(2L, "Laptop")));
+
+        List<Product> products = client.get().uri("/api/reactive/products/category/Electronics")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(Product.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(products).extracting(Product::getName).containsExactly("Phone", "Laptop");
+    }
+
+    @Test
+    void streamProductsShouldUseServerSentEventsWhenAccepted() {
+        when(productRepository.findAllOrderedById()).thenReturn(Flux.just(createProduct(1L, "Phone")));
+
+        client.get().uri("/api/reactive/products/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .expectBody(String.class)
+            .value(body -> assertThat(body).startsWith("data:").contains("\"name\":\"Phone\""));
+    }
+
+    private Product createProduct(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription("Description");
+        product.setPrice(new BigDecimal("25.50"));
+        product.setQuantity(10);
+        product.setCategory("Electronics");
+        product.setIsAvailable(true);
+        return product;
+    }
+}
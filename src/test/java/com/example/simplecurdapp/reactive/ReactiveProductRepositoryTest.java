@@ -0,0 +1,61 @@
+package com.example.simplecurdapp.reactive;
+
+import com.example.simplecurdapp.model.Product;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveProductRepositoryTest {
+
+    private ReactiveProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DatabaseClient client = DatabaseClient.create(ConnectionFactories.get(
+            "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL"));
+        client.sql("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, description TEXT, "
+                + "price DECIMAL(10,2) NOT NULL, quantity INT NOT NULL, category VARCHAR(255), is_available BOOLEAN, "
+                + "created_at TIMESTAMP, updated_at TIMESTAMP, version BIGINT DEFAULT 0)")
+            .then().block();
+        client.sql("INSERT INTO products (id, name, price, quantity, category, is_available, version) VALUES "
+                + "(1, 'Phone', 199.00, 5, 'Electronics', TRUE, 2), "
+                + "(2, 'Desk', 120.00, 0, 'Furniture', TRUE, 0), "
+                + "(3, 'Laptop', 999.00, 3, 'Electronics', FALSE, 1)")
+            .then().block();
+        repository = new ReactiveProductRepository(client);
+    }
+
+    @Test
+    void findByIdShouldMapColumns() {
+        Product product = repository.findById(1L).block();
+
+        assertThat(product).isNotNull();
+        assertThat(product.getName()).isEqualTo("Phone");
+        assertThat(product.getPrice()).isEqualByComparingTo("199.00");
+        assertThat(product.getIsAvailable()).isTrue();
+        assertThat(product.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void queriesShouldMirrorProductRepository() {
+        assertThat(names(repository.findByCategory("Electronics").collectList().block()))
+            .containsExactlyInAnyOrder("Phone", "Laptop");
+        assertThat(names(repository.findInStockProducts().collectList().block()))
+            .containsExactlyInAnyOrder("Phone", "Laptop");
+        assertThat(names(repository.findByPriceBetween(new BigDecimal("100"), new BigDecimal("200")).collectList().block()))
+            .containsExactlyInAnyOrder("Phone", "Desk");
+        assertThat(names(repository.findAllOrderedById().collectList().block()))
+            .containsExactly("Phone", "Desk", "Laptop");
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+}
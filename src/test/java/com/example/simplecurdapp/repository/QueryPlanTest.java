@@ -0,0 +1,217 @@
+package com.example.simplecurdapp.repository;
+
+import com.example.simplecurdapp.dto.ProductSummary;
+import com.example.simplecurdapp.dto.UserSummary;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs each repository finder against the Flyway schema, captures the SQL
+ * Hibernate issues and fails if H2 (in MySQL mode) plans it as a table scan.
+ * The keyword searches are the deliberate exceptions; the search index serves them.
+ * The second-level and query caches are off so every call reaches the database.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.simplecurdapp.repository.QueryPlanTest$CapturingStatementInspector"
+})
+class QueryPlanTest {
+
+    private static final String TABLE_SCAN = "tableScan";
+    private static final int ROWS = 500;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Enough rows with realistic selectivity that the planner's cost estimates favour indexes where they help.
+    // ANALYZE commits, so the rows outlive each test's rollback and are only inserted once
+    @BeforeEach
+    void setUp() {
+        if (productRepository.count() > 0) {
+            return;
+        }
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            products.add(new Object[] {"Product " + i, new BigDecimal(i), i % 7, "Category " + (i % 20), i % 3 == 0});
+            users.add(new Object[] {"User " + i, "user" + i + "@example.com", i % 3 == 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, price, quantity, category, is_available, version) "
+            + "VALUES (?, ?, ?, ?, ?, 0)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email, is_active, version) VALUES (?, ?, ?, 0)", users);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void findByCategoryShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findByCategory("Category 1"), "Category 1");
+    }
+
+    @Test
+    void findByIsAvailableShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findByIsAvailable(true), true);
+    }
+
+    @Test
+    void findByPriceBetweenShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findByPriceBetween(BigDecimal.ONE, BigDecimal.TEN),
+            BigDecimal.ONE, BigDecimal.TEN);
+    }
+
+    @Test
+    void priceOrderedFindersShouldUseIndexes() {
+        Sort byPrice = Sort.by("price").and(Sort.by("id"));
+        assertUsesIndex(() -> productRepository.findByCategory("Category 1", byPrice, Limit.of(10)), "Category 1", 0, 10);
+        assertUsesIndex(() -> productRepository.findByCategoryAndQuantityGreaterThan("Category 1", 0, byPrice, Limit.of(10)),
+            "Category 1", 0, 0, 10);
+        assertUsesIndex(() -> productRepository.findByPriceBetween(BigDecimal.ONE, BigDecimal.TEN, byPrice, Limit.of(10)),
+            BigDecimal.ONE, BigDecimal.TEN, 0, 10);
+        assertUsesIndex(() -> productRepository.findByPriceBetweenAndQuantityGreaterThan(BigDecimal.ONE, BigDecimal.TEN, 0,
+            byPrice, Limit.of(10)), BigDecimal.ONE, BigDecimal.TEN, 0, 0, 10);
+    }
+
+    @Test
+    void findInStockProductsShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findInStockProducts());
+    }
+
+    @Test
+    void findAllCategoriesShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findAllCategories());
+    }
+
+    @Test
+    void findCategoryFacetsShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findCategoryFacets());
+    }
+
+    @Test
+    void findFacetEntriesByIdInShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findFacetEntriesByIdIn(List.of(1L, 2L)), 1L, 2L);
+    }
+
+    @Test
+    void productKeysetPageShouldUseIndex() {
+        assertUsesIndex(() -> productRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(10)), 100L, 0, 10);
+    }
+
+    @Test
+    void summaryFindersShouldUseIndexes() {
+        assertUsesIndex(() -> productRepository.findByCategory("Category 1", ProductSummary.class), "Category 1");
+        assertUsesIndex(() -> productRepository.findByIsAvailable(true, ProductSummary.class), true);
+        assertUsesIndex(() -> productRepository.findByPriceBetween(BigDecimal.ONE, BigDecimal.TEN, ProductSummary.class),
+            BigDecimal.ONE, BigDecimal.TEN);
+        assertUsesIndex(() -> productRepository.findByQuantityGreaterThan(0, ProductSummary.class), 0);
+        assertUsesIndex(() -> productRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(10), ProductSummary.class),
+            100L, 0, 10);
+        assertUsesIndex(() -> userRepository.findByIsActive(true, UserSummary.class), true);
+        assertUsesIndex(() -> userRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(10), UserSummary.class),
+            100L, 0, 10);
+    }
+
+    @Test
+    void summaryFindersShouldSelectOnlyProjectedColumns() {
+        List<ProductSummary> products = productRepository.findByCategory("Category 1", ProductSummary.class);
+        String productSql = CapturingStatementInspector.STATEMENTS.get(CapturingStatementInspector.STATEMENTS.size() - 1);
+        List<UserSummary> users = userRepository.findBy(UserSummary.class);
+        String userSql = CapturingStatementInspector.STATEMENTS.get(CapturingStatementInspector.STATEMENTS.size() - 1);
+
+        assertEquals(ROWS / 20, products.size());
+        assertEquals(ROWS, users.size());
+        assertFalse(productSql.contains("description"), productSql);
+        assertFalse(productSql.contains("quantity"), productSql);
+        assertFalse(userSql.contains("address"), userSql);
+    }
+
+    @Test
+    void findByIsActiveShouldUseIndex() {
+        assertUsesIndex(() -> userRepository.findByIsActive(true), true);
+    }
+
+    @Test
+    void findByEmailShouldUseIndex() {
+        assertUsesIndex(() -> userRepository.findByEmail("user1@example.com"), "user1@example.com");
+    }
+
+    @Test
+    void existsByEmailShouldUseIndex() {
+        assertUsesIndex(() -> userRepository.existsByEmail("user1@example.com"), "user1@example.com", 1);
+    }
+
+    @Test
+    void findByEmailInShouldUseIndex() {
+        assertUsesIndex(() -> userRepository.findByEmailIn(List.of("user1@example.com", "user2@example.com")),
+            "user1@example.com", "user2@example.com");
+    }
+
+    @Test
+    void userKeysetPageShouldUseIndex() {
+        assertUsesIndex(() -> userRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(10)), 100L, 0, 10);
+    }
+
+    @Test
+    void keywordSearchesAreKnownTableScans() {
+        String plan = explain(() -> productRepository.findByNameContainingIgnoreCase("phone"), "%phone%");
+
+        assertTrue(plan.contains(TABLE_SCAN), plan);
+    }
+
+    private void assertUsesIndex(Runnable finder, Object... args) {
+        String plan = explain(finder, args);
+        assertFalse(plan.contains(TABLE_SCAN), () -> "Full table scan:\n" + plan);
+    }
+
+    private String explain(Runnable finder, Object... args) {
+        CapturingStatementInspector.STATEMENTS.clear();
+        finder.run();
+        List<String> statements = List.copyOf(CapturingStatementInspector.STATEMENTS);
+        assertEquals(1, statements.size(), () -> "Expected one statement: " + statements);
+        String sql = statements.get(0);
+        assertEquals(sql.chars().filter(c -> c == '?').count(), args.length, () -> "Arguments for: " + sql);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.simplecurdapp.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Boots JPA on a database built only by the Flyway migrations, with the
+ * {@code ddl-auto} setting from application.properties. Hibernate validates
+ * every entity against that schema at startup, so a mapping that a migration
+ * does not cover fails this test instead of being patched in by Hibernate.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:schema-validation;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class SchemaValidationTest {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void hibernateShouldOnlyValidateTheMigratedSchema() {
+        assertEquals("validate", environment.getProperty("spring.jpa.hibernate.ddl-auto"));
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(0, productRepository.count());
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    void databaseFromBeforeTheVersionColumnsShouldBeBaselinedAndUpgraded() {
+        DriverManagerDataSource legacy = new DriverManagerDataSource(
+                "jdbc:h2:mem:schema-legacy;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(legacy);
+        jdbc.execute("CREATE TABLE products (id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(255) NOT NULL, "
+                + "description TEXT, price DECIMAL(10, 2) NOT NULL, quantity INT NOT NULL, category VARCHAR(255), "
+                + "is_available BIT, created_at DATETIME(6), updated_at DATETIME(6), PRIMARY KEY (id))");
+        jdbc.execute("CREATE TABLE users (id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, phone VARCHAR(255), address VARCHAR(255), is_active BIT, "
+                + "PRIMARY KEY (id), CONSTRAINT uk_users_email UNIQUE (email))");
+        jdbc.update("INSERT INTO products (name, price, quantity) VALUES ('Lamp', 1, 1)");
+
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(legacy)
+                .load()
+                .migrate();
+
+        assertEquals(0L, jdbc.queryForObject("SELECT version FROM products", Long.class));
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(version) FROM users", Integer.class));
+    }
+}
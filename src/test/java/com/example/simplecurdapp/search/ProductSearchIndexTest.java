@@ -0,0 +1,132 @@
+package com.example.simplecurdapp.search;
+
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.model.Product;
+import com.example.simplecurdapp.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, stringRedisTemplate, transactionManager, Runnable::run);
+        ReflectionTestUtils.setField(index, "entityManager", entityManager);
+    }
+
+    @Test
+    void searchShouldBeUnavailableUntilFirstBuild() {
+        assertTrue(index.search("phone", 0, 10).isEmpty());
+    }
+
+    @Test
+    void searchShouldRankNameMatchesAboveDescriptionMatches() {
+        buildWith(createProduct(1L, "Leather case", "Fits any phone"),
+                  createProduct(2L, "Phone", "Smartphone with a great camera"));
+
+        assertEquals(List.of(2L, 1L), ids("phone"));
+    }
+
+    @Test
+    void searchShouldMatchPrefixesAndTypos() {
+        buildWith(createProduct(1L, "Headphones", "Wireless"),
+                  createProduct(2L, "Keyboard", "Mechanical"));
+
+        assertEquals(List.of(1L), ids("headph"));
+        assertEquals(List.of(2L), ids("keybaord"));
+    }
+
+    @Test
+    void searchShouldRequireEveryTermAndPage() {
+        buildWith(createProduct(1L, "Red phone", null),
+                  createProduct(2L, "Blue phone", null),
+                  createProduct(3L, "Red chair", null));
+
+        assertEquals(List.of(1L), ids("red phone"));
+        SearchHits secondPage = index.search("phone", 1, 1).orElseThrow();
+        assertEquals(1, secondPage.ids().size());
+        assertEquals(2, secondPage.totalHits());
+    }
+
+    @Test
+    void committedChangesShouldBecomeSearchableAfterRefreshAndBeBroadcast() {
+        buildWith(createProduct(1L, "Phone", null));
+
+        index.onProductChanged(new ProductChangedEvent(List.of(createProduct(2L, "Tablet", null)), List.of(1L)));
+        index.refresh();
+
+        assertEquals(List.of(), ids("phone"));
+        assertEquals(List.of(2L), ids("tablet"));
+        verify(stringRedisTemplate).convertAndSend(eq(ProductSearchIndex.UPDATES_CHANNEL), anyString());
+    }
+
+    @Test
+    void remoteUpdateShouldReloadChangedRowsFromDatabase() {
+        buildWith(createProduct(1L, "Phone", null));
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(createProduct(2L, "Tablet", null)));
+
+        index.onMessage(new DefaultMessage(
+                ProductSearchIndex.UPDATES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "other-node:1,2".getBytes(StandardCharsets.UTF_8)), null);
+        index.refresh();
+
+        assertEquals(List.of(), ids("phone"));
+        assertEquals(List.of(2L), ids("tablet"));
+    }
+
+    private void buildWith(Product... products) {
+        when(productRepository.streamAllOrderedById()).thenReturn(Stream.of(products));
+        index.rebuild();
+    }
+
+    private List<Long> ids(String text) {
+        Optional<SearchHits> hits = index.search(text, 0, 10);
+        return hits.orElseThrow().ids();
+    }
+
+    private Product createProduct(Long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setCategory("General");
+        return product;
+    }
+}
@@ -1,22 +1,68 @@
 package com.example.simplecurdapp.service;
 
+import com.example.simplecurdapp.cache.ProductCache;
+import com.example.simplecurdapp.cache.SecondLevelCache;
+import com.example.simplecurdapp.changelog.ChangeLog;
+import com.example.simplecurdapp.columnar.ProductColumns;
+import com.example.simplecurdapp.dto.BulkItemStatus;
+import com.example.simplecurdapp.dto.BulkOperationResult;
+import com.example.simplecurdapp.dto.CategoryFacet;
+import com.example.simplecurdapp.dto.ChangeRecord;
+import com.example.simplecurdapp.dto.CursorPage;
+import com.example.simplecurdapp.dto.ProductSummary;
+import com.example.simplecurdapp.dto.SearchPage;
+import com.example.simplecurdapp.dto.StockLevel;
+import com.example.simplecurdapp.event.ProductChangedEvent;
+import com.example.simplecurdapp.exception.InsufficientStockException;
+import com.example.simplecurdapp.exception.InvalidRequestException;
+import com.example.simplecurdapp.exception.PreconditionFailedException;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.facet.CatalogFacets;
+import com.example.simplecurdapp.inventory.HotStockCounter;
+import com.example.simplecurdapp.loader.BatchLoader;
 import com.example.simplecurdapp.model.Product;
 import com.example.simplecurdapp.repository.ProductRepository;
+import com.example.simplecurdapp.search.ProductSearchIndex;
+import com.example.simplecurdapp.search.SearchHits;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +71,41 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private HotStockCounter hotStockCounter;
+
+    @Mock
+    private CatalogFacets catalogFacets;
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private ProductColumns productColumns;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    // Zero window: lookups go straight to findById, so the repository stubs below apply
+    @Spy
+    private BatchLoader<Product> productBatchLoader = new BatchLoader<>("product", id -> productRepository.findById(id),
+            ids -> productRepository.findAllById(ids), Product::getId, Duration.ZERO, 100, new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductService productService;
 
@@ -39,6 +120,28 @@ class ProductServiceTest {
         assertEquals("Phone", actual.getName());
     }
 
+    @Test
+    void getProductByIdShouldServeCacheHitWithoutDatabase() {
+        Product cached = createProduct(2L, "Cached", "Electronics");
+        when(productCache.get(2L)).thenReturn(cached);
+
+        Product actual = productService.getProductById(2L);
+
+        assertEquals("Cached", actual.getName());
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getProductByIdShouldPopulateCacheWithCapturedVersionOnMiss() {
+        Product product = createProduct(3L, "Loaded", "Electronics");
+        when(productCache.version(3L)).thenReturn(7L);
+        when(productRepository.findById(3L)).thenReturn(Optional.of(product));
+
+        productService.getProductById(3L);
+
+        verify(productCache).put(product, 7L);
+    }
+
     @Test
     void getProductByIdShouldThrowWhenMissing() {
         when(productRepository.findById(99L)).thenReturn(Optional.empty());
@@ -70,7 +173,7 @@ class ProductServiceTest {
         when(productRepository.findById(7L)).thenReturn(Optional.of(existing));
         when(productRepository.save(existing)).thenReturn(existing);
 
-        Product actual = productService.updateProduct(7L, updates);
+        Product actual = productService.updateProduct(7L, updates, null);
 
         assertEquals("New", actual.getName());
         assertEquals("Updated description", actual.getDescription());
@@ -79,6 +182,7 @@ class ProductServiceTest {
         assertEquals("NewCategory", actual.getCategory());
         assertEquals(false, actual.getIsAvailable());
         verify(productRepository).save(existing);
+        verify(productCache).invalidate(7L);
     }
 
     @Test
@@ -89,6 +193,7 @@ class ProductServiceTest {
         productService.deleteProduct(8L);
 
         verify(productRepository).delete(existing);
+        verify(productCache).invalidate(8L);
     }
 
     @Test
@@ -102,6 +207,33 @@ class ProductServiceTest {
         verify(productRepository).findByIsAvailable(true);
     }
 
+    @Test
+    void getProductsByCategoryShouldMaterializeColumnMatchesFromCache() {
+        Product phone = createProduct(1L, "Phone", "Electronics");
+        // Recategorized on another replica after the columns were scanned
+        Product desk = createProduct(2L, "Desk", "Furniture");
+        when(productColumns.idsInCategory("electronics")).thenReturn(Optional.of(new long[] {1L, 2L, 3L}));
+        when(productCache.getAll(eq(List.of(1L, 2L, 3L)), eq(ProductService.BATCH_QUERY_CHUNK_SIZE), any()))
+            .thenReturn(Map.of(1L, phone, 2L, desk));
+
+        assertEquals(List.of(phone), productService.getProductsByCategory("electronics"));
+        verify(productRepository, never()).findByCategory(anyString());
+    }
+
+    @Test
+    void getProductsByPriceRangeShouldRecheckPricesOfColumnMatches() {
+        Product cheap = createProduct(1L, "Cable", "Electronics");
+        cheap.setPrice(new BigDecimal("15.00"));
+        Product repriced = createProduct(2L, "Phone", "Electronics");
+        when(productColumns.idsInPriceRange(new BigDecimal("10.00"), new BigDecimal("20.00")))
+            .thenReturn(Optional.of(new long[] {1L, 2L}));
+        when(productCache.getAll(eq(List.of(1L, 2L)), eq(ProductService.BATCH_QUERY_CHUNK_SIZE), any()))
+            .thenReturn(Map.of(1L, cheap, 2L, repriced));
+
+        assertEquals(List.of(cheap), productService.getProductsByPriceRange(new BigDecimal("10.00"), new BigDecimal("20.00")));
+        verify(productRepository, never()).findByPriceBetween(any(), any());
+    }
+
     @Test
     void getProductsByPriceRangeShouldDelegateToRepository() {
         when(productRepository.findByPriceBetween(new BigDecimal("10.00"), new BigDecimal("20.00")))
@@ -113,6 +245,63 @@ class ProductServiceTest {
         verify(productRepository).findByPriceBetween(new BigDecimal("10.00"), new BigDecimal("20.00"));
     }
 
+    @Test
+    void getProductsByCategoryOrderedByPriceShouldKeepIndexOrder() {
+        Product cable = createProduct(3L, "Cable", "Electronics");
+        Product phone = createProduct(1L, "Phone", "Electronics");
+        when(productColumns.idsOrderedByPrice("Electronics", null, null, true, false, 20, 10))
+            .thenReturn(Optional.of(new long[] {3L, 1L}));
+        when(productCache.getAll(eq(List.of(3L, 1L)), eq(ProductService.BATCH_QUERY_CHUNK_SIZE), any()))
+            .thenReturn(Map.of(1L, phone, 3L, cable));
+
+        assertEquals(List.of(cable, phone),
+            productService.getProductsByCategoryOrderedByPrice("Electronics", true, false, 20, 10));
+    }
+
+    @Test
+    void getProductsByPriceRangeOrderedByPriceShouldSkipOffsetOfDatabaseRowsUntilColumnsAreBuilt() {
+        Product first = createProduct(1L, "Cable", "Electronics");
+        Product second = createProduct(2L, "Phone", "Electronics");
+        when(productColumns.idsOrderedByPrice(null, BigDecimal.ONE, BigDecimal.TEN, false, true, 1, 500))
+            .thenReturn(Optional.empty());
+        Sort sort = Sort.by(Sort.Direction.DESC, "price").and(Sort.by(Sort.Direction.DESC, "id"));
+        when(productRepository.findByPriceBetween(BigDecimal.ONE, BigDecimal.TEN, sort, Limit.of(501)))
+            .thenReturn(List.of(first, second));
+
+        assertEquals(List.of(second),
+            productService.getProductsByPriceRangeOrderedByPrice(BigDecimal.ONE, BigDecimal.TEN, false, true, 1, 5000));
+    }
+
+    @Test
+    void priceOrderedListingsShouldRejectOffsetsBeyondTheWindow() {
+        assertThrows(InvalidRequestException.class,
+            () -> productService.getProductsByCategoryOrderedByPrice("Electronics", false, false, 9990, 20));
+        assertThrows(InvalidRequestException.class,
+            () -> productService.getProductsByCategoryOrderedByPrice("Electronics", false, false, -1, 20));
+    }
+
+    @Test
+    void updateProductShouldRejectStaleExpectedVersion() {
+        Product existing = createProduct(7L, "Old", "OldCategory");
+        existing.setVersion(4L);
+        when(productRepository.findById(7L)).thenReturn(Optional.of(existing));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.updateProduct(7L, createProduct(null, "New", "NewCategory"), 3L));
+
+        verify(productRepository, never()).save(existing);
+    }
+
+    @Test
+    void getProductVersionShouldPreferNearCacheOverDatabase() {
+        Product cached = createProduct(2L, "Phone", "Electronics");
+        cached.setVersion(6L);
+        when(productCache.getLocal(2L)).thenReturn(cached);
+
+        assertEquals(6L, productService.getProductVersion(2L));
+        verify(productRepository, never()).findVersionById(2L);
+    }
+
     @Test
     void updateProductAvailabilityShouldSetValueAndSave() {
         Product existing = createProduct(11L, "Watch", "Wearables");
@@ -120,7 +309,7 @@ class ProductServiceTest {
         when(productRepository.findById(11L)).thenReturn(Optional.of(existing));
         when(productRepository.save(existing)).thenReturn(existing);
 
-        Product actual = productService.updateProductAvailability(11L, false);
+        Product actual = productService.updateProductAvailability(11L, false, null);
 
         assertEquals(false, actual.getIsAvailable());
         verify(productRepository).save(existing);
@@ -133,12 +322,272 @@ class ProductServiceTest {
         when(productRepository.findById(15L)).thenReturn(Optional.of(existing));
         when(productRepository.save(existing)).thenReturn(existing);
 
-        Product actual = productService.updateProductQuantity(15L, 9);
+        Product actual = productService.updateProductQuantity(15L, 9, null);
 
         assertEquals(9, actual.getQuantity());
         verify(productRepository).save(existing);
     }
 
+    @Test
+    void getProductsPageShouldReturnCursorWhenMoreRowsExist() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+            .thenReturn(List.of(createProduct(1L, "A", "Cat"), createProduct(2L, "B", "Cat"), createProduct(3L, "C", "Cat")));
+
+        CursorPage<Product> page = productService.getProductsPage(null, 2);
+
+        assertEquals(2, page.items().size());
+        assertTrue(page.hasMore());
+        assertEquals(2L, CursorPage.decodeCursor(page.nextCursor()));
+    }
+
+    @Test
+    void getProductsPageShouldResumeAfterCursorAndEndWithoutNextCursor() {
+        String cursor = CursorPage.encodeCursor(2L);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3)))
+            .thenReturn(List.of(createProduct(3L, "C", "Cat")));
+
+        CursorPage<Product> page = productService.getProductsPage(cursor, 2);
+
+        assertEquals(1, page.items().size());
+        assertFalse(page.hasMore());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getProductSummariesPageShouldUseProjection() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2), ProductSummary.class))
+            .thenReturn(List.of(new ProductSummary(1L, "A", BigDecimal.ONE, "Cat", true),
+                                new ProductSummary(2L, "B", BigDecimal.TEN, "Cat", true)));
+
+        CursorPage<ProductSummary> page = productService.getProductSummariesPage(null, 1);
+
+        assertEquals(List.of(1L), page.items().stream().map(ProductSummary::id).toList());
+        assertEquals(1L, CursorPage.decodeCursor(page.nextCursor()));
+    }
+
+    @Test
+    void getProductsPageShouldRejectMalformedCursor() {
+        assertThrows(InvalidRequestException.class, () -> productService.getProductsPage("not-a-cursor", 10));
+    }
+
+    @Test
+    void streamAllProductsShouldDetachEachRowAfterConsuming() {
+        Product first = createProduct(1L, "A", "Cat");
+        Product second = createProduct(2L, "B", "Cat");
+        when(productRepository.streamAllOrderedById()).thenReturn(Stream.of(first, second));
+        List<Product> consumed = new ArrayList<>();
+
+        productService.streamAllProducts(consumed::add);
+
+        assertEquals(List.of(first, second), consumed);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void bulkCreateProductsShouldReportInvalidItemsAndInsertTheRest() {
+        Product valid = createProduct(null, "Phone", "Electronics");
+        Product invalid = createProduct(null, "Bad", "Electronics");
+        invalid.setPrice(new BigDecimal("-1"));
+
+        BulkOperationResult result = productService.bulkCreateProducts(List.of(valid, invalid));
+
+        assertEquals(2, result.total());
+        assertEquals(1, result.succeeded());
+        assertEquals(1, result.failed());
+        assertEquals(BulkItemStatus.CREATED, result.items().get(0).status());
+        assertEquals(BulkItemStatus.FAILED, result.items().get(1).status());
+        verify(productRepository).batchInsert(List.of(valid));
+        verify(productCache).putAll(List.of(valid));
+    }
+
+    @Test
+    void bulkUpdateProductsShouldReplayFailedChunkRowByRow() {
+        Product first = createProduct(1L, "A", "Cat");
+        Product second = createProduct(2L, "B", "Cat");
+        when(productRepository.batchUpdate(anyList())).thenAnswer(invocation -> {
+            List<Product> chunk = invocation.getArgument(0);
+            if (chunk.contains(second)) {
+                throw new DataIntegrityViolationException("constraint violated");
+            }
+            return new int[]{1};
+        });
+
+        BulkOperationResult result = productService.bulkUpdateProducts(List.of(first, second));
+
+        assertEquals(1, result.succeeded());
+        assertEquals(BulkItemStatus.UPDATED, result.items().get(0).status());
+        assertEquals(BulkItemStatus.FAILED, result.items().get(1).status());
+        verify(productCache).invalidateAll(List.of(1L));
+    }
+
+    @Test
+    void quantityWritesShouldSetTheCounterOfHotProducts() {
+        Product existing = createProduct(4L, "Old", "Cat");
+        Product updates = createProduct(null, "New", "Cat");
+        updates.setQuantity(25);
+        Product bulk = createProduct(4L, "Bulk", "Cat");
+        bulk.setQuantity(30);
+        when(hotStockCounter.isHot(4L)).thenReturn(true);
+        when(productRepository.findById(4L)).thenReturn(Optional.of(existing));
+        when(productRepository.save(existing)).thenReturn(existing);
+        when(productRepository.batchUpdate(List.of(bulk))).thenReturn(new int[]{1});
+
+        productService.updateProduct(4L, updates, null);
+        productService.bulkUpdateProducts(List.of(bulk));
+
+        verify(hotStockCounter).set(4L, 25);
+        verify(hotStockCounter).set(4L, 30);
+    }
+
+    @Test
+    void bulkUpdateProductsShouldRejectItemsWithoutQuantity() {
+        Product first = createProduct(1L, "A", "Cat");
+        Product second = createProduct(2L, "B", "Cat");
+        second.setQuantity(null);
+        when(productRepository.batchUpdate(List.of(first))).thenReturn(new int[]{1});
+
+        BulkOperationResult result = productService.bulkUpdateProducts(List.of(first, second));
+
+        assertEquals(BulkItemStatus.UPDATED, result.items().get(0).status());
+        assertEquals(BulkItemStatus.FAILED, result.items().get(1).status());
+        assertEquals("quantity is required", result.items().get(1).error());
+        verify(productRepository).batchUpdate(List.of(first));
+    }
+
+    @Test
+    void bulkDeleteProductsShouldReportMissingIds() {
+        when(productRepository.batchDelete(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+
+        BulkOperationResult result = productService.bulkDeleteProducts(List.of(1L, 2L));
+
+        assertEquals(BulkItemStatus.DELETED, result.items().get(0).status());
+        assertEquals(BulkItemStatus.FAILED, result.items().get(1).status());
+        verify(productCache).invalidateAll(List.of(1L));
+    }
+
+    @Test
+    void bulkRequestsShouldRejectEmptyInput() {
+        assertThrows(InvalidRequestException.class, () -> productService.bulkCreateProducts(List.of()));
+    }
+
+    @Test
+    void searchProductsShouldReturnIndexHitsInRelevanceOrder() {
+        Product first = createProduct(7L, "Phone", "Electronics");
+        Product second = createProduct(3L, "Phone case", "Accessories");
+        when(productSearchIndex.search("phone", 0, 20)).thenReturn(Optional.of(new SearchHits(List.of(7L, 3L), 2)));
+        when(productCache.getAll(eq(List.of(7L, 3L)), anyInt(), any())).thenReturn(Map.of(3L, second, 7L, first));
+
+        SearchPage<Product> page = productService.searchProducts("phone", 0, 20);
+
+        assertEquals(List.of(first, second), page.items());
+        assertEquals(2, page.totalHits());
+        verify(productRepository, never()).searchByKeyword(any(), any());
+    }
+
+    @Test
+    void searchProductsShouldFallBackToDatabaseWhileIndexIsBuilding() {
+        Product product = createProduct(1L, "Phone", "Electronics");
+        when(productSearchIndex.search("phone", 0, 20)).thenReturn(Optional.empty());
+        when(productRepository.searchByKeyword("phone", PageRequest.of(0, 20)))
+            .thenReturn(new PageImpl<>(List.of(product), PageRequest.of(0, 20), 1));
+
+        SearchPage<Product> page = productService.searchProducts("phone", 0, 20);
+
+        assertEquals(List.of(product), page.items());
+        assertEquals(1, page.totalHits());
+    }
+
+    @Test
+    void searchProductsShouldRejectPagesBeyondSearchWindow() {
+        assertThrows(InvalidRequestException.class, () -> productService.searchProducts("phone", 500, 100));
+    }
+
+    @Test
+    void deleteProductShouldPublishChangeEvent() {
+        Product product = createProduct(1L, "Phone", "Electronics");
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.deleteProduct(1L);
+
+        verify(eventPublisher).publishEvent(ProductChangedEvent.deleted(1L));
+    }
+
+    @Test
+    void decrementStockShouldApplyConditionalUpdateAndReturnNewLevel() {
+        when(productRepository.decrementQuantity(1L, 3)).thenReturn(1);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(7));
+
+        StockLevel level = productService.decrementStock(1L, 3);
+
+        assertEquals(new StockLevel(1L, 7), level);
+        verify(productCache).invalidate(1L);
+    }
+
+    @Test
+    void incrementStockShouldUpdateCatalogFacets() {
+        when(productRepository.incrementQuantity(1L, 4)).thenReturn(1);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(4));
+
+        productService.incrementStock(1L, 4);
+
+        verify(catalogFacets).quantityChanged(1L, 4);
+        verify(productColumns).quantityChanged(1L, 4);
+        verify(secondLevelCache).evictProducts(List.of(1L));
+        verify(changeLog).record(ChangeRecord.Entity.PRODUCT, List.of(1L), List.of());
+    }
+
+    @Test
+    void getAllCategoriesShouldUseCatalogFacetsWhenBuilt() {
+        when(catalogFacets.facets()).thenReturn(Optional.of(List.of(
+            new CategoryFacet("Books", 2, 2, 1, BigDecimal.ONE, BigDecimal.TEN))));
+
+        assertEquals(List.of("Books"), productService.getAllCategories());
+        verify(productRepository, never()).findAllCategories();
+    }
+
+    @Test
+    void getCatalogFacetsShouldQueryDatabaseUntilFacetsAreBuilt() {
+        List<CategoryFacet> fromDatabase = List.of(new CategoryFacet("Books", 1, 1, 1, BigDecimal.ONE, BigDecimal.ONE));
+        when(catalogFacets.facets()).thenReturn(Optional.empty());
+        when(productRepository.findCategoryFacets()).thenReturn(fromDatabase);
+
+        assertEquals(fromDatabase, productService.getCatalogFacets());
+    }
+
+    @Test
+    void decrementStockShouldFailWhenStockIsInsufficient() {
+        when(productRepository.decrementQuantity(1L, 5)).thenReturn(0);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(2));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> productService.decrementStock(1L, 5));
+
+        assertEquals(2, ex.getAvailable());
+        verify(productCache, never()).invalidate(1L);
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void decrementStockShouldReportMissingProduct() {
+        when(productRepository.decrementQuantity(9L, 1)).thenReturn(0);
+        when(productRepository.findQuantityById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.decrementStock(9L, 1));
+    }
+
+    @Test
+    void decrementStockShouldUseRedisCounterForHotProducts() {
+        when(hotStockCounter.isHot(4L)).thenReturn(true);
+        when(hotStockCounter.adjust(4L, -2)).thenReturn(98);
+
+        StockLevel level = productService.decrementStock(4L, 2);
+
+        assertEquals(98, level.quantity());
+        verify(productRepository, never()).decrementQuantity(anyLong(), anyInt());
+        verify(changeLog).record(ChangeRecord.Entity.PRODUCT, List.of(4L), List.of());
+    }
+
     private Product createProduct(Long id, String name, String category) {
         Product product = new Product();
         product.setId(id);
@@ -1,23 +1,33 @@
 package com.example.simplecurdapp.service;
 
+import com.example.simplecurdapp.cache.UserCache;
+import com.example.simplecurdapp.cache.UserCacheWriteBehind;
 import com.example.simplecurdapp.exception.DuplicateResourceException;
 import com.example.simplecurdapp.exception.ResourceNotFoundException;
+import com.example.simplecurdapp.loader.BatchLoader;
 import com.example.simplecurdapp.model.User;
 import com.example.simplecurdapp.repository.UserRepository;
+import com.example.simplecurdapp.search.UserSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,19 +39,29 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private UserCache userCache;
 
     @Mock
-    private ValueOperations<String, Object> valueOperations;
+    private UserCacheWriteBehind userCacheWriteBehind;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Zero window: lookups go straight to findById, so the repository stubs below apply
+    @Spy
+    private BatchLoader<User> userBatchLoader = new BatchLoader<>("user", id -> userRepository.findById(id),
+            ids -> userRepository.findAllById(ids), User::getId, Duration.ZERO, 100, new SimpleMeterRegistry());
 
     @InjectMocks
     private UserService userService;
 
     @Test
     void getUserDataShouldReturnCachedValueWhenPresent() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         User cached = createUser(1L, "cache@example.com");
-        when(valueOperations.get("User_1")).thenReturn(cached);
+        when(userCache.getOrLoad(eq(1L), any())).thenReturn(cached);
 
         User actual = userService.getUserData(1L);
 
@@ -50,23 +70,21 @@ class UserServiceTest {
     }
 
     @Test
-    void getUserDataShouldFetchAndCacheWhenMissingInRedis() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    @SuppressWarnings("unchecked")
+    void getUserDataShouldLoadMissesFromRepository() {
         User dbUser = createUser(2L, "db@example.com");
-        when(valueOperations.get("User_2")).thenReturn(null);
         when(userRepository.findById(2L)).thenReturn(Optional.of(dbUser));
+        ArgumentCaptor<Function<Long, Optional<User>>> loader = ArgumentCaptor.forClass(Function.class);
+        when(userCache.getOrLoad(eq(2L), loader.capture())).thenReturn(null);
 
-        User actual = userService.getUserData(2L);
+        userService.getUserData(2L);
 
-        assertEquals(2L, actual.getId());
-        verify(valueOperations).set("User_2", dbUser);
+        assertEquals(Optional.of(dbUser), loader.getValue().apply(2L));
     }
 
     @Test
     void getUserDataShouldReturnNullWhenNotFoundInCacheOrDb() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get("User_3")).thenReturn(null);
-        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+        when(userCache.getOrLoad(eq(3L), any())).thenReturn(null);
 
         User actual = userService.getUserData(3L);
 
@@ -90,7 +108,6 @@ class UserServiceTest {
 
     @Test
     void createUserShouldSaveAndCacheWhenEmailIsUnique() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         User input = createUser(null, "new@example.com");
         User saved = createUser(10L, "new@example.com");
         when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
@@ -99,7 +116,7 @@ class UserServiceTest {
         User actual = userService.createUser(input);
 
         assertEquals(10L, actual.getId());
-        verify(valueOperations).set("User_10", saved);
+        verify(userCacheWriteBehind).put(saved);
     }
 
     @Test
@@ -109,12 +126,11 @@ class UserServiceTest {
         when(userRepository.findById(5L)).thenReturn(Optional.of(existing));
         when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
 
-        assertThrows(DuplicateResourceException.class, () -> userService.updateUser(5L, updates));
+        assertThrows(DuplicateResourceException.class, () -> userService.updateUser(5L, updates, null));
     }
 
     @Test
     void updateUserShouldPersistChangesAndRefreshCache() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         User existing = createUser(6L, "same@example.com");
         User updates = createUser(null, "same@example.com");
         updates.setName("Updated Name");
@@ -123,13 +139,13 @@ class UserServiceTest {
         updates.setIsActive(false);
 
         when(userRepository.findById(6L)).thenReturn(Optional.of(existing));
-        when(userRepository.save(existing)).thenReturn(existing);
+        when(userRepository.saveAndFlush(existing)).thenReturn(existing);
 
-        User actual = userService.updateUser(6L, updates);
+        User actual = userService.updateUser(6L, updates, null);
 
         assertEquals("Updated Name", actual.getName());
         assertEquals(false, actual.getIsActive());
-        verify(valueOperations).set("User_6", existing);
+        verify(userCacheWriteBehind).put(existing);
     }
 
     @Test
@@ -140,35 +156,33 @@ class UserServiceTest {
         userService.deleteUser(9L);
 
         verify(userRepository).delete(existing);
-        verify(redisTemplate).delete("User_9");
+        verify(userCacheWriteBehind).evict(9L);
     }
 
     @Test
     void deactivateUserShouldSetInactiveAndCache() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         User existing = createUser(12L, "active@example.com");
         existing.setIsActive(true);
         when(userRepository.findById(12L)).thenReturn(Optional.of(existing));
-        when(userRepository.save(existing)).thenReturn(existing);
+        when(userRepository.saveAndFlush(existing)).thenReturn(existing);
 
-        User actual = userService.deactivateUser(12L);
+        User actual = userService.deactivateUser(12L, null);
 
         assertEquals(false, actual.getIsActive());
-        verify(valueOperations).set("User_12", existing);
+        verify(userCacheWriteBehind).put(existing);
     }
 
     @Test
     void activateUserShouldSetActiveAndCache() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         User existing = createUser(13L, "inactive@example.com");
         existing.setIsActive(false);
         when(userRepository.findById(13L)).thenReturn(Optional.of(existing));
-        when(userRepository.save(existing)).thenReturn(existing);
+        when(userRepository.saveAndFlush(existing)).thenReturn(existing);
 
-        User actual = userService.activateUser(13L);
+        User actual = userService.activateUser(13L, null);
 
         assertEquals(true, actual.getIsActive());
-        verify(valueOperations).set("User_13", existing);
+        verify(userCacheWriteBehind).put(existing);
     }
 
     @Test